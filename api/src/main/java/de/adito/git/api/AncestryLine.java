@@ -1,14 +1,13 @@
 package de.adito.git.api;
 
 
-import de.adito.git.api.data.ICommit;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.Color;
 
 /**
  * Class that symbolizes one line in the history view of commits.
- * Stores the line color and the next nextCommit commit in that line
+ * Stores the line color and the index of the next commit in that line
  *
  * @author m.kaspera 16.11.2018
  */
@@ -18,7 +17,7 @@ public class AncestryLine
   private final Color color;
   private LineType lineType;
   private double stillBornMeetingIndex = 0;
-  private final ICommit nextCommit;
+  private final int nextCommitIndex;
 
   /**
    * FULL: active line
@@ -34,23 +33,24 @@ public class AncestryLine
   /**
    * create a new AncestryLine object with the specified attributes
    *
-   * @param pNextCommit ICommit that is the next commit in the line symbolized by this class
-   * @param pColor      Color of the line
-   * @param pLineType   LineType, INFANT for unborn lines, FULL for lines that are already active in the row of nextCommit
+   * @param pNextCommitIndex index of the commit that is the next commit in the line symbolized by this class. The index is the one assigned to the commit
+   *                         by the index of the commit graph that is used to build the history
+   * @param pColor           Color of the line
+   * @param pLineType        LineType, INFANT for unborn lines, FULL for lines that are already active in the row of nextCommit
    */
-  public AncestryLine(@NotNull ICommit pNextCommit, @NotNull Color pColor, @NotNull LineType pLineType)
+  public AncestryLine(int pNextCommitIndex, @NotNull Color pColor, @NotNull LineType pLineType)
   {
-    nextCommit = pNextCommit;
+    nextCommitIndex = pNextCommitIndex;
     color = pColor;
     lineType = pLineType;
   }
 
   /**
-   * @return the next ICommit in the line
+   * @return the index of the next commit in the line
    */
-  public ICommit getNextCommit()
+  public int getNextCommitIndex()
   {
-    return nextCommit;
+    return nextCommitIndex;
   }
 
   /**
@@ -79,6 +79,17 @@ public class ColorRoulette
     }
   }
 
+  /**
+   * makes the passed color the next color that is delivered, e.g. to continue a line in a color that was used before
+   *
+   * @param pColor the Color that should be delivered next
+   */
+  public void setNext(@NotNull Color pColor)
+  {
+    availableColors.remove(pColor);
+    availableColors.addFirst(pColor);
+  }
+
   /**
    * resets the contents of the Queue back to its original state
    */
@@ -5,7 +5,6 @@ import de.adito.git.api.data.ICommit;
 import de.adito.git.api.data.ITag;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -35,45 +34,20 @@ public class CommitHistoryTreeListItem
    * @param pCommit              the Commit around which this object holds information
    * @param pAncestryLines       AncestryLines leading up to this commit
    * @param pHistoryGraphElement HistoryGraphElement that stores information about how to draw the commitHistoryGraph for this item
-   * @param pAllBranches         List of all IBranches
-   * @param pAllTags             List of all ITags in the repository
-   * @param pHead                Commit that HEAD is currently pointing to
+   * @param pBranches            List of the IBranches that point to this commit, including IBranch.HEAD if HEAD points to this commit
+   * @param pTags                List of the ITags that point to this commit
    */
   public CommitHistoryTreeListItem(@NotNull ICommit pCommit, @NotNull List<AncestryLine> pAncestryLines, HistoryGraphElement pHistoryGraphElement,
-                                   @NotNull List<IBranch> pAllBranches, List<ITag> pAllTags, ICommit pHead)
+                                   @NotNull List<IBranch> pBranches, @NotNull List<ITag> pTags)
   {
     commit = pCommit;
     ancestryLines = pAncestryLines;
     historyGraphElement = pHistoryGraphElement;
-    branches = _getBelongingBranches(pAllBranches, pHead);
-    tags = _getBelongingTags(pAllTags);
+    branches = pBranches;
+    tags = pTags;
     maxLineWidth = historyGraphElement.calculateMaxLineWidth();
   }
 
-  private List<ITag> _getBelongingTags(List<ITag> pAllTags)
-  {
-    List<ITag> belongingTags = new ArrayList<>();
-    for (ITag tag : pAllTags)
-    {
-      if (tag.getId().equals(commit.getId()))
-        belongingTags.add(tag);
-    }
-    return belongingTags;
-  }
-
-  private List<IBranch> _getBelongingBranches(List<IBranch> pAllBranches, ICommit pHead)
-  {
-    List<IBranch> belongingBranches = new ArrayList<>();
-    if (pHead.getId().equals(commit.getId()))
-      belongingBranches.add(IBranch.HEAD);
-    for (IBranch branch : pAllBranches)
-    {
-      if (branch.getId().equals(commit.getId()))
-        belongingBranches.add(branch);
-    }
-    return belongingBranches;
-  }
-
   @Override
   public String toString()
   {
@@ -136,6 +110,20 @@ public class CommitHistoryTreeListItem
     return maxLineWidth;
   }
 
+  /**
+   * @param pBranches List of the IBranches that now point to the commit of this item
+   * @param pTags     List of the ITags that now point to the commit of this item
+   * @return this item if the branches and tags did not change, otherwise a copy of this item with the passed branches and tags that shares the
+   * AncestryLines and the drawing coordinates with this item
+   */
+  @NotNull
+  public CommitHistoryTreeListItem withRefs(@NotNull List<IBranch> pBranches, @NotNull List<ITag> pTags)
+  {
+    if (branches.equals(pBranches) && tags.equals(pTags))
+      return this;
+    return new CommitHistoryTreeListItem(commit, ancestryLines, historyGraphElement, pBranches, pTags);
+  }
+
   /**
    * Check if the commit, tags and branches of this and pOther are the same. Does not take into account the AncestryLines (so do not use this to check if a list contains
    * the same CHTLI if you are also interested in the position of the CHTLIs, only use in a list if the position does not matter to you or you are comparing the
@@ -1,7 +1,5 @@
 package de.adito.git.api;
 
-import de.adito.git.api.data.ICommit;
-
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.List;
@@ -21,11 +19,11 @@ public class HistoryGraphElement
   /**
    * calculates and stores the lines to draw leading up to the current commit (top half of the cell/element)
    *
-   * @param pAncestryLines AncestryLines as they are before encountering the current commit
-   * @param pAdvancedLine  the line that leads up to the current commit. Needed for the color of the knot in case it's a new branch
-   * @param pCurrentCommit the current commit for this element/cell
+   * @param pAncestryLines      AncestryLines as they are before encountering the current commit
+   * @param pAdvancedLine       the line that leads up to the current commit. Needed for the color of the knot in case it's a new branch
+   * @param pCurrentCommitIndex index of the current commit for this element/cell
    */
-  public void calculateUpperLines(List<AncestryLine> pAncestryLines, AncestryLine pAdvancedLine, ICommit pCurrentCommit)
+  public void calculateUpperLines(List<AncestryLine> pAncestryLines, AncestryLine pAdvancedLine, int pCurrentCommitIndex)
   {
     List<AncestryLine> calculateLater = new ArrayList<>();
     int numClosing = 0, numStillborn = 0;
@@ -33,7 +31,7 @@ public class HistoryGraphElement
     {
       if (pAncestryLines.get(index).getLineType() != AncestryLine.LineType.EMPTY)
       {
-        if (pAncestryLines.get(index).getNextCommit().equals(pCurrentCommit))
+        if (pAncestryLines.get(index).getNextCommitIndex() == pCurrentCommitIndex)
         {
           // if true, the first reference to the current commit was found -> set knotIndex to currentIndex so all following references can point
           // to the location of this line
@@ -1,11 +1,22 @@
 package de.adito.git.api;
 
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Collection;
+
 /**
  * @author m.kaspera 15.10.2018
  */
 public interface IFileSystemChangeListener
 {
 
-  void fileSystemChange();
+  /**
+   * called if files in the observed part of the file system changed
+   *
+   * @param pChangedFiles the files and folders that were created, changed, deleted or renamed (for renames both the old and the new file are passed).
+   *                      Null if the changed files are not known, in that case everything should be considered as changed
+   */
+  void fileSystemChange(@Nullable Collection<File> pChangedFiles);
 
 }
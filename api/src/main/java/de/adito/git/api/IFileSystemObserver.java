@@ -23,7 +23,7 @@ public interface IFileSystemObserver
   void removeListener(IFileSystemChangeListener pToRemove);
 
   /**
-   * triggers an update in all listeners
+   * triggers an update in all listeners, the listeners are told that everything may have changed
    */
   void fireChange();
 
@@ -11,6 +11,7 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -302,6 +303,19 @@ public interface IRepository extends IDiscardable
    */
   String getFileVersion(String pCommitId, String pFilename) throws IOException;
 
+  /**
+   * retrieves the ids for the objects representing the specified files at the time of the specified commit. In contrast to calling
+   * {@link #getFileVersion(String, String)} for each file, the tree of the commit is only walked once
+   *
+   * @param pCommitId  the ID of the commit for the version of the files
+   * @param pFilenames the names of the files, relative to the top level directory of the repository
+   * @return Map with the name of the file as key and the identifying String for the specific version of the file as value. Files that do not exist in
+   * the commit are not contained in the map
+   * @throws IOException if an error occurs during transport/reading of the files
+   */
+  @NotNull
+  Map<String, String> getFileVersions(@NotNull String pCommitId, @NotNull Collection<String> pFilenames) throws IOException;
+
   /**
    * clones the repository located at the given url to the pDest directory
    *
@@ -319,6 +333,15 @@ public interface IRepository extends IDiscardable
    */
   @NotNull Observable<Optional<IFileStatus>> getStatus();
 
+  /**
+   * Changes of the uncommitted files, calculated once for all subscribers. The first delta a subscriber receives contains all files that currently have
+   * uncommitted changes as added files and is passed on even if it is empty. Each following delta only contains the files whose status changed since the
+   * delta before, empty deltas are not passed on
+   *
+   * @return Observable of the changes of the uncommitted files
+   */
+  @NotNull Observable<StatusDelta> getStatusDeltas();
+
   /**
    * Ignores a given file
    *
@@ -391,14 +414,26 @@ public interface IRepository extends IDiscardable
 
 
   /**
-   * get the blame annotations for one file
+   * get the blame annotations for one file as it is in HEAD. Blocks until all lines of the file are annotated, the blame is cached and shared with
+   * getBlameUpdates
    *
    * @param pFile the file to get the annotations
-   * @return an IBlame object
+   * @return an IBlame object, empty if the file is not part of HEAD or the blame failed
    */
   @NotNull
   Optional<IBlame> getBlame(@NotNull File pFile);
 
+  /**
+   * get the blame annotations for one file as it is in HEAD, computed in the background. The blame is cached per HEAD and file, so opening the same
+   * file again or in several editors does not compute the blame again
+   *
+   * @param pFile the file to get the annotations
+   * @return Observable that fires the IBlame each time another region of lines is annotated (see IBlame.isComputed), and fires the blame of the new HEAD
+   * once HEAD moves. Fires an empty Optional if the file is not part of HEAD or the blame failed
+   */
+  @NotNull
+  Observable<Optional<IBlame>> getBlameUpdates(@NotNull File pFile);
+
   /**
    * Checks out the commit with id pId
    *
@@ -563,6 +598,17 @@ public interface IRepository extends IDiscardable
   @NotNull
   Observable<List<ITag>> getTags();
 
+  /**
+   * The Observable does not fire for changes in the working tree, so it can be used for things that only depend on the commits and refs, such as the
+   * commit history
+   *
+   * @return Observable of the full names of all refs of the repository, such as "refs/heads/master" or "HEAD", mapped to the ids of the objects they
+   * point to. Fires each time a branch, tag or HEAD of the repository is added, removed or moved, after getBranches and getTags were updated. Fires once
+   * for the current state on subscription
+   */
+  @NotNull
+  Observable<Map<String, String>> getRefChanges();
+
   /**
    * retrieve all stashed commits
    *
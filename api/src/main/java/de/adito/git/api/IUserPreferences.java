@@ -10,4 +10,9 @@ public interface IUserPreferences
    * @return the number of additional Commit History entries that should initially be loaded/loaded when pressing the button at the bottom
    */
   int getNumLoadAdditionalCHEntries();
+
+  /**
+   * @return the number of pages of Commit History entries that are read ahead in the background, a page contains getNumLoadAdditionalCHEntries entries
+   */
+  int getNumPrefetchedCHPages();
 }
@@ -21,6 +21,15 @@ public interface IBlame
    */
   int computeNext();
 
+  /**
+   * Check if the annotations of a line are available. The lines are annotated region by region with computeNext, the data of lines that are not
+   * computed yet must not be requested
+   *
+   * @param pIndex line to check, 0 based
+   * @return true if the annotations of the line are computed
+   */
+  boolean isComputed(int pIndex);
+
   /**
    * Get the corresponding line number in the source file
    *
@@ -0,0 +1,68 @@
+package de.adito.git.api.data;
+
+import de.adito.git.api.data.diff.IFileChangeType;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Difference between two consecutive states of the uncommitted files of a repository
+ *
+ * @author agent, 18.10.2026
+ */
+public final class StatusDelta
+{
+
+  public static final StatusDelta EMPTY = new StatusDelta(List.of(), List.of(), List.of());
+  private final List<IFileChangeType> added;
+  private final List<IFileChangeType> changed;
+  private final List<File> removed;
+
+  /**
+   * @param pAdded   files that have uncommitted changes now, but did not have any before
+   * @param pChanged files that had uncommitted changes before and now have uncommitted changes of another type
+   * @param pRemoved files that had uncommitted changes before, but no longer have any
+   */
+  public StatusDelta(@NotNull List<IFileChangeType> pAdded, @NotNull List<IFileChangeType> pChanged, @NotNull List<File> pRemoved)
+  {
+    added = List.copyOf(pAdded);
+    changed = List.copyOf(pChanged);
+    removed = List.copyOf(pRemoved);
+  }
+
+  /**
+   * @return files that have uncommitted changes now, but did not have any before
+   */
+  @NotNull
+  public List<IFileChangeType> getAdded()
+  {
+    return added;
+  }
+
+  /**
+   * @return files that had uncommitted changes before and now have uncommitted changes of another type
+   */
+  @NotNull
+  public List<IFileChangeType> getChanged()
+  {
+    return changed;
+  }
+
+  /**
+   * @return files that had uncommitted changes before, but no longer have any
+   */
+  @NotNull
+  public List<File> getRemoved()
+  {
+    return removed;
+  }
+
+  /**
+   * @return true if no file changed its status
+   */
+  public boolean isEmpty()
+  {
+    return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+  }
+}
@@ -4,6 +4,7 @@ import de.adito.git.api.data.diff.*;
 
 import javax.swing.*;
 import javax.swing.text.BadLocationException;
+import javax.swing.text.Highlighter;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.List;
@@ -118,7 +119,8 @@ public class TextHighlightUtil
 
   /**
    * Get the _Highlight for the given IChangeDelta. The highlight here marks the whole change in a background color and separately highlights the
-   * differences on a word-basis
+   * differences on a word-basis. The differences are only calculated once the change is painted for the first time, so changes that are never scrolled
+   * into view do not need a word diff
    *
    * @param changeDelta            IChangeDelta for which the _Highlight object should be created
    * @param pChangeSide            which side of a IChangeDelta should be used
@@ -127,35 +129,14 @@ public class TextHighlightUtil
    */
   private static void _getWordsHighlight(IChangeDelta changeDelta, EChangeSide pChangeSide, List<_Highlight> pHighlightSpots, List<_Highlight> pPendingHighlightSpots)
   {
-    for (ILinePartChangeDelta linePartChangeDelta : changeDelta.getLinePartChanges())
-    {
-      if (_isMarkDelta(pChangeSide, linePartChangeDelta))
-      {
-        int startOffset = linePartChangeDelta.getStartTextIndex(pChangeSide);
-        int endOffset = linePartChangeDelta.getEndTextIndex(pChangeSide);
-        if (startOffset < endOffset)
-          endOffset -= 1;
-        pPendingHighlightSpots.add(new _Highlight(new _HighlightSpot(startOffset, endOffset, changeDelta.getDiffColor()), LineHighlightPainter.Mode.MARK_GIVEN));
-      }
-    }
     int startOffset = changeDelta.getStartTextIndex(pChangeSide);
     int endOffset = changeDelta.getEndTextIndex(pChangeSide);
     if (startOffset < endOffset)
       endOffset -= 1;
+    pPendingHighlightSpots.add(new _Highlight(startOffset, endOffset, new WordHighlightPainter(changeDelta, pChangeSide)));
     pHighlightSpots.add(new _Highlight(new _HighlightSpot(startOffset, endOffset, changeDelta.getSecondaryDiffColor()), LineHighlightPainter.Mode.WHOLE_LINE));
   }
 
-  /**
-   * @param pChangeSide         EChangeSide for which the markings should be determined
-   * @param linePartChangeDelta ILinePartChangeDelta for which to evaluate if it is drawn
-   * @return true if the delta should be marked, false if the delta on the passed changeSide should not be drawn because it is the "empty" side of an ADD or DELETE
-   */
-  private static boolean _isMarkDelta(EChangeSide pChangeSide, ILinePartChangeDelta linePartChangeDelta)
-  {
-    return !((linePartChangeDelta.getChangeType() == EChangeType.ADD && pChangeSide == EChangeSide.OLD)
-        || (linePartChangeDelta.getChangeType() == EChangeType.DELETE && pChangeSide == EChangeSide.NEW));
-  }
-
   /**
    * applies the given textChangeEvent and the applies the given highlights
    *
@@ -191,7 +172,7 @@ public class TextHighlightUtil
     {
       for (_Highlight highlight : pHighlightSpots)
       {
-        highlighter.addBackgroundHighlight(highlight.getStartIndex(), highlight.getEndOffset(), new LineHighlightPainter(highlight.getColor(), highlight.getMode()));
+        highlighter.addBackgroundHighlight(highlight.getStartIndex(), highlight.getEndOffset(), highlight.getPainter());
       }
     }
     catch (BadLocationException e)
@@ -219,33 +200,35 @@ public class TextHighlightUtil
   private static class _Highlight
   {
 
-    private final _HighlightSpot highlightSpot;
-    private final LineHighlightPainter.Mode mode;
+    private final int startIndex;
+    private final int endIndex;
+    private final Highlighter.HighlightPainter painter;
 
     _Highlight(_HighlightSpot pHighlightSpot, LineHighlightPainter.Mode pMode)
     {
-      highlightSpot = pHighlightSpot;
-      mode = pMode;
+      this(pHighlightSpot.getStartIndex(), pHighlightSpot.getEndIndex(), new LineHighlightPainter(pHighlightSpot.getColor(), pMode));
     }
 
-    int getStartIndex()
+    _Highlight(int pStartIndex, int pEndIndex, Highlighter.HighlightPainter pPainter)
     {
-      return highlightSpot.getStartIndex();
+      startIndex = pStartIndex;
+      endIndex = pEndIndex;
+      painter = pPainter;
     }
 
-    int getEndOffset()
+    int getStartIndex()
     {
-      return highlightSpot.getEndIndex();
+      return startIndex;
     }
 
-    public LineHighlightPainter.Mode getMode()
+    int getEndOffset()
     {
-      return mode;
+      return endIndex;
     }
 
-    public Color getColor()
+    public Highlighter.HighlightPainter getPainter()
     {
-      return highlightSpot.getColor();
+      return painter;
     }
   }
 
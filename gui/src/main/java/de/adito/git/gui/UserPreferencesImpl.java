@@ -17,4 +17,13 @@ public class UserPreferencesImpl implements IUserPreferences
   {
     return 1000;
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getNumPrefetchedCHPages()
+  {
+    return 2;
+  }
 }
@@ -0,0 +1,157 @@
+package de.adito.git.gui;
+
+import de.adito.git.api.data.diff.*;
+import de.adito.git.gui.concurrency.GitProcessExecutors;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Highlighter;
+import javax.swing.text.JTextComponent;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * HighlightPainter that marks the changed words of a IChangeDelta. The changed words are only determined once the delta is painted for the first time,
+ * and only the changed words inside the visible area of the component are painted. The word diff runs in the background, the delta is repainted once the
+ * changed words are known
+ *
+ * @author agent, 18.10.2026
+ */
+class WordHighlightPainter implements Highlighter.HighlightPainter
+{
+
+  private final IChangeDelta changeDelta;
+  private final EChangeSide changeSide;
+  private final Logger logger = Logger.getLogger(WordHighlightPainter.class.getName());
+  private final LineHighlightPainter painter;
+  // start and end offset of each marked word range, alternating. Only accessed in the EDT
+  private int[] markedAreas;
+  private boolean isCalculating = false;
+
+  /**
+   * @param pChangeDelta IChangeDelta whose changed words should be marked
+   * @param pChangeSide  which side of the IChangeDelta should be marked
+   */
+  WordHighlightPainter(@NotNull IChangeDelta pChangeDelta, @NotNull EChangeSide pChangeSide)
+  {
+    changeDelta = pChangeDelta;
+    changeSide = pChangeSide;
+    painter = new LineHighlightPainter(pChangeDelta.getDiffColor(), LineHighlightPainter.Mode.MARK_GIVEN);
+  }
+
+  @Override
+  public void paint(Graphics pGraphics, int pOffs0, int pOffs1, Shape pBounds, JTextComponent pComponent)
+  {
+    Rectangle visibleRect = pComponent.getVisibleRect();
+    int visibleStart = pComponent.viewToModel2D(new Point2D.Float(visibleRect.x, visibleRect.y));
+    int visibleEnd = pComponent.viewToModel2D(new Point2D.Float(visibleRect.x + visibleRect.width, visibleRect.y + visibleRect.height));
+    int[] areas = markedAreas;
+    if (areas == null)
+    {
+      _calculateMarkedAreas(pComponent);
+      return;
+    }
+    for (int index = 0; index < areas.length; index += 2)
+    {
+      if (areas[index] <= visibleEnd && areas[index + 1] >= visibleStart)
+        painter.paint(pGraphics, areas[index], areas[index + 1], pBounds, pComponent);
+    }
+  }
+
+  /**
+   * starts the word diff of the delta in the background, if it is not running yet. The marked areas are set and the delta is repainted in the EDT once the
+   * word diff is done
+   *
+   * @param pComponent component that paints the delta
+   */
+  private void _calculateMarkedAreas(@NotNull JTextComponent pComponent)
+  {
+    if (isCalculating)
+      return;
+    isCalculating = true;
+    GitProcessExecutors.getDefaultBackgroundExecutor().execute(() -> {
+      int[] areas;
+      try
+      {
+        areas = _getMarkedAreas(changeDelta.getLinePartChanges());
+      }
+      catch (RuntimeException pE)
+      {
+        logger.log(Level.WARNING, pE, () -> "Git: could not determine the changed words of a change");
+        areas = new int[0];
+      }
+      int[] calculatedAreas = areas;
+      SwingUtilities.invokeLater(() -> {
+        markedAreas = calculatedAreas;
+        _repaintDelta(pComponent);
+      });
+    });
+  }
+
+  /**
+   * @param pLinePartChanges changed words of the delta
+   * @return start and end offsets of the changed words on the changeSide, alternating
+   */
+  @NotNull
+  private int[] _getMarkedAreas(@NotNull List<ILinePartChangeDelta> pLinePartChanges)
+  {
+    int[] areas = new int[pLinePartChanges.size() * 2];
+    int numAreas = 0;
+    for (ILinePartChangeDelta linePartChangeDelta : pLinePartChanges)
+    {
+      if (_isMarkDelta(linePartChangeDelta))
+      {
+        int startOffset = linePartChangeDelta.getStartTextIndex(changeSide);
+        int endOffset = linePartChangeDelta.getEndTextIndex(changeSide);
+        if (startOffset < endOffset)
+          endOffset -= 1;
+        areas[numAreas++] = startOffset;
+        areas[numAreas++] = endOffset;
+      }
+    }
+    return numAreas == areas.length ? areas : Arrays.copyOf(areas, numAreas);
+  }
+
+  /**
+   * repaints the lines of the delta, or the whole component if the position of the delta cannot be determined
+   *
+   * @param pComponent component that paints the delta
+   */
+  private void _repaintDelta(@NotNull JTextComponent pComponent)
+  {
+    try
+    {
+      int documentLength = pComponent.getDocument().getLength();
+      Rectangle2D start = pComponent.modelToView2D(Math.min(changeDelta.getStartTextIndex(changeSide), documentLength));
+      Rectangle2D end = pComponent.modelToView2D(Math.min(changeDelta.getEndTextIndex(changeSide), documentLength));
+      if (start != null && end != null)
+      {
+        pComponent.repaint(0, (int) start.getY(), pComponent.getWidth(), (int) Math.ceil(end.getMaxY() - start.getY()));
+        return;
+      }
+    }
+    catch (BadLocationException pE)
+    {
+      // the delta is no longer part of the document, repaint everything
+    }
+    pComponent.repaint();
+  }
+
+  /**
+   * @param pLinePartChangeDelta ILinePartChangeDelta for which to evaluate if it is drawn
+   * @return true if the delta should be marked, false if the delta on the changeSide should not be drawn because it is the "empty" side of an ADD or DELETE
+   */
+  private boolean _isMarkDelta(@NotNull ILinePartChangeDelta pLinePartChangeDelta)
+  {
+    return !((pLinePartChangeDelta.getChangeType() == EChangeType.ADD && changeSide == EChangeSide.OLD)
+        || (pLinePartChangeDelta.getChangeType() == EChangeType.DELETE && changeSide == EChangeSide.NEW));
+  }
+}
@@ -7,6 +7,7 @@ import de.adito.git.api.data.diff.IChangeDelta;
 import de.adito.git.api.data.diff.IDeltaTextChangeEvent;
 import de.adito.git.gui.dialogs.panels.basediffpanel.DiffPanelModel;
 import de.adito.git.gui.swing.SwingUtil;
+import de.adito.git.gui.swing.TiledGutterRenderer;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.disposables.Disposable;
 import org.jetbrains.annotations.NotNull;
@@ -17,9 +18,8 @@ import javax.swing.text.BadLocationException;
 import javax.swing.text.Position;
 import javax.swing.text.View;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.*;
 
 /**
  * Panel that contains buttons for accepting and discarding changes of a text displayed in a JTextPane
@@ -40,7 +40,7 @@ class ChoiceButtonPanel extends JPanel implements IDiscardable, ILineNumberColor
   private final Disposable areaDisposable;
   private final Disposable sizeDisposable;
   private final Insets panelInsets = new Insets(1, 0, 1, 0);
-  private BufferedImage bufferedIconImage;
+  private final TiledGutterRenderer gutterRenderer = new TiledGutterRenderer(this::_paintIconArea);
   private List<IconInfo> iconInfoList = new ArrayList<>();
   private List<LineNumberColor> leftLineNumberColors = new ArrayList<>();
   private List<LineNumberColor> rightLineNumberColors = new ArrayList<>();
@@ -108,7 +108,7 @@ class ChoiceButtonPanel extends JPanel implements IDiscardable, ILineNumberColor
   protected void paintComponent(Graphics pGraphics)
   {
     super.paintComponent(pGraphics);
-    _paintIcons(pGraphics, changedChunkConnectionsToDraw, bufferedIconImage, viewport.getViewRect());
+    _paintIcons(pGraphics, changedChunkConnectionsToDraw, viewport.getViewRect());
   }
 
   /**
@@ -122,10 +122,10 @@ class ChoiceButtonPanel extends JPanel implements IDiscardable, ILineNumberColor
     List<IconInfo> iconInfos = new ArrayList<>();
     if (_getSuggestedWidth() <= 0 || pEditorPane.getHeight() <= 0)
     {
-      bufferedIconImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+      _invalidateChangedIcons(iconInfoList, iconInfos);
+      iconInfoList = iconInfos;
       return;
     }
-    BufferedImage iconImage = new BufferedImage(_getSuggestedWidth(), pEditorPane.getHeight(), BufferedImage.TYPE_INT_ARGB);
     try
     {
       View view = pEditorPane.getUI().getRootView(pEditorPane);
@@ -147,13 +147,8 @@ class ChoiceButtonPanel extends JPanel implements IDiscardable, ILineNumberColor
           }
         }
       }
+      _invalidateChangedIcons(iconInfoList, iconInfos);
       iconInfoList = iconInfos;
-      Graphics graphics = iconImage.getGraphics();
-      for (IconInfo iconInfo : iconInfos)
-      {
-        iconInfo.getImageIcon().paintIcon(this, graphics, iconInfo.getIconCoordinates().x, iconInfo.getIconCoordinates().y);
-      }
-      bufferedIconImage = iconImage;
     }
     catch (BadLocationException pE)
     {
@@ -161,6 +156,47 @@ class ChoiceButtonPanel extends JPanel implements IDiscardable, ILineNumberColor
     }
   }
 
+  /**
+   * invalidates the areas of all icons that were removed, added or moved
+   *
+   * @param pOldIconInfos IconInfos that are currently shown
+   * @param pNewIconInfos IconInfos that will be shown
+   */
+  private void _invalidateChangedIcons(@NotNull List<IconInfo> pOldIconInfos, @NotNull List<IconInfo> pNewIconInfos)
+  {
+    Map<Rectangle, ImageIcon> oldIcons = new HashMap<>();
+    for (IconInfo iconInfo : pOldIconInfos)
+    {
+      oldIcons.put(iconInfo.getIconCoordinates(), iconInfo.getImageIcon());
+    }
+    for (IconInfo iconInfo : pNewIconInfos)
+    {
+      if (oldIcons.remove(iconInfo.getIconCoordinates()) != iconInfo.getImageIcon())
+        gutterRenderer.invalidate(iconInfo.getIconCoordinates().y, iconInfo.getIconCoordinates().y + iconInfo.getIconCoordinates().height);
+    }
+    for (Rectangle removedIconArea : oldIcons.keySet())
+    {
+      gutterRenderer.invalidate(removedIconArea.y, removedIconArea.y + removedIconArea.height);
+    }
+  }
+
+  /**
+   * paints the icons that lie in the given area of the panel
+   *
+   * @param pGraphics Graphics to paint with, in the coordinates of the editor
+   * @param pStartY   top of the area
+   * @param pEndY     bottom of the area, exclusive
+   */
+  private void _paintIconArea(@NotNull Graphics2D pGraphics, int pStartY, int pEndY)
+  {
+    for (IconInfo iconInfo : iconInfoList)
+    {
+      Rectangle iconCoordinates = iconInfo.getIconCoordinates();
+      if (iconCoordinates.y < pEndY && iconCoordinates.y + iconCoordinates.height > pStartY)
+        iconInfo.getImageIcon().paintIcon(this, pGraphics, iconCoordinates.x, iconCoordinates.y);
+    }
+  }
+
   /**
    * calculates the connections that have to be drawn between the associated chunks of two panes
    * Has to calculate all the connections first since each time one of the scrollPanes moves, the areas of the connections changes, the areas are
@@ -207,7 +243,7 @@ class ChoiceButtonPanel extends JPanel implements IDiscardable, ILineNumberColor
    *
    * @param pGraphics Graphics object to paint with
    */
-  private void _paintIcons(Graphics pGraphics, List<ChangedChunkConnection> pChangedChunkConnectionsToDraw, BufferedImage pBufferedImage, Rectangle pViewArea)
+  private void _paintIcons(Graphics pGraphics, List<ChangedChunkConnection> pChangedChunkConnectionsToDraw, Rectangle pViewArea)
   {
     ((Graphics2D) pGraphics).setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
     for (ChangedChunkConnection chunkConnection : pChangedChunkConnectionsToDraw)
@@ -215,8 +251,7 @@ class ChoiceButtonPanel extends JPanel implements IDiscardable, ILineNumberColor
       pGraphics.setColor(chunkConnection.getColor());
       pGraphics.fillPolygon(chunkConnection.getShape());
     }
-    pGraphics.drawImage(pBufferedImage, panelInsets.left, 0, _getSuggestedWidth() + panelInsets.left, pViewArea.height,
-                        panelInsets.left, pViewArea.y, _getSuggestedWidth() + panelInsets.left, pViewArea.y + pViewArea.height, null);
+    gutterRenderer.paint(pGraphics, _getSuggestedWidth(), pViewArea.y, pViewArea.height, panelInsets.left, 0);
   }
 
   @Override
@@ -6,6 +6,7 @@ import de.adito.git.gui.dialogs.panels.basediffpanel.DiffPanelModel;
 import de.adito.git.gui.swing.LineNumber;
 import de.adito.git.gui.swing.SwingUtil;
 import de.adito.git.gui.swing.TextPaneUtil;
+import de.adito.git.gui.swing.TiledGutterRenderer;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.disposables.Disposable;
 import org.jetbrains.annotations.NotNull;
@@ -14,11 +15,9 @@ import org.jetbrains.annotations.Nullable;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.text.BadLocationException;
-import javax.swing.text.View;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -37,7 +36,8 @@ class LineNumPanel extends JPanel implements IDiscardable, ILineNumberColorsList
   private Rectangle cachedViewRectangle = new Rectangle();
   // lists with Objects that contain information about what to draw. Never modify these lists by themselves, only re-assign them
   private List<LineNumberColor> lineNumberColors = new ArrayList<>(); // all LineNumberColors for the file in the editor
-  private BufferedImage lineNumImage = null;
+  private LineNumber[] lineNumbers = null; // positions of the lines in the editor, null if not calculated yet
+  private final TiledGutterRenderer gutterRenderer = new TiledGutterRenderer(this::_paintArea);
   private final JEditorPane editorPane;
   private final JViewport viewport;
   private final LineNumbersColorModel lineNumbersColorModel;
@@ -69,7 +69,7 @@ class LineNumPanel extends JPanel implements IDiscardable, ILineNumberColorsList
             pFileChangeEvent -> SwingUtil.invokeASAP(() -> {
               lineNumFacadeWidth = _calculateLineWidth();
               setPreferredSize(new Dimension(lineNumFacadeWidth + panelInsets.left + panelInsets.right, 1));
-              lineNumImage = _calculateLineNumImage(pEditorPane, lineNumberColors);
+              _updateLineNumbers(pEditorPane);
               revalidate();
               repaint();
             }));
@@ -80,9 +80,9 @@ class LineNumPanel extends JPanel implements IDiscardable, ILineNumberColorsList
   private void _recalcAndRedraw(JEditorPane pEditorPane, @NotNull JViewport pViewport)
   {
     SwingUtil.invokeASAP(() -> {
-      if (lineNumImage == null)
+      if (lineNumbers == null)
       {
-        lineNumImage = _calculateLineNumImage(pEditorPane, lineNumberColors);
+        _updateLineNumbers(pEditorPane);
       }
       cachedViewRectangle = pViewport.getViewRect();
       revalidate();
@@ -94,9 +94,7 @@ class LineNumPanel extends JPanel implements IDiscardable, ILineNumberColorsList
   protected void paintComponent(Graphics pGraphics)
   {
     super.paintComponent(pGraphics);
-    pGraphics.drawImage(lineNumImage, panelInsets.left, 0, lineNumFacadeWidth + panelInsets.left, cachedViewRectangle.height,
-                        0, cachedViewRectangle.y, lineNumFacadeWidth, cachedViewRectangle.y + cachedViewRectangle.height, ColorPicker.DIFF_BACKGROUND,
-                        null);
+    gutterRenderer.paint(pGraphics, lineNumFacadeWidth, cachedViewRectangle.y, cachedViewRectangle.height, panelInsets.left, 0);
   }
 
   @Override
@@ -111,40 +109,31 @@ class LineNumPanel extends JPanel implements IDiscardable, ILineNumberColorsList
   @Override
   public void lineNumberColorsChanged(int pModelNumber, List<LineNumberColor> pNewValue)
   {
-    lineNumberColors = pNewValue;
-    _recalcAndRedraw(editorPane, viewport);
+    SwingUtil.invokeASAP(() -> {
+      _invalidateChangedColors(lineNumberColors, pNewValue);
+      lineNumberColors = pNewValue;
+      _recalcAndRedraw(editorPane, viewport);
+    });
   }
 
   /**
-   * @param pEditorPane    JEditorPane containing the text for which theses lines are
-   * @param pLineNumColors Areas affected by the ChangeChunks
-   * @return BufferedImage that represents the content of this panel
+   * calculates the positions of the lines in the editor and invalidates the parts of the panel whose line numbers moved
+   *
+   * @param pEditorPane JEditorPane containing the text for which theses lines are
    */
-  @Nullable
-  private BufferedImage _calculateLineNumImage(@NotNull JEditorPane pEditorPane, @NotNull List<LineNumberColor> pLineNumColors)
+  private void _updateLineNumbers(@NotNull JEditorPane pEditorPane)
   {
-    View view = pEditorPane.getUI().getRootView(pEditorPane);
     if (pEditorPane.getHeight() <= 0)
-      return null;
+    {
+      lineNumbers = null;
+      gutterRenderer.invalidateAll();
+      return;
+    }
     try
     {
-      LineNumber[] lineNums = TextPaneUtil.calculateLineYPositions(pEditorPane, view);
-      BufferedImage image = new BufferedImage(lineNumFacadeWidth, pEditorPane.getHeight(), BufferedImage.TYPE_INT_ARGB);
-      Graphics graphics = image.getGraphics();
-      for (LineNumberColor lineNumberColor : pLineNumColors)
-      {
-        graphics.setColor(lineNumberColor.getColor());
-        graphics.fillRect(lineNumberColor.getColoredArea().x, lineNumberColor.getColoredArea().y,
-                          getWidth(), lineNumberColor.getColoredArea().height);
-      }
-      ((Graphics2D) graphics).setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-      graphics.setColor(ColorPicker.DIFF_LINE_NUM);
-      for (LineNumber lineNumber : lineNums)
-      {
-        graphics.drawString(lineNumber.getNumber(), lineNumber.getXCoordinate() + 2,
-                            lineNumber.getYCoordinate() + graphics.getFontMetrics().getAscent() - editorInsets.top + 2);
-      }
-      return image;
+      LineNumber[] newLineNumbers = TextPaneUtil.calculateLineYPositions(pEditorPane, pEditorPane.getUI().getRootView(pEditorPane));
+      _invalidateChangedLines(lineNumbers, newLineNumbers);
+      lineNumbers = newLineNumbers;
     }
     catch (BadLocationException pE)
     {
@@ -152,6 +141,85 @@ class LineNumPanel extends JPanel implements IDiscardable, ILineNumberColorsList
     }
   }
 
+  /**
+   * invalidates the panel from the first line that moved, all lines after that line moved as well
+   *
+   * @param pOldLineNumbers positions of the lines that are currently shown, null if no lines are shown
+   * @param pNewLineNumbers new positions of the lines
+   */
+  private void _invalidateChangedLines(@Nullable LineNumber[] pOldLineNumbers, @NotNull LineNumber[] pNewLineNumbers)
+  {
+    if (pOldLineNumbers == null)
+    {
+      gutterRenderer.invalidateAll();
+      return;
+    }
+    int index = 0;
+    int numCommonLines = Math.min(pOldLineNumbers.length, pNewLineNumbers.length);
+    while (index < numCommonLines && pOldLineNumbers[index].getYCoordinate() == pNewLineNumbers[index].getYCoordinate()
+        && pOldLineNumbers[index].getXCoordinate() == pNewLineNumbers[index].getXCoordinate())
+    {
+      index++;
+    }
+    if (index == pOldLineNumbers.length && index == pNewLineNumbers.length)
+      return;
+    // the number of a line is drawn below the y coordinate of the line, so start at the line before the first moved line
+    gutterRenderer.invalidate(index == 0 ? Integer.MIN_VALUE : pNewLineNumbers[index - 1].getYCoordinate(), Integer.MAX_VALUE);
+  }
+
+  /**
+   * invalidates the areas of all LineNumberColors that were removed or added
+   *
+   * @param pOldColors LineNumberColors that are currently shown
+   * @param pNewColors LineNumberColors that will be shown
+   */
+  private void _invalidateChangedColors(@NotNull List<LineNumberColor> pOldColors, @NotNull List<LineNumberColor> pNewColors)
+  {
+    Set<LineNumberColor> oldColors = new HashSet<>(pOldColors);
+    Set<LineNumberColor> newColors = new HashSet<>(pNewColors);
+    for (LineNumberColor lineNumberColor : pOldColors)
+    {
+      if (!newColors.contains(lineNumberColor))
+        gutterRenderer.invalidate(lineNumberColor.getColoredArea().y, lineNumberColor.getColoredArea().y + lineNumberColor.getColoredArea().height);
+    }
+    for (LineNumberColor lineNumberColor : pNewColors)
+    {
+      if (!oldColors.contains(lineNumberColor))
+        gutterRenderer.invalidate(lineNumberColor.getColoredArea().y, lineNumberColor.getColoredArea().y + lineNumberColor.getColoredArea().height);
+    }
+  }
+
+  /**
+   * paints the colored areas and line numbers that lie in the given area of the panel
+   *
+   * @param pGraphics Graphics to paint with, in the coordinates of the editor
+   * @param pStartY   top of the area
+   * @param pEndY     bottom of the area, exclusive
+   */
+  private void _paintArea(@NotNull Graphics2D pGraphics, int pStartY, int pEndY)
+  {
+    for (LineNumberColor lineNumberColor : lineNumberColors)
+    {
+      Rectangle coloredArea = lineNumberColor.getColoredArea();
+      if (coloredArea.y < pEndY && coloredArea.y + coloredArea.height > pStartY)
+      {
+        pGraphics.setColor(lineNumberColor.getColor());
+        pGraphics.fillRect(coloredArea.x, coloredArea.y, getWidth(), coloredArea.height);
+      }
+    }
+    LineNumber[] lineNums = lineNumbers;
+    if (lineNums == null)
+      return;
+    pGraphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    pGraphics.setColor(ColorPicker.DIFF_LINE_NUM);
+    // the number of the line before the area may reach into the area
+    for (int index = Math.max(0, TextPaneUtil.getFirstLineIndex(lineNums, pStartY) - 1);
+         index < lineNums.length && lineNums[index].getYCoordinate() < pEndY; index++)
+    {
+      pGraphics.drawString(lineNums[index].getNumber(), lineNums[index].getXCoordinate() + 2,
+                           lineNums[index].getYCoordinate() + pGraphics.getFontMetrics().getAscent() - editorInsets.top + 2);
+    }
+  }
 
   /**
    * calculate the width this panel must have to display all the lineNumbers, based on the highest lineNumber and the used font
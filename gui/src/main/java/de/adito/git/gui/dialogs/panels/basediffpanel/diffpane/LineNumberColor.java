@@ -2,6 +2,7 @@ package de.adito.git.gui.dialogs.panels.basediffpanel.diffpane;
 
 import java.awt.Color;
 import java.awt.Rectangle;
+import java.util.Objects;
 
 /**
  * Represents one of the colored areas beneath the line numbers
@@ -34,4 +35,21 @@ class LineNumberColor
   {
     return coloredArea;
   }
+
+  @Override
+  public boolean equals(Object pO)
+  {
+    if (this == pO)
+      return true;
+    if (pO == null || getClass() != pO.getClass())
+      return false;
+    LineNumberColor other = (LineNumberColor) pO;
+    return Objects.equals(color, other.color) && Objects.equals(coloredArea, other.coloredArea);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(color, coloredArea);
+  }
 }
@@ -23,7 +23,11 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -35,7 +39,7 @@ public class MergeConflictSequence
 {
 
   private static final Logger logger = Logger.getLogger(MergeConflictSequence.class.getName());
-  private static final int NUM_MAX_CHARS_FOR_RESOLVE = 80000;
+  private static final int AUTO_RESOLVE_PARALLELISM = Runtime.getRuntime().availableProcessors();
   private final IDialogProvider dialogProvider;
   private final IPrefStore prefStore;
   private final IAsyncProgressFacade asyncProgressFacade;
@@ -94,68 +98,152 @@ public class MergeConflictSequence
 
   /**
    * Goes through the list of conflicting files and tries to perform an auto-resolve. This is done by checking if the file has no change delta that is marked as
-   * conflicting, and if that is the case, accepting all changes and marking the file resolved. Files with conflicting change deltas are not touched
+   * conflicting, and if that is the case, accepting all changes and marking the file resolved. Files with conflicting change deltas are not touched.
+   * The files are checked and resolved in parallel, the resolved files are added to the index in one go once all files are done. If the progress is cancelled,
+   * files that are not yet being written are skipped, the files that are being written are finished and all files that were resolved until then are still added
    *
    * @param pMergeConflicts List of merge conflicts to try and auto-resolve
    * @param pRepository     Repository, used to perform an add one the conflicting files to mark them as resolved
    */
   public static void performAutoResolve(@NotNull List<IMergeData> pMergeConflicts, @NotNull IRepository pRepository, @NotNull IAsyncProgressFacade pProgressFacade,
                                         @NotNull INotifyUtil pNotifyUtil)
+  {
+    performAutoResolve(pMergeConflicts, pRepository, pProgressFacade, pNotifyUtil,
+                       Executors.newFixedThreadPool(Math.max(1, Math.min(AUTO_RESOLVE_PARALLELISM, pMergeConflicts.size()))));
+  }
+
+  /**
+   * @param pMergeConflicts  List of merge conflicts to try and auto-resolve
+   * @param pRepository      Repository, used to perform an add one the conflicting files to mark them as resolved
+   * @param pExecutorService executorService that checks and resolves the files, shut down once all files are done or the auto-resolve was cancelled
+   * @see #performAutoResolve(List, IRepository, IAsyncProgressFacade, INotifyUtil)
+   */
+  static void performAutoResolve(@NotNull List<IMergeData> pMergeConflicts, @NotNull IRepository pRepository, @NotNull IAsyncProgressFacade pProgressFacade,
+                                 @NotNull INotifyUtil pNotifyUtil, @NotNull ExecutorService pExecutorService)
   {
     int numConflictsTotal = pMergeConflicts.size();
     List<IMergeData> resolvedConflicts = new ArrayList<>();
     pProgressFacade.executeAndBlockWithProgress("Auto-Resolving", pProgressHandle -> {
       pProgressHandle.switchToDeterminate(pMergeConflicts.size());
       List<File> resolvedFiles = new ArrayList<>();
-      for (int index = pMergeConflicts.size() - 1; index >= 0; index--)
+      AtomicBoolean cancelled = new AtomicBoolean(false);
+      CompletionService<_AutoResolveResult> completionService = new ExecutorCompletionService<>(pExecutorService);
+      try
       {
-        IMergeData mergeData = pMergeConflicts.get(index);
-        pProgressHandle.setDescription("Trying to resolve  " + mergeData.getFilePath());
-        try
+        for (IMergeData mergeData : pMergeConflicts)
         {
-          if (!_isSkipMergeData(mergeData))
-          {
-            mergeData.markConflicting();
-            if (mergeData.getDiff(EConflictSide.YOURS).getChangeDeltas()
-                .stream()
-                .noneMatch(pChangeDelta -> pChangeDelta.getConflictType() == EConflictType.CONFLICTING)
-                && mergeData.getDiff(EConflictSide.THEIRS).getChangeDeltas()
-                .stream()
-                .noneMatch(pChangeDelta -> pChangeDelta.getConflictType() == EConflictType.CONFLICTING))
-            {
-              acceptMergeSide(mergeData, EConflictSide.YOURS);
-              acceptMergeSide(mergeData, EConflictSide.THEIRS);
-              File resolvedFile = acceptManualVersion(mergeData, pRepository);
-              if (resolvedFile != null)
-                resolvedFiles.add(resolvedFile);
-              resolvedConflicts.add(mergeData);
-            }
-          }
+          completionService.submit(() -> _tryAutoResolve(mergeData, pRepository, cancelled::get));
         }
-        catch (Exception pE)
+        for (int numCompleted = 1; numCompleted <= pMergeConflicts.size(); numCompleted++)
         {
-          logger.log(Level.WARNING, "Git error while trying to resolve conflict for file " + mergeData.getFilePath(), pE);
+          _AutoResolveResult result = completionService.take().get();
+          pProgressHandle.setDescription("Checked " + result.mergeData.getFilePath());
+          _collectResult(result, resolvedConflicts, resolvedFiles);
+          pProgressHandle.progress(numCompleted);
         }
-        pProgressHandle.progress(pMergeConflicts.size() - index);
       }
+      catch (InterruptedException pE)
+      {
+        cancelled.set(true);
+      }
+      catch (ExecutionException pE)
+      {
+        throw new RuntimeException(pE.getCause());
+      }
+      finally
+      {
+        // no shutdownNow, interrupting a task while it writes its file could leave the file truncated
+        pExecutorService.shutdown();
+      }
+      if (cancelled.get())
+        _collectRemainingResults(pExecutorService, completionService, resolvedConflicts, resolvedFiles);
       pRepository.add(resolvedFiles);
       pMergeConflicts.removeAll(resolvedConflicts);
+      if (cancelled.get())
+        Thread.currentThread().interrupt();
     });
     pNotifyUtil.notify("Auto-resolve", "Auto-resolve managed to resolve " + resolvedConflicts.size() + " of " + numConflictsTotal + " conflicts", false);
   }
 
   /**
-   * Check if the mergeData should be analyzed for conflicts or skipped because marking the conflicts takes a long time
+   * Waits for the tasks that are still running after the auto-resolve was cancelled and collects the results that were not taken yet, since the files of those
+   * results were already written and have to be added as well
+   *
+   * @param pExecutorService   executorService that runs the tasks, already shut down
+   * @param pCompletionService completionService that contains the results that were not taken yet
+   * @param pResolvedConflicts list that the resolved mergeDatas are added to
+   * @param pResolvedFiles     list that the written files are added to
+   */
+  private static void _collectRemainingResults(@NotNull ExecutorService pExecutorService, @NotNull CompletionService<_AutoResolveResult> pCompletionService,
+                                               @NotNull List<IMergeData> pResolvedConflicts, @NotNull List<File> pResolvedFiles)
+  {
+    try
+    {
+      // the remaining tasks skip their file or finish writing it, so this does not take long
+      pExecutorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+    catch (InterruptedException pE)
+    {
+      logger.log(Level.WARNING, "Interrupted while waiting for the remaining auto-resolve tasks", pE);
+    }
+    Future<_AutoResolveResult> future;
+    while ((future = pCompletionService.poll()) != null)
+    {
+      try
+      {
+        _collectResult(future.get(), pResolvedConflicts, pResolvedFiles);
+      }
+      catch (InterruptedException | ExecutionException pE)
+      {
+        throw new RuntimeException(pE);
+      }
+    }
+  }
+
+  private static void _collectResult(@NotNull _AutoResolveResult pResult, @NotNull List<IMergeData> pResolvedConflicts, @NotNull List<File> pResolvedFiles)
+  {
+    if (pResult.isResolved)
+    {
+      pResolvedConflicts.add(pResult.mergeData);
+      if (pResult.resolvedFile != null)
+        pResolvedFiles.add(pResult.resolvedFile);
+    }
+  }
+
+  /**
+   * Resolves the mergeData if none of its change deltas are conflicting, called in parallel for several mergeDatas
    *
-   * @param pMergeData MergeData to check
-   * @return true if the particular mergeData should be skipped
+   * @param pMergeData   mergeData to check and resolve
+   * @param pRepository  Repository that contains the file of the mergeData
+   * @param pIsCancelled checked before the mergeData is changed and its file is written, the mergeData is not resolved if the auto-resolve was cancelled
+   * @return the result for the mergeData, not resolved if an error occurred or the auto-resolve was cancelled
    */
-  private static boolean _isSkipMergeData(IMergeData pMergeData)
+  @NotNull
+  private static _AutoResolveResult _tryAutoResolve(@NotNull IMergeData pMergeData, @NotNull IRepository pRepository, @NotNull BooleanSupplier pIsCancelled)
   {
-    IFileDiff theirsData = pMergeData.getDiff(EConflictSide.THEIRS);
-    IFileDiff yoursData = pMergeData.getDiff(EConflictSide.YOURS);
-    return theirsData.getText(EChangeSide.NEW).length() > NUM_MAX_CHARS_FOR_RESOLVE || theirsData.getText(EChangeSide.OLD).length() > NUM_MAX_CHARS_FOR_RESOLVE
-        || yoursData.getText(EChangeSide.NEW).length() > NUM_MAX_CHARS_FOR_RESOLVE || yoursData.getText(EChangeSide.OLD).length() > NUM_MAX_CHARS_FOR_RESOLVE;
+    try
+    {
+      if (pIsCancelled.getAsBoolean())
+        return new _AutoResolveResult(pMergeData, false, null);
+      pMergeData.markConflicting();
+      if (pMergeData.getDiff(EConflictSide.YOURS).getChangeDeltas()
+          .stream()
+          .noneMatch(pChangeDelta -> pChangeDelta.getConflictType() == EConflictType.CONFLICTING)
+          && pMergeData.getDiff(EConflictSide.THEIRS).getChangeDeltas()
+          .stream()
+          .noneMatch(pChangeDelta -> pChangeDelta.getConflictType() == EConflictType.CONFLICTING)
+          && !pIsCancelled.getAsBoolean())
+      {
+        acceptMergeSide(pMergeData, EConflictSide.YOURS);
+        acceptMergeSide(pMergeData, EConflictSide.THEIRS);
+        return new _AutoResolveResult(pMergeData, true, acceptManualVersion(pMergeData, pRepository));
+      }
+    }
+    catch (Exception pE)
+    {
+      logger.log(Level.WARNING, "Git error while trying to resolve conflict for file " + pMergeData.getFilePath(), pE);
+    }
+    return new _AutoResolveResult(pMergeData, false, null);
   }
 
   public static void acceptMergeSide(IMergeData mergeData, EConflictSide pConflictSide)
@@ -258,8 +346,8 @@ public class MergeConflictSequence
   private static void _writeToFile(String pFileContents, Charset pCharset, File pSelectedFile) throws IOException
   {
     if (!pSelectedFile.exists())
-      pSelectedFile.getParentFile().mkdirs();
-    try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(pSelectedFile, false), pCharset))
+      Files.createDirectories(pSelectedFile.getParentFile().toPath());
+    try (BufferedWriter writer = Files.newBufferedWriter(pSelectedFile.toPath(), pCharset))
     {
       writer.write(pFileContents);
     }
@@ -303,4 +391,21 @@ public class MergeConflictSequence
     else return ELineEnding.getLineEnding(System.lineSeparator());
   }
 
+  /**
+   * Result of the auto-resolve of a single mergeData
+   */
+  private static class _AutoResolveResult
+  {
+    private final IMergeData mergeData;
+    private final boolean isResolved;
+    @Nullable
+    private final File resolvedFile;
+
+    _AutoResolveResult(@NotNull IMergeData pMergeData, boolean pIsResolved, @Nullable File pResolvedFile)
+    {
+      mergeData = pMergeData;
+      isResolved = pIsResolved;
+      resolvedFile = pResolvedFile;
+    }
+  }
 }
@@ -27,6 +27,26 @@ public class TextPaneUtil
                                  Math.max(0, numLines - 1), new LineNumber[numLines]);
   }
 
+  /**
+   * @param pLineNumbers LineNumbers as returned by calculateLineYPositions, sorted by their y coordinates
+   * @param pYCoordinate y coordinate to search for
+   * @return index of the first LineNumber with a y coordinate of at least pYCoordinate, the length of pLineNumbers if there is no such LineNumber
+   */
+  public static int getFirstLineIndex(@NotNull LineNumber[] pLineNumbers, int pYCoordinate)
+  {
+    int low = 0;
+    int high = pLineNumbers.length;
+    while (low < high)
+    {
+      int middle = (low + high) >>> 1;
+      if (pLineNumbers[middle].getYCoordinate() < pYCoordinate)
+        low = middle + 1;
+      else
+        high = middle;
+    }
+    return low;
+  }
+
   /**
    * calculates the y coordinates of pStartIndex and pEndIndex lines and then checks if the lines in between have height of pLineHeight each.
    * If that is not the case, split the interval in 2 and check again
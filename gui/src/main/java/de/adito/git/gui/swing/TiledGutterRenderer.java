@@ -0,0 +1,166 @@
+package de.adito.git.gui.swing;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Renders the content of a panel next to an editor, such as line numbers or change markers, in tiles of a fixed height. Only the tiles of the visible
+ * area and the tiles directly above and below it are rendered, and only the last used tiles are kept. Once the content of an area changes, only the
+ * tiles covering that area have to be rendered again. All methods have to be called from the EDT
+ *
+ * @author agent, 18.10.2026
+ */
+public class TiledGutterRenderer
+{
+
+  static final int TILE_HEIGHT = 256;
+  private static final int MAX_NUM_TILES = 32;
+  private final IAreaPainter areaPainter;
+  private final Map<Integer, BufferedImage> tiles = new LinkedHashMap<>(16, 0.75f, true)
+  {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> pEldest)
+    {
+      if (size() > MAX_NUM_TILES)
+      {
+        spareTile = pEldest.getValue();
+        return true;
+      }
+      return false;
+    }
+  };
+  // image of the last evicted tile, re-used for the next tile so scrolling does not allocate a new image for each tile
+  @Nullable
+  private BufferedImage spareTile;
+  private int tileWidth = 0;
+
+  /**
+   * @param pAreaPainter paints the content of an area of the panel, called each time a tile has to be rendered
+   */
+  public TiledGutterRenderer(@NotNull IAreaPainter pAreaPainter)
+  {
+    areaPainter = pAreaPainter;
+  }
+
+  /**
+   * paints an area of the panel, the tiles of the area that are not rendered yet are rendered first
+   *
+   * @param pGraphics Graphics to paint with
+   * @param pWidth    width of the panel content, all tiles are rendered again if the width changes
+   * @param pStartY   y coordinate of the top of the painted area, in the coordinates of the editor
+   * @param pHeight   height of the painted area
+   * @param pX        x coordinate at which the area is painted on pGraphics
+   * @param pY        y coordinate at which the top of the area is painted on pGraphics
+   */
+  public void paint(@NotNull Graphics pGraphics, int pWidth, int pStartY, int pHeight, int pX, int pY)
+  {
+    if (pWidth <= 0 || pHeight <= 0)
+      return;
+    if (pWidth != tileWidth)
+    {
+      invalidateAll();
+      spareTile = null;
+      tileWidth = pWidth;
+    }
+    int firstTile = Math.floorDiv(pStartY, TILE_HEIGHT);
+    int lastTile = Math.floorDiv(pStartY + pHeight - 1, TILE_HEIGHT);
+    Graphics areaGraphics = pGraphics.create(pX, pY, pWidth, pHeight);
+    try
+    {
+      for (int tileIndex = firstTile; tileIndex <= lastTile; tileIndex++)
+      {
+        areaGraphics.drawImage(_getTile(tileIndex), 0, tileIndex * TILE_HEIGHT - pStartY, null);
+      }
+    }
+    finally
+    {
+      areaGraphics.dispose();
+    }
+    // render the tiles next to the visible area as well, so scrolling a few lines does not have to wait for a tile. Nothing is above the first tile
+    if (firstTile > 0)
+      _getTile(firstTile - 1);
+    _getTile(lastTile + 1);
+  }
+
+  /**
+   * removes the tiles that cover the given area, they are rendered again once they are painted the next time
+   *
+   * @param pStartY y coordinate of the top of the changed area, in the coordinates of the editor
+   * @param pEndY   y coordinate of the bottom of the changed area, exclusive
+   */
+  public void invalidate(int pStartY, int pEndY)
+  {
+    if (pStartY >= pEndY)
+      return;
+    tiles.keySet().removeIf(pTileIndex -> (long) pTileIndex * TILE_HEIGHT < pEndY && (long) (pTileIndex + 1) * TILE_HEIGHT > pStartY);
+  }
+
+  /**
+   * removes all tiles, for example if the font or colors of the panel changed
+   */
+  public void invalidateAll()
+  {
+    tiles.clear();
+  }
+
+  @NotNull
+  private BufferedImage _getTile(int pTileIndex)
+  {
+    BufferedImage tile = tiles.get(pTileIndex);
+    if (tile == null)
+    {
+      tile = _createEmptyTile();
+      Graphics2D graphics = tile.createGraphics();
+      try
+      {
+        graphics.translate(0, -pTileIndex * TILE_HEIGHT);
+        areaPainter.paintArea(graphics, pTileIndex * TILE_HEIGHT, (pTileIndex + 1) * TILE_HEIGHT);
+      }
+      finally
+      {
+        graphics.dispose();
+      }
+      tiles.put(pTileIndex, tile);
+    }
+    return tile;
+  }
+
+  @NotNull
+  private BufferedImage _createEmptyTile()
+  {
+    BufferedImage tile = spareTile;
+    spareTile = null;
+    if (tile == null)
+      return new BufferedImage(tileWidth, TILE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D graphics = tile.createGraphics();
+    try
+    {
+      graphics.setComposite(AlphaComposite.Clear);
+      graphics.fillRect(0, 0, tileWidth, TILE_HEIGHT);
+    }
+    finally
+    {
+      graphics.dispose();
+    }
+    return tile;
+  }
+
+  /**
+   * Paints the content of the panel in an area
+   */
+  @FunctionalInterface
+  public interface IAreaPainter
+  {
+    /**
+     * @param pGraphics Graphics to paint with, translated so that the coordinates of the editor can be used
+     * @param pStartY   y coordinate of the top of the area
+     * @param pEndY     y coordinate of the bottom of the area, exclusive. Content outside the area does not have to be painted
+     */
+    void paintArea(@NotNull Graphics2D pGraphics, int pStartY, int pEndY);
+  }
+}
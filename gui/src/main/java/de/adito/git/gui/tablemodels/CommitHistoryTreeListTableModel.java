@@ -8,6 +8,7 @@ import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 /**
  * The table model for the commits
@@ -58,8 +59,52 @@ public class CommitHistoryTreeListTableModel extends AbstractTableModel
    */
   public void addData(List<CommitHistoryTreeListItem> pToAdd)
   {
+    if (pToAdd.isEmpty())
+      return;
+    int firstRow = commitList.size();
     commitList.addAll(pToAdd);
-    fireTableDataChanged();
+    // only the added rows are laid out and painted, not the whole table
+    fireTableRowsInserted(firstRow, commitList.size() - 1);
+  }
+
+  /**
+   * Inserts the passed data at the top of the current list and replaces the existing entries with their updated versions. Only the inserted and the
+   * actually updated rows are reported as changed, so e.g. the selection of the existing rows is kept
+   *
+   * @param pToPrepend      List with data to insert at the top of the current list
+   * @param pUpdateExisting returns the updated version of an existing entry, or the entry itself if it did not change
+   */
+  public void prependData(@NotNull List<CommitHistoryTreeListItem> pToPrepend, @NotNull UnaryOperator<CommitHistoryTreeListItem> pUpdateExisting)
+  {
+    int firstUpdated = -1;
+    int lastUpdated = -1;
+    for (int index = 0; index < commitList.size(); index++)
+    {
+      CommitHistoryTreeListItem updatedItem = pUpdateExisting.apply(commitList.get(index));
+      if (updatedItem != commitList.get(index))
+      {
+        commitList.set(index, updatedItem);
+        if (firstUpdated == -1)
+          firstUpdated = index;
+        lastUpdated = index;
+      }
+    }
+    if (firstUpdated != -1)
+      fireTableRowsUpdated(firstUpdated, lastUpdated);
+    if (!pToPrepend.isEmpty())
+    {
+      commitList.addAll(0, pToPrepend);
+      fireTableRowsInserted(0, pToPrepend.size() - 1);
+    }
+  }
+
+  /**
+   * @return copy of the current list of the model
+   */
+  @NotNull
+  public List<CommitHistoryTreeListItem> getData()
+  {
+    return new ArrayList<>(commitList);
   }
 
   /**
@@ -72,7 +117,8 @@ public class CommitHistoryTreeListTableModel extends AbstractTableModel
     if (!commitListsEqual(commitList, pNewValues))
     {
       commitList.clear();
-      addData(pNewValues);
+      commitList.addAll(pNewValues);
+      fireTableDataChanged();
     }
   }
 
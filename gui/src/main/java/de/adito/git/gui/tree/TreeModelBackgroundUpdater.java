@@ -7,18 +7,23 @@ import org.jetbrains.annotations.NotNull;
 import javax.swing.*;
 import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreeNode;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
 /**
+ * Calculates the updates of a tree model in the background and applies them in the EDT. The updates are collected per parent node and the new children are
+ * sorted in the background, so the EDT only has to merge the sorted new children into the already sorted children of each parent. Children of nodes that
+ * are not yet part of the tree are added in the background, since no one can see them yet. Each parent fires a single event for its removed and for its
+ * inserted children, or a single structure changed event if too many of its children changed
+ *
  * @author m.kaspera, 12.06.2019
  */
 public class TreeModelBackgroundUpdater<T> extends SwingWorker<List<TreeUpdate>, TreeUpdate>
 {
 
+  // if more children than this are inserted into or removed from a parent, a structure changed event is fired instead of the events for the single nodes
+  static final int STRUCTURE_CHANGE_THRESHOLD = 500;
   private final BaseObservingTreeModel treeModel;
   private final Function<List<T>, List<TreeUpdate>> workFunction;
   private final List<T> param;
@@ -26,12 +31,17 @@ public class TreeModelBackgroundUpdater<T> extends SwingWorker<List<TreeUpdate>,
   private final Runnable[] doOnUpdateComplete;
   private static int factoryNumber = 0;
   private final int modelNumber;
+  // parent node -> new children of that parent, sorted. Only contains parents that are already part of the tree. Written in the background thread before
+  // the result is available, and only read after get() returned in the EDT
+  private final Map<MutableTreeNode, List<MutableTreeNode>> sortedInserts = new LinkedHashMap<>();
+  private final List<MutableTreeNode> removes = new ArrayList<>();
+  private MutableTreeNode newRoot = null;
 
   /**
    * @param pTreeModel          TreeModel that should be updated
    * @param pWorkFunction       function that is called to calculate the list of TreeUpdates
    * @param pParam              parameter that should be passed to the workFunction
-   * @param pComparator         comparator used to compare and sort nodes
+   * @param pComparator         comparator used to compare and sort nodes, has to be thread safe since it is used in the background and in the EDT
    * @param pDoOnUpdateComplete runnable that should be executed after the update (the whole update, including the EDT part) is done (can be used for listeners and such)
    */
   public TreeModelBackgroundUpdater(BaseObservingTreeModel pTreeModel, Function<List<T>, List<TreeUpdate>> pWorkFunction, List<T> pParam,
@@ -52,7 +62,9 @@ public class TreeModelBackgroundUpdater<T> extends SwingWorker<List<TreeUpdate>,
   {
     try
     {
-      return workFunction.apply(param);
+      List<TreeUpdate> treeUpdates = workFunction.apply(param);
+      _prepareUpdates(treeUpdates);
+      return treeUpdates;
     }
     catch (InterruptedRuntimeException pE)
     {
@@ -64,29 +76,18 @@ public class TreeModelBackgroundUpdater<T> extends SwingWorker<List<TreeUpdate>,
   @Override
   protected void done()
   {
-    List<TreeUpdate> treeUpdates;
     try
     {
-      treeUpdates = get();
-      for (TreeUpdate update : treeUpdates)
+      get();
+      if (modelNumber != factoryNumber || isCancelled() || Thread.currentThread().isInterrupted())
+        return;
+      if (newRoot != null)
       {
-        if (modelNumber != factoryNumber || isCancelled() || Thread.currentThread().isInterrupted())
-          return;
-        if (update.getType() == TreeUpdate.TYPE.INSERT)
-        {
-          treeModel.insertNodeInto(update.getNode(), update.getParent(), Math.min(update.getParent().getChildCount(),
-                                                                                  _findSortedIndex(update.getParent(), update.getNode(), comparator)));
-        }
-        else if (update.getType() == TreeUpdate.TYPE.ROOT)
-        {
-          treeModel.setRoot(update.getNode());
-          treeModel.reload();
-        }
-        else if (update.getType() == TreeUpdate.TYPE.REMOVE && update.getNode().getParent() != null)
-        {
-          treeModel.removeNodeFromParent(update.getNode());
-        }
+        treeModel.setRoot(newRoot);
+        treeModel.reload();
       }
+      _applyRemoves();
+      sortedInserts.forEach(this::_applyInserts);
       Arrays.stream(doOnUpdateComplete).forEach(Runnable::run);
     }
     catch (InterruptedRuntimeException pE)
@@ -100,15 +101,144 @@ public class TreeModelBackgroundUpdater<T> extends SwingWorker<List<TreeUpdate>,
     }
   }
 
-  private static int _findSortedIndex(@NotNull MutableTreeNode pParent, @NotNull MutableTreeNode pToInsert, @NotNull Comparator<TreeNode> pComparator)
+  /**
+   * Collects the updates per parent and sorts the new children of each parent. New children of nodes that are not yet part of the tree are added to
+   * those nodes right away
+   *
+   * @param pTreeUpdates updates calculated by the work function, in the order they would have to be applied one by one
+   */
+  private void _prepareUpdates(@NotNull List<TreeUpdate> pTreeUpdates)
   {
-    for (int index = 0; index < pParent.getChildCount(); index++)
+    Set<MutableTreeNode> newNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    Map<MutableTreeNode, List<MutableTreeNode>> inserts = new LinkedHashMap<>();
+    for (TreeUpdate update : pTreeUpdates)
     {
-      if (pComparator.compare(pToInsert, pParent.getChildAt(index)) < 0)
+      if (update.getType() == TreeUpdate.TYPE.INSERT)
+      {
+        newNodes.add(update.getNode());
+        inserts.computeIfAbsent(update.getParent(), pParent -> new ArrayList<>()).add(update.getNode());
+      }
+      else if (update.getType() == TreeUpdate.TYPE.ROOT)
       {
-        return index;
+        newNodes.add(update.getNode());
+        newRoot = update.getNode();
       }
+      else if (update.getType() == TreeUpdate.TYPE.REMOVE)
+      {
+        removes.add(update.getNode());
+      }
+    }
+    for (Map.Entry<MutableTreeNode, List<MutableTreeNode>> parentInserts : inserts.entrySet())
+    {
+      if (Thread.currentThread().isInterrupted())
+        throw new InterruptedRuntimeException();
+      // stable sort, so nodes that are equal according to the comparator keep the order of the updates
+      parentInserts.getValue().sort(comparator);
+      if (newNodes.contains(parentInserts.getKey()))
+        _mergeChildren(parentInserts.getKey(), parentInserts.getValue());
+      else
+        sortedInserts.put(parentInserts.getKey(), parentInserts.getValue());
+    }
+  }
+
+  /**
+   * removes the nodes of the REMOVE updates from their parents, with one event per parent
+   */
+  private void _applyRemoves()
+  {
+    Map<MutableTreeNode, Set<TreeNode>> removesPerParent = new LinkedHashMap<>();
+    for (MutableTreeNode node : removes)
+    {
+      if (node.getParent() != null)
+        removesPerParent.computeIfAbsent((MutableTreeNode) node.getParent(), pParent -> Collections.newSetFromMap(new IdentityHashMap<>())).add(node);
+    }
+    for (Map.Entry<MutableTreeNode, Set<TreeNode>> parentRemoves : removesPerParent.entrySet())
+    {
+      MutableTreeNode parent = parentRemoves.getKey();
+      List<MutableTreeNode> remainingChildren = new ArrayList<>();
+      int[] removedIndices = new int[parentRemoves.getValue().size()];
+      Object[] removedChildren = new Object[removedIndices.length];
+      int numRemoved = 0;
+      for (int index = 0; index < parent.getChildCount(); index++)
+      {
+        MutableTreeNode child = (MutableTreeNode) parent.getChildAt(index);
+        if (parentRemoves.getValue().contains(child))
+        {
+          removedIndices[numRemoved] = index;
+          removedChildren[numRemoved++] = child;
+        }
+        else
+          remainingChildren.add(child);
+      }
+      _setChildren(parent, remainingChildren);
+      if (numRemoved > STRUCTURE_CHANGE_THRESHOLD)
+        treeModel.nodeStructureChanged(parent);
+      else
+        treeModel.nodesWereRemoved(parent, removedIndices, removedChildren);
+    }
+  }
+
+  /**
+   * inserts the new children into a parent that is part of the tree, with a single event
+   *
+   * @param pParent         parent that is part of the tree
+   * @param pSortedChildren new children of the parent, sorted
+   */
+  private void _applyInserts(@NotNull MutableTreeNode pParent, @NotNull List<MutableTreeNode> pSortedChildren)
+  {
+    int[] insertedIndices = _mergeChildren(pParent, pSortedChildren);
+    if (insertedIndices.length > STRUCTURE_CHANGE_THRESHOLD)
+      treeModel.nodeStructureChanged(pParent);
+    else
+      treeModel.nodesWereInserted(pParent, insertedIndices);
+  }
+
+  /**
+   * merges the sorted new children into the sorted children of the parent. A new child is inserted after the children that are equal to it according
+   * to the comparator
+   *
+   * @param pParent         parent node
+   * @param pSortedChildren new children of the parent, sorted
+   * @return indices of the new children in the children of the parent, in ascending order
+   */
+  @NotNull
+  private int[] _mergeChildren(@NotNull MutableTreeNode pParent, @NotNull List<MutableTreeNode> pSortedChildren)
+  {
+    List<MutableTreeNode> mergedChildren = new ArrayList<>(pParent.getChildCount() + pSortedChildren.size());
+    int[] insertedIndices = new int[pSortedChildren.size()];
+    int existingIndex = 0;
+    int newIndex = 0;
+    while (existingIndex < pParent.getChildCount() || newIndex < pSortedChildren.size())
+    {
+      if (newIndex < pSortedChildren.size()
+          && (existingIndex == pParent.getChildCount() || comparator.compare(pSortedChildren.get(newIndex), pParent.getChildAt(existingIndex)) < 0))
+      {
+        insertedIndices[newIndex] = mergedChildren.size();
+        mergedChildren.add(pSortedChildren.get(newIndex++));
+      }
+      else
+        mergedChildren.add((MutableTreeNode) pParent.getChildAt(existingIndex++));
+    }
+    _setChildren(pParent, mergedChildren);
+    return insertedIndices;
+  }
+
+  /**
+   * replaces the children of the parent without firing any events. Children are only removed from and added to the end, so no children have to be
+   * moved within the parent
+   *
+   * @param pParent   parent node
+   * @param pChildren new children of the parent
+   */
+  private static void _setChildren(@NotNull MutableTreeNode pParent, @NotNull List<MutableTreeNode> pChildren)
+  {
+    for (int index = pParent.getChildCount() - 1; index >= 0; index--)
+    {
+      pParent.remove(index);
+    }
+    for (MutableTreeNode child : pChildren)
+    {
+      pParent.insert(child, pParent.getChildCount());
     }
-    return pParent.getChildCount();
   }
 }
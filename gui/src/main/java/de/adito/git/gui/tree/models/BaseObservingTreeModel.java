@@ -13,8 +13,10 @@ import org.jetbrains.annotations.Nullable;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeNode;
 import java.io.File;
+import java.text.CollationKey;
 import java.text.Collator;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -36,17 +38,19 @@ public abstract class BaseObservingTreeModel<T> extends DefaultTreeModel impleme
   }
 
   /**
-   * @return Comparator that orders according to the nodeInfo of a FileChangeTypeNode
+   * @return Comparator that orders according to the nodeInfo of a FileChangeTypeNode. The CollationKeys of the node descriptions are cached by the
+   * comparator, since comparing two CollationKeys is much cheaper than comparing two Strings with the Collator. Can be used from several threads. Create
+   * a new comparator for each update, so the cached keys are released together with the update
    */
   @NotNull
   Comparator<TreeNode> _getDefaultComparator()
   {
+    Collator collator = Collator.getInstance();
+    Map<String, CollationKey> collationKeys = new ConcurrentHashMap<>();
     return Comparator.comparing(pO -> {
       FileChangeTypeNodeInfo nodeInfo = ((FileChangeTypeNode) pO).getInfo();
-      if (nodeInfo != null)
-        return nodeInfo.getNodeDescription();
-      return "";
-    }, Collator.getInstance());
+      return collationKeys.computeIfAbsent(nodeInfo != null ? nodeInfo.getNodeDescription() : "", collator::getCollationKey);
+    });
   }
 
   abstract void _treeChanged(List<T> pNewElements, Runnable... pDoAfter);
@@ -24,8 +24,6 @@ import java.util.stream.Collectors;
 public class DiffTreeModel extends ObservingTreeModel<IDiffInfo> implements IDiscardable
 {
 
-  private final Comparator<TreeNode> comparator = _getDefaultComparator();
-
   public DiffTreeModel(@NotNull File pProjectDirectory)
   {
     super(pProjectDirectory);
@@ -113,7 +111,7 @@ public class DiffTreeModel extends ObservingTreeModel<IDiffInfo> implements IDis
   {
     try
     {
-      service.submit(new TreeModelBackgroundUpdater<>(this, this::_calculateTree, pList, comparator, pDoAfter));
+      service.submit(new TreeModelBackgroundUpdater<>(this, this::_calculateTree, pList, _getDefaultComparator(), pDoAfter));
     }
     catch (InterruptedRuntimeException pE)
     {
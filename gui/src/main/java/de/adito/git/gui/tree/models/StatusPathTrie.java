@@ -0,0 +1,178 @@
+package de.adito.git.gui.tree.models;
+
+import de.adito.git.api.data.diff.IFileChangeType;
+import de.adito.git.api.exception.InterruptedRuntimeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Immutable trie of the changed files, keyed by the segments of their paths. Applying changes to a trie returns a new trie that only contains new nodes
+ * for the changed paths and their parents, all other nodes are shared with the old trie. Two nodes that are the same object therefore contain the same
+ * changed files, which allows finding the changed branches of two tries without looking at the unchanged ones
+ *
+ * @author agent, 18.10.2026
+ */
+final class StatusPathTrie
+{
+
+  static final StatusPathTrie EMPTY = new StatusPathTrie(Map.of(), null, 0);
+  private final Map<String, StatusPathTrie> children;
+  @Nullable
+  private final IFileChangeType change;
+  private final int size;
+  // changed files of this node and all nodes below it, only collected when they are first needed
+  private volatile IFileChangeType[] members;
+
+  private StatusPathTrie(@NotNull Map<String, StatusPathTrie> pChildren, @Nullable IFileChangeType pChange, int pSize)
+  {
+    children = pChildren;
+    change = pChange;
+    size = pSize;
+  }
+
+  /**
+   * @return the child nodes of this node, mapped by their path segment
+   */
+  @NotNull
+  Map<String, StatusPathTrie> getChildren()
+  {
+    return Collections.unmodifiableMap(children);
+  }
+
+  /**
+   * @return change of the file with the path of this node, null if the path of this node is only a folder containing changed files
+   */
+  @Nullable
+  IFileChangeType getChange()
+  {
+    return change;
+  }
+
+  /**
+   * @return number of changed files in this node and all nodes below it
+   */
+  int size()
+  {
+    return size;
+  }
+
+  /**
+   * @return unmodifiable list of the changed files in this node and all nodes below it. The size of the list is known without collecting the files, the
+   * files are collected once the first element is requested
+   */
+  @NotNull
+  List<IFileChangeType> getMembers()
+  {
+    return new _Members();
+  }
+
+  /**
+   * @param pChanges changes to apply, a change with a null IFileChangeType removes the change of its path. If several changes are for the same path, the
+   *                 last one wins
+   * @return trie with the changes applied, shares all nodes whose paths are not affected by the changes with this trie
+   */
+  @NotNull
+  StatusPathTrie apply(@NotNull List<PathChange> pChanges)
+  {
+    if (pChanges.isEmpty())
+      return this;
+    return _apply(pChanges, 0);
+  }
+
+  @NotNull
+  private StatusPathTrie _apply(@NotNull List<PathChange> pChanges, int pDepth)
+  {
+    if (Thread.currentThread().isInterrupted())
+      throw new InterruptedRuntimeException();
+    IFileChangeType newChange = change;
+    Map<String, List<PathChange>> childChanges = new HashMap<>();
+    for (PathChange pathChange : pChanges)
+    {
+      if (pathChange.segments.length == pDepth)
+        newChange = pathChange.change;
+      else
+        childChanges.computeIfAbsent(pathChange.segments[pDepth], pSegment -> new ArrayList<>()).add(pathChange);
+    }
+    if (childChanges.isEmpty() && newChange == change)
+      return this;
+    Map<String, StatusPathTrie> newChildren = childChanges.isEmpty() ? children : new HashMap<>(children);
+    int newSize = size - (change == null ? 0 : 1) + (newChange == null ? 0 : 1);
+    for (Map.Entry<String, List<PathChange>> childChange : childChanges.entrySet())
+    {
+      StatusPathTrie oldChild = children.getOrDefault(childChange.getKey(), EMPTY);
+      StatusPathTrie newChild = oldChild._apply(childChange.getValue(), pDepth + 1);
+      newSize += newChild.size - oldChild.size;
+      if (newChild.size == 0)
+        newChildren.remove(childChange.getKey());
+      else
+        newChildren.put(childChange.getKey(), newChild);
+    }
+    if (newSize == 0)
+      return EMPTY;
+    return new StatusPathTrie(newChildren, newChange, newSize);
+  }
+
+  @NotNull
+  private IFileChangeType[] _getMembers()
+  {
+    IFileChangeType[] collectedMembers = members;
+    if (collectedMembers == null)
+    {
+      collectedMembers = new IFileChangeType[size];
+      _collectMembers(collectedMembers, 0);
+      members = collectedMembers;
+    }
+    return collectedMembers;
+  }
+
+  private int _collectMembers(@NotNull IFileChangeType[] pMembers, int pIndex)
+  {
+    if (change != null)
+      pMembers[pIndex++] = change;
+    for (StatusPathTrie child : children.values())
+    {
+      pIndex = child._collectMembers(pMembers, pIndex);
+    }
+    return pIndex;
+  }
+
+  /**
+   * Change of the file with the given path
+   */
+  static final class PathChange
+  {
+    private final String[] segments;
+    @Nullable
+    private final IFileChangeType change;
+
+    /**
+     * @param pSegments segments of the path, should be interned since they are the keys of all tries that contain the path
+     * @param pChange   new change of the file with the path, null if the file is no longer changed
+     */
+    PathChange(@NotNull String[] pSegments, @Nullable IFileChangeType pChange)
+    {
+      segments = pSegments;
+      change = pChange;
+    }
+  }
+
+  /**
+   * list view of the changed files of the trie node
+   */
+  private class _Members extends AbstractList<IFileChangeType> implements RandomAccess
+  {
+    @Override
+    public IFileChangeType get(int pIndex)
+    {
+      return _getMembers()[pIndex];
+    }
+
+    @Override
+    public int size()
+    {
+      return size;
+    }
+  }
+}
@@ -8,25 +8,32 @@ import de.adito.git.gui.tree.TreeUpdate;
 import de.adito.git.gui.tree.nodes.FileChangeTypeNode;
 import de.adito.git.gui.tree.nodes.FileChangeTypeNodeInfo;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.tree.TreeNode;
 import java.io.File;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Model for the Tree that displays the changed files
+ * Model for the Tree that displays the changed files. The changed files are kept in an immutable trie of their path segments, a new list of changed
+ * files only replaces the trie nodes on the paths of the files that differ from the last list. Comparing the new trie with the trie that the tree shows
+ * skips all shared trie nodes, so only the nodes of the tree whose files changed are updated
  *
  * @author m.kaspera, 22.02.2019
  */
 public class StatusTreeModel extends ObservingTreeModel<IFileChangeType> implements IDiscardable
 {
 
-  private final Comparator<TreeNode> comparator = _getDefaultComparator();
+  private final Path projectPath;
+  // state that the nodes of the tree were last updated to, only changed in the EDT after the updates were applied to the tree
+  private volatile _State appliedState = new _State(StatusPathTrie.EMPTY, Set.of());
 
   public StatusTreeModel(@NotNull File pProjectDirectory)
   {
     super(pProjectDirectory);
+    projectPath = pProjectDirectory.toPath();
   }
 
   @Override
@@ -36,23 +43,26 @@ public class StatusTreeModel extends ObservingTreeModel<IFileChangeType> impleme
   }
 
   @NotNull
-  private List<TreeUpdate> _calculateTree(@NotNull List<IFileChangeType> pList)
+  private List<TreeUpdate> _calculateTree(@NotNull List<IFileChangeType> pList, @NotNull AtomicReference<_State> pCalculatedState)
   {
     List<TreeUpdate> treeUpdates = new ArrayList<>();
     FileChangeTypeNode rootNode = (FileChangeTypeNode) getRoot();
-    HashMap<File, HashMap<File, FileChangeTypeNodeInfo>> fileHashMap = _calculateMap(pList);
-    if (!fileHashMap.isEmpty())
+    _State oldState = appliedState;
+    Set<IFileChangeType> changes = new HashSet<>(pList);
+    StatusPathTrie trie = oldState.trie.apply(_getPathChanges(oldState.changes, changes, pList));
+    if (trie.size() > 0)
     {
-      fileHashMap = _reduce(fileHashMap, pList.stream().map(IFileChangeType::getFile).collect(Collectors.toCollection(HashSet::new)), projectDirectory.getParentFile());
+      StatusPathTrie oldTrie = oldState.trie;
       if (rootNode == null)
       {
-        rootNode = new FileChangeTypeNode(fileHashMap.get(projectDirectory.getParentFile()).get(projectDirectory));
+        rootNode = new FileChangeTypeNode(new FileChangeTypeNodeInfo(projectDirectory.getName(), projectDirectory, trie.getMembers()));
         treeUpdates.add(TreeUpdate.createRoot(rootNode));
+        oldTrie = StatusPathTrie.EMPTY;
       }
       FileChangeTypeNodeInfo rootInfo = rootNode.getInfo();
       if (rootInfo != null)
         rootInfo.setMembers(pList);
-      treeUpdates.addAll(_updateTree(fileHashMap, rootNode));
+      _patchChildren(rootNode, oldTrie, trie, projectDirectory, treeUpdates);
     }
     else
     {
@@ -67,14 +77,144 @@ public class StatusTreeModel extends ObservingTreeModel<IFileChangeType> impleme
         }
       }
     }
+    pCalculatedState.set(new _State(trie, changes));
     return treeUpdates;
   }
 
+  /**
+   * @param pOldChanges changes that the current trie contains
+   * @param pNewChanges changes that the new trie should contain
+   * @param pNewList    changes that the new trie should contain, in the order they were passed to the model
+   * @return changes that have to be applied to the current trie. Removed changes come first, so a file whose change type changed ends up with the new change
+   */
+  @NotNull
+  private List<StatusPathTrie.PathChange> _getPathChanges(@NotNull Set<IFileChangeType> pOldChanges, @NotNull Set<IFileChangeType> pNewChanges,
+                                                          @NotNull List<IFileChangeType> pNewList)
+  {
+    List<StatusPathTrie.PathChange> pathChanges = new ArrayList<>();
+    for (IFileChangeType oldChange : pOldChanges)
+    {
+      if (!pNewChanges.contains(oldChange))
+      {
+        String[] segments = _getSegments(oldChange);
+        if (segments != null)
+          pathChanges.add(new StatusPathTrie.PathChange(segments, null));
+      }
+    }
+    for (IFileChangeType newChange : pNewList)
+    {
+      if (!pOldChanges.contains(newChange))
+      {
+        String[] segments = _getSegments(newChange);
+        if (segments != null)
+          pathChanges.add(new StatusPathTrie.PathChange(segments, newChange));
+      }
+    }
+    return pathChanges;
+  }
+
+  /**
+   * @param pChange change to get the path segments for
+   * @return interned segments of the path of the changed file, relative to the project directory. Null if the file is not inside the project directory
+   */
+  @Nullable
+  private String[] _getSegments(@NotNull IFileChangeType pChange)
+  {
+    Path path = pChange.getFile().toPath();
+    if (!path.startsWith(projectPath) || path.equals(projectPath))
+      return null;
+    Path relativePath = projectPath.relativize(path);
+    String[] segments = new String[relativePath.getNameCount()];
+    for (int index = 0; index < segments.length; index++)
+    {
+      segments[index] = relativePath.getName(index).toString().intern();
+    }
+    return segments;
+  }
+
+  /**
+   * Updates the children of pNode from the children of pOldTrie to the children of pNewTrie. Children whose trie nodes are the same in both tries did
+   * not change and are skipped, along with everything below them
+   *
+   * @param pNode    node that shows the children of pOldTrie
+   * @param pOldTrie trie node that pNode currently shows
+   * @param pNewTrie trie node that pNode should show
+   * @param pFile    file of the trie nodes
+   * @param pUpdates list that the necessary updates are added to
+   */
+  private void _patchChildren(@NotNull FileChangeTypeNode pNode, @NotNull StatusPathTrie pOldTrie, @NotNull StatusPathTrie pNewTrie, @NotNull File pFile,
+                              @NotNull List<TreeUpdate> pUpdates)
+  {
+    if (Thread.currentThread().isInterrupted())
+      throw new InterruptedRuntimeException();
+    Map<String, StatusPathTrie> oldChildren = pOldTrie.getChildren();
+    Map<String, StatusPathTrie> newChildren = pNewTrie.getChildren();
+    Map<File, FileChangeTypeNode> childNodes = null;
+    for (Map.Entry<String, StatusPathTrie> newChild : newChildren.entrySet())
+    {
+      StatusPathTrie oldChild = oldChildren.get(newChild.getKey());
+      if (oldChild == newChild.getValue())
+        continue;
+      _CollapsedPath newPath = new _CollapsedPath(newChild.getKey(), newChild.getValue(), pFile);
+      if (oldChild != null)
+      {
+        if (childNodes == null)
+          childNodes = _getChildNodes(pNode);
+        _CollapsedPath oldPath = new _CollapsedPath(newChild.getKey(), oldChild, pFile);
+        FileChangeTypeNode childNode = childNodes.get(oldPath.file);
+        if (childNode != null && childNode.getInfo() != null && oldPath.description.equals(newPath.description))
+        {
+          childNode.getInfo().setMembers(newPath.trie.getMembers());
+          _patchChildren(childNode, oldPath.trie, newPath.trie, newPath.file, pUpdates);
+          continue;
+        }
+        if (childNode != null)
+          pUpdates.add(TreeUpdate.createRemove(childNode));
+      }
+      FileChangeTypeNode childNode = new FileChangeTypeNode(new FileChangeTypeNodeInfo(newPath.description, newPath.file, newPath.trie.getMembers()));
+      pUpdates.add(TreeUpdate.createInsert(childNode, pNode, 0));
+      _patchChildren(childNode, StatusPathTrie.EMPTY, newPath.trie, newPath.file, pUpdates);
+    }
+    for (Map.Entry<String, StatusPathTrie> oldChild : oldChildren.entrySet())
+    {
+      if (!newChildren.containsKey(oldChild.getKey()))
+      {
+        if (childNodes == null)
+          childNodes = _getChildNodes(pNode);
+        FileChangeTypeNode childNode = childNodes.get(new _CollapsedPath(oldChild.getKey(), oldChild.getValue(), pFile).file);
+        if (childNode != null)
+          pUpdates.add(TreeUpdate.createRemove(childNode));
+      }
+    }
+  }
+
+  /**
+   * @param pNode node whose children should be mapped
+   * @return children of the node, mapped by their file
+   */
+  @NotNull
+  private static Map<File, FileChangeTypeNode> _getChildNodes(@NotNull FileChangeTypeNode pNode)
+  {
+    Map<File, FileChangeTypeNode> childNodes = new HashMap<>();
+    for (int index = 0; index < pNode.getChildCount(); index++)
+    {
+      FileChangeTypeNode childNode = (FileChangeTypeNode) pNode.getChildAt(index);
+      if (childNode.getInfo() != null)
+        childNodes.put(childNode.getInfo().getNodeFile(), childNode);
+    }
+    return childNodes;
+  }
+
   void _treeChanged(@NotNull List<IFileChangeType> pList, Runnable... pDoAfter)
   {
     try
     {
-      service.submit(new TreeModelBackgroundUpdater<>(this, this::_calculateTree, pList, comparator, pDoAfter));
+      // the calculated state only becomes the applied state if the updates are actually applied to the tree, the next calculation is based on it
+      AtomicReference<_State> calculatedState = new AtomicReference<>();
+      Runnable[] doAfter = new Runnable[pDoAfter.length + 1];
+      doAfter[0] = () -> appliedState = calculatedState.get();
+      System.arraycopy(pDoAfter, 0, doAfter, 1, pDoAfter.length);
+      service.submit(new TreeModelBackgroundUpdater<>(this, pChanges -> _calculateTree(pChanges, calculatedState), pList, _getDefaultComparator(), doAfter));
     }
     catch (InterruptedRuntimeException pE)
     {
@@ -85,4 +225,54 @@ public class StatusTreeModel extends ObservingTreeModel<IFileChangeType> impleme
       throw new RuntimeException(pE);
     }
   }
+
+  /**
+   * trie of the changes that are shown by the tree, and the changes themselves to find the changes that differ from a new list of changes
+   */
+  private static class _State
+  {
+    private final StatusPathTrie trie;
+    private final Set<IFileChangeType> changes;
+
+    _State(@NotNull StatusPathTrie pTrie, @NotNull Set<IFileChangeType> pChanges)
+    {
+      trie = pTrie;
+      changes = pChanges;
+    }
+  }
+
+  /**
+   * Path that is shown by a single node. Folders that only contain a single folder are collapsed into one node, the description of the node contains
+   * the names of all the folders
+   */
+  private static class _CollapsedPath
+  {
+    private final String description;
+    private final File file;
+    private final StatusPathTrie trie;
+
+    /**
+     * @param pSegment    segment of the first trie node of the path
+     * @param pTrie       first trie node of the path
+     * @param pParentFile file of the parent of the first trie node
+     */
+    _CollapsedPath(@NotNull String pSegment, @NotNull StatusPathTrie pTrie, @NotNull File pParentFile)
+    {
+      StringBuilder descriptionBuilder = new StringBuilder(pSegment);
+      File currentFile = new File(pParentFile, pSegment);
+      StatusPathTrie currentTrie = pTrie;
+      while (currentTrie.getChange() == null && currentTrie.getChildren().size() == 1)
+      {
+        Map.Entry<String, StatusPathTrie> singleChild = currentTrie.getChildren().entrySet().iterator().next();
+        if (singleChild.getValue().getChange() != null)
+          break;
+        descriptionBuilder.append(" / ").append(singleChild.getKey());
+        currentFile = new File(currentFile, singleChild.getKey());
+        currentTrie = singleChild.getValue();
+      }
+      description = descriptionBuilder.toString();
+      file = currentFile;
+      trie = currentTrie;
+    }
+  }
 }
@@ -3,18 +3,27 @@ package de.adito.git.gui.window;
 import de.adito.git.api.CommitHistoryTreeListItem;
 import de.adito.git.api.IRepository;
 import de.adito.git.api.IUserPreferences;
+import de.adito.git.api.data.IBranch;
+import de.adito.git.api.data.ICommit;
 import de.adito.git.api.data.ICommitFilter;
+import de.adito.git.api.data.ITag;
 import de.adito.git.api.exception.AditoGitException;
+import de.adito.git.gui.concurrency.GitProcessExecutors;
 import de.adito.git.gui.tablemodels.CommitHistoryTreeListTableModel;
 import de.adito.git.impl.CommitHistoryItemsIteratorImpl;
+import de.adito.git.impl.CommitRefsLookup;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import javax.swing.*;
+import java.util.*;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
- * Logic for loading/refreshing the entries in the CommitHistoryTableModel
+ * Logic for loading/refreshing the entries in the CommitHistoryTableModel. The commits are read without holding the lock, and the table model is only
+ * changed on the EDT. The loaded entries that the refreshes are based on are tracked under the lock when a change of the table model is scheduled, so
+ * they are up to date even if the EDT did not apply the change yet
  *
  * @author m.kaspera, 23.05.2019
  */
@@ -25,7 +34,23 @@ public class HistoryTableManager
   private final CommitHistoryTreeListTableModel tableModel;
   private final IRepository repository;
   private final IUserPreferences userPreferences;
+  private final Deque<List<CommitHistoryTreeListItem>> prefetchedPages = new ArrayDeque<>();
   private CommitHistoryItemsIteratorImpl commitHistoryIterator;
+  private CommitRefsLookup currentRefsLookup;
+  private ICommitFilter currentFilter;
+  private _RefsSnapshot currentRefs;
+  // first entry and ids of the commits in the table model, including the changes that were scheduled but not yet applied on the EDT
+  private CommitHistoryTreeListItem firstLoadedItem;
+  private Set<String> loadedCommitIds = new HashSet<>();
+  // incremented each time the entries are loaded again, pages that were read for an older generation are discarded
+  private int generation = 0;
+  private int prefetchingGeneration = -1;
+  private boolean isPageRequested = false;
+  // a page was read for a request and waits to be inserted on the EDT
+  private boolean isPagePending = false;
+  // the entries were loaded again and wait to be set on the EDT, no pages are read or inserted until then
+  private boolean isResetPending = false;
+  private boolean isExhausted = false;
 
   public HistoryTableManager(IRepository pRepository, IUserPreferences pUserPreferences)
   {
@@ -34,20 +59,41 @@ public class HistoryTableManager
     tableModel = new CommitHistoryTreeListTableModel(new ArrayList<>());
   }
 
+  /**
+   * The consumer reloads the entries if it is called with a different filter instance than before. If it is called with the same filter instance
+   * again, only the refs changed, and new commits on top of the already loaded entries are put above them without loading the entries again
+   *
+   * @return Consumer that refreshes the entries for the passed filter
+   */
   public Consumer<ICommitFilter> getFilterChangedConsumer()
   {
     return pNewFilter -> {
       try
       {
+        List<IBranch> branches = repository.getBranches().blockingFirst(Optional.empty()).orElse(List.of());
+        List<ITag> tags = repository.getTags().blockingFirst(List.of());
+        ICommit head = repository.getCommit(null);
+        CommitRefsLookup refsLookup = new CommitRefsLookup(branches, tags, head);
+        _RefsSnapshot refs = new _RefsSnapshot(branches, tags, head);
+        int updateGeneration;
+        CommitHistoryTreeListItem firstItem;
+        _RefsSnapshot previousRefs;
         synchronized (lock)
         {
-          commitHistoryIterator = new CommitHistoryItemsIteratorImpl(repository.getCommits(pNewFilter),
-                                                                     repository.getBranches().blockingFirst(Optional.empty()).orElse(List.of()),
-                                                                     repository.getTags().blockingFirst(List.of()),
-                                                                     repository.getCommit(null));
-          List<CommitHistoryTreeListItem> items = commitHistoryIterator.tryReadEntries(userPreferences.getNumLoadAdditionalCHEntries());
-          tableModel.resetData(items);
+          updateGeneration = generation;
+          firstItem = pNewFilter == currentFilter ? firstLoadedItem : null;
+          previousRefs = currentRefs;
+        }
+        if (firstItem != null && previousRefs != null)
+        {
+          if (refs.equals(previousRefs))
+            return;
+          List<CommitHistoryTreeListItem> newItems = new CommitHistoryItemsIteratorImpl(repository.getCommits(pNewFilter), refsLookup)
+              .tryReadEntriesUntil(firstItem, userPreferences.getNumLoadAdditionalCHEntries());
+          if (newItems != null && _tryPrependEntries(pNewFilter, newItems, new _EntriesState(updateGeneration, firstItem, previousRefs), refsLookup, refs))
+            return;
         }
+        _reloadEntries(pNewFilter, refsLookup, refs);
       }
       catch (AditoGitException pE)
       {
@@ -56,12 +102,26 @@ public class HistoryTableManager
     };
   }
 
+  /**
+   * The next pages are read ahead on a background thread, so the runnable usually only has to insert a page that is already there. If the next page is
+   * not read yet, it is inserted as soon as it is read. Calls while a requested page is not yet inserted are ignored, so calling the runnable on every
+   * adjustment of the scrollbar near the bottom only loads one page. Has to be called on the EDT
+   *
+   * @return Runnable that inserts the next page of entries into the table model
+   */
   public Runnable getLoadMoreRunnable()
   {
     return () -> {
       synchronized (lock)
       {
-        tableModel.addData(commitHistoryIterator == null ? List.of() : commitHistoryIterator.tryReadEntries(userPreferences.getNumLoadAdditionalCHEntries()));
+        if (isPageRequested || isPagePending || isResetPending)
+          return;
+        List<CommitHistoryTreeListItem> page = prefetchedPages.poll();
+        if (page != null)
+          _publishPage(page);
+        else
+          isPageRequested = true;
+        _startPrefetching();
       }
     };
   }
@@ -71,4 +131,262 @@ public class HistoryTableManager
     return tableModel;
   }
 
+  /**
+   * starts reading pages in the background, if that is not already happening for the current entries. Has to be called while holding the lock
+   */
+  private void _startPrefetching()
+  {
+    if (commitHistoryIterator != null && !isResetPending && !isExhausted && prefetchingGeneration != generation
+        && (isPageRequested || prefetchedPages.size() < userPreferences.getNumPrefetchedCHPages()))
+    {
+      prefetchingGeneration = generation;
+      int prefetchGeneration = generation;
+      CommitHistoryItemsIteratorImpl iterator = commitHistoryIterator;
+      GitProcessExecutors.getDefaultBackgroundExecutor().execute(() -> _prefetchPage(iterator, prefetchGeneration));
+    }
+  }
+
+  /**
+   * Reads a single page and submits the reading of the next page afterwards, so other background tasks do not have to wait for all pages
+   *
+   * @param pIterator   iterator of the entries the pages are read for
+   * @param pGeneration generation of the entries the pages are read for
+   */
+  private void _prefetchPage(@NotNull CommitHistoryItemsIteratorImpl pIterator, int pGeneration)
+  {
+    // the iterator is only used by this thread, the lock is only needed to hand over the page
+    List<CommitHistoryTreeListItem> page = pIterator.tryReadEntries(userPreferences.getNumLoadAdditionalCHEntries());
+    synchronized (lock)
+    {
+      if (pGeneration != generation)
+        return;
+      prefetchingGeneration = -1;
+      if (page.isEmpty())
+      {
+        isExhausted = true;
+        return;
+      }
+      if (isPageRequested)
+      {
+        isPageRequested = false;
+        isPagePending = true;
+        // the table model may only be changed on the EDT, the entries may be loaded again until then
+        SwingUtilities.invokeLater(() -> {
+          synchronized (lock)
+          {
+            if (pGeneration != generation)
+              return;
+            isPagePending = false;
+            _publishPage(page);
+          }
+        });
+      }
+      else
+        prefetchedPages.add(page);
+      _startPrefetching();
+    }
+  }
+
+  /**
+   * inserts the page into the table model. Has to be called on the EDT while holding the lock
+   *
+   * @param pPage page to insert, its branches and tags are updated in case the refs changed after it was read
+   */
+  private void _publishPage(@NotNull List<CommitHistoryTreeListItem> pPage)
+  {
+    pPage.forEach(pItem -> loadedCommitIds.add(pItem.getCommit().getId()));
+    CommitRefsLookup refsLookup = currentRefsLookup;
+    tableModel.addData(pPage.stream()
+                           .map(pItem -> pItem.withRefs(refsLookup.getBranches(pItem.getCommit()), refsLookup.getTags(pItem.getCommit())))
+                           .collect(Collectors.toList()));
+  }
+
+  /**
+   * Loads the first page of the entries for the filter and replaces the entries of the table model with it on the EDT
+   *
+   * @param pFilter     filter of the entries
+   * @param pRefsLookup lookup for the current branches and tags
+   * @param pRefs       current refs
+   * @throws AditoGitException if the commits cannot be read
+   */
+  private void _reloadEntries(@NotNull ICommitFilter pFilter, @NotNull CommitRefsLookup pRefsLookup, @NotNull _RefsSnapshot pRefs) throws AditoGitException
+  {
+    int reloadGeneration;
+    synchronized (lock)
+    {
+      // cancels the prefetching of the pages for the old entries
+      reloadGeneration = ++generation;
+      prefetchedPages.clear();
+      commitHistoryIterator = null;
+      currentFilter = null;
+      firstLoadedItem = null;
+      loadedCommitIds = new HashSet<>();
+      isPageRequested = false;
+      isPagePending = false;
+      isResetPending = false;
+      isExhausted = false;
+    }
+    CommitHistoryItemsIteratorImpl iterator = new CommitHistoryItemsIteratorImpl(repository.getCommits(pFilter), pRefsLookup);
+    List<CommitHistoryTreeListItem> items = iterator.tryReadEntries(userPreferences.getNumLoadAdditionalCHEntries());
+    synchronized (lock)
+    {
+      if (reloadGeneration != generation)
+        return;
+      commitHistoryIterator = iterator;
+      currentFilter = pFilter;
+      currentRefs = pRefs;
+      currentRefsLookup = pRefsLookup;
+      firstLoadedItem = items.isEmpty() ? null : items.get(0);
+      items.forEach(pItem -> loadedCommitIds.add(pItem.getCommit().getId()));
+      isResetPending = true;
+      SwingUtilities.invokeLater(() -> {
+        synchronized (lock)
+        {
+          if (reloadGeneration != generation)
+            return;
+          isResetPending = false;
+          tableModel.resetData(items);
+          _startPrefetching();
+        }
+      });
+    }
+  }
+
+  /**
+   * Puts the commits that were added on top of the loaded entries above them on the EDT and updates the branches and tags of the loaded entries. The lines
+   * of the loaded entries stay as they are, so this is only possible if the refs only moved on to the added commits and all lines of the added commits lead
+   * to the first loaded entry
+   *
+   * @param pFilter       filter of the loaded entries
+   * @param pNewItems     entries read before the first loaded entry, followed by the replacement of the first loaded entry
+   * @param pEntriesState loaded entries that the new entries were read for
+   * @param pRefsLookup   lookup for the current branches and tags
+   * @param pRefs         current refs
+   * @return true if the loaded entries are up to date, false if they have to be loaded again
+   */
+  private boolean _tryPrependEntries(@NotNull ICommitFilter pFilter, @NotNull List<CommitHistoryTreeListItem> pNewItems, @NotNull _EntriesState pEntriesState,
+                                     @NotNull CommitRefsLookup pRefsLookup, @NotNull _RefsSnapshot pRefs)
+  {
+    CommitHistoryTreeListItem joinedItem = pNewItems.remove(pNewItems.size() - 1);
+    Set<String> addedCommitIds = pNewItems.stream().map(pItem -> pItem.getCommit().getId()).collect(Collectors.toSet());
+    synchronized (lock)
+    {
+      // the loaded entries changed while the new entries were read
+      if (pEntriesState.generation != generation || pEntriesState.firstItem != firstLoadedItem || pEntriesState.refs != currentRefs)
+        return false;
+      if (!currentRefs.onlyMovedTo(pRefs, _getRefKey(pFilter.getBranch()), addedCommitIds, loadedCommitIds))
+        return false;
+      // the pages that were already read are updated once they are inserted
+      commitHistoryIterator.setRefsLookup(pRefsLookup);
+      currentRefs = pRefs;
+      currentRefsLookup = pRefsLookup;
+      firstLoadedItem = pNewItems.isEmpty() ? joinedItem : pNewItems.get(0);
+      loadedCommitIds.addAll(addedCommitIds);
+      int updateGeneration = generation;
+      CommitHistoryTreeListItem firstItem = pEntriesState.firstItem;
+      SwingUtilities.invokeLater(() -> {
+        synchronized (lock)
+        {
+          if (updateGeneration != generation)
+            return;
+          tableModel.prependData(pNewItems, pItem -> pItem == firstItem ? joinedItem
+              : pItem.withRefs(pRefsLookup.getBranches(pItem.getCommit()), pRefsLookup.getTags(pItem.getCommit())));
+        }
+      });
+      return true;
+    }
+  }
+
+  /**
+   * @param pBranch branch of the filter
+   * @return key of the ref the commits are read from, null if the commits are read from all refs
+   */
+  @Nullable
+  private static String _getRefKey(@Nullable IBranch pBranch)
+  {
+    if (pBranch == null || IBranch.ALL_BRANCHES.equals(pBranch))
+      return null;
+    return IBranch.HEAD.equals(pBranch) ? _RefsSnapshot.HEAD_KEY : _RefsSnapshot.BRANCH_PREFIX + pBranch.getName();
+  }
+
+  /**
+   * Loaded entries at the time a refresh started
+   */
+  private static class _EntriesState
+  {
+    private final int generation;
+    private final CommitHistoryTreeListItem firstItem;
+    private final _RefsSnapshot refs;
+
+    _EntriesState(int pGeneration, @NotNull CommitHistoryTreeListItem pFirstItem, @NotNull _RefsSnapshot pRefs)
+    {
+      generation = pGeneration;
+      firstItem = pFirstItem;
+      refs = pRefs;
+    }
+  }
+
+  /**
+   * Ids of the commits that the branches, tags and HEAD point to at one point in time
+   */
+  private static class _RefsSnapshot
+  {
+    private static final String HEAD_KEY = "HEAD";
+    private static final String BRANCH_PREFIX = "branch:";
+    private static final String TAG_PREFIX = "tag:";
+    private final Map<String, String> refs = new HashMap<>();
+
+    _RefsSnapshot(@NotNull List<IBranch> pBranches, @NotNull List<ITag> pTags, @Nullable ICommit pHead)
+    {
+      pBranches.forEach(pBranch -> refs.put(BRANCH_PREFIX + pBranch.getName(), pBranch.getId()));
+      pTags.forEach(pTag -> refs.put(TAG_PREFIX + pTag.getName(), pTag.getId()));
+      if (pHead != null)
+        refs.put(HEAD_KEY, pHead.getId());
+    }
+
+    /**
+     * @param pNewer         snapshot taken after this one
+     * @param pRefKey        key of the only ref whose commits are shown, null if the commits of all refs are shown
+     * @param pAddedCommits  ids of the commits that were added on top of the loaded commits
+     * @param pLoadedCommits ids of the loaded commits
+     * @return true if the shown commits are still the loaded commits plus the added commits, that is if no ref was removed, the refs only moved to the
+     * added commits and new refs point to either the added or the loaded commits
+     */
+    boolean onlyMovedTo(@NotNull _RefsSnapshot pNewer, @Nullable String pRefKey, @NotNull Set<String> pAddedCommits, @NotNull Set<String> pLoadedCommits)
+    {
+      for (Map.Entry<String, String> ref : refs.entrySet())
+      {
+        if (pRefKey != null && !pRefKey.equals(ref.getKey()))
+          continue;
+        String newId = pNewer.refs.get(ref.getKey());
+        if (newId == null || !newId.equals(ref.getValue()) && !pAddedCommits.contains(newId))
+          return false;
+      }
+      if (pRefKey != null)
+        return true;
+      for (Map.Entry<String, String> newRef : pNewer.refs.entrySet())
+      {
+        if (!refs.containsKey(newRef.getKey()) && !pAddedCommits.contains(newRef.getValue()) && !pLoadedCommits.contains(newRef.getValue()))
+          return false;
+      }
+      return true;
+    }
+
+    @Override
+    public boolean equals(Object pO)
+    {
+      if (this == pO)
+        return true;
+      if (pO == null || getClass() != pO.getClass())
+        return false;
+      return refs.equals(((_RefsSnapshot) pO).refs);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return refs.hashCode();
+    }
+  }
+
 }
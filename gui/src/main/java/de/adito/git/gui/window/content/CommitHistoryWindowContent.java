@@ -37,6 +37,7 @@ import java.awt.event.MouseEvent;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -66,7 +67,7 @@ class CommitHistoryWindowContent extends JPanel implements IDiscardable
   private final Runnable loadMoreCallback;
   private final Observable<Optional<List<CommitHistoryTreeListItem>>> selectedCommitHistoryItems;
   private final Observable<Optional<List<ICommit>>> selectedCommitObservable;
-  private final Observable<Optional<IFileStatus>> statusObservable;
+  private final Observable<Map<String, String>> refChangesObservable;
   private final QuickSearchCallbackImpl quickSearchCallback;
   private final List<IDiscardable> popupDiscardables = new ArrayList<>();
   private final CompositeDisposable disposables = new CompositeDisposable();
@@ -139,7 +140,8 @@ class CommitHistoryWindowContent extends JPanel implements IDiscardable
             .setFileList(chosenFiles))
         .replay(1)
         .autoConnect(0, disposables::add);
-    statusObservable = pRepository.switchMap(pOptRepo -> pOptRepo.map(IRepository::getStatus).orElse(Observable.just(Optional.empty())))
+    // the history only depends on the commits and refs, changes in the working tree do not have to trigger a refresh
+    refChangesObservable = pRepository.switchMap(pOptRepo -> pOptRepo.map(IRepository::getRefChanges).orElse(Observable.just(Map.of())))
         .debounce(500, TimeUnit.MILLISECONDS);
     commitDetailsPanel = pPanelFactory.createCommitDetailsPanel(pRepository, selectedCommitObservable, pStartFilter);
     _initGUI(pLoadMoreCallback, pRefreshContentCallBack, pIconLoader);
@@ -182,7 +184,8 @@ class CommitHistoryWindowContent extends JPanel implements IDiscardable
     JScrollPane commitScrollPane = new JScrollPane(commitTable, ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS,
                                                    ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
     commitTableView.add(commitScrollPane, BorderLayout.CENTER);
-    // Listener on the vertical scrollbar to check if the user has reached the bottom. In that , load the next batch of commits into the list
+    // Listener on the vertical scrollbar to check if the user is less than one screen away from the bottom. In that case, load the next batch of commits
+    // into the list, so the user does not have to wait at the bottom
     commitScrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
       // check if the scrollBar is still being dragged
       if (!e.getValueIsAdjusting())
@@ -190,7 +193,7 @@ class CommitHistoryWindowContent extends JPanel implements IDiscardable
         JScrollBar scrollBar = (JScrollBar) e.getAdjustable();
         int extent = scrollBar.getModel().getExtent();
         int maximum = scrollBar.getModel().getMaximum();
-        if (extent + e.getValue() == maximum)
+        if (maximum - (extent + e.getValue()) <= extent)
         {
           pLoadMoreCallback.run();
         }
@@ -224,7 +227,7 @@ class CommitHistoryWindowContent extends JPanel implements IDiscardable
     toolBar.add(authorLabel);
     authorField.setPreferredSize(new Dimension(400, 26));
     toolBar.add(authorField);
-    disposables.add(Observable.combineLatest(commitFilterObs, statusObservable, (pFilter, pStatus) -> pFilter).subscribe(pRefreshContentCallBack::accept));
+    disposables.add(Observable.combineLatest(commitFilterObs, refChangesObservable, (pFilter, pRefs) -> pFilter).subscribe(pRefreshContentCallBack::accept));
   }
 
   private void _selectCommit(ICommit pCommit, int startIndex)
@@ -1,16 +1,32 @@
 package de.adito.git.gui.sequences;
 
+import de.adito.git.api.INotifyUtil;
+import de.adito.git.api.IRepository;
 import de.adito.git.api.data.diff.*;
+import de.adito.git.api.progress.IAsyncProgressFacade;
+import de.adito.git.api.progress.IProgressHandle;
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+
 /**
  * @author m.kaspera, 08.05.2020
  */
 public class MergeConflictSequenceTest
 {
 
+  @TempDir
+  File repoDir;
+
   @Test
   void testAdjustLineEndingsFromUnixToWindows()
   {
@@ -65,6 +81,122 @@ public class MergeConflictSequenceTest
     Assertions.assertEquals("Hello there\r\nHow are you?\r\nThere's another one\r\n", adjustLineEndings);
   }
 
+  /**
+   * Tests that cancelling the auto-resolve lets the files that were already written be added, including those whose result was not taken yet, and that files
+   * that were not written yet are skipped
+   */
+  @Test
+  void testCancelAutoResolve() throws Exception
+  {
+    CountDownLatch shutDown = new CountDownLatch(1);
+    CountDownLatch written = new CountDownLatch(2);
+    // counts the finished tasks, and the shutdown that is only called after the auto-resolve was marked as cancelled
+    ExecutorService executorService = new ThreadPoolExecutor(3, 3, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>())
+    {
+      @Override
+      protected void afterExecute(Runnable pRunnable, Throwable pThrowable)
+      {
+        written.countDown();
+      }
+
+      @Override
+      public void shutdown()
+      {
+        super.shutdown();
+        shutDown.countDown();
+      }
+    };
+    IMergeData first = _createResolvableMergeData("first.txt");
+    IMergeData second = _createResolvableMergeData("second.txt");
+    IMergeData third = _createResolvableMergeData("third.txt");
+    // the third file is only checked once the auto-resolve was cancelled
+    Mockito.doAnswer(pInvocation -> {
+      Assertions.assertTrue(shutDown.await(10, TimeUnit.SECONDS));
+      return null;
+    }).when(third).markConflicting();
+    IRepository repository = Mockito.mock(IRepository.class);
+    Mockito.when(repository.getTopLevelDirectory()).thenReturn(repoDir);
+    IProgressHandle progressHandle = Mockito.mock(IProgressHandle.class);
+    // cancel once the first result was taken and the first two files were written
+    Mockito.doAnswer(pInvocation -> {
+      Assertions.assertTrue(written.await(10, TimeUnit.SECONDS));
+      Thread.currentThread().interrupt();
+      return null;
+    }).when(progressHandle).progress(1);
+    List<IMergeData> mergeConflicts = new ArrayList<>(List.of(first, second, third));
+
+    MergeConflictSequence.performAutoResolve(mergeConflicts, repository, _createProgressFacade(progressHandle), Mockito.mock(INotifyUtil.class),
+                                             executorService);
+
+    Assertions.assertTrue(Thread.interrupted());
+    Assertions.assertTrue(executorService.isTerminated());
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<File>> addedFiles = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(repository).add(addedFiles.capture());
+    Assertions.assertEquals(Set.of(new File(repoDir, "first.txt"), new File(repoDir, "second.txt")), new HashSet<>(addedFiles.getValue()));
+    for (String fileName : List.of("first.txt", "second.txt"))
+    {
+      Assertions.assertEquals(fileName + "\n", new String(Files.readAllBytes(new File(repoDir, fileName).toPath()), StandardCharsets.UTF_8));
+    }
+    Assertions.assertEquals(List.of(third), mergeConflicts);
+    Assertions.assertFalse(new File(repoDir, "third.txt").exists());
+  }
+
+  /**
+   * @param pProgressHandle progressHandle passed to the executed functions
+   * @return facade that executes the functions in the calling thread
+   */
+  @NotNull
+  private static IAsyncProgressFacade _createProgressFacade(@NotNull IProgressHandle pProgressHandle)
+  {
+    return new IAsyncProgressFacade()
+    {
+      @NotNull
+      @Override
+      public <T, Ex extends Throwable> Future<T> executeInBackground(@NotNull String pDisplayName, @NotNull IExec<T, Ex> pExecutor)
+      {
+        throw new UnsupportedOperationException();
+      }
+
+      @NotNull
+      @Override
+      public <T, Ex extends Throwable> T executeAndBlockWithProgress(@NotNull String pDisplayName, @NotNull IExec<T, Ex> pExecutor)
+      {
+        try
+        {
+          return pExecutor.get(pProgressHandle);
+        }
+        catch (Throwable pE)
+        {
+          throw new RuntimeException(pE);
+        }
+      }
+    };
+  }
+
+  /**
+   * @param pFileName name of the file, relative to the repository. The name followed by a newline is the content of the resolved file
+   * @return mocked IMergeData object without conflicting change deltas
+   */
+  @NotNull
+  private static IMergeData _createResolvableMergeData(@NotNull String pFileName)
+  {
+    IMergeData mergeData = _createMergeData(ELineEnding.UNIX, ELineEnding.UNIX);
+    IFileDiffHeader fileDiffHeader = Mockito.mock(IFileDiffHeader.class);
+    Mockito.when(fileDiffHeader.getFilePath()).thenReturn(pFileName);
+    Mockito.when(fileDiffHeader.getAbsoluteFilePath()).thenReturn(pFileName);
+    for (EConflictSide conflictSide : EConflictSide.values())
+    {
+      IFileDiff fileDiff = mergeData.getDiff(conflictSide);
+      Mockito.when(fileDiff.getChangeDeltas()).thenReturn(List.of());
+      Mockito.when(fileDiff.getFileHeader()).thenReturn(fileDiffHeader);
+      Mockito.when(fileDiff.getText(EChangeSide.OLD)).thenReturn(pFileName + "\n");
+      Mockito.when(fileDiff.getEncoding(EChangeSide.NEW)).thenReturn(StandardCharsets.UTF_8);
+    }
+    Mockito.when(mergeData.getFilePath()).thenReturn(pFileName);
+    return mergeData;
+  }
+
   /**
    * create a IMergeData object with mocked method calls such that when the lineEndings for the two NEW sides are called, the given ELineEndings are returned
    *
@@ -0,0 +1,87 @@
+package de.adito.git.gui.swing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class TiledGutterRendererTest
+{
+
+  private static final int TILE_HEIGHT = TiledGutterRenderer.TILE_HEIGHT;
+  private final List<Integer> renderedAreas = new ArrayList<>();
+  // y coordinate of a marker, painted as a line that is one pixel high
+  private int markerY = TILE_HEIGHT + 10;
+
+  /**
+   * Tests that only the tiles of the visible area and the tiles next to it are rendered, and that the tiles are painted at the right position
+   */
+  @Test
+  void testRendersVisibleTilesOnly()
+  {
+    TiledGutterRenderer renderer = new TiledGutterRenderer(this::_paintMarker);
+    BufferedImage target = _paint(renderer, TILE_HEIGHT + 5);
+    // first visible tile is tile 1, tile 0 and 4 are rendered as margin
+    Assertions.assertEquals(List.of(1, 2, 3, 0, 4), renderedAreas);
+    Assertions.assertEquals(Color.RED.getRGB(), target.getRGB(5, 5));
+    Assertions.assertEquals(0, target.getRGB(5, 6));
+
+    renderedAreas.clear();
+    _paint(renderer, TILE_HEIGHT + 5);
+    Assertions.assertEquals(List.of(), renderedAreas);
+  }
+
+  /**
+   * Tests that only the tiles covering a changed area are rendered again
+   */
+  @Test
+  void testInvalidateOnlyChangedTiles()
+  {
+    TiledGutterRenderer renderer = new TiledGutterRenderer(this::_paintMarker);
+    _paint(renderer, 0);
+    renderedAreas.clear();
+
+    markerY = 2 * TILE_HEIGHT + 20;
+    renderer.invalidate(TILE_HEIGHT + 10, TILE_HEIGHT + 11);
+    renderer.invalidate(2 * TILE_HEIGHT + 20, 2 * TILE_HEIGHT + 21);
+    BufferedImage target = _paint(renderer, 0);
+    Assertions.assertEquals(List.of(1, 2), renderedAreas);
+    Assertions.assertEquals(0, target.getRGB(5, TILE_HEIGHT + 10));
+    Assertions.assertEquals(Color.RED.getRGB(), target.getRGB(5, 2 * TILE_HEIGHT + 20));
+
+    renderedAreas.clear();
+    renderer.invalidateAll();
+    _paint(renderer, 0);
+    Assertions.assertEquals(List.of(0, 1, 2, 3), renderedAreas);
+  }
+
+  /**
+   * paints an area of two and a half tiles, starting at the given y coordinate
+   */
+  private static BufferedImage _paint(TiledGutterRenderer pRenderer, int pStartY)
+  {
+    BufferedImage target = new BufferedImage(20, TILE_HEIGHT * 5 / 2, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D graphics = target.createGraphics();
+    pRenderer.paint(graphics, 20, pStartY, target.getHeight(), 0, 0);
+    graphics.dispose();
+    return target;
+  }
+
+  private void _paintMarker(Graphics2D pGraphics, int pStartY, int pEndY)
+  {
+    renderedAreas.add(pStartY / TILE_HEIGHT);
+    Assertions.assertEquals(pStartY + TILE_HEIGHT, pEndY);
+    if (markerY >= pStartY && markerY < pEndY)
+    {
+      pGraphics.setColor(Color.RED);
+      pGraphics.fillRect(0, markerY, 20, 1);
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package de.adito.git.gui.tree;
+
+import de.adito.git.gui.tree.models.FlatStatusTreeModel;
+import de.adito.git.gui.tree.nodes.FileChangeTypeNode;
+import de.adito.git.gui.tree.nodes.FileChangeTypeNodeInfo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeNode;
+import java.io.File;
+import java.util.*;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class TreeModelBackgroundUpdaterTest
+{
+
+  private static final Comparator<TreeNode> COMPARATOR = Comparator.comparing(pNode -> ((FileChangeTypeNode) pNode).getInfo().getNodeDescription());
+  private final List<String> events = new ArrayList<>();
+  private FlatStatusTreeModel treeModel;
+  private FileChangeTypeNode rootNode;
+
+  @BeforeEach
+  void setUp()
+  {
+    treeModel = new FlatStatusTreeModel(new File("project"));
+    rootNode = _createNode("project");
+    treeModel.setRoot(rootNode);
+    treeModel.addTreeModelListener(new _EventRecorder());
+  }
+
+  /**
+   * Tests that the inserted nodes end up at their sorted positions and that the removed and inserted nodes are reported with one event per parent.
+   * Children of inserted nodes are inserted along with their parent
+   */
+  @Test
+  void testBatchedInsertAndRemove() throws Exception
+  {
+    FileChangeTypeNode removedNode = _createNode("d");
+    for (FileChangeTypeNode child : List.of(_createNode("b"), removedNode, _createNode("f")))
+    {
+      rootNode.add(child);
+    }
+    FileChangeTypeNode folderNode = _createNode("e");
+    List<TreeUpdate> updates = List.of(TreeUpdate.createInsert(folderNode, rootNode, 0),
+                                       TreeUpdate.createInsert(_createNode("y"), folderNode, 0),
+                                       TreeUpdate.createInsert(_createNode("x"), folderNode, 0),
+                                       TreeUpdate.createInsert(_createNode("a"), rootNode, 0),
+                                       TreeUpdate.createRemove(removedNode),
+                                       TreeUpdate.createInsert(_createNode("c"), rootNode, 0),
+                                       TreeUpdate.createInsert(_createNode("g"), rootNode, 0));
+    _runUpdate(updates);
+
+    Assertions.assertEquals(List.of("a", "b", "c", "e", "f", "g"), _getChildNames(rootNode));
+    Assertions.assertEquals(List.of("x", "y"), _getChildNames(folderNode));
+    Assertions.assertNull(removedNode.getParent());
+    Assertions.assertEquals(List.of("removed [1]", "inserted [0, 2, 3, 5]"), events);
+  }
+
+  /**
+   * Tests that a single structure changed event is fired if too many nodes are inserted into a parent
+   */
+  @Test
+  void testStructureChangedForLargeDelta() throws Exception
+  {
+    List<TreeUpdate> updates = new ArrayList<>();
+    for (int index = TreeModelBackgroundUpdater.STRUCTURE_CHANGE_THRESHOLD; index >= 0; index--)
+    {
+      updates.add(TreeUpdate.createInsert(_createNode(String.format("%05d", index)), rootNode, 0));
+    }
+    _runUpdate(updates);
+
+    List<String> childNames = _getChildNames(rootNode);
+    Assertions.assertEquals(TreeModelBackgroundUpdater.STRUCTURE_CHANGE_THRESHOLD + 1, childNames.size());
+    List<String> sortedNames = new ArrayList<>(childNames);
+    Collections.sort(sortedNames);
+    Assertions.assertEquals(sortedNames, childNames);
+    Assertions.assertEquals(List.of("structure changed"), events);
+  }
+
+  /**
+   * runs the updater with the given updates, the EDT part is executed directly since run is called in the EDT
+   */
+  private void _runUpdate(List<TreeUpdate> pUpdates) throws Exception
+  {
+    TreeModelBackgroundUpdater<Object> updater = new TreeModelBackgroundUpdater<>(treeModel, pParam -> pUpdates, List.of(), COMPARATOR);
+    SwingUtilities.invokeAndWait(updater::run);
+  }
+
+  private static FileChangeTypeNode _createNode(String pName)
+  {
+    return new FileChangeTypeNode(new FileChangeTypeNodeInfo(pName, new File(pName), List.of()));
+  }
+
+  private static List<String> _getChildNames(TreeNode pNode)
+  {
+    List<String> childNames = new ArrayList<>();
+    for (int index = 0; index < pNode.getChildCount(); index++)
+    {
+      childNames.add(((FileChangeTypeNode) pNode.getChildAt(index)).getInfo().getNodeDescription());
+    }
+    return childNames;
+  }
+
+  /**
+   * records the events fired by the tree model
+   */
+  private class _EventRecorder implements TreeModelListener
+  {
+    @Override
+    public void treeNodesChanged(TreeModelEvent pEvent)
+    {
+      events.add("changed " + Arrays.toString(pEvent.getChildIndices()));
+    }
+
+    @Override
+    public void treeNodesInserted(TreeModelEvent pEvent)
+    {
+      events.add("inserted " + Arrays.toString(pEvent.getChildIndices()));
+    }
+
+    @Override
+    public void treeNodesRemoved(TreeModelEvent pEvent)
+    {
+      events.add("removed " + Arrays.toString(pEvent.getChildIndices()));
+    }
+
+    @Override
+    public void treeStructureChanged(TreeModelEvent pEvent)
+    {
+      events.add("structure changed");
+    }
+  }
+}
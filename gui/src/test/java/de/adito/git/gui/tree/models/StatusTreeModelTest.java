@@ -0,0 +1,137 @@
+package de.adito.git.gui.tree.models;
+
+import de.adito.git.api.data.diff.EChangeType;
+import de.adito.git.api.data.diff.IFileChangeType;
+import de.adito.git.gui.tree.nodes.FileChangeTypeNode;
+import de.adito.git.impl.data.FileChangeTypeImpl;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class StatusTreeModelTest
+{
+
+  private final File projectDirectory = new File("project").getAbsoluteFile();
+
+  /**
+   * Tests that applying changes to the trie only replaces the nodes on the changed paths and that the sizes and members of the nodes are updated
+   */
+  @Test
+  void testTrieSharesUnchangedNodes()
+  {
+    IFileChangeType first = _createChange("src/a/First.java", EChangeType.MODIFY);
+    IFileChangeType second = _createChange("src/b/Second.java", EChangeType.NEW);
+    IFileChangeType third = _createChange("README.md", EChangeType.MODIFY);
+    StatusPathTrie trie = StatusPathTrie.EMPTY.apply(List.of(_createPathChange("src/a/First.java", first), _createPathChange("src/b/Second.java", second),
+                                                             _createPathChange("README.md", third)));
+    Assertions.assertEquals(3, trie.size());
+    Assertions.assertEquals(Set.of(first, second, third), new HashSet<>(trie.getMembers()));
+
+    IFileChangeType changedSecond = _createChange("src/b/Second.java", EChangeType.ADD);
+    StatusPathTrie changedTrie = trie.apply(List.of(_createPathChange("src/b/Second.java", null), _createPathChange("src/b/Second.java", changedSecond)));
+    Assertions.assertSame(trie.getChildren().get("README.md"), changedTrie.getChildren().get("README.md"));
+    Assertions.assertSame(trie.getChildren().get("src").getChildren().get("a"), changedTrie.getChildren().get("src").getChildren().get("a"));
+    Assertions.assertNotSame(trie.getChildren().get("src"), changedTrie.getChildren().get("src"));
+    Assertions.assertEquals(List.of(changedSecond), changedTrie.getChildren().get("src").getChildren().get("b").getMembers());
+    Assertions.assertSame(changedTrie, changedTrie.apply(List.of()));
+
+    StatusPathTrie removedTrie = changedTrie.apply(List.of(_createPathChange("src/a/First.java", null)));
+    Assertions.assertEquals(2, removedTrie.size());
+    Assertions.assertEquals(Set.of("b"), removedTrie.getChildren().get("src").getChildren().keySet());
+    Assertions.assertSame(StatusPathTrie.EMPTY, removedTrie.apply(List.of(_createPathChange("src/b/Second.java", null), _createPathChange("README.md", null))));
+  }
+
+  /**
+   * Tests that the tree collapses folders that only contain a single folder, and that a new list of changes only replaces the nodes on the paths of the
+   * changed files
+   */
+  @Test
+  void testUpdateOnlyTouchesChangedPaths() throws Exception
+  {
+    StatusTreeModel treeModel = new StatusTreeModel(projectDirectory);
+    try
+    {
+      IFileChangeType first = _createChange("src/main/java/First.java", EChangeType.MODIFY);
+      IFileChangeType second = _createChange("src/main/java/Second.java", EChangeType.NEW);
+      IFileChangeType third = _createChange("docs/README.md", EChangeType.MODIFY);
+      _update(treeModel, List.of(first, second, third));
+      FileChangeTypeNode rootNode = (FileChangeTypeNode) treeModel.getRoot();
+      Assertions.assertEquals(List.of("docs [README.md]", "src / main / java [First.java, Second.java]"), _getStructure(rootNode));
+      Assertions.assertEquals(3, rootNode.getInfo().getMembers().size());
+      FileChangeTypeNode docsNode = (FileChangeTypeNode) rootNode.getChildAt(0);
+
+      // a file in a new sub folder ends the collapsed path before that sub folder
+      IFileChangeType fourth = _createChange("src/main/resources/Fourth.properties", EChangeType.NEW);
+      _update(treeModel, List.of(first, second, third, fourth));
+      Assertions.assertEquals(List.of("docs [README.md]", "src / main [java [First.java, Second.java], resources [Fourth.properties]]"),
+                              _getStructure(rootNode));
+      Assertions.assertSame(docsNode, rootNode.getChildAt(0));
+      FileChangeTypeNode firstNode = (FileChangeTypeNode) rootNode.getChildAt(1).getChildAt(0).getChildAt(0);
+
+      IFileChangeType changedSecond = _createChange("src/main/java/Second.java", EChangeType.ADD);
+      _update(treeModel, List.of(first, changedSecond, fourth));
+      Assertions.assertEquals(List.of("src / main [java [First.java, Second.java], resources [Fourth.properties]]"), _getStructure(rootNode));
+      FileChangeTypeNode secondNode = (FileChangeTypeNode) rootNode.getChildAt(0).getChildAt(0).getChildAt(1);
+      Assertions.assertEquals(List.of(changedSecond), secondNode.getInfo().getMembers());
+      Assertions.assertSame(firstNode, rootNode.getChildAt(0).getChildAt(0).getChildAt(0));
+      Assertions.assertEquals(3, ((FileChangeTypeNode) rootNode.getChildAt(0)).getInfo().getMembers().size());
+
+      _update(treeModel, List.of());
+      Assertions.assertEquals(0, rootNode.getChildCount());
+      _update(treeModel, List.of(third));
+      Assertions.assertEquals(List.of("docs [README.md]"), _getStructure(rootNode));
+    }
+    finally
+    {
+      treeModel.discard();
+    }
+  }
+
+  /**
+   * passes the changes to the model and waits until the updates were applied to the tree
+   */
+  private static void _update(@NotNull StatusTreeModel pTreeModel, @NotNull List<IFileChangeType> pChanges) throws Exception
+  {
+    CountDownLatch latch = new CountDownLatch(1);
+    SwingUtilities.invokeAndWait(() -> pTreeModel._treeChanged(pChanges, latch::countDown));
+    Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+  }
+
+  /**
+   * @return description of each child, followed by the structure of the child if it has children
+   */
+  @NotNull
+  private static List<String> _getStructure(@NotNull FileChangeTypeNode pNode)
+  {
+    List<String> structure = new ArrayList<>();
+    for (int index = 0; index < pNode.getChildCount(); index++)
+    {
+      FileChangeTypeNode childNode = (FileChangeTypeNode) pNode.getChildAt(index);
+      String description = childNode.getInfo().getNodeDescription();
+      structure.add(childNode.getChildCount() == 0 ? description : description + " " + _getStructure(childNode));
+    }
+    return structure;
+  }
+
+  @NotNull
+  private IFileChangeType _createChange(@NotNull String pPath, @NotNull EChangeType pChangeType)
+  {
+    File file = new File(projectDirectory, pPath);
+    return new FileChangeTypeImpl(file, file, pChangeType);
+  }
+
+  @NotNull
+  private static StatusPathTrie.PathChange _createPathChange(@NotNull String pPath, IFileChangeType pChange)
+  {
+    return new StatusPathTrie.PathChange(Arrays.stream(pPath.split("/")).map(String::intern).toArray(String[]::new), pChange);
+  }
+}
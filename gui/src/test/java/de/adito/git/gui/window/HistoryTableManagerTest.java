@@ -0,0 +1,223 @@
+package de.adito.git.gui.window;
+
+import de.adito.git.api.IRepository;
+import de.adito.git.api.IUserPreferences;
+import de.adito.git.api.data.ICommit;
+import de.adito.git.api.data.ICommitFilter;
+import de.adito.git.impl.dag.DAGFilterIterator;
+import io.reactivex.rxjava3.core.Observable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.swing.*;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class HistoryTableManagerTest
+{
+
+  private static final int PAGE_SIZE = 10;
+  private static final int NUM_COMMITS = 50;
+
+  /**
+   * Tests that a page that was not read yet when it was requested is inserted on the EDT once it is read
+   */
+  @Test
+  void testRequestedPageIsInsertedOnEdt() throws Exception
+  {
+    List<ICommit> commits = _createCommits();
+    HistoryTableManager manager = new HistoryTableManager(_createRepository(commits, new AtomicInteger()), _createPreferences());
+    manager.getFilterChangedConsumer().accept(Mockito.mock(ICommitFilter.class));
+    _waitForRows(manager, PAGE_SIZE);
+    List<Boolean> insertedOnEdt = Collections.synchronizedList(new ArrayList<>());
+    manager.getTableModel().addTableModelListener(pEvent -> insertedOnEdt.add(SwingUtilities.isEventDispatchThread()));
+
+    SwingUtilities.invokeAndWait(manager.getLoadMoreRunnable());
+    _waitForRows(manager, 2 * PAGE_SIZE);
+
+    Assertions.assertEquals(List.of(true), insertedOnEdt);
+    _assertRowsInOrder(manager, commits);
+  }
+
+  /**
+   * Tests that calls while a requested page is not inserted yet do not load further pages, even if the page was already read and only waits for the EDT
+   */
+  @Test
+  void testLoadMoreWhilePageIsPending() throws Exception
+  {
+    List<ICommit> commits = _createCommits();
+    AtomicInteger numReadCommits = new AtomicInteger();
+    HistoryTableManager manager = new HistoryTableManager(_createRepository(commits, numReadCommits), _createPreferences());
+    manager.getFilterChangedConsumer().accept(Mockito.mock(ICommitFilter.class));
+    _waitForRows(manager, PAGE_SIZE);
+
+    SwingUtilities.invokeAndWait(() -> {
+      manager.getLoadMoreRunnable().run();
+      manager.getLoadMoreRunnable().run();
+      // the EDT is blocked until the page was read, so the page waits for the EDT while the scrollbar reports further adjustments
+      long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (numReadCommits.get() < 2 * PAGE_SIZE && System.nanoTime() < end)
+        Thread.onSpinWait();
+      _sleep(200);
+      manager.getLoadMoreRunnable().run();
+      manager.getLoadMoreRunnable().run();
+    });
+    _waitForRows(manager, 2 * PAGE_SIZE);
+    // give a wrongly requested page the time to be read and inserted
+    _sleep(300);
+    SwingUtilities.invokeAndWait(() -> {
+    });
+
+    Assertions.assertEquals(2 * PAGE_SIZE, manager.getTableModel().getRowCount());
+    _assertRowsInOrder(manager, commits);
+  }
+
+  /**
+   * Tests that the EDT does not wait for the commits that are read for a refresh, and that the new commits are put on top of the loaded entries on the EDT
+   */
+  @Test
+  void testLoadMoreWhileRefreshIsReading() throws Exception
+  {
+    List<ICommit> commits = _createCommits();
+    IRepository repository = _createRepository(commits, new AtomicInteger());
+    HistoryTableManager manager = new HistoryTableManager(repository, _createPreferences());
+    ICommitFilter filter = Mockito.mock(ICommitFilter.class);
+    manager.getFilterChangedConsumer().accept(filter);
+    _waitForRows(manager, PAGE_SIZE);
+    List<Boolean> changedOnEdt = Collections.synchronizedList(new ArrayList<>());
+    manager.getTableModel().addTableModelListener(pEvent -> changedOnEdt.add(SwingUtilities.isEventDispatchThread()));
+    CountDownLatch readStarted = new CountDownLatch(1);
+    CountDownLatch readReleased = new CountDownLatch(1);
+    Mockito.when(repository.getCommits(Mockito.any())).thenAnswer(pInvocation -> {
+      readStarted.countDown();
+      readReleased.await();
+      return _createIterator(commits, new AtomicInteger());
+    });
+    ICommit newCommit = Mockito.mock(ICommit.class);
+    Mockito.when(newCommit.getId()).thenReturn(String.format("%040x", NUM_COMMITS + 1));
+    Mockito.when(newCommit.getParents()).thenReturn(List.of(commits.get(0)));
+    commits.add(0, newCommit);
+
+    Thread refresh = new Thread(() -> manager.getFilterChangedConsumer().accept(filter));
+    refresh.start();
+    Assertions.assertTrue(readStarted.await(10, TimeUnit.SECONDS));
+    CountDownLatch loadMoreDone = new CountDownLatch(1);
+    SwingUtilities.invokeLater(() -> {
+      manager.getLoadMoreRunnable().run();
+      loadMoreDone.countDown();
+    });
+    Assertions.assertTrue(loadMoreDone.await(10, TimeUnit.SECONDS));
+    readReleased.countDown();
+    refresh.join(TimeUnit.SECONDS.toMillis(10));
+    _waitForRows(manager, 2 * PAGE_SIZE + 1);
+
+    Assertions.assertFalse(changedOnEdt.isEmpty());
+    Assertions.assertFalse(changedOnEdt.contains(false));
+    _assertRowsInOrder(manager, commits);
+  }
+
+  private static void _waitForRows(HistoryTableManager pManager, int pNumRows) throws Exception
+  {
+    long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    int[] numRows = {0};
+    while (numRows[0] < pNumRows && System.nanoTime() < end)
+    {
+      SwingUtilities.invokeAndWait(() -> numRows[0] = pManager.getTableModel().getRowCount());
+      _sleep(10);
+    }
+    Assertions.assertEquals(pNumRows, numRows[0]);
+  }
+
+  private static void _assertRowsInOrder(HistoryTableManager pManager, List<ICommit> pCommits)
+  {
+    for (int row = 0; row < pManager.getTableModel().getRowCount(); row++)
+    {
+      Assertions.assertEquals(pCommits.get(row).getId(), pManager.getTableModel().getData().get(row).getCommit().getId());
+    }
+  }
+
+  private static void _sleep(long pMillis)
+  {
+    try
+    {
+      Thread.sleep(pMillis);
+    }
+    catch (InterruptedException pE)
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * @return linear history, the newest commit first
+   */
+  private static List<ICommit> _createCommits()
+  {
+    List<ICommit> commits = new ArrayList<>();
+    ICommit parent = null;
+    for (int index = NUM_COMMITS - 1; index >= 0; index--)
+    {
+      ICommit commit = Mockito.mock(ICommit.class);
+      Mockito.when(commit.getId()).thenReturn(String.format("%040x", index + 1));
+      Mockito.when(commit.getParents()).thenReturn(parent == null ? List.of() : List.of(parent));
+      commits.add(0, commit);
+      parent = commit;
+    }
+    return commits;
+  }
+
+  /**
+   * @param pCommits        commits returned by the repository
+   * @param pNumReadCommits incremented each time a commit is read from the repository
+   * @return repository without any refs that returns the given commits
+   */
+  private static IRepository _createRepository(List<ICommit> pCommits, AtomicInteger pNumReadCommits) throws Exception
+  {
+    IRepository repository = Mockito.mock(IRepository.class);
+    Mockito.when(repository.getBranches()).thenReturn(Observable.just(Optional.of(List.of())));
+    Mockito.when(repository.getTags()).thenReturn(Observable.just(List.of()));
+    Mockito.when(repository.getCommit(null)).thenAnswer(pInvocation -> pCommits.get(0));
+    Mockito.when(repository.getCommits(Mockito.any())).thenAnswer(pInvocation -> _createIterator(pCommits, pNumReadCommits));
+    return repository;
+  }
+
+  /**
+   * @param pCommits        commits to iterate, later changes of the list are not seen by the iterator
+   * @param pNumReadCommits incremented each time a commit is read
+   * @return iterator over the commits
+   */
+  private static DAGFilterIterator<ICommit> _createIterator(List<ICommit> pCommits, AtomicInteger pNumReadCommits)
+  {
+    Iterator<ICommit> commits = new ArrayList<>(pCommits).iterator();
+    return new DAGFilterIterator<>(new Iterator<ICommit>()
+    {
+      @Override
+      public boolean hasNext()
+      {
+        return commits.hasNext();
+      }
+
+      @Override
+      public ICommit next()
+      {
+        pNumReadCommits.incrementAndGet();
+        return commits.next();
+      }
+    }, pCommit -> true);
+  }
+
+  private static IUserPreferences _createPreferences()
+  {
+    IUserPreferences preferences = Mockito.mock(IUserPreferences.class);
+    Mockito.when(preferences.getNumLoadAdditionalCHEntries()).thenReturn(PAGE_SIZE);
+    // nothing is read ahead, so each page is only read once it is requested
+    Mockito.when(preferences.getNumPrefetchedCHPages()).thenReturn(0);
+    return preferences;
+  }
+}
@@ -0,0 +1,250 @@
+package de.adito.git.impl;
+
+import de.adito.git.api.IDiscardable;
+import de.adito.git.api.data.IBlame;
+import de.adito.git.impl.data.BlameImpl;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.subjects.ReplaySubject;
+import io.reactivex.rxjava3.subjects.Subject;
+import org.eclipse.jgit.blame.BlameGenerator;
+import org.eclipse.jgit.blame.BlameResult;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caches the blame of files in the HEAD commit, shared by all editors of the repository. The blames are computed region by region in the background and
+ * each computed region is published, so the annotations can be shown before the whole file is annotated. A blame is only computed while someone observes it.
+ * If HEAD moves to a child of the last HEAD, only the entries of the files that changed between both commits are removed, the blame of all other files is
+ * the same for both commits
+ *
+ * @author agent, 18.10.2026
+ */
+class BlameCache implements IDiscardable
+{
+
+  private static final int MAX_NUM_ENTRIES = 32;
+  private static final int NUM_THREADS = 2;
+  private final Logger logger = Logger.getLogger(BlameCache.class.getName());
+  private final Repository repository;
+  private final ThreadPoolExecutor executor = new ThreadPoolExecutor(NUM_THREADS, NUM_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+  private final Map<String, _Entry> entries = new LinkedHashMap<>(16, 0.75f, true)
+  {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, _Entry> pEldest)
+    {
+      return size() > MAX_NUM_ENTRIES;
+    }
+  };
+  private ObjectId headId = null;
+
+  BlameCache(@NotNull Repository pRepository)
+  {
+    repository = pRepository;
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * @param pHeadId id of the commit HEAD currently points to
+   * @param pPath   path of the file, relative to the root of the repository
+   * @return Observable that fires the blame each time another region of lines is computed and completes once all lines are computed. Fires an empty
+   * Optional if the file is not part of HEAD, the blame failed or the cache was discarded. The blame is computed once the Observable is subscribed to
+   */
+  @NotNull
+  synchronized Observable<Optional<IBlame>> get(@NotNull ObjectId pHeadId, @NotNull String pPath)
+  {
+    if (!pHeadId.equals(headId))
+    {
+      _moveHead(pHeadId);
+    }
+    return entries.computeIfAbsent(pPath, pKey -> new _Entry(headId, pKey)).blame;
+  }
+
+  /**
+   * stops the computation of the blames that were not started yet, their observers receive an empty Optional
+   */
+  @Override
+  public void discard()
+  {
+    List<Runnable> queuedEntries = new ArrayList<>();
+    synchronized (this)
+    {
+      executor.shutdown();
+      executor.getQueue().drainTo(queuedEntries);
+    }
+    for (Runnable entry : queuedEntries)
+    {
+      ((_Entry) entry)._publishEmpty();
+    }
+  }
+
+  /**
+   * removes all entries whose blame differs for the new HEAD
+   *
+   * @param pNewHeadId id of the commit HEAD now points to
+   */
+  private void _moveHead(@NotNull ObjectId pNewHeadId)
+  {
+    if (headId != null && !entries.isEmpty())
+    {
+      Set<String> changedPaths = null;
+      try
+      {
+        changedPaths = _getChangedPaths(headId, pNewHeadId);
+      }
+      catch (IOException pE)
+      {
+        logger.log(Level.WARNING, pE, () -> "Git: could not determine the files changed between " + headId.name() + " and " + pNewHeadId.name());
+      }
+      if (changedPaths == null)
+        entries.clear();
+      else
+        entries.keySet().removeAll(changedPaths);
+    }
+    headId = pNewHeadId.copy();
+  }
+
+  /**
+   * @param pOldHeadId id of the commit HEAD pointed to before
+   * @param pNewHeadId id of the commit HEAD now points to
+   * @return paths of the files that differ between both commits, null if the new commit is not a child of the old commit
+   * @throws IOException if the commits or their trees cannot be read
+   */
+  @Nullable
+  private Set<String> _getChangedPaths(@NotNull ObjectId pOldHeadId, @NotNull ObjectId pNewHeadId) throws IOException
+  {
+    try (RevWalk revWalk = new RevWalk(repository);
+         TreeWalk treeWalk = new TreeWalk(repository))
+    {
+      RevCommit oldHead = revWalk.parseCommit(pOldHeadId);
+      RevCommit newHead = revWalk.parseCommit(pNewHeadId);
+      if (!Arrays.asList(newHead.getParents()).contains(oldHead))
+        return null;
+      treeWalk.addTree(oldHead.getTree());
+      treeWalk.addTree(newHead.getTree());
+      treeWalk.setRecursive(true);
+      treeWalk.setFilter(TreeFilter.ANY_DIFF);
+      Set<String> changedPaths = new HashSet<>();
+      while (treeWalk.next())
+      {
+        changedPaths.add(treeWalk.getPathString());
+      }
+      return changedPaths;
+    }
+  }
+
+  /**
+   * Blame of one file, computed in the background. The entry is queued when the first observer subscribes, and skipped if all observers are gone by the time
+   * it starts. It is queued again by the next subscription in that case
+   */
+  private class _Entry implements Runnable
+  {
+    private final ObjectId commitId;
+    private final String path;
+    private final Subject<Optional<IBlame>> blameProgress = ReplaySubject.createWithSize(1);
+    private final Observable<Optional<IBlame>> blame;
+    // both only accessed while holding the lock of the BlameCache
+    private int numObservers = 0;
+    private boolean isQueued = false;
+
+    _Entry(@NotNull ObjectId pCommitId, @NotNull String pPath)
+    {
+      commitId = pCommitId;
+      path = pPath;
+      blame = blameProgress
+          .doFinally(() -> {
+            synchronized (BlameCache.this)
+            {
+              numObservers--;
+            }
+          })
+          .doOnSubscribe(pDisposable -> _observerAdded());
+    }
+
+    private void _observerAdded()
+    {
+      synchronized (BlameCache.this)
+      {
+        numObservers++;
+        if (isQueued)
+          return;
+        try
+        {
+          executor.execute(this);
+          isQueued = true;
+          return;
+        }
+        catch (RejectedExecutionException pE)
+        {
+          // the cache was discarded
+        }
+      }
+      _publishEmpty();
+    }
+
+    private void _publishEmpty()
+    {
+      blameProgress.onNext(Optional.empty());
+      blameProgress.onComplete();
+    }
+
+    @Override
+    public void run()
+    {
+      synchronized (BlameCache.this)
+      {
+        if (numObservers == 0)
+        {
+          isQueued = false;
+          return;
+        }
+      }
+      try (BlameGenerator generator = new BlameGenerator(repository, path))
+      {
+        generator.setTextComparator(RawTextComparator.WS_IGNORE_TRAILING).push(null, commitId);
+        BlameResult blameResult = BlameResult.create(generator);
+        if (blameResult == null)
+          blameProgress.onNext(Optional.empty());
+        else
+        {
+          IBlame computedBlame = new BlameImpl(blameResult);
+          boolean isPublished = false;
+          while (computedBlame.computeNext() != -1)
+          {
+            blameProgress.onNext(Optional.of(computedBlame));
+            isPublished = true;
+          }
+          // an empty file has no regions
+          if (!isPublished)
+            blameProgress.onNext(Optional.of(computedBlame));
+        }
+      }
+      catch (Exception pE)
+      {
+        logger.log(Level.SEVERE, pE, () -> "Git error during blame of " + path);
+        // do not keep the failed blame, the next request tries again
+        synchronized (BlameCache.this)
+        {
+          entries.remove(path, this);
+        }
+        blameProgress.onNext(Optional.empty());
+      }
+      blameProgress.onComplete();
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package de.adito.git.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Cache for the contents of blobs, bounded by the summed up size of the cached contents. Used so that the contents of files in diffs do not have to be
+ * kept by the diffs themselves, but are also not read from the object database each time they are needed
+ *
+ * @author agent, 18.10.2026
+ */
+class BlobContentCache
+{
+
+  private static final long MAX_CACHED_BYTES = 64L * 1024 * 1024;
+  private final Repository repository;
+  private final Cache<ObjectId, byte[]> contents = CacheBuilder.newBuilder()
+      .maximumWeight(MAX_CACHED_BYTES)
+      .weigher((ObjectId pBlobId, byte[] pContent) -> pContent.length)
+      .build();
+
+  BlobContentCache(@NotNull Repository pRepository)
+  {
+    repository = pRepository;
+  }
+
+  /**
+   * @param pBlobId id of the blob
+   * @return content of the blob. The returned array is shared and must not be modified
+   * @throws IOException if the blob cannot be read from the object database
+   */
+  @NotNull
+  byte[] get(@NotNull ObjectId pBlobId) throws IOException
+  {
+    byte[] content = contents.getIfPresent(pBlobId);
+    if (content == null)
+    {
+      content = repository.open(pBlobId).getBytes();
+      contents.put(pBlobId.copy(), content);
+    }
+    return content;
+  }
+}
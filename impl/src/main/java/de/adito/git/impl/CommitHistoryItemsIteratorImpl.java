@@ -5,14 +5,17 @@ import de.adito.git.api.dag.IDAGFilterIterator;
 import de.adito.git.api.data.IBranch;
 import de.adito.git.api.data.ICommit;
 import de.adito.git.api.data.ITag;
+import de.adito.git.impl.dag.CommitGraphIndex;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Iterator that transforms elements from an Iterator with commits into commitHistoryTreeListItems
+ * Iterator that transforms elements from an Iterator with commits into commitHistoryTreeListItems.
+ * Each commit is registered in a CommitGraphIndex, the AncestryLines and parents are then tracked via the int indices of the commits
  *
  * @author m.kaspera, 24.05.2019
  */
@@ -21,10 +24,10 @@ public class CommitHistoryItemsIteratorImpl implements ICommitHistoryItemsIterat
 
   private final ColorRoulette colorRoulette = ColorRoulette.create();
   private final IDAGFilterIterator<ICommit> commitFilterIter;
-  private final List<IBranch> allBranches;
-  private final List<ITag> allTags;
-  private final ICommit head;
+  private volatile CommitRefsLookup refsLookup;
+  private final CommitGraphIndex graphIndex = new CommitGraphIndex();
   private ICommit currentCommit = null;
+  private int currentIndex = -1;
   private CommitHistoryTreeListItem latestHistoryItem = null;
   private boolean encounteredLast = false;
 
@@ -36,11 +39,18 @@ public class CommitHistoryItemsIteratorImpl implements ICommitHistoryItemsIterat
    */
   public CommitHistoryItemsIteratorImpl(@NotNull IDAGFilterIterator<ICommit> pCommitFilterIter, @NotNull List<IBranch> pAllBranches, @NotNull List<ITag> pAllTags,
                                         @NotNull ICommit pHead)
+  {
+    this(pCommitFilterIter, new CommitRefsLookup(pAllBranches, pAllTags, pHead));
+  }
+
+  /**
+   * @param pCommitFilterIter Iterator over the filtered commits
+   * @param pRefsLookup       lookup for the branches and tags that point to a commit
+   */
+  public CommitHistoryItemsIteratorImpl(@NotNull IDAGFilterIterator<ICommit> pCommitFilterIter, @NotNull CommitRefsLookup pRefsLookup)
   {
     commitFilterIter = pCommitFilterIter;
-    allBranches = pAllBranches;
-    allTags = pAllTags;
-    head = pHead;
+    refsLookup = pRefsLookup;
   }
 
   @Override
@@ -49,7 +59,7 @@ public class CommitHistoryItemsIteratorImpl implements ICommitHistoryItemsIterat
     // while loop in case of null elements in the iterator
     while (currentCommit == null && commitFilterIter.hasNext())
     {
-      currentCommit = commitFilterIter.next();
+      _setCurrentCommit(commitFilterIter.next());
     }
     if (currentCommit != null && commitFilterIter.hasNext())
       return true;
@@ -67,16 +77,18 @@ public class CommitHistoryItemsIteratorImpl implements ICommitHistoryItemsIterat
   {
     while (currentCommit == null && commitFilterIter.hasNext())
     {
-      currentCommit = commitFilterIter.next();
+      _setCurrentCommit(commitFilterIter.next());
     }
     ICommit bufferedCommit = null;
     while (commitFilterIter.hasNext() && bufferedCommit == null)
     {
       bufferedCommit = commitFilterIter.next();
     }
-    CommitHistoryTreeListItem commitHistoryTreeListItem = _createAncestryLines(bufferedCommit);
+    int bufferedIndex = bufferedCommit == null ? -1 : graphIndex.add(bufferedCommit);
+    CommitHistoryTreeListItem commitHistoryTreeListItem = _createAncestryLines(bufferedIndex);
 
     currentCommit = bufferedCommit;
+    currentIndex = bufferedIndex;
     latestHistoryItem = commitHistoryTreeListItem;
     return commitHistoryTreeListItem;
   }
@@ -93,8 +105,83 @@ public class CommitHistoryItemsIteratorImpl implements ICommitHistoryItemsIterat
     return entries;
   }
 
+  /**
+   * Reads the entries that come before the commit of pFirstItem, so they can be put on top of an already existing list of items that starts with
+   * pFirstItem. This is only possible if all lines of the read entries lead to the commit of pFirstItem, since the existing items below would
+   * otherwise have to make room for lines that pass by the commit. Should only be called on a fresh iterator
+   *
+   * @param pFirstItem  first item of the existing list of items
+   * @param pMaxEntries maximum number of entries to read before giving up
+   * @return the read entries, followed by a replacement for pFirstItem whose upper half connects to the read entries. Null if the commit of pFirstItem
+   * was not found within pMaxEntries entries, or if not all lines lead to it
+   */
+  @Nullable
+  public List<CommitHistoryTreeListItem> tryReadEntriesUntil(@NotNull CommitHistoryTreeListItem pFirstItem, int pMaxEntries)
+  {
+    // the lines leading to the first item should have the same color as the lines below it, at least if they come from a single branch
+    colorRoulette.setNext(pFirstItem.getKnotCoordinates().getColor());
+    List<CommitHistoryTreeListItem> entries = new ArrayList<>();
+    while (hasNext())
+    {
+      if (pFirstItem.getCommit().equals(currentCommit))
+      {
+        CommitHistoryTreeListItem joinedItem = _joinWith(pFirstItem);
+        if (joinedItem == null)
+          return null;
+        entries.add(joinedItem);
+        return entries;
+      }
+      if (entries.size() >= pMaxEntries)
+        return null;
+      entries.add(next());
+    }
+    return null;
+  }
+
+  /**
+   * @param pRefsLookup lookup for the branches and tags that point to a commit, used for all entries that are read from now on
+   */
+  public void setRefsLookup(@NotNull CommitRefsLookup pRefsLookup)
+  {
+    refsLookup = pRefsLookup;
+  }
+
+  /**
+   * @param pItem existing item for the current commit, whose lower half stays as it is
+   * @return item for the current commit with the upper half connected to the latest item of this iterator, null if not all lines of the latest item
+   * lead to the current commit
+   */
+  @Nullable
+  private CommitHistoryTreeListItem _joinWith(@NotNull CommitHistoryTreeListItem pItem)
+  {
+    if (latestHistoryItem == null)
+      return pItem.withRefs(refsLookup.getBranches(currentCommit), refsLookup.getTags(currentCommit));
+    List<AncestryLine> upperLines = latestHistoryItem.getAncestryLines();
+    if (upperLines.isEmpty()
+        || upperLines.stream().anyMatch(pLine -> pLine.getNextCommitIndex() != currentIndex || pLine.getLineType() == AncestryLine.LineType.EMPTY))
+      return null;
+    HistoryGraphElement historyGraphElement = new HistoryGraphElement();
+    historyGraphElement.calculateUpperLines(upperLines, upperLines.get(0), currentIndex);
+    historyGraphElement.calculateLowerLines(pItem.getAncestryLines());
+    return new CommitHistoryTreeListItem(currentCommit, pItem.getAncestryLines(), historyGraphElement, refsLookup.getBranches(currentCommit),
+                                         refsLookup.getTags(currentCommit));
+  }
+
+  /**
+   * @param pCommit commit that should become the current commit, is added to the graph index
+   */
+  private void _setCurrentCommit(@Nullable ICommit pCommit)
+  {
+    currentCommit = pCommit;
+    currentIndex = pCommit == null ? -1 : graphIndex.add(pCommit);
+  }
+
+  /**
+   * @param pBufferedIndex index of the next commit in the list, -1 if there is no next commit
+   * @return CommitHistoryTreeListItem for the current commit
+   */
   @NotNull
-  private CommitHistoryTreeListItem _createAncestryLines(ICommit pBufferdCommit)
+  private CommitHistoryTreeListItem _createAncestryLines(int pBufferedIndex)
   {
     // signifies if any of the already processed AncestryLines had the current commit as parent/next commit
     boolean processedParents = false;
@@ -110,7 +197,7 @@ public class CommitHistoryItemsIteratorImpl implements ICommitHistoryItemsIterat
     {
       for (AncestryLine formerLine : latestHistoryItem.getAncestryLines())
       {
-        if (formerLine.getNextCommit().equals(currentCommit))
+        if (formerLine.getNextCommitIndex() == currentIndex)
         {
           if (!processedParents && formerLine.getLineType() != AncestryLine.LineType.STILLBORN)
           {
@@ -153,13 +240,13 @@ public class CommitHistoryItemsIteratorImpl implements ICommitHistoryItemsIterat
     // check for stillborns
     if (advancedLine != null && parentLines.size() > 1)
     {
-      _checkForStillborn(pBufferdCommit, newLines, parentLines, advancedLine);
+      _checkForStillborn(pBufferedIndex, newLines, parentLines, advancedLine);
     }
 
     HistoryGraphElement historyGraphElement = new HistoryGraphElement();
-    historyGraphElement.calculateUpperLines(latestHistoryItem == null ? List.of() : latestHistoryItem.getAncestryLines(), advancedLine, currentCommit);
+    historyGraphElement.calculateUpperLines(latestHistoryItem == null ? List.of() : latestHistoryItem.getAncestryLines(), advancedLine, currentIndex);
     historyGraphElement.calculateLowerLines(newLines);
-    return new CommitHistoryTreeListItem(currentCommit, newLines, historyGraphElement, allBranches, allTags, head);
+    return new CommitHistoryTreeListItem(currentCommit, newLines, historyGraphElement, refsLookup.getBranches(currentCommit), refsLookup.getTags(currentCommit));
   }
 
   /**
@@ -172,16 +259,17 @@ public class CommitHistoryItemsIteratorImpl implements ICommitHistoryItemsIterat
   @NotNull
   private AncestryLine _getBranchHeads(@NotNull List<AncestryLine> pNewLines, @NotNull List<AncestryLine> pParentLines)
   {
-    if (currentCommit.getParents().isEmpty())
+    int[] parents = graphIndex.getParents(currentIndex);
+    if (parents.length == 0)
     {
-      pParentLines.add(new AncestryLine(currentCommit, colorRoulette.get(), AncestryLine.LineType.EMPTY));
+      pParentLines.add(new AncestryLine(currentIndex, colorRoulette.get(), AncestryLine.LineType.EMPTY));
     }
     else
     {
-      pParentLines.add(new AncestryLine(currentCommit.getParents().get(0), colorRoulette.get(), AncestryLine.LineType.FULL));
-      for (int index = 1; index < currentCommit.getParents().size(); index++)
+      pParentLines.add(new AncestryLine(parents[0], colorRoulette.get(), AncestryLine.LineType.FULL));
+      for (int index = 1; index < parents.length; index++)
       {
-        pParentLines.add(new AncestryLine(currentCommit.getParents().get(index), colorRoulette.get(), AncestryLine.LineType.INFANT));
+        pParentLines.add(new AncestryLine(parents[index], colorRoulette.get(), AncestryLine.LineType.INFANT));
       }
     }
     pNewLines.addAll(pParentLines);
@@ -191,23 +279,25 @@ public class CommitHistoryItemsIteratorImpl implements ICommitHistoryItemsIterat
   /**
    * checks if any of the parent lines is stillborn
    *
-   * @param pBufferdCommit next commit in the list
+   * @param pBufferedIndex index of the next commit in the list, -1 if there is no next commit
    * @param pNewLines      List of AncestryLines after the current commit
    * @param pParentLines   List of AncestryLines that "spawned" from the knot of the current commit
    * @param pAdvancedLine  the AncestryLine that lead to the knot of the current commit
    */
-  private void _checkForStillborn(@NotNull ICommit pBufferdCommit, @NotNull List<AncestryLine> pNewLines, @NotNull List<AncestryLine> pParentLines,
+  private void _checkForStillborn(int pBufferedIndex, @NotNull List<AncestryLine> pNewLines, @NotNull List<AncestryLine> pParentLines,
                                   @NotNull AncestryLine pAdvancedLine)
   {
     // the first parentLine continues the AncestryLine and is therefore by default not stillborn -> start at index 1
     for (int parentLIndex = 1; parentLIndex < pParentLines.size(); parentLIndex++)
     {
+      // only lines that lead to the very next commit can be stillborn
+      if (pParentLines.get(parentLIndex).getNextCommitIndex() != pBufferedIndex)
+        continue;
+      int parentLinePosition = pNewLines.indexOf(pParentLines.get(parentLIndex));
       int fullLineCount = 0;
       for (int index = 0; index < pNewLines.size(); index++)
       {
-        if (pNewLines.indexOf(pParentLines.get(parentLIndex)) != index
-            && pParentLines.get(parentLIndex).getNextCommit().equals(pNewLines.get(index).getNextCommit())
-            && pParentLines.get(parentLIndex).getNextCommit().equals(pBufferdCommit))
+        if (parentLinePosition != index && pNewLines.get(index).getNextCommitIndex() == pBufferedIndex)
         {
           double stillBornMeetingIndex = _getStillbornMeetingOffset(fullLineCount, pAdvancedLine, pNewLines);
           pParentLines.get(parentLIndex).setLineType(AncestryLine.LineType.STILLBORN);
@@ -248,21 +338,19 @@ public class CommitHistoryItemsIteratorImpl implements ICommitHistoryItemsIterat
   private List<AncestryLine> _getParentLines(@NotNull Color pParentLineColor)
   {
     ArrayList<AncestryLine> parentLines = new ArrayList<>();
-    if (!currentCommit.getParents().isEmpty())
+    int[] parents = graphIndex.getParents(currentIndex);
+    if (parents.length > 0)
     {
       // The parent forms the line that "goes on" with the same color as the line that lead to the current commit
-      parentLines.add(new AncestryLine(currentCommit.getParents().get(0), pParentLineColor, AncestryLine.LineType.FULL));
-      if (currentCommit.getParents().size() > 1)
+      parentLines.add(new AncestryLine(parents[0], pParentLineColor, AncestryLine.LineType.FULL));
+      for (int parentIndex = 1; parentIndex < parents.length; parentIndex++)
       {
-        for (int parentIndex = 1; parentIndex < currentCommit.getParents().size(); parentIndex++)
-        {
-          parentLines.add(new AncestryLine(currentCommit.getParents().get(parentIndex), colorRoulette.get(), AncestryLine.LineType.INFANT));
-        }
+        parentLines.add(new AncestryLine(parents[parentIndex], colorRoulette.get(), AncestryLine.LineType.INFANT));
       }
     }
     else
     {
-      parentLines.add(new AncestryLine(currentCommit, pParentLineColor, AncestryLine.LineType.EMPTY));
+      parentLines.add(new AncestryLine(currentIndex, pParentLineColor, AncestryLine.LineType.EMPTY));
     }
     return parentLines;
   }
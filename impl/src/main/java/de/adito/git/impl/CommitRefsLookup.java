@@ -0,0 +1,89 @@
+package de.adito.git.impl;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import de.adito.git.api.data.IBranch;
+import de.adito.git.api.data.ICommit;
+import de.adito.git.api.data.ITag;
+import de.adito.git.impl.dag.CommitGraphIndex;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps the ids of commits to the branches and tags that point to them. Built once for a snapshot of the branches and tags, so that the branches and tags
+ * for a commit can be looked up without going through all branches and tags each time
+ *
+ * @author agent, 18.10.2026
+ */
+public class CommitRefsLookup
+{
+
+  private final ListMultimap<ObjectId, IBranch> branchesById = ArrayListMultimap.create();
+  private final ListMultimap<ObjectId, ITag> tagsById = ArrayListMultimap.create();
+  private final ObjectId headId;
+
+  /**
+   * @param pAllBranches List of all IBranches
+   * @param pAllTags     List of all ITags in the repository
+   * @param pHead        Commit that HEAD is currently pointing to
+   */
+  public CommitRefsLookup(@NotNull List<IBranch> pAllBranches, @NotNull List<ITag> pAllTags, @NotNull ICommit pHead)
+  {
+    for (IBranch branch : pAllBranches)
+    {
+      ObjectId branchId = _toObjectId(branch.getId());
+      if (branchId != null)
+        branchesById.put(branchId, branch);
+    }
+    for (ITag tag : pAllTags)
+    {
+      ObjectId tagId = _toObjectId(tag.getId());
+      if (tagId != null)
+        tagsById.put(tagId, tag);
+    }
+    headId = _toObjectId(pHead.getId());
+  }
+
+  /**
+   * @param pCommit commit for which to get the branches
+   * @return List of IBranches that point to the commit, starting with IBranch.HEAD if HEAD points to the commit
+   */
+  @NotNull
+  public List<IBranch> getBranches(@NotNull ICommit pCommit)
+  {
+    AnyObjectId commitId = CommitGraphIndex.getObjectId(pCommit);
+    List<IBranch> branches = branchesById.get(commitId.toObjectId());
+    if (!commitId.equals(headId))
+      return branches.isEmpty() ? List.of() : new ArrayList<>(branches);
+    List<IBranch> branchesWithHead = new ArrayList<>(branches.size() + 1);
+    branchesWithHead.add(IBranch.HEAD);
+    branchesWithHead.addAll(branches);
+    return branchesWithHead;
+  }
+
+  /**
+   * @param pCommit commit for which to get the tags
+   * @return List of ITags that point to the commit
+   */
+  @NotNull
+  public List<ITag> getTags(@NotNull ICommit pCommit)
+  {
+    List<ITag> tags = tagsById.get(CommitGraphIndex.getObjectId(pCommit).toObjectId());
+    return tags.isEmpty() ? List.of() : new ArrayList<>(tags);
+  }
+
+  /**
+   * @param pId id in its hex representation
+   * @return ObjectId, or null if the String is no valid id (e.g. for special branches)
+   */
+  @Nullable
+  private static ObjectId _toObjectId(@Nullable String pId)
+  {
+    return pId != null && ObjectId.isId(pId) ? ObjectId.fromString(pId) : null;
+  }
+}
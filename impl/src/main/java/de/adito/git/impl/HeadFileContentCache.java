@@ -0,0 +1,118 @@
+package de.adito.git.impl;
+
+import de.adito.git.api.data.diff.IFileContentInfo;
+import org.eclipse.jgit.diff.*;
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the contents of files in the HEAD commit, together with the RawText and hashed lines used for diffing and the last diff against the file.
+ * Used for diffs of the contents of opened editors against HEAD, which happen frequently while the user is typing. All entries become invalid once
+ * HEAD points to another commit
+ *
+ * @author agent, 18.10.2026
+ */
+class HeadFileContentCache
+{
+
+  private static final int MAX_NUM_ENTRIES = 64;
+  private final Map<String, HeadFileContent> entries = new LinkedHashMap<>(16, 0.75f, true)
+  {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, HeadFileContent> pEldest)
+    {
+      return size() > MAX_NUM_ENTRIES;
+    }
+  };
+  private ObjectId headId = null;
+
+  /**
+   * @param pHeadId id of the commit HEAD currently points to
+   * @param pPath   path of the file, relative to the root of the repository
+   * @param pLoader loads the content of the file in HEAD, only called if the content is not cached yet
+   * @return content of the file in HEAD
+   * @throws IOException if the loader throws an IOException
+   */
+  @NotNull
+  synchronized HeadFileContent get(@NotNull ObjectId pHeadId, @NotNull String pPath, @NotNull ContentLoader pLoader) throws IOException
+  {
+    if (!pHeadId.equals(headId))
+    {
+      entries.clear();
+      headId = pHeadId.copy();
+    }
+    HeadFileContent content = entries.get(pPath);
+    if (content == null)
+    {
+      content = new HeadFileContent(pLoader.load());
+      entries.put(pPath, content);
+    }
+    return content;
+  }
+
+  /**
+   * Loads the content of a file in HEAD
+   */
+  @FunctionalInterface
+  interface ContentLoader
+  {
+    @NotNull
+    IFileContentInfo load() throws IOException;
+  }
+
+  /**
+   * Content of a file in HEAD
+   */
+  static class HeadFileContent
+  {
+    private final IFileContentInfo contentInfo;
+    private final RawText rawText;
+    private RawTextComparator comparator = null;
+    private HashedSequence<RawText> hashedText = null;
+    private final IncrementalLineDiff lineDiff = new IncrementalLineDiff();
+
+    private HeadFileContent(@NotNull IFileContentInfo pContentInfo)
+    {
+      contentInfo = pContentInfo;
+      rawText = new RawText(pContentInfo.getFileContent().get().getBytes());
+    }
+
+    /**
+     * @return content of the file, decoded with the encoding of the file
+     */
+    @NotNull
+    IFileContentInfo getContentInfo()
+    {
+      return contentInfo;
+    }
+
+    /**
+     * @param pComparator comparator used to calculate the hashes of the lines
+     * @return the content with hashed lines, the hashes are only calculated again if the comparator changes
+     */
+    @NotNull
+    synchronized HashedSequence<RawText> getHashedText(@NotNull RawTextComparator pComparator)
+    {
+      if (hashedText == null || comparator != pComparator)
+      {
+        hashedText = new HashedSequencePair<>(pComparator, rawText, rawText).getA();
+        comparator = pComparator;
+      }
+      return hashedText;
+    }
+
+    /**
+     * @return diff of this content against the versions of the file that is opened in an editor, remembers the last diff so only changed lines have
+     * to be diffed again
+     */
+    @NotNull
+    IncrementalLineDiff getLineDiff()
+    {
+      return lineDiff;
+    }
+  }
+}
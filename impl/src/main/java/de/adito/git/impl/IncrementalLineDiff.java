@@ -0,0 +1,130 @@
+package de.adito.git.impl;
+
+import org.eclipse.jgit.diff.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Line diff of a file in HEAD against changing versions of the same file (e.g. the content of an opened editor). Keeps the last diffed version and the
+ * resulting EditList, and for a new version only diffs the window of lines that changed compared to the last version (plus some anchor lines around it)
+ * again. The EditList of that window is then spliced into the edits before and after it
+ *
+ * @author agent, 18.10.2026
+ */
+class IncrementalLineDiff
+{
+
+  // number of unchanged lines added to both sides of the changed window, so the diff of the window can line up the edit with the surrounding lines
+  private static final int ANCHOR_LINES = 3;
+  private final DiffAlgorithm diffAlgorithm = new HistogramDiff();
+  private HashedSequence<RawText> lastHeadText = null;
+  private HashedSequence<RawText> lastText = null;
+  private EditList lastEdits = null;
+
+  /**
+   * @param pComparator comparator of the hashed sequences, has to be the comparator that was used to hash both pHeadText and pText
+   * @param pHeadText   content of the file in HEAD
+   * @param pText       current content of the file
+   * @return EditList with the changes from pHeadText to pText
+   */
+  @NotNull
+  synchronized EditList diff(@NotNull SequenceComparator<HashedSequence<RawText>> pComparator, @NotNull HashedSequence<RawText> pHeadText,
+                             @NotNull HashedSequence<RawText> pText)
+  {
+    EditList edits = null;
+    // the hashed head text is only created again if HEAD or the comparator changed, in both cases the last edits are of no use anymore
+    if (lastEdits != null && lastHeadText == pHeadText)
+      edits = _diffChangedWindow(pComparator, pHeadText, pText);
+    if (edits == null)
+      edits = diffAlgorithm.diff(pComparator, pHeadText, pText);
+    lastHeadText = pHeadText;
+    lastText = pText;
+    lastEdits = edits;
+    return _copy(edits);
+  }
+
+  /**
+   * @return the spliced EditList, or null if the changed window is so big that a diff of the whole text is about as fast
+   */
+  @Nullable
+  private EditList _diffChangedWindow(@NotNull SequenceComparator<HashedSequence<RawText>> pComparator, @NotNull HashedSequence<RawText> pHeadText,
+                                      @NotNull HashedSequence<RawText> pText)
+  {
+    int oldSize = lastText.size();
+    int newSize = pText.size();
+    int maxCommonLines = Math.min(oldSize, newSize);
+    int prefix = 0;
+    while (prefix < maxCommonLines && pComparator.equals(lastText, prefix, pText, prefix))
+      prefix++;
+    int suffix = 0;
+    while (suffix < maxCommonLines - prefix && pComparator.equals(lastText, oldSize - 1 - suffix, pText, newSize - 1 - suffix))
+      suffix++;
+    if (prefix == oldSize && oldSize == newSize)
+      return lastEdits;
+
+    // window of changed lines in the last version of the text
+    int beginB = Math.max(0, prefix - ANCHOR_LINES);
+    int endB = Math.min(oldSize, oldSize - suffix + ANCHOR_LINES);
+    // all edits that overlap or touch the window are diffed again, so the window has to contain them completely
+    int firstEdit = 0;
+    while (firstEdit < lastEdits.size() && lastEdits.get(firstEdit).getEndB() < beginB)
+      firstEdit++;
+    if (firstEdit < lastEdits.size())
+      beginB = Math.min(beginB, lastEdits.get(firstEdit).getBeginB());
+    while (firstEdit > 0 && lastEdits.get(firstEdit - 1).getEndB() >= beginB)
+    {
+      firstEdit--;
+      beginB = Math.min(beginB, lastEdits.get(firstEdit).getBeginB());
+    }
+    int offsetBefore = 0;
+    for (int index = 0; index < firstEdit; index++)
+    {
+      offsetBefore += _lengthDifference(lastEdits.get(index));
+    }
+    int afterEdit = firstEdit;
+    int offsetWindow = 0;
+    while (afterEdit < lastEdits.size() && lastEdits.get(afterEdit).getBeginB() <= endB)
+    {
+      endB = Math.max(endB, lastEdits.get(afterEdit).getEndB());
+      offsetWindow += _lengthDifference(lastEdits.get(afterEdit));
+      afterEdit++;
+    }
+    if (2 * (endB - beginB) > oldSize)
+      return null;
+
+    // outside of edits the lines of both sides are the same, so the indices only differ by the difference in length of the edits before them
+    int lineDifference = newSize - oldSize;
+    Subsequence<HashedSequence<RawText>> headWindow = new Subsequence<>(pHeadText, beginB + offsetBefore, endB + offsetBefore + offsetWindow);
+    Subsequence<HashedSequence<RawText>> textWindow = new Subsequence<>(pText, beginB, endB + lineDifference);
+    EditList windowEdits = Subsequence.toBase(diffAlgorithm.diff(new SubsequenceComparator<>(pComparator), headWindow, textWindow), headWindow,
+                                              textWindow);
+
+    EditList edits = new EditList(lastEdits.size() - (afterEdit - firstEdit) + windowEdits.size());
+    edits.addAll(lastEdits.subList(0, firstEdit));
+    edits.addAll(windowEdits);
+    for (Edit edit : lastEdits.subList(afterEdit, lastEdits.size()))
+    {
+      edits.add(new Edit(edit.getBeginA(), edit.getEndA(), edit.getBeginB() + lineDifference, edit.getEndB() + lineDifference));
+    }
+    return edits;
+  }
+
+  private static int _lengthDifference(@NotNull Edit pEdit)
+  {
+    return pEdit.getLengthA() - pEdit.getLengthB();
+  }
+
+  /**
+   * the edits are mutable and are passed on, so the stored edits are never handed out directly
+   */
+  @NotNull
+  private static EditList _copy(@NotNull EditList pEdits)
+  {
+    EditList copy = new EditList(pEdits.size());
+    for (Edit edit : pEdits)
+    {
+      copy.add(new Edit(edit.getBeginA(), edit.getEndA(), edit.getBeginB(), edit.getEndB()));
+    }
+    return copy;
+  }
+}
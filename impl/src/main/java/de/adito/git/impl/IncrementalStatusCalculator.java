@@ -0,0 +1,194 @@
+package de.adito.git.impl;
+
+import de.adito.git.api.data.IFileStatus;
+import de.adito.git.impl.dag.CommitGraphCache;
+import de.adito.git.impl.dag.CommitSearchIndex;
+import de.adito.git.impl.data.FileStatusImpl;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Calculates the status of a repository. Instead of running a status over the whole working tree after each change, only the paths that were reported as
+ * changed are re-evaluated and merged into the last calculated status. A status for the whole working tree is still calculated if
+ * <ul>
+ * <li>the changed files are not known</li>
+ * <li>anything in the .git folder (except objects, logs and the commit graph cache) or a .gitignore file changed</li>
+ * <li>more than MAX_NUM_INCREMENTAL_PATHS paths changed</li>
+ * <li>the last status of the whole working tree is older than FULL_STATUS_INTERVAL_MINUTES and incremental updates happened since</li>
+ * </ul>
+ *
+ * @author agent, 18.10.2026
+ */
+class IncrementalStatusCalculator
+{
+
+  static final long FULL_STATUS_INTERVAL_MINUTES = 5;
+  private static final int MAX_NUM_INCREMENTAL_PATHS = 2000;
+  // folders in the git folder whose content does not affect the status, the commit search index is appended to in the background after each ref change
+  private static final Set<String> IRRELEVANT_GIT_FOLDERS = Set.of("objects", "logs", CommitSearchIndex.FOLDER_NAME);
+  private final Logger logger = Logger.getLogger(IncrementalStatusCalculator.class.getName());
+  private final Object calculationLock = new Object();
+  private final Git git;
+  private final Path workTree;
+  private Set<String> changedPaths = new HashSet<>();
+  private boolean fullStatusRequired = true;
+  private boolean incrementalSinceFullStatus = false;
+  private long lastFullStatusTime = 0;
+  private volatile FileStatusImpl lastStatus = null;
+
+  IncrementalStatusCalculator(@NotNull Git pGit)
+  {
+    git = pGit;
+    workTree = pGit.getRepository().getWorkTree().toPath().toAbsolutePath().normalize();
+  }
+
+  /**
+   * Registers files as changed, the next call to calculateStatus re-evaluates the status for these files
+   *
+   * @param pChangedFiles files that changed, null if the changed files are not known. In that case, the status for the whole working tree is calculated
+   */
+  synchronized void addChangedFiles(@Nullable Collection<File> pChangedFiles)
+  {
+    if (fullStatusRequired)
+      return;
+    if (pChangedFiles == null)
+    {
+      fullStatusRequired = true;
+      return;
+    }
+    for (File changedFile : pChangedFiles)
+    {
+      String relativePath = _getRelativePath(changedFile);
+      if (relativePath == null)
+        continue;
+      if (_isFullStatusTrigger(relativePath) || changedPaths.size() >= MAX_NUM_INCREMENTAL_PATHS)
+      {
+        fullStatusRequired = true;
+        changedPaths = new HashSet<>();
+        return;
+      }
+      if (!_isInIgnoredFolder(relativePath))
+        changedPaths.add(relativePath);
+    }
+  }
+
+  /**
+   * Requests a status of the whole working tree if any incremental updates happened since the last status of the whole working tree, so that possible
+   * inaccuracies of the incremental updates cannot pile up
+   *
+   * @return true if a recalculation is necessary, false if the current status already stems from a status of the whole working tree
+   */
+  synchronized boolean requestReconciliation()
+  {
+    if (!incrementalSinceFullStatus)
+      return false;
+    fullStatusRequired = true;
+    return true;
+  }
+
+  /**
+   * Calculates the current status. Only re-evaluates the paths that were registered as changed since the last call, unless a status of the whole working
+   * tree is required
+   *
+   * @return the current status of the repository
+   */
+  @NotNull
+  IFileStatus calculateStatus()
+  {
+    synchronized (calculationLock)
+    {
+      Set<String> paths;
+      boolean isFullStatus;
+      synchronized (this)
+      {
+        isFullStatus = fullStatusRequired || lastStatus == null
+            || (incrementalSinceFullStatus && System.currentTimeMillis() - lastFullStatusTime > TimeUnit.MINUTES.toMillis(FULL_STATUS_INTERVAL_MINUTES));
+        paths = changedPaths;
+        changedPaths = new HashSet<>();
+        fullStatusRequired = false;
+      }
+      if (isFullStatus)
+      {
+        lastStatus = RepositoryImplHelper.status(git, List.of());
+        lastFullStatusTime = System.currentTimeMillis();
+        synchronized (this)
+        {
+          incrementalSinceFullStatus = false;
+        }
+      }
+      else if (!paths.isEmpty())
+      {
+        logger.log(Level.FINE, () -> String.format("git status %s", paths));
+        lastStatus = lastStatus.merge(RepositoryImplHelper.status(git, paths), paths);
+        synchronized (this)
+        {
+          incrementalSinceFullStatus = true;
+        }
+      }
+      return lastStatus;
+    }
+  }
+
+  /**
+   * @param pFile file for which to get the path relative to the working tree
+   * @return path relative to the working tree with "/" as separator, an empty String for the working tree itself or null if the file is not in the working tree
+   */
+  @Nullable
+  private String _getRelativePath(@NotNull File pFile)
+  {
+    Path path = pFile.toPath().toAbsolutePath().normalize();
+    if (!path.startsWith(workTree))
+      return null;
+    return workTree.relativize(path).toString().replace(File.separatorChar, '/');
+  }
+
+  /**
+   * @param pRelativePath path relative to the working tree
+   * @return true if a change of the path can affect the status of arbitrary files, such as changes of the index, HEAD or the ignore rules
+   */
+  private static boolean _isFullStatusTrigger(@NotNull String pRelativePath)
+  {
+    if (pRelativePath.isEmpty() || pRelativePath.equals(Constants.DOT_GIT_IGNORE) || pRelativePath.endsWith("/" + Constants.DOT_GIT_IGNORE))
+      return true;
+    if (pRelativePath.equals(Constants.DOT_GIT))
+      return true;
+    if (pRelativePath.startsWith(Constants.DOT_GIT + "/"))
+    {
+      String gitPath = pRelativePath.substring(Constants.DOT_GIT.length() + 1);
+      int separatorIndex = gitPath.indexOf('/');
+      if (separatorIndex < 0)
+        return !gitPath.startsWith(CommitGraphCache.FILE_NAME) && !IRRELEVANT_GIT_FOLDERS.contains(gitPath);
+      return !IRRELEVANT_GIT_FOLDERS.contains(gitPath.substring(0, separatorIndex));
+    }
+    return false;
+  }
+
+  /**
+   * @param pRelativePath path relative to the working tree
+   * @return true if the path lies below a folder that is ignored and not part of the index. Changes to such paths cannot change the status
+   */
+  private boolean _isInIgnoredFolder(@NotNull String pRelativePath)
+  {
+    FileStatusImpl currentStatus = lastStatus;
+    if (currentStatus == null)
+      return false;
+    Set<String> ignored = currentStatus.getIgnoredNotInIndex();
+    int separatorIndex = pRelativePath.indexOf('/');
+    while (separatorIndex > 0)
+    {
+      if (ignored.contains(pRelativePath.substring(0, separatorIndex)))
+        return true;
+      separatorIndex = pRelativePath.indexOf('/', separatorIndex + 1);
+    }
+    return false;
+  }
+}
@@ -0,0 +1,130 @@
+package de.adito.git.impl;
+
+import de.adito.git.api.data.diff.IFileDiff;
+import org.eclipse.jgit.diff.*;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Calculates the diffs of the DiffEntries of a comparison between two trees in parallel. The entries are split into chunks, and each chunk is processed
+ * with its own DiffFormatter (and with it its own ObjectReader), since those are not thread safe. The order of the resulting diffs is the order of the
+ * DiffEntries
+ *
+ * @author agent, 18.10.2026
+ */
+final class ParallelDiffCalculator
+{
+
+  private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+  private static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM);
+  // fewer entries than this per worker are not worth the overhead of an additional DiffFormatter
+  private static final int MIN_ENTRIES_PER_WORKER = 8;
+  // more chunks than workers, so a worker that got a chunk with small files can take over another chunk
+  private static final int CHUNKS_PER_WORKER = 4;
+
+  private ParallelDiffCalculator()
+  {
+  }
+
+  /**
+   * @param pRepository   repository that contains the blobs of the DiffEntries
+   * @param pComparator   comparator used for calculating the changed lines
+   * @param pDiffEntries  DiffEntries of the comparison between two trees
+   * @param pDiffFactory  creates the IFileDiff for a DiffEntry, given the lines that changed. Called in parallel
+   * @return list of the IFileDiffs, in the order of the DiffEntries
+   * @throws IOException if the content of a file could not be read
+   */
+  @NotNull
+  static List<IFileDiff> calculateDiffs(@NotNull Repository pRepository, @NotNull RawTextComparator pComparator, @NotNull List<DiffEntry> pDiffEntries,
+                                        @NotNull IFileDiffFactory pDiffFactory) throws IOException
+  {
+    return calculateDiffs(pRepository, pComparator, pDiffEntries, pDiffFactory, PARALLELISM);
+  }
+
+  /**
+   * @param pParallelism maximum number of workers the entries are split between
+   * @see #calculateDiffs(Repository, RawTextComparator, List, IFileDiffFactory)
+   */
+  @NotNull
+  static List<IFileDiff> calculateDiffs(@NotNull Repository pRepository, @NotNull RawTextComparator pComparator, @NotNull List<DiffEntry> pDiffEntries,
+                                        @NotNull IFileDiffFactory pDiffFactory, int pParallelism) throws IOException
+  {
+    IFileDiff[] fileDiffs = new IFileDiff[pDiffEntries.size()];
+    int numWorkers = Math.min(pParallelism, pDiffEntries.size() / MIN_ENTRIES_PER_WORKER);
+    if (numWorkers <= 1)
+    {
+      _calculateChunk(pRepository, pComparator, pDiffEntries, pDiffFactory, fileDiffs, 0, pDiffEntries.size());
+      return Arrays.asList(fileDiffs);
+    }
+    int numChunks = Math.min(pDiffEntries.size(), numWorkers * CHUNKS_PER_WORKER);
+    try
+    {
+      POOL.submit(() -> IntStream.range(0, numChunks).parallel().forEach(pChunk -> {
+        try
+        {
+          _calculateChunk(pRepository, pComparator, pDiffEntries, pDiffFactory, fileDiffs, (int) ((long) pDiffEntries.size() * pChunk / numChunks),
+                          (int) ((long) pDiffEntries.size() * (pChunk + 1) / numChunks));
+        }
+        catch (IOException pE)
+        {
+          throw new UncheckedIOException(pE);
+        }
+      })).get();
+    }
+    catch (InterruptedException pE)
+    {
+      Thread.currentThread().interrupt();
+      throw new IOException(pE);
+    }
+    catch (ExecutionException pE)
+    {
+      if (pE.getCause() instanceof UncheckedIOException)
+        throw ((UncheckedIOException) pE.getCause()).getCause();
+      throw new IOException(pE.getCause());
+    }
+    return Arrays.asList(fileDiffs);
+  }
+
+  /**
+   * calculates the diffs of the entries between pStart (inclusive) and pEnd (exclusive) and stores them at the same index in pFileDiffs
+   */
+  private static void _calculateChunk(@NotNull Repository pRepository, @NotNull RawTextComparator pComparator, @NotNull List<DiffEntry> pDiffEntries,
+                                      @NotNull IFileDiffFactory pDiffFactory, @NotNull IFileDiff[] pFileDiffs, int pStart, int pEnd) throws IOException
+  {
+    try (DiffFormatter formatter = new DiffFormatter(DisabledOutputStream.INSTANCE))
+    {
+      formatter.setRepository(pRepository);
+      formatter.setDiffComparator(pComparator);
+      for (int index = pStart; index < pEnd; index++)
+      {
+        DiffEntry diffEntry = pDiffEntries.get(index);
+        pFileDiffs[index] = pDiffFactory.create(diffEntry, formatter.toFileHeader(diffEntry).getHunks().get(0).toEditList());
+      }
+    }
+  }
+
+  /**
+   * Creates the IFileDiff for a DiffEntry
+   */
+  @FunctionalInterface
+  interface IFileDiffFactory
+  {
+    /**
+     * @param pDiffEntry DiffEntry to create the IFileDiff for
+     * @param pEditList  lines that changed in the file
+     * @return IFileDiff for the DiffEntry
+     * @throws IOException if the content of the file could not be read
+     */
+    @NotNull
+    IFileDiff create(@NotNull DiffEntry pDiffEntry, @NotNull EditList pEditList) throws IOException;
+  }
+}
@@ -0,0 +1,185 @@
+package de.adito.git.impl;
+
+import org.eclipse.jgit.lib.Constants;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fingerprint of the files in the .git folder that determine the branches, tags and the state of a repository. Only the file attributes (last modified time,
+ * size and file key) are used, except for small files such as HEAD, whose contents are hashed. Two fingerprints are equal if none of the files changed in
+ * between, so the fingerprint can be used to decide whether the branches, tags or repository state have to be read again
+ *
+ * @author agent, 18.10.2026
+ */
+final class RefDatabaseFingerprint
+{
+
+  private static final Logger LOGGER = Logger.getLogger(RefDatabaseFingerprint.class.getName());
+  private static final List<String> SMALL_REF_FILES = List.of(Constants.HEAD, Constants.CONFIG);
+  private static final List<String> STATE_FILES = List.of(Constants.MERGE_HEAD, Constants.CHERRY_PICK_HEAD, Constants.REVERT_HEAD, "BISECT_LOG",
+                                                          "rebase-merge", "rebase-apply");
+  private final long refsHash;
+  private final long stateHash;
+
+  private RefDatabaseFingerprint(long pRefsHash, long pStateHash)
+  {
+    refsHash = pRefsHash;
+    stateHash = pStateHash;
+  }
+
+  /**
+   * Calculates the fingerprint of the ref database of the repository
+   *
+   * @param pGitDirectory .git folder of the repository
+   * @return fingerprint of the current state of the ref database
+   */
+  @NotNull
+  static RefDatabaseFingerprint calculate(@NotNull File pGitDirectory)
+  {
+    Path gitDir = pGitDirectory.toPath();
+    long refsHash = _hashAttributes(gitDir, gitDir.resolve(Constants.PACKED_REFS));
+    for (String smallRefFile : SMALL_REF_FILES)
+    {
+      refsHash = 31 * refsHash + _hashContent(gitDir.resolve(smallRefFile));
+    }
+    refsHash = 31 * refsHash + _hashTree(gitDir, gitDir.resolve(Constants.R_REFS));
+
+    long stateHash = 0;
+    boolean isSpecialState = false;
+    for (String stateFile : STATE_FILES)
+    {
+      Path stateFilePath = gitDir.resolve(stateFile);
+      if (Files.exists(stateFilePath))
+      {
+        isSpecialState = true;
+        stateHash = 31 * stateHash + (Files.isDirectory(stateFilePath) ? _hashTree(gitDir, stateFilePath) : _hashContent(stateFilePath));
+      }
+    }
+    // conflicts in the index decide between e.g. MERGING and MERGING_RESOLVED, so the index is only relevant during a merge/rebase/cherry pick etc.
+    if (isSpecialState)
+      stateHash = 31 * stateHash + _hashAttributes(gitDir, gitDir.resolve("index"));
+    return new RefDatabaseFingerprint(refsHash, stateHash);
+  }
+
+  /**
+   * @param pOther other fingerprint
+   * @return true if the branches and tags did not change between the two fingerprints. The state of the repository may still differ
+   */
+  boolean isSameRefs(@NotNull RefDatabaseFingerprint pOther)
+  {
+    return refsHash == pOther.refsHash;
+  }
+
+  /**
+   * @param pGitDir .git folder, used to create the relative path that is part of the hash
+   * @param pFolder folder whose files should be hashed
+   * @return hash over the paths and attributes of all files in the folder
+   */
+  private static long _hashTree(@NotNull Path pGitDir, @NotNull Path pFolder)
+  {
+    if (!Files.isDirectory(pFolder))
+      return 0;
+    long[] hash = {0};
+    try
+    {
+      Files.walkFileTree(pFolder, new SimpleFileVisitor<>()
+      {
+        @Override
+        public FileVisitResult visitFile(Path pFile, BasicFileAttributes pAttributes)
+        {
+          // the order of the visited files is not guaranteed, so the hashes of the files are combined in a commutative way
+          hash[0] += _hashAttributes(pGitDir, pFile, pAttributes);
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path pFile, IOException pExc)
+        {
+          // files may be deleted while walking the tree, e.g. lock files
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    }
+    catch (IOException pE)
+    {
+      LOGGER.log(Level.FINE, pE, () -> "Could not walk " + pFolder);
+      return System.nanoTime();
+    }
+    return hash[0];
+  }
+
+  /**
+   * @param pGitDir .git folder, used to create the relative path that is part of the hash
+   * @param pFile   file to hash
+   * @return hash over the path and the attributes of the file, 0 if the file does not exist
+   */
+  private static long _hashAttributes(@NotNull Path pGitDir, @NotNull Path pFile)
+  {
+    try
+    {
+      return _hashAttributes(pGitDir, pFile, Files.readAttributes(pFile, BasicFileAttributes.class));
+    }
+    catch (NoSuchFileException pE)
+    {
+      return 0;
+    }
+    catch (IOException pE)
+    {
+      LOGGER.log(Level.FINE, pE, () -> "Could not read the attributes of " + pFile);
+      return System.nanoTime();
+    }
+  }
+
+  private static long _hashAttributes(@NotNull Path pGitDir, @NotNull Path pFile, @NotNull BasicFileAttributes pAttributes)
+  {
+    long hash = pGitDir.relativize(pFile).toString().hashCode();
+    hash = 31 * hash + pAttributes.lastModifiedTime().toMillis();
+    hash = 31 * hash + pAttributes.size();
+    return 31 * hash + Objects.hashCode(pAttributes.fileKey());
+  }
+
+  /**
+   * @param pFile small file whose contents should be hashed
+   * @return hash of the contents of the file, 0 if the file does not exist
+   */
+  private static long _hashContent(@NotNull Path pFile)
+  {
+    try
+    {
+      return Arrays.hashCode(Files.readAllBytes(pFile));
+    }
+    catch (NoSuchFileException pE)
+    {
+      return 0;
+    }
+    catch (IOException pE)
+    {
+      LOGGER.log(Level.FINE, pE, () -> "Could not read " + pFile);
+      return System.nanoTime();
+    }
+  }
+
+  @Override
+  public boolean equals(Object pO)
+  {
+    if (this == pO) return true;
+    if (pO == null || getClass() != pO.getClass()) return false;
+    RefDatabaseFingerprint that = (RefDatabaseFingerprint) pO;
+    return refsHash == that.refsHash && stateHash == that.stateHash;
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(refsHash, stateHash);
+  }
+}
@@ -1,12 +1,15 @@
 package de.adito.git.impl;
 
-import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import de.adito.git.api.*;
 import de.adito.git.api.data.*;
 import de.adito.git.api.data.diff.*;
 import de.adito.git.api.exception.*;
+import de.adito.git.impl.dag.CommitGraphCache;
+import de.adito.git.impl.dag.CommitSearchIndex;
 import de.adito.git.impl.dag.DAGFilterIterator;
 import de.adito.git.impl.data.TrackingRefUpdate;
 import de.adito.git.impl.data.*;
@@ -23,8 +26,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jgit.api.*;
 import org.eclipse.jgit.api.errors.*;
 import org.eclipse.jgit.attributes.AttributesNode;
-import org.eclipse.jgit.blame.BlameResult;
 import org.eclipse.jgit.diff.*;
+import org.eclipse.jgit.errors.MissingObjectException;
 import org.eclipse.jgit.ignore.IgnoreNode;
 import org.eclipse.jgit.lib.*;
 import org.eclipse.jgit.patch.FileHeader;
@@ -43,12 +46,15 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
 import java.net.UnknownHostException;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -71,10 +77,21 @@ public class RepositoryImpl implements IRepository
   private final Git git;
   private final Observable<Optional<List<IBranch>>> branchList;
   private final Observable<List<ITag>> tagList;
+  private final Observable<Map<String, String>> refChanges;
   private final Observable<Optional<IFileStatus>> status;
+  private final Observable<StatusSnapshot> statusSnapshots;
   private final Observable<Optional<IRepositoryState>> currentStateObservable;
   private final IFileSystemUtil fileSystemUtil;
   private final IFileSystemObserver fileSystemObserver;
+  private final IncrementalStatusCalculator statusCalculator;
+  private final CommitGraphCache commitGraphCache;
+  private final CommitSearchIndex commitSearchIndex;
+  private final HeadFileContentCache headFileContentCache = new HeadFileContentCache();
+  private final BlobContentCache blobContentCache;
+  private final BlameCache blameCache;
+  private final Observable<Optional<ObjectId>> headIdObservable;
+  // the content of a blob never changes, and with it its encoding
+  private final Cache<ObjectId, Charset> blobEncodingCache = CacheBuilder.newBuilder().maximumSize(100_000).build();
   private final CompositeDisposable disposables = new CompositeDisposable();
   private final TrackedBranchStatusCache trackedBranchStatusCache = new TrackedBranchStatusCacheImpl();
   private final IUserInputPrompt userInputPrompt;
@@ -98,30 +115,60 @@ public class RepositoryImpl implements IRepository
     dataFactory = pDataFactory;
     standAloneDiffProvider = pStandAloneDiffProvider;
     git = new Git(FileRepositoryBuilder.create(new File(pRepositoryDescription.getPath() + File.separator + ".git")));
+    blobContentCache = new BlobContentCache(git.getRepository());
+    blameCache = new BlameCache(git.getRepository());
 
     fileSystemObserver = pFileSystemObserverProvider.getFileSystemObserver(pRepositoryDescription);
-    // listen for changes in the fileSystem for the status command
-    status = Observable.create(new _FileSystemChangeObservable(fileSystemObserver))
+    statusCalculator = new IncrementalStatusCalculator(git);
+    // listen for changes in the fileSystem for the status command, only the changed paths are re-evaluated. Periodically reconcile with a full status
+    Observable<Object> reconciliationObservable = Observable.interval(IncrementalStatusCalculator.FULL_STATUS_INTERVAL_MINUTES,
+                                                                      IncrementalStatusCalculator.FULL_STATUS_INTERVAL_MINUTES, TimeUnit.MINUTES)
+        .filter(pTick -> statusCalculator.requestReconciliation())
+        .map(Object.class::cast);
+    status = Observable.merge(Observable.create(new _FileSystemChangeObservable(fileSystemObserver, statusCalculator)), reconciliationObservable)
         .observeOn(Schedulers.from(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())))
         .throttleLatest(500, TimeUnit.MILLISECONDS)
-        .map(pObj -> Optional.of(RepositoryImplHelper.status(git)))
-        .startWithItem(Optional.of(RepositoryImplHelper.status(git)))
+        .map(pObj -> Optional.of(statusCalculator.calculateStatus()))
+        .startWithItem(Optional.of(statusCalculator.calculateStatus()))
         .replay(1)
         .autoConnect(0, disposables::add);
+    // the delta of each status is calculated once, new subscribers start with the latest snapshot
+    statusSnapshots = status.map(pStatus -> pStatus.map(IFileStatus::getUncommitted).orElse(List.of()))
+        .scan(StatusSnapshot.EMPTY, StatusSnapshot::next)
+        .skip(1)
+        .replay(1)
+        .autoConnect(0, disposables::add);
+
+    // branches, tags and the repository state only change if the ref database changes, so only recalculate them if its fingerprint changes
+    Observable<RefDatabaseFingerprint> refDatabaseObservable = status.map(pStatus -> RefDatabaseFingerprint.calculate(git.getRepository().getDirectory()))
+        .distinctUntilChanged()
+        .replay(1)
+        .autoConnect(0, disposables::add);
+    Observable<RefDatabaseFingerprint> refsObservable = refDatabaseObservable.distinctUntilChanged(RefDatabaseFingerprint::isSameRefs);
 
-    branchList = status.map(pStatus -> Optional.of(RepositoryImplHelper.branchList(git, trackedBranchStatusCache)))
-        .startWithItem(Optional.of(RepositoryImplHelper.branchList(git, trackedBranchStatusCache)))
+    branchList = refsObservable.map(pRefs -> Optional.of(RepositoryImplHelper.branchList(git, trackedBranchStatusCache)))
         .replay(1)
         .autoConnect(0, disposables::add);
-    currentStateObservable = status.map(pStatus -> RepositoryImplHelper.currentState(git, this::getBranch, trackedBranchStatusCache))
-        .startWithItem(RepositoryImplHelper.currentState(git, this::getBranch, trackedBranchStatusCache))
+    currentStateObservable = refDatabaseObservable.map(pRefs -> RepositoryImplHelper.currentState(git, this::getBranch, trackedBranchStatusCache))
         .replay(1)
         .autoConnect(0, disposables::add);
-    tagList = status.map(pStatus -> git.tagList().call().stream().map(TagImpl::new).collect(Collectors.<ITag>toList()))
+    headIdObservable = refDatabaseObservable.map(pRefs -> Optional.ofNullable(git.getRepository().resolve(Constants.HEAD)))
+        .distinctUntilChanged()
+        .replay(1)
+        .autoConnect(0, disposables::add);
+    tagList = refsObservable.map(pRefs -> git.tagList().call().stream().map(TagImpl::new).collect(Collectors.<ITag>toList()))
         .distinctUntilChanged()
         .startWithItem(List.<ITag>of())
         .replay(1)
         .autoConnect(0, disposables::add);
+    // the emissions are synchronous, and branchList and tagList subscribed to refsObservable before any subscriber of refChanges. Therefore both are
+    // already updated once refChanges fires
+    refChanges = refsObservable.map(pRefs -> RepositoryImplHelper.refIds(git))
+        .distinctUntilChanged();
+    // keep the commit graph cache up to date after commits, fetches, pulls etc., so opening the history does not have to read the new commits first
+    commitGraphCache = new CommitGraphCache(git.getRepository().getDirectory());
+    commitSearchIndex = new CommitSearchIndex(git.getRepository().getDirectory());
+    disposables.add(refsObservable.observeOn(Schedulers.io()).subscribe(pRefs -> _updateCommitGraphCache()));
 
     _validateGitAttributes();
   }
@@ -621,16 +668,22 @@ public class RepositoryImpl implements IRepository
   @NotNull
   public List<IChangeDelta> diff(@NotNull String pFileContents, File pCompareWith) throws IOException
   {
-
-    String headId = ObjectId.toString(git.getRepository().resolve(Constants.HEAD));
-
-
-    IFileContentInfo fileContents = getFileContents(getFileVersion(headId, getRelativePath(pCompareWith, git)), pCompareWith);
-    RawText headFileContents = new RawText(fileContents.getFileContent().get().getBytes());
-    RawText currentFileContents = new RawText(pFileContents.getBytes());
-
-    EditList linesChanged = new HistogramDiff().diff(GitRawTextComparator.getCurrent().getValue(), headFileContents, currentFileContents);
-    return new FileDiffImpl(IFileDiffHeader.EMPTY_HEADER, linesChanged, fileContents, new FileContentInfoImpl(() -> pFileContents, () -> StandardCharsets.UTF_8))
+    ObjectId headId = git.getRepository().resolve(Constants.HEAD);
+    if (headId == null)
+      throw new IOException("Could not resolve HEAD of repository " + getDirectory());
+    String relativePath = getRelativePath(pCompareWith, git);
+    // the content of the file in HEAD only changes if HEAD moves, so only the current content has to be read and hashed here
+    HeadFileContentCache.HeadFileContent headFileContent = headFileContentCache.get(
+        headId, relativePath, () -> getFileContents(getFileVersion(ObjectId.toString(headId), relativePath), pCompareWith));
+    RawTextComparator comparator = GitRawTextComparator.getCurrent().getValue();
+    RawText currentRawText = new RawText(pFileContents.getBytes());
+    HashedSequencePair<RawText> currentFileContents = new HashedSequencePair<>(comparator, currentRawText, currentRawText);
+
+    // only the lines that changed since the last call are diffed again
+    EditList linesChanged = headFileContent.getLineDiff().diff(currentFileContents.getComparator(), headFileContent.getHashedText(comparator),
+                                                               currentFileContents.getB());
+    return new FileDiffImpl(IFileDiffHeader.EMPTY_HEADER, linesChanged, headFileContent.getContentInfo(),
+                            new FileContentInfoImpl(() -> pFileContents, () -> StandardCharsets.UTF_8))
         .getChangeDeltas();
   }
 
@@ -660,33 +713,31 @@ public class RepositoryImpl implements IRepository
   {
     try
     {
-      List<IFileDiff> listDiffImpl = new ArrayList<>();
-
       File tld = getTopLevelDirectory();
       IFileContentInfo emptyContentInfo = new FileContentInfoImpl(() -> "", () -> StandardCharsets.UTF_8);
       ObjectId compareTo = pCompareTo == null || pCompareTo == CommitImpl.VOID_COMMIT ? null : ObjectId.fromString(pCompareTo.getId());
       List<DiffEntry> listDiff = RepositoryImplHelper.doDiff(git, ObjectId.fromString(pOriginal.getId()), compareTo);
 
-      if (listDiff != null)
+      if (listDiff == null)
+        return new ArrayList<>();
+      RawTextComparator comparator = GitRawTextComparator.getCurrent().getValue();
+      Map<String, String> oldBlobIds = _getBlobIds(listDiff, DiffEntry.Side.OLD, pCompareTo == null ? null : pCompareTo.getId());
+      Map<String, String> newBlobIds = _getBlobIds(listDiff, DiffEntry.Side.NEW, pOriginal.getId());
+      // the diffs of the single files are independent of each other, so they are calculated in parallel
+      List<IFileDiff> listDiffImpl = new ArrayList<>(ParallelDiffCalculator.calculateDiffs(git.getRepository(), comparator, listDiff, (pDiff, pEditList) -> {
+        IFileContentInfo oldFileContent = VOID_PATH.equals(pDiff.getOldPath()) || pCompareTo == null ? emptyContentInfo
+            : getFileContents(oldBlobIds.get(pDiff.getOldPath()));
+        IFileContentInfo newFileContent = VOID_PATH.equals(pDiff.getNewPath()) ? emptyContentInfo
+            : getFileContents(newBlobIds.get(pDiff.getNewPath()));
+        return new FileDiffImpl(new FileDiffHeaderImpl(pDiff, tld), pEditList, oldFileContent, newFileContent);
+      }));
+      if (pWriteTo != null)
       {
-        try (DiffFormatter formatter = new DiffFormatter(pWriteTo == null ? DisabledOutputStream.INSTANCE : pWriteTo))
+        try (DiffFormatter formatter = new DiffFormatter(pWriteTo))
         {
           formatter.setRepository(git.getRepository());
-          formatter.setDiffComparator(GitRawTextComparator.getCurrent().getValue());
-          for (DiffEntry diff : listDiff)
-          {
-            FileHeader fileHeader = formatter.toFileHeader(diff);
-            IFileContentInfo oldFileContent = VOID_PATH.equals(diff.getOldPath()) || pCompareTo == null ? emptyContentInfo
-                : getFileContents(getFileVersion(pCompareTo.getId(), diff.getOldPath()));
-            IFileContentInfo newFileContent = VOID_PATH.equals(diff.getNewPath()) ? emptyContentInfo
-                : getFileContents(getFileVersion(pOriginal.getId(), diff.getNewPath()));
-            listDiffImpl.add(new FileDiffImpl(new FileDiffHeaderImpl(diff, tld), fileHeader.getHunks().get(0).toEditList(),
-                                              oldFileContent, newFileContent));
-          }
-          if (pWriteTo != null)
-          {
-            formatter.format(listDiff);
-          }
+          formatter.setDiffComparator(comparator);
+          formatter.format(listDiff);
         }
       }
       return listDiffImpl;
@@ -734,6 +785,7 @@ public class RepositoryImpl implements IRepository
       List<DiffEntry> diffList = diffFormatter.scan(treeParser, fileTreeIterator);
       if (pWriteTo != null)
         diffFormatter.format(diffList);
+      Map<String, String> oldBlobIds = _getBlobIds(diffList, DiffEntry.Side.OLD, ObjectId.toString(compareWithId));
 
       for (DiffEntry diffEntry : diffList)
       {
@@ -744,9 +796,11 @@ public class RepositoryImpl implements IRepository
         {
           FileHeader fileHeader = diffFormatter.toFileHeader(diffEntry);
           IFileContentInfo oldFileContents = VOID_PATH.equals(diffEntry.getOldPath()) ? new FileContentInfoImpl(() -> "", () -> StandardCharsets.UTF_8)
-              : getFileContents(getFileVersion(ObjectId.toString(compareWithId), diffEntry.getOldPath()));
-          IFileContentInfo newFileContents = VOID_PATH.equals(diffEntry.getNewPath()) ? new FileContentInfoImpl(() -> "", () -> StandardCharsets.UTF_8)
-              : new FileContentInfoImpl(Suppliers.memoize(() -> _getFileContent(diffEntry.getNewPath())), fileSystemUtil);
+              : getFileContents(oldBlobIds.get(diffEntry.getOldPath()));
+          // the file may change on disk, so its content is read right away to match the EditList of the diff. Only the content of blobs is read lazily
+          byte[] newContent = VOID_PATH.equals(diffEntry.getNewPath()) ? null : _getFileContent(diffEntry.getNewPath());
+          IFileContentInfo newFileContents = newContent == null ? new FileContentInfoImpl(() -> "", () -> StandardCharsets.UTF_8)
+              : new FileContentInfoImpl(() -> newContent, fileSystemUtil);
           returnList.add(new FileDiffImpl(new FileDiffHeaderImpl(diffEntry, getTopLevelDirectory()), fileHeader.getHunks().get(0).toEditList(),
                                           oldFileContents, newFileContents));
         }
@@ -810,8 +864,11 @@ public class RepositoryImpl implements IRepository
   @Override
   public IFileContentInfo getFileContents(String pIdentifier, File pFile) throws IOException
   {
-    ObjectLoader loader = git.getRepository().open(ObjectId.fromString(pIdentifier));
-    return new FileContentInfoImpl(Suppliers.memoize(loader::getBytes), fileSystemUtil);
+    ObjectId blobId = ObjectId.fromString(pIdentifier);
+    // only check that the blob exists, the content is loaded once it is needed
+    if (!git.getRepository().getObjectDatabase().has(blobId))
+      throw new MissingObjectException(blobId, Constants.OBJ_BLOB);
+    return new FileContentInfoImpl(() -> _getBlobContent(blobId), pContent -> _getBlobEncoding(blobId, pContent));
   }
 
   /**
@@ -820,21 +877,44 @@ public class RepositoryImpl implements IRepository
   @Override
   public IFileContentInfo getFileContents(String pIdentifier)
   {
-    Supplier<byte[]> byteSup = Suppliers.memoize(() -> {
-      ObjectLoader loader;
-      try
-      {
-        loader = git.getRepository().open(ObjectId.fromString(pIdentifier));
-      }
-      catch (IOException pE)
-      {
-        logger.log(Level.SEVERE, pE, () -> "Error while retrieving byte contents for file with identifier " + pIdentifier);
-        return new byte[0];
-      }
-      return loader.getBytes();
-    });
+    ObjectId blobId = ObjectId.fromString(pIdentifier);
+    return new FileContentInfoImpl(() -> _getBlobContent(blobId), pContent -> _getBlobEncoding(blobId, pContent));
+  }
 
-    return new FileContentInfoImpl(byteSup, fileSystemUtil);
+  /**
+   * @param pBlobId id of the blob
+   * @return content of the blob, or an empty array if the blob cannot be read
+   */
+  @NotNull
+  private byte[] _getBlobContent(@NotNull ObjectId pBlobId)
+  {
+    try
+    {
+      return blobContentCache.get(pBlobId);
+    }
+    catch (IOException pE)
+    {
+      logger.log(Level.SEVERE, pE, () -> "Error while retrieving byte contents for file with identifier " + pBlobId.getName());
+      return new byte[0];
+    }
+  }
+
+  /**
+   * @param pBlobId  id of the blob
+   * @param pContent content of the blob
+   * @return the encoding of the blob, only determined from the content if the encoding of the blob is not yet cached
+   */
+  @NotNull
+  private Charset _getBlobEncoding(@NotNull ObjectId pBlobId, @NotNull byte[] pContent)
+  {
+    try
+    {
+      return blobEncodingCache.get(pBlobId, () -> fileSystemUtil.getEncoding(pContent));
+    }
+    catch (ExecutionException pE)
+    {
+      return fileSystemUtil.getEncoding(pContent);
+    }
   }
 
   /**
@@ -913,6 +993,55 @@ public class RepositoryImpl implements IRepository
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @NotNull
+  @Override
+  public Map<String, String> getFileVersions(@NotNull String pCommitId, @NotNull Collection<String> pFilenames) throws IOException
+  {
+    return RepositoryImplHelper.getFileVersions(git.getRepository(), pCommitId, pFilenames);
+  }
+
+  /**
+   * DiffEntries already contain the ids of the blobs, so the tree of the commit only has to be searched for the files whose id in the DiffEntry is
+   * abbreviated. All of these files are looked up in a single walk over the tree
+   *
+   * @param pDiffEntries DiffEntries whose blob ids should be determined
+   * @param pSide        side of the DiffEntries whose blob ids should be determined
+   * @param pCommitId    id of the commit that contains the files of the side, used if an id is abbreviated. Null if the side is the working tree or empty
+   * @return Map with the path of the file on the given side as key and the identifying String for the blob as value. Does not contain deleted files
+   * @throws IOException if the tree of the commit has to be searched and cannot be read
+   */
+  @NotNull
+  private Map<String, String> _getBlobIds(@NotNull List<DiffEntry> pDiffEntries, @NotNull DiffEntry.Side pSide, @Nullable String pCommitId)
+      throws IOException
+  {
+    Map<String, String> blobIds = new HashMap<>();
+    List<String> abbreviatedPaths = new ArrayList<>();
+    for (DiffEntry diffEntry : pDiffEntries)
+    {
+      String path = diffEntry.getPath(pSide);
+      if (VOID_PATH.equals(path))
+        continue;
+      if (diffEntry.getId(pSide).isComplete())
+        blobIds.put(path, diffEntry.getId(pSide).name());
+      else
+        abbreviatedPaths.add(path);
+    }
+    if (pCommitId != null && !abbreviatedPaths.isEmpty())
+    {
+      Map<String, String> fileVersions = getFileVersions(pCommitId, abbreviatedPaths);
+      for (String path : abbreviatedPaths)
+      {
+        if (!fileVersions.containsKey(path))
+          throw new IllegalStateException("Could not find file " + path + " in repository " + getDirectory());
+      }
+      blobIds.putAll(fileVersions);
+    }
+    return blobIds;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -949,6 +1078,22 @@ public class RepositoryImpl implements IRepository
     return status;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public @NotNull Observable<StatusDelta> getStatusDeltas()
+  {
+    return Observable.defer(() -> {
+      AtomicBoolean isFirst = new AtomicBoolean(true);
+      // the first delta is always passed on, even if it is empty, so the subscriber knows that no other file has uncommitted changes
+      return statusSnapshots.map(pSnapshot -> isFirst.getAndSet(false) ? Optional.of(pSnapshot.getDeltaFromEmpty())
+                                                                       : Optional.of(pSnapshot.getDelta()).filter(pDelta -> !pDelta.isEmpty()))
+          .filter(Optional::isPresent)
+          .map(Optional::get);
+    });
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -1170,23 +1315,29 @@ public class RepositoryImpl implements IRepository
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
   @NotNull
   public Optional<IBlame> getBlame(@NotNull File pFile)
   {
-    BlameCommand blameCommand = git
-        .blame()
-        .setFilePath(getRelativePath(pFile, git))
-        .setTextComparator(RawTextComparator.WS_IGNORE_TRAILING);
-    try
-    {
-      BlameResult blameResult = blameCommand.call();
-      return Optional.of(new BlameImpl(blameResult));
-    }
-    catch (GitAPIException pE)
-    {
-      logger.log(Level.SEVERE, pE, () -> "Git error during blame call");
-    }
-    return Optional.empty();
+    // same HEAD as getBlameUpdates, so both share the cached blame
+    String relativePath = getRelativePath(pFile, git);
+    return headIdObservable.blockingFirst(Optional.empty())
+        .flatMap(pHeadId -> blameCache.get(pHeadId, relativePath).blockingLast(Optional.empty()));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @NotNull
+  public Observable<Optional<IBlame>> getBlameUpdates(@NotNull File pFile)
+  {
+    String relativePath = getRelativePath(pFile, git);
+    return headIdObservable.switchMap(pHeadId -> pHeadId.map(pId -> blameCache.get(pId, relativePath))
+        .orElseGet(() -> Observable.just(Optional.empty())));
   }
 
   /**
@@ -1527,7 +1678,24 @@ public class RepositoryImpl implements IRepository
   @Override
   public DAGFilterIterator<ICommit> getCommits(@Nullable ICommitFilter pCommitFilter) throws AditoGitException
   {
-    return RepositoryImplHelper.getCommits(git, pCommitFilter == null ? new CommitFilterImpl() : pCommitFilter);
+    return RepositoryImplHelper.getCommits(git, pCommitFilter == null ? new CommitFilterImpl() : pCommitFilter, commitGraphCache,
+                                          commitSearchIndex);
+  }
+
+  /**
+   * adds the commits that were created or fetched since the last update to the commit graph cache and the commit search index
+   */
+  private void _updateCommitGraphCache()
+  {
+    try
+    {
+      commitGraphCache.update(git.getRepository());
+      commitSearchIndex.update(git.getRepository(), commitGraphCache);
+    }
+    catch (IOException pE)
+    {
+      logger.log(Level.WARNING, pE, () -> "Could not update the commit graph cache");
+    }
   }
 
   @NotNull
@@ -1686,6 +1854,16 @@ public class RepositoryImpl implements IRepository
     return tagList;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @NotNull
+  @Override
+  public Observable<Map<String, String>> getRefChanges()
+  {
+    return refChanges;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -1855,18 +2033,22 @@ public class RepositoryImpl implements IRepository
   public void discard()
   {
     disposables.clear();
+    blameCache.discard();
   }
 
 
   /**
-   * Bridge from the FileSystemChangeListener to Observables
+   * Bridge from the FileSystemChangeListener to Observables, passes the changed files on to the IncrementalStatusCalculator
    */
   private static class _FileSystemChangeObservable extends AbstractListenerObservable<IFileSystemChangeListener, IFileSystemObserver, Object>
   {
 
-    _FileSystemChangeObservable(@NotNull IFileSystemObserver pListenableValue)
+    private final IncrementalStatusCalculator statusCalculator;
+
+    _FileSystemChangeObservable(@NotNull IFileSystemObserver pListenableValue, @NotNull IncrementalStatusCalculator pStatusCalculator)
     {
       super(pListenableValue);
+      statusCalculator = pStatusCalculator;
     }
 
     @NotNull
@@ -1874,7 +2056,9 @@ public class RepositoryImpl implements IRepository
     protected IFileSystemChangeListener registerListener(@NotNull IFileSystemObserver pIFileSystemObserver,
                                                          @NotNull IFireable<Object> pIFireable)
     {
-      IFileSystemChangeListener listener = () -> {
+      IFileSystemChangeListener listener = pChangedFiles -> {
+        // always register the changed files, so they are not lost if the updates are deactivated
+        statusCalculator.addChangedFiles(pChangedFiles);
         if (UpdateFlag.getInstance().isActive())
           pIFireable.fireValueChanged(new Object());
       };
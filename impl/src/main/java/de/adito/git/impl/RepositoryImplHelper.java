@@ -5,6 +5,8 @@ import de.adito.git.api.TrackedBranchStatusCache;
 import de.adito.git.api.data.*;
 import de.adito.git.api.data.diff.*;
 import de.adito.git.api.exception.AditoGitException;
+import de.adito.git.impl.dag.CommitGraphCache;
+import de.adito.git.impl.dag.CommitSearchIndex;
 import de.adito.git.impl.dag.DAGFilterIterator;
 import de.adito.git.impl.data.*;
 import de.adito.git.impl.data.diff.FileContentInfoImpl;
@@ -21,6 +23,8 @@ import org.eclipse.jgit.revwalk.filter.RevFilter;
 import org.eclipse.jgit.treewalk.AbstractTreeIterator;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
 import org.eclipse.jgit.util.io.NullOutputStream;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -101,6 +105,27 @@ public class RepositoryImplHelper
     }
   }
 
+  /**
+   * @param pGit Git object for the repository
+   * @return map of the full names of all refs, including HEAD, to the ids of the objects they point to. Refs that point to nothing, such as HEAD in a
+   * repository without commits, are not contained
+   * @throws IOException if the refs cannot be read
+   */
+  @NotNull
+  static Map<String, String> refIds(@NotNull Git pGit) throws IOException
+  {
+    Map<String, String> refIds = new HashMap<>();
+    for (Ref ref : pGit.getRepository().getRefDatabase().getRefs())
+    {
+      if (ref.getObjectId() != null)
+        refIds.put(ref.getName(), ref.getObjectId().getName());
+    }
+    Ref head = pGit.getRepository().exactRef(Constants.HEAD);
+    if (head != null && head.getObjectId() != null)
+      refIds.put(Constants.HEAD, head.getObjectId().getName());
+    return refIds;
+  }
+
   static List<IBranch> branchList(@NotNull Git pGit, @NotNull TrackedBranchStatusCache pTrackedBranchStatusCache)
   {
     ListBranchCommand listBranchCommand = pGit.branchList().setListMode(ListBranchCommand.ListMode.ALL);
@@ -125,8 +150,21 @@ public class RepositoryImplHelper
   }
 
   static IFileStatus status(@NotNull Git pGit)
+  {
+    return status(pGit, List.of());
+  }
+
+  /**
+   * @param pGit   Git object to call for retrieving the status
+   * @param pPaths paths, relative to the root of the repository, that the status should be limited to. Pass an empty collection to get the status for the
+   *               whole working tree
+   * @return status of the given paths, or of the whole working tree if no paths are given
+   */
+  @NotNull
+  static FileStatusImpl status(@NotNull Git pGit, @NotNull Collection<String> pPaths)
   {
     StatusCommand statusCommand = pGit.status();
+    pPaths.forEach(statusCommand::addPath);
     Status currentStatus;
     try
     {
@@ -494,14 +532,32 @@ public class RepositoryImplHelper
    *
    * @param pGit          Git object to call for retrieving commits/objects/info about the repository status
    * @param pCommitFilter filter that defines which commits are considered as result
+   * @param pGraphCache   cache of the commit graph, used to determine the order of the commits
+   * @param pSearchIndex  index of the authors and changed paths of the commits, used if the commits are filtered by author, date or files
    * @return List of ICommits matching the provided criteria
    * @throws AditoGitException if JGit throws an exception/returns null
    */
   @NotNull
-  static DAGFilterIterator<ICommit> getCommits(@NotNull Git pGit, @NotNull ICommitFilter pCommitFilter) throws AditoGitException
+  static DAGFilterIterator<ICommit> getCommits(@NotNull Git pGit, @NotNull ICommitFilter pCommitFilter, @NotNull CommitGraphCache pGraphCache,
+                                              @NotNull CommitSearchIndex pSearchIndex) throws AditoGitException
   {
     try
     {
+      Function<RevCommit, ICommit> transformFn = CommitImpl::new;
+      if (!pCommitFilter.getFiles().isEmpty() || pCommitFilter.getAuthor() != null || pCommitFilter.getStartDate() != null
+          || pCommitFilter.getEndDate() != null)
+      {
+        Iterator<ICommit> indexedCommits = _getCommitsFromSearchIndex(pGit, pCommitFilter, pGraphCache, pSearchIndex);
+        // the search index already filtered the commits and rewrote their parents
+        if (indexedCommits != null)
+          return new DAGFilterIterator<>(indexedCommits, pCommit -> true);
+      }
+      else
+      {
+        Iterator<ICommit> cachedCommits = _getCommitsFromGraphCache(pGit, pCommitFilter, pGraphCache);
+        if (cachedCommits != null)
+          return new DAGFilterIterator<>(cachedCommits, pCommitFilter);
+      }
       Iterable<RevCommit> refCommits;
       LogCommand logCommand = pGit.log();
       RevFilter revFilter = new StashCommitFilter(pGit);
@@ -522,7 +578,6 @@ public class RepositoryImplHelper
       }
       logCommand.setRevFilter(revFilter);
       refCommits = logCommand.call();
-      Function<RevCommit, ICommit> transformFn = CommitImpl::new;
       return new DAGFilterIterator<>(Iterators.transform(refCommits.iterator(), transformFn::apply), pCommitFilter);
     }
     catch (IOException pE)
@@ -536,6 +591,101 @@ public class RepositoryImplHelper
     }
   }
 
+  /**
+   * Walks the commits via the commit graph cache. The cache is updated in the background, so if a start point is not yet part of the cache the cache is not
+   * used
+   *
+   * @param pGit          Git object to call for retrieving commits/objects/info about the repository status
+   * @param pCommitFilter filter that defines which commits are considered as result, only the branch is considered here
+   * @param pGraphCache   cache of the commit graph
+   * @return Iterator over the commits, without any stash commits. Null if the cache could not be used
+   * @throws IOException if the refs or commits cannot be read
+   */
+  @Nullable
+  private static Iterator<ICommit> _getCommitsFromGraphCache(@NotNull Git pGit, @NotNull ICommitFilter pCommitFilter, @NotNull CommitGraphCache pGraphCache)
+      throws IOException
+  {
+    List<ObjectId> startPoints = _getStartPoints(pGit, pCommitFilter);
+    if (startPoints == null)
+      return null;
+    return pGraphCache.walk(pGit.getRepository(), startPoints, new StashCommitFilter(pGit).getStashedCommitIds());
+  }
+
+  /**
+   * Walks the commits via the commit graph cache and the search index. Both are updated in the background, so until they contain the commits the
+   * history is read via the log instead
+   *
+   * @param pGit          Git object to call for retrieving commits/objects/info about the repository status
+   * @param pCommitFilter filter that defines which commits are considered as result
+   * @param pGraphCache   cache of the commit graph
+   * @param pSearchIndex  index of the authors and changed paths of the commits
+   * @return Iterator over the commits that pass the filter, with rewritten parents and without any stash commits. Null if the index could not be used
+   * @throws IOException if the refs or commits cannot be read
+   */
+  @Nullable
+  private static Iterator<ICommit> _getCommitsFromSearchIndex(@NotNull Git pGit, @NotNull ICommitFilter pCommitFilter, @NotNull CommitGraphCache pGraphCache,
+                                                              @NotNull CommitSearchIndex pSearchIndex) throws IOException
+  {
+    List<ObjectId> startPoints = _getStartPoints(pGit, pCommitFilter);
+    if (startPoints == null)
+      return null;
+    List<String> paths = pCommitFilter.getFiles().stream().map(pFile -> getRelativePath(pFile, pGit)).collect(Collectors.toList());
+    return pSearchIndex.walk(new RevWalk(pGit.getRepository()), pGraphCache, startPoints, new StashCommitFilter(pGit).getStashedCommitIds(), pCommitFilter,
+                             paths);
+  }
+
+  /**
+   * @param pGit          Git object to call for retrieving commits/objects/info about the repository status
+   * @param pCommitFilter filter that defines which commits are considered as result, only the branch is considered here
+   * @return ids of the commits a walk over the commits of the branch of the filter starts at, null if the branch cannot be resolved
+   * @throws IOException if the refs cannot be read
+   */
+  @Nullable
+  private static List<ObjectId> _getStartPoints(@NotNull Git pGit, @NotNull ICommitFilter pCommitFilter) throws IOException
+  {
+    if (pCommitFilter.getBranch() != null && !pCommitFilter.getBranch().equals(IBranch.ALL_BRANCHES))
+    {
+      ObjectId branchId = pGit.getRepository().resolve(pCommitFilter.getBranch().equals(IBranch.HEAD) ? Constants.HEAD : pCommitFilter.getBranch().getName());
+      return branchId == null ? null : List.of(branchId);
+    }
+    return CommitGraphCache.getRefTips(pGit.getRepository());
+  }
+
+  /**
+   * retrieves the ids of the blobs of the given files at the time of the given commit, the tree of the commit is only walked once
+   *
+   * @param pRepository Repository that contains the commit
+   * @param pCommitId   the ID of the commit for the version of the files
+   * @param pFilenames  the names of the files, relative to the top level directory of the repository
+   * @return Map with the name of the file as key and the identifying String for the specific version of the file as value. Files that do not exist in
+   * the commit are not contained in the map
+   * @throws IOException if the commit or its tree cannot be read
+   */
+  @NotNull
+  static Map<String, String> getFileVersions(@NotNull Repository pRepository, @NotNull String pCommitId, @NotNull Collection<String> pFilenames)
+      throws IOException
+  {
+    Map<String, String> fileVersions = new HashMap<>();
+    if (pFilenames.isEmpty())
+      return fileVersions;
+    Set<String> filenames = new HashSet<>(pFilenames);
+    try (RevWalk revWalk = new RevWalk(pRepository);
+         TreeWalk treeWalk = new TreeWalk(pRepository, revWalk.getObjectReader()))
+    {
+      treeWalk.addTree(revWalk.parseCommit(ObjectId.fromString(pCommitId)).getTree());
+      treeWalk.setRecursive(true);
+      // the filter group only descends into the directories that contain one of the files
+      treeWalk.setFilter(PathFilterGroup.createFromStrings(filenames));
+      while (treeWalk.next() && fileVersions.size() < filenames.size())
+      {
+        // the filter also matches files below a directory with one of the names, those are not wanted
+        if (filenames.contains(treeWalk.getPathString()))
+          fileVersions.put(treeWalk.getPathString(), ObjectId.toString(treeWalk.getObjectId(0)));
+      }
+    }
+    return fileVersions;
+  }
+
   /**
    * Searches a merge base for two given commits
    *
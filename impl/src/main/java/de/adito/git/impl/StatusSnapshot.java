@@ -0,0 +1,81 @@
+package de.adito.git.impl;
+
+import de.adito.git.api.data.StatusDelta;
+import de.adito.git.api.data.diff.IFileChangeType;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Uncommitted files of a repository at one point in time, together with the delta to the snapshot before
+ *
+ * @author agent, 18.10.2026
+ */
+final class StatusSnapshot
+{
+
+  static final StatusSnapshot EMPTY = new StatusSnapshot(Map.of(), StatusDelta.EMPTY);
+  private final Map<File, IFileChangeType> uncommittedFiles;
+  private final StatusDelta delta;
+
+  private StatusSnapshot(@NotNull Map<File, IFileChangeType> pUncommittedFiles, @NotNull StatusDelta pDelta)
+  {
+    uncommittedFiles = pUncommittedFiles;
+    delta = pDelta;
+  }
+
+  /**
+   * @param pUncommitted the files that currently have uncommitted changes
+   * @return snapshot of the current status, with the delta to this snapshot
+   */
+  @NotNull
+  StatusSnapshot next(@NotNull List<IFileChangeType> pUncommitted)
+  {
+    Map<File, IFileChangeType> currentFiles = new HashMap<>();
+    List<IFileChangeType> added = new ArrayList<>();
+    List<IFileChangeType> changed = new ArrayList<>();
+    for (IFileChangeType changeType : pUncommitted)
+    {
+      currentFiles.put(changeType.getFile(), changeType);
+      IFileChangeType previous = uncommittedFiles.get(changeType.getFile());
+      if (previous == null)
+        added.add(changeType);
+      else if (previous.getChangeType() != changeType.getChangeType())
+        changed.add(changeType);
+    }
+    List<File> removed = new ArrayList<>();
+    // if no file was removed, the current files are exactly the previous files plus the added files
+    if (added.size() + uncommittedFiles.size() != currentFiles.size())
+    {
+      for (File file : uncommittedFiles.keySet())
+      {
+        if (!currentFiles.containsKey(file))
+          removed.add(file);
+      }
+    }
+    if (added.isEmpty() && changed.isEmpty() && removed.isEmpty())
+      return new StatusSnapshot(uncommittedFiles, StatusDelta.EMPTY);
+    return new StatusSnapshot(currentFiles, new StatusDelta(added, changed, removed));
+  }
+
+  /**
+   * @return delta between the snapshot before and this snapshot
+   */
+  @NotNull
+  StatusDelta getDelta()
+  {
+    return delta;
+  }
+
+  /**
+   * @return delta from no uncommitted files to this snapshot, that means all uncommitted files of this snapshot are added files
+   */
+  @NotNull
+  StatusDelta getDeltaFromEmpty()
+  {
+    if (uncommittedFiles.isEmpty())
+      return StatusDelta.EMPTY;
+    return new StatusDelta(new ArrayList<>(uncommittedFiles.values()), List.of(), List.of());
+  }
+}
@@ -0,0 +1,85 @@
+package de.adito.git.impl.dag;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Bloom filter of the paths that a commit changed compared to one of its parents, similar to the changed-path bloom filters of git. Contains the
+ * changed files and all folders that contain a changed file, so it can be asked for files as well as for folders.
+ * A filter never reports a changed path as unchanged, but may report an unchanged path as changed. If a commit changed too many paths, no filter is
+ * created (null) and each path is considered as changed
+ *
+ * @author agent, 18.10.2026
+ */
+final class ChangedPathFilter
+{
+
+  static final int MAX_CHANGED_PATHS = 512;
+  private static final int BITS_PER_PATH = 10;
+  private static final int NUM_HASHES = 7;
+  private static final HashFunction FIRST_HASH = Hashing.murmur3_32(0x293ae76f);
+  private static final HashFunction SECOND_HASH = Hashing.murmur3_32(0x7e646e2c);
+
+  private ChangedPathFilter()
+  {
+  }
+
+  /**
+   * @param pChangedPaths changed files and the folders that contain them, at most MAX_CHANGED_PATHS
+   * @return bits of the filter
+   */
+  @NotNull
+  static byte[] create(@NotNull Collection<String> pChangedPaths)
+  {
+    byte[] filter = new byte[Math.max(1, (pChangedPaths.size() * BITS_PER_PATH + 7) / 8)];
+    for (String path : pChangedPaths)
+    {
+      int[] hashes = hash(path);
+      for (int hashIndex = 0; hashIndex < NUM_HASHES; hashIndex++)
+      {
+        int bit = _getBit(hashes, hashIndex, filter.length * 8);
+        filter[bit / 8] |= 1 << (bit % 8);
+      }
+    }
+    return filter;
+  }
+
+  /**
+   * @param pPath path to hash
+   * @return the two hashes of the path, the bits of the path in a filter are derived from them. Calculate these once if several filters are asked for
+   * the same path
+   */
+  @NotNull
+  static int[] hash(@NotNull String pPath)
+  {
+    return new int[]{FIRST_HASH.hashString(pPath, StandardCharsets.UTF_8).asInt(), SECOND_HASH.hashString(pPath, StandardCharsets.UTF_8).asInt()};
+  }
+
+  /**
+   * @param pFilter bits of the filter, null if the commit changed too many paths for a filter
+   * @param pHashes hashes of the path, as returned by hash
+   * @return false if the path was definitely not changed, true if it might have been changed
+   */
+  static boolean mightContain(@Nullable byte[] pFilter, @NotNull int[] pHashes)
+  {
+    if (pFilter == null)
+      return true;
+    for (int hashIndex = 0; hashIndex < NUM_HASHES; hashIndex++)
+    {
+      int bit = _getBit(pHashes, hashIndex, pFilter.length * 8);
+      if ((pFilter[bit / 8] & (1 << (bit % 8))) == 0)
+        return false;
+    }
+    return true;
+  }
+
+  private static int _getBit(@NotNull int[] pHashes, int pHashIndex, int pNumBits)
+  {
+    return Integer.remainderUnsigned(pHashes[0] + pHashIndex * pHashes[1], pNumBits);
+  }
+}
@@ -0,0 +1,471 @@
+package de.adito.git.impl.dag;
+
+import de.adito.git.api.data.ICommit;
+import de.adito.git.impl.data.CommitImpl;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.*;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent cache of the commit graph of a repository, stored in the .git folder. Knows the parents, commit times and generation numbers of the commits,
+ * so the order in which the commits are shown in the history can be determined without walking the object database. The commits returned by a walk are
+ * only read from the object database once their author, date or message is accessed.
+ * The cache is updated incrementally in the background: only commits that are reachable from a ref and not yet part of the cache are read and appended
+ * to the cache file. Once enough commits were appended, the whole file is written again with all commits sorted by their id. Shallow clones are not
+ * cached, since the parents of their oldest commits are missing
+ *
+ * @author agent, 18.10.2026
+ */
+public class CommitGraphCache
+{
+
+  public static final String FILE_NAME = "adito-commit-graph";
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+  // appended commits are sorted into the base section of the file once there are more than this, and more than a quarter of the base commits. The first
+  // build of the cache is always written sorted
+  private static final int MIN_NUM_APPENDED_TO_COMPACT = 1024;
+  private final Logger logger = Logger.getLogger(CommitGraphCache.class.getName());
+  private final Object loadLock = new Object();
+  private final File file;
+  private volatile CommitGraphFile graphFile = null;
+  // graph whose content is stored in the file, null if the file does not contain a valid graph
+  private CommitGraphFile writtenGraph = null;
+
+  /**
+   * @param pGitDir .git folder of the repository
+   */
+  public CommitGraphCache(@NotNull File pGitDir)
+  {
+    file = new File(pGitDir, FILE_NAME);
+  }
+
+  /**
+   * Adds all commits that are reachable from any ref and not yet part of the cache, and appends them to the cache file. Does nothing for shallow clones.
+   * Reads all new commits, so this should be called in the background
+   *
+   * @param pRepository Repository whose commits are cached
+   * @throws IOException if the commits cannot be read or the cache cannot be written
+   */
+  public synchronized void update(@NotNull Repository pRepository) throws IOException
+  {
+    if (isShallow(pRepository))
+      return;
+    CommitGraphFile current = _getGraphFile();
+    List<RevCommit> newCommits;
+    try (RevWalk revWalk = new RevWalk(pRepository))
+    {
+      revWalk.setRetainBody(false);
+      newCommits = _collectNewCommits(revWalk, current, getRefTips(pRepository));
+    }
+    if (newCommits.isEmpty())
+      return;
+    CommitGraphFile updated = _append(current, newCommits);
+    int baseSize = updated.size() - updated.getAppendedSize();
+    boolean isCompact = baseSize == 0 || updated.getAppendedSize() > Math.max(MIN_NUM_APPENDED_TO_COMPACT, baseSize / 4);
+    if (isCompact)
+      updated = updated.compact();
+    graphFile = updated;
+    if (isCompact || writtenGraph != current)
+      _write(updated);
+    else
+      updated.writeAppended(file, current);
+    writtenGraph = updated;
+  }
+
+  /**
+   * Iterates over all commits reachable from the given start points, ordered by commit time (newest first) like the default order of a RevWalk.
+   * If two commits have the same commit time, the one with the higher generation number comes first, so a child is never shown after its parent.
+   * The order and the parents of the commits are taken from the graph, the commits are only read once their author, date or message is accessed
+   *
+   * @param pRepository   Repository that contains the commits
+   * @param pStartPoints  ids of the commits to start from
+   * @param pStashCommits ids of the stash commits, these and the commits created along with them are not returned. The walk still continues with their
+   *                      parents
+   * @return Iterator over the commits, or null if a start point is a commit that is not yet part of the cache or if the repository is a shallow clone
+   * @throws IOException if an error occurs while checking start points that are not part of the cache
+   */
+  @Nullable
+  public Iterator<ICommit> walk(@NotNull Repository pRepository, @NotNull Collection<? extends AnyObjectId> pStartPoints,
+                                @NotNull Collection<? extends AnyObjectId> pStashCommits) throws IOException
+  {
+    if (isShallow(pRepository))
+      return null;
+    CommitGraphFile graph = _getGraphFile();
+    List<Integer> startIndices;
+    try (RevWalk revWalk = new RevWalk(pRepository))
+    {
+      startIndices = findStartIndices(graph, revWalk, pStartPoints);
+    }
+    if (startIndices == null)
+      return null;
+    return new _GraphWalkIterator(graph, pRepository, findStashCommits(graph, pStashCommits), startIndices);
+  }
+
+  /**
+   * @return the current graph, the returned graph does not change if the cache is updated afterwards
+   */
+  @NotNull
+  CommitGraphFile getGraph()
+  {
+    return _getGraphFile();
+  }
+
+  /**
+   * @param pRepository Repository
+   * @return true if the repository is a shallow clone
+   */
+  static boolean isShallow(@NotNull Repository pRepository)
+  {
+    return new File(pRepository.getDirectory(), Constants.SHALLOW).exists();
+  }
+
+  /**
+   * @param pGraph      graph that contains the commit
+   * @param pRepository Repository that contains the commit
+   * @param pIndex      index of the commit in the graph
+   * @return commit that is only read from the object database once its author, date or message is accessed. The parents are taken from the graph
+   */
+  @NotNull
+  static ICommit createCommit(@NotNull CommitGraphFile pGraph, @NotNull Repository pRepository, int pIndex)
+  {
+    return new CommitImpl(pGraph.getId(pIndex), pRepository, () -> {
+      List<ICommit> parents = new ArrayList<>();
+      for (int parent : pGraph.getParents(pIndex))
+      {
+        parents.add(createCommit(pGraph, pRepository, parent));
+      }
+      return parents;
+    });
+  }
+
+  /**
+   * marks the stash commits and the commits created along with them (parents that have the same commit time), just like the StashCommitFilter does
+   *
+   * @param pGraph        graph that contains the commits
+   * @param pStashCommits ids of the commits that are explicitly in the stash branch
+   * @return indices of all stash commits
+   */
+  @NotNull
+  static BitSet findStashCommits(@NotNull CommitGraphFile pGraph, @NotNull Collection<? extends AnyObjectId> pStashCommits)
+  {
+    BitSet stashCommits = new BitSet();
+    Deque<Integer> pending = new ArrayDeque<>();
+    for (AnyObjectId stashCommit : pStashCommits)
+    {
+      int index = pGraph.find(stashCommit);
+      if (index >= 0)
+        pending.push(index);
+    }
+    while (!pending.isEmpty())
+    {
+      int index = pending.pop();
+      stashCommits.set(index);
+      for (int parent : pGraph.getParents(index))
+      {
+        if (!stashCommits.get(parent) && pGraph.getCommitTime(parent) == pGraph.getCommitTime(index))
+          pending.push(parent);
+      }
+    }
+    return stashCommits;
+  }
+
+  /**
+   * @param pGraph       graph to search the start points in
+   * @param pRevWalk     RevWalk used to check start points that are not part of the graph
+   * @param pStartPoints ids of the commits to start from
+   * @return indices of the start points in the graph, null if a start point is a commit that is not part of the graph
+   * @throws IOException if an error occurs while checking start points that are not part of the graph
+   */
+  @Nullable
+  static List<Integer> findStartIndices(@NotNull CommitGraphFile pGraph, @NotNull RevWalk pRevWalk, @NotNull Collection<? extends AnyObjectId> pStartPoints)
+      throws IOException
+  {
+    List<Integer> startIndices = new ArrayList<>();
+    for (AnyObjectId startPoint : pStartPoints)
+    {
+      int index = pGraph.find(startPoint);
+      if (index >= 0)
+        startIndices.add(index);
+      // refs may also point to trees or blobs, those are not part of the walk anyway
+      else if (pRevWalk.peel(pRevWalk.parseAny(startPoint)) instanceof RevCommit)
+        return null;
+    }
+    return startIndices;
+  }
+
+  /**
+   * @param pRepository Repository
+   * @return ids of the objects that the refs of the repository (including HEAD) point to, annotated tags are peeled
+   * @throws IOException if the refs cannot be read
+   */
+  @NotNull
+  public static List<ObjectId> getRefTips(@NotNull Repository pRepository) throws IOException
+  {
+    List<ObjectId> refTips = new ArrayList<>();
+    for (Ref ref : pRepository.getRefDatabase().getRefs())
+    {
+      Ref peeledRef = ref.isPeeled() ? ref : pRepository.getRefDatabase().peel(ref);
+      ObjectId tip = peeledRef.getPeeledObjectId() != null ? peeledRef.getPeeledObjectId() : peeledRef.getObjectId();
+      if (tip != null)
+        refTips.add(tip);
+    }
+    return refTips;
+  }
+
+  /**
+   * @return the current graph, read from disk if the cache was not loaded yet. An empty graph if no valid cache file exists
+   */
+  @NotNull
+  private CommitGraphFile _getGraphFile()
+  {
+    CommitGraphFile graph = graphFile;
+    if (graph == null)
+    {
+      // an update may run at the same time, so only loading the file is synchronized here
+      synchronized (loadLock)
+      {
+        if (graphFile == null)
+          _load();
+        graph = graphFile;
+      }
+    }
+    return graph;
+  }
+
+  private void _load()
+  {
+    CommitGraphFile graph = CommitGraphFile.EMPTY;
+    if (file.exists())
+    {
+      try
+      {
+        graph = CommitGraphFile.read(file);
+        writtenGraph = graph;
+      }
+      catch (IOException pE)
+      {
+        logger.log(Level.WARNING, pE, () -> "Could not read the commit graph cache, rebuilding it");
+      }
+    }
+    graphFile = graph;
+  }
+
+  /**
+   * Collects all commits that are reachable from the given tips and that are not part of the passed graph
+   *
+   * @param pRevWalk  RevWalk used to parse the commits
+   * @param pGraph    current graph
+   * @param pRefTips  ids of the objects the refs point to
+   * @return List of commits that are not part of the graph, with parsed headers
+   * @throws IOException if a commit cannot be read
+   */
+  @NotNull
+  private static List<RevCommit> _collectNewCommits(@NotNull RevWalk pRevWalk, @NotNull CommitGraphFile pGraph, @NotNull List<ObjectId> pRefTips)
+      throws IOException
+  {
+    RevFlag added = pRevWalk.newFlag("added");
+    Deque<RevCommit> pending = new ArrayDeque<>();
+    for (ObjectId refTip : pRefTips)
+    {
+      RevObject tipObject;
+      try
+      {
+        tipObject = pRevWalk.parseAny(refTip);
+      }
+      catch (MissingObjectException pE)
+      {
+        // broken ref, ignore it just like the log does
+        continue;
+      }
+      if (tipObject instanceof RevCommit && !tipObject.has(added) && pGraph.find(tipObject) < 0)
+      {
+        tipObject.add(added);
+        pending.push((RevCommit) tipObject);
+      }
+    }
+    List<RevCommit> newCommits = new ArrayList<>();
+    while (!pending.isEmpty())
+    {
+      RevCommit commit = pending.pop();
+      pRevWalk.parseHeaders(commit);
+      newCommits.add(commit);
+      for (RevCommit parent : commit.getParents())
+      {
+        if (!parent.has(added) && pGraph.find(parent) < 0)
+        {
+          parent.add(added);
+          pending.push(parent);
+        }
+      }
+    }
+    return newCommits;
+  }
+
+  /**
+   * Creates a new graph that contains all commits of the passed graph, followed by the new commits
+   *
+   * @param pGraph      current graph
+   * @param pNewCommits commits that are not yet part of the graph, with parsed headers
+   * @return new graph
+   */
+  @NotNull
+  private static CommitGraphFile _append(@NotNull CommitGraphFile pGraph, @NotNull List<RevCommit> pNewCommits)
+  {
+    pNewCommits.sort(AnyObjectId::compareTo);
+    int numCommits = pNewCommits.size();
+    ObjectId[] ids = new ObjectId[numCommits];
+    int[][] parents = new int[numCommits][];
+    int[] commitTimes = new int[numCommits];
+    for (int index = 0; index < numCommits; index++)
+    {
+      RevCommit commit = pNewCommits.get(index);
+      ids[index] = commit.toObjectId();
+      int[] commitParents = new int[commit.getParentCount()];
+      for (int parentIndex = 0; parentIndex < commitParents.length; parentIndex++)
+      {
+        RevCommit parent = commit.getParent(parentIndex);
+        int graphIndex = pGraph.find(parent);
+        commitParents[parentIndex] = graphIndex >= 0 ? graphIndex : pGraph.size() + Collections.binarySearch(pNewCommits, parent, AnyObjectId::compareTo);
+      }
+      parents[index] = commitParents;
+      commitTimes[index] = commit.getCommitTime();
+    }
+    int[] generations = new int[numCommits];
+    for (int index = 0; index < numCommits; index++)
+    {
+      _calculateGeneration(index, pGraph, parents, generations);
+    }
+    return pGraph.append(ids, parents, commitTimes, generations);
+  }
+
+  /**
+   * Calculates the generation number of the new commit with the given index and of all its new ancestors whose generation number is not yet known
+   *
+   * @param pIndex       index of the commit among the new commits
+   * @param pGraph       graph the new commits are appended to
+   * @param pParents     parents of all new commits, as indices in the graph with the appended commits
+   * @param pGenerations generation numbers of all new commits, 0 if not yet known. Calculated generation numbers are written into this array
+   */
+  private static void _calculateGeneration(int pIndex, @NotNull CommitGraphFile pGraph, @NotNull int[][] pParents, @NotNull int[] pGenerations)
+  {
+    Deque<Integer> stack = new ArrayDeque<>();
+    stack.push(pIndex);
+    while (!stack.isEmpty())
+    {
+      int index = stack.peek();
+      int maxParentGeneration = 0;
+      boolean parentsKnown = true;
+      for (int parent : pParents[index])
+      {
+        int parentGeneration = parent < pGraph.size() ? pGraph.getGeneration(parent) : pGenerations[parent - pGraph.size()];
+        if (parentGeneration == 0)
+        {
+          parentsKnown = false;
+          stack.push(parent - pGraph.size());
+        }
+        else
+          maxParentGeneration = Math.max(maxParentGeneration, parentGeneration);
+      }
+      if (parentsKnown)
+      {
+        pGenerations[index] = maxParentGeneration + 1;
+        stack.pop();
+      }
+    }
+  }
+
+  /**
+   * writes the whole graph to the cache file. A temporary file is written first, so the cache file is never left in a half written state. The graph is not
+   * mapped into memory, so replacing the file also works on systems that do not allow replacing files that are in use
+   *
+   * @param pGraph graph to write
+   * @throws IOException if the file cannot be written
+   */
+  private void _write(@NotNull CommitGraphFile pGraph) throws IOException
+  {
+    File tempFile = new File(file.getParentFile(), FILE_NAME + TEMP_FILE_SUFFIX);
+    try
+    {
+      pGraph.write(tempFile);
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally
+    {
+      Files.deleteIfExists(tempFile.toPath());
+    }
+  }
+
+  /**
+   * Iterator that walks the graph of the cache, without reading the commits from the object database
+   */
+  private static class _GraphWalkIterator implements Iterator<ICommit>
+  {
+
+    private final CommitGraphFile graph;
+    private final Repository repository;
+    private final BitSet stashCommits;
+    private final PriorityQueue<Integer> queue;
+    private final BitSet queued = new BitSet();
+    private int nextIndex = -1;
+
+    _GraphWalkIterator(@NotNull CommitGraphFile pGraph, @NotNull Repository pRepository, @NotNull BitSet pStashCommits, @NotNull List<Integer> pStartIndices)
+    {
+      graph = pGraph;
+      repository = pRepository;
+      stashCommits = pStashCommits;
+      queue = new PriorityQueue<>(Comparator.<Integer>comparingInt(graph::getCommitTime).thenComparingInt(graph::getGeneration).reversed());
+      for (int startIndex : pStartIndices)
+      {
+        _enqueue(startIndex);
+      }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      while (nextIndex < 0 && !queue.isEmpty())
+      {
+        int index = queue.poll();
+        for (int parent : graph.getParents(index))
+        {
+          _enqueue(parent);
+        }
+        if (!stashCommits.get(index))
+          nextIndex = index;
+      }
+      return nextIndex >= 0;
+    }
+
+    @Override
+    public ICommit next()
+    {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      ICommit commit = createCommit(graph, repository, nextIndex);
+      nextIndex = -1;
+      return commit;
+    }
+
+    private void _enqueue(int pIndex)
+    {
+      if (!queued.get(pIndex))
+      {
+        queued.set(pIndex);
+        queue.add(pIndex);
+      }
+    }
+  }
+}
@@ -0,0 +1,548 @@
+package de.adito.git.impl.dag;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.util.NB;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only view on a commit graph file, similar to the commit-graph file of git. Contains the ids, parents, commit times and generation numbers of all
+ * commits that were known when the file was written. The file consists of a sorted base section, which allows finding a commit by a binary search, and of
+ * commits that were appended to the file afterwards. All values are stored as big endian ints, the layout is as follows:
+ * <ul>
+ * <li>header: magic number, version, number of commits in the base section, number of extra edges</li>
+ * <li>fanout: 256 entries, entry i is the number of base commits whose id starts with a byte less than or equal to i</li>
+ * <li>ids: the ids of the base commits in ascending order, 20 bytes each. The position of a commit in this list is its index</li>
+ * <li>data: 4 ints per base commit: index of the first parent, index of the second parent, commit time and generation number. If a commit has more than two
+ * parents, the second parent has the EXTRA_EDGES_FLAG set and points to the list of parents (starting with the second) in the extra edges</li>
+ * <li>extra edges: parents of octopus merges, the last parent of each commit has the LAST_EDGE_FLAG set</li>
+ * <li>appended commits: id, commit time, generation number, number of parents and the indices of the parents. The index of an appended commit is the number
+ * of base commits plus its position among the appended commits</li>
+ * </ul>
+ * The file is read into memory completely, so it can be replaced or deleted while the graph is still in use
+ *
+ * @author agent, 18.10.2026
+ */
+final class CommitGraphFile
+{
+
+  static final int NO_PARENT = -1;
+  private static final int MAGIC = 0x41434746;
+  private static final int VERSION = 2;
+  private static final int HEADER_SIZE = 16;
+  private static final int FANOUT_SIZE = 256 * 4;
+  private static final int DATA_WIDTH = 16;
+  private static final int APPENDED_HEADER_SIZE = Constants.OBJECT_ID_LENGTH + 12;
+  private static final int EXTRA_EDGES_FLAG = 0x80000000;
+  private static final int LAST_EDGE_FLAG = 0x80000000;
+  private static final int[] NO_PARENTS = new int[0];
+  static final CommitGraphFile EMPTY = new CommitGraphFile(_createBuffer(0, 0), _Appended.NONE);
+  private final ByteBuffer buffer;
+  private final int baseSize;
+  private final int dataOffset;
+  private final int extraEdgesOffset;
+  private final _Appended appended;
+
+  private CommitGraphFile(@NotNull ByteBuffer pBuffer, @NotNull _Appended pAppended)
+  {
+    buffer = pBuffer;
+    baseSize = pBuffer.getInt(8);
+    dataOffset = HEADER_SIZE + FANOUT_SIZE + baseSize * Constants.OBJECT_ID_LENGTH;
+    extraEdgesOffset = dataOffset + baseSize * DATA_WIDTH;
+    appended = pAppended;
+  }
+
+  /**
+   * Reads the given file. Appended commits whose record was only written partly are ignored
+   *
+   * @param pFile commit graph file
+   * @return CommitGraphFile with the contents of the file
+   * @throws IOException if the file cannot be read or is no valid commit graph file
+   */
+  @NotNull
+  static CommitGraphFile read(@NotNull File pFile) throws IOException
+  {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(pFile.toPath()));
+    if (buffer.limit() < HEADER_SIZE + FANOUT_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+      throw new IOException("Unknown format of commit graph file " + pFile);
+    long baseLength = HEADER_SIZE + FANOUT_SIZE + (long) buffer.getInt(8) * (Constants.OBJECT_ID_LENGTH + DATA_WIDTH) + (long) buffer.getInt(12) * 4;
+    if (buffer.getInt(8) < 0 || buffer.getInt(12) < 0 || baseLength > buffer.limit())
+      throw new IOException("Commit graph file " + pFile + " is truncated or corrupt");
+    _Appended appended = _Appended.read(buffer, (int) baseLength, buffer.getInt(8));
+    if (appended == null)
+      throw new IOException("Commit graph file " + pFile + " is corrupt");
+    return new CommitGraphFile(buffer, appended);
+  }
+
+  /**
+   * Creates a CommitGraphFile that is held in memory and has no appended commits
+   *
+   * @param pIds         ids of the commits, sorted in ascending order
+   * @param pParents     indices of the parents of each commit
+   * @param pCommitTimes commit times of the commits
+   * @param pGenerations generation numbers of the commits
+   * @return CommitGraphFile containing the given commits
+   */
+  @NotNull
+  static CommitGraphFile create(@NotNull ObjectId[] pIds, @NotNull int[][] pParents, @NotNull int[] pCommitTimes, @NotNull int[] pGenerations)
+  {
+    int numExtraEdges = 0;
+    for (int[] parents : pParents)
+    {
+      if (parents.length > 2)
+        numExtraEdges += parents.length - 1;
+    }
+    ByteBuffer buffer = _createBuffer(pIds.length, numExtraEdges);
+    byte[] rawId = new byte[Constants.OBJECT_ID_LENGTH];
+    int idsOffset = HEADER_SIZE + FANOUT_SIZE;
+    int dataOffset = idsOffset + pIds.length * Constants.OBJECT_ID_LENGTH;
+    int extraEdgesOffset = dataOffset + pIds.length * DATA_WIDTH;
+    int extraEdgeIndex = 0;
+    for (int index = 0; index < pIds.length; index++)
+    {
+      pIds[index].copyRawTo(rawId, 0);
+      buffer.position(idsOffset + index * Constants.OBJECT_ID_LENGTH);
+      buffer.put(rawId);
+      int[] parents = pParents[index];
+      int dataPosition = dataOffset + index * DATA_WIDTH;
+      buffer.putInt(dataPosition, parents.length > 0 ? parents[0] : NO_PARENT);
+      if (parents.length > 2)
+      {
+        buffer.putInt(dataPosition + 4, EXTRA_EDGES_FLAG | extraEdgeIndex);
+        for (int parentIndex = 1; parentIndex < parents.length; parentIndex++)
+        {
+          int edge = parentIndex == parents.length - 1 ? LAST_EDGE_FLAG | parents[parentIndex] : parents[parentIndex];
+          buffer.putInt(extraEdgesOffset + 4 * extraEdgeIndex++, edge);
+        }
+      }
+      else
+        buffer.putInt(dataPosition + 4, parents.length > 1 ? parents[1] : NO_PARENT);
+      buffer.putInt(dataPosition + 8, pCommitTimes[index]);
+      buffer.putInt(dataPosition + 12, pGenerations[index]);
+    }
+    // fanout: cumulative number of ids per first byte
+    int idIndex = 0;
+    for (int firstByte = 0; firstByte < 256; firstByte++)
+    {
+      while (idIndex < pIds.length && pIds[idIndex].getFirstByte() <= firstByte)
+        idIndex++;
+      buffer.putInt(HEADER_SIZE + 4 * firstByte, idIndex);
+    }
+    buffer.position(0);
+    return new CommitGraphFile(buffer, _Appended.NONE);
+  }
+
+  /**
+   * Creates a new graph that consists of the commits of this graph and the given commits, which are appended after the commits of this graph
+   *
+   * @param pIds         ids of the new commits, in any order
+   * @param pParents     indices of the parents of each new commit, in the new graph
+   * @param pCommitTimes commit times of the new commits
+   * @param pGenerations generation numbers of the new commits
+   * @return new graph, this graph is not changed
+   */
+  @NotNull
+  CommitGraphFile append(@NotNull ObjectId[] pIds, @NotNull int[][] pParents, @NotNull int[] pCommitTimes, @NotNull int[] pGenerations)
+  {
+    return new CommitGraphFile(buffer, appended.append(pIds, pParents, pCommitTimes, pGenerations));
+  }
+
+  /**
+   * Creates a graph with the same commits as this graph, in which all commits are part of the sorted base section
+   *
+   * @return new graph, the indices of the commits differ from the indices in this graph
+   */
+  @NotNull
+  CommitGraphFile compact()
+  {
+    int numCommits = size();
+    ObjectId[] ids = new ObjectId[numCommits];
+    for (int index = 0; index < numCommits; index++)
+    {
+      ids[index] = getId(index);
+    }
+    Integer[] order = IntStream.range(0, numCommits).boxed().sorted(Comparator.comparing(pIndex -> ids[pIndex])).toArray(Integer[]::new);
+    int[] oldToNew = new int[numCommits];
+    for (int newIndex = 0; newIndex < numCommits; newIndex++)
+    {
+      oldToNew[order[newIndex]] = newIndex;
+    }
+    ObjectId[] sortedIds = new ObjectId[numCommits];
+    int[][] parents = new int[numCommits][];
+    int[] commitTimes = new int[numCommits];
+    int[] generations = new int[numCommits];
+    for (int newIndex = 0; newIndex < numCommits; newIndex++)
+    {
+      int oldIndex = order[newIndex];
+      sortedIds[newIndex] = ids[oldIndex];
+      int[] commitParents = getParents(oldIndex);
+      for (int parentIndex = 0; parentIndex < commitParents.length; parentIndex++)
+      {
+        commitParents[parentIndex] = oldToNew[commitParents[parentIndex]];
+      }
+      parents[newIndex] = commitParents;
+      commitTimes[newIndex] = getCommitTime(oldIndex);
+      generations[newIndex] = getGeneration(oldIndex);
+    }
+    return create(sortedIds, parents, commitTimes, generations);
+  }
+
+  /**
+   * writes the commit graph to the given file
+   *
+   * @param pFile file to write to, is overridden if it already exists
+   * @throws IOException if the file cannot be written
+   */
+  void write(@NotNull File pFile) throws IOException
+  {
+    try (FileChannel channel = FileChannel.open(pFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+    {
+      ByteBuffer base = buffer.duplicate();
+      base.position(0);
+      base.limit(_getBaseLength());
+      _writeFully(channel, base);
+      _writeFully(channel, appended.encode(0));
+    }
+  }
+
+  /**
+   * appends the commits of this graph that are not part of the written graph to the file
+   *
+   * @param pFile    file that contains the written graph
+   * @param pWritten graph that was written to the file, this graph has to be created by appending commits to it
+   * @throws IOException if the file cannot be written
+   */
+  void writeAppended(@NotNull File pFile, @NotNull CommitGraphFile pWritten) throws IOException
+  {
+    try (FileChannel channel = FileChannel.open(pFile.toPath(), StandardOpenOption.WRITE))
+    {
+      long writtenLength = pWritten._getBaseLength() + pWritten.appended.length;
+      // drops the rest of an appended commit that was only written partly
+      channel.truncate(writtenLength);
+      channel.position(writtenLength);
+      _writeFully(channel, appended.encode(pWritten.appended.size));
+    }
+  }
+
+  /**
+   * @return number of commits in the graph
+   */
+  int size()
+  {
+    return baseSize + appended.size;
+  }
+
+  /**
+   * @return number of commits that were appended after the sorted base section
+   */
+  int getAppendedSize()
+  {
+    return appended.size;
+  }
+
+  /**
+   * @param pId id of a commit
+   * @return index of the commit, -1 if the commit is not part of the graph
+   */
+  int find(@NotNull AnyObjectId pId)
+  {
+    byte[] rawId = new byte[Constants.OBJECT_ID_LENGTH];
+    pId.copyRawTo(rawId, 0);
+    int firstByte = pId.getFirstByte();
+    int low = firstByte == 0 ? 0 : buffer.getInt(HEADER_SIZE + 4 * (firstByte - 1));
+    int high = buffer.getInt(HEADER_SIZE + 4 * firstByte) - 1;
+    while (low <= high)
+    {
+      int middle = (low + high) >>> 1;
+      int comparison = _compare(rawId, middle);
+      if (comparison == 0)
+        return middle;
+      if (comparison < 0)
+        high = middle - 1;
+      else
+        low = middle + 1;
+    }
+    int appendedIndex = appended.find(pId);
+    return appendedIndex < 0 ? -1 : baseSize + appendedIndex;
+  }
+
+  /**
+   * @param pIndex index of the commit
+   * @return id of the commit
+   */
+  @NotNull
+  ObjectId getId(int pIndex)
+  {
+    if (pIndex >= baseSize)
+      return appended.ids[pIndex - baseSize];
+    byte[] rawId = new byte[Constants.OBJECT_ID_LENGTH];
+    ByteBuffer idBuffer = buffer.duplicate();
+    idBuffer.position(HEADER_SIZE + FANOUT_SIZE + pIndex * Constants.OBJECT_ID_LENGTH);
+    idBuffer.get(rawId);
+    return ObjectId.fromRaw(rawId);
+  }
+
+  /**
+   * @param pIndex index of the commit
+   * @return indices of the parents of the commit, in the same order as the parents of the commit
+   */
+  @NotNull
+  int[] getParents(int pIndex)
+  {
+    if (pIndex >= baseSize)
+      return appended.parents[pIndex - baseSize].clone();
+    int firstParent = buffer.getInt(dataOffset + pIndex * DATA_WIDTH);
+    if (firstParent == NO_PARENT)
+      return NO_PARENTS;
+    int secondParent = buffer.getInt(dataOffset + pIndex * DATA_WIDTH + 4);
+    if (secondParent == NO_PARENT)
+      return new int[]{firstParent};
+    if ((secondParent & EXTRA_EDGES_FLAG) == 0)
+      return new int[]{firstParent, secondParent};
+    int edgePosition = extraEdgesOffset + 4 * (secondParent & ~EXTRA_EDGES_FLAG);
+    int numParents = 2;
+    while ((buffer.getInt(edgePosition + 4 * (numParents - 2)) & LAST_EDGE_FLAG) == 0)
+      numParents++;
+    int[] parents = new int[numParents];
+    parents[0] = firstParent;
+    for (int parentIndex = 1; parentIndex < numParents; parentIndex++)
+    {
+      parents[parentIndex] = buffer.getInt(edgePosition + 4 * (parentIndex - 1)) & ~LAST_EDGE_FLAG;
+    }
+    return parents;
+  }
+
+  /**
+   * @param pIndex index of the commit
+   * @return commit time of the commit, in seconds since the epoch
+   */
+  int getCommitTime(int pIndex)
+  {
+    if (pIndex >= baseSize)
+      return appended.commitTimes[pIndex - baseSize];
+    return buffer.getInt(dataOffset + pIndex * DATA_WIDTH + 8);
+  }
+
+  /**
+   * @param pIndex index of the commit
+   * @return generation number of the commit: 1 for commits without parents, else one more than the highest generation number of its parents
+   */
+  int getGeneration(int pIndex)
+  {
+    if (pIndex >= baseSize)
+      return appended.generations[pIndex - baseSize];
+    return buffer.getInt(dataOffset + pIndex * DATA_WIDTH + 12);
+  }
+
+  /**
+   * @return length of the sorted base section in bytes
+   */
+  private int _getBaseLength()
+  {
+    return extraEdgesOffset + buffer.getInt(12) * 4;
+  }
+
+  /**
+   * compares the given raw id with the id at the given index
+   *
+   * @param pRawId raw id
+   * @param pIndex index of the id in the graph
+   * @return negative value if pRawId is smaller than the id at pIndex, 0 if they are equal, else a positive value
+   */
+  private int _compare(@NotNull byte[] pRawId, int pIndex)
+  {
+    int idPosition = HEADER_SIZE + FANOUT_SIZE + pIndex * Constants.OBJECT_ID_LENGTH;
+    for (int word = 0; word < Constants.OBJECT_ID_LENGTH / 4; word++)
+    {
+      int comparison = Integer.compareUnsigned(NB.decodeInt32(pRawId, word * 4), buffer.getInt(idPosition + word * 4));
+      if (comparison != 0)
+        return comparison;
+    }
+    return 0;
+  }
+
+  private static void _writeFully(@NotNull FileChannel pChannel, @NotNull ByteBuffer pBuffer) throws IOException
+  {
+    while (pBuffer.hasRemaining())
+      pChannel.write(pBuffer);
+  }
+
+  /**
+   * @param pNumCommits    number of commits
+   * @param pNumExtraEdges number of extra edges
+   * @return buffer with the header already filled in
+   */
+  @NotNull
+  private static ByteBuffer _createBuffer(int pNumCommits, int pNumExtraEdges)
+  {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + FANOUT_SIZE + pNumCommits * (Constants.OBJECT_ID_LENGTH + DATA_WIDTH) + pNumExtraEdges * 4);
+    buffer.putInt(0, MAGIC);
+    buffer.putInt(4, VERSION);
+    buffer.putInt(8, pNumCommits);
+    buffer.putInt(12, pNumExtraEdges);
+    return buffer;
+  }
+
+  /**
+   * Commits that were appended after the sorted base section, in the order they were appended. Is not changed once created
+   */
+  private static final class _Appended
+  {
+    private static final _Appended NONE = new _Appended(new ObjectId[0], new int[0][], new int[0], new int[0], 0);
+    private final ObjectId[] ids;
+    private final int[][] parents;
+    private final int[] commitTimes;
+    private final int[] generations;
+    private final int size;
+    // length of the appended commits in the file, in bytes
+    private final long length;
+    // positions of the commits, sorted by their ids
+    private final int[] sortedPositions;
+
+    private _Appended(@NotNull ObjectId[] pIds, @NotNull int[][] pParents, @NotNull int[] pCommitTimes, @NotNull int[] pGenerations, long pLength)
+    {
+      ids = pIds;
+      parents = pParents;
+      commitTimes = pCommitTimes;
+      generations = pGenerations;
+      size = pIds.length;
+      length = pLength;
+      sortedPositions = IntStream.range(0, size).boxed().sorted(Comparator.comparing(pPosition -> ids[pPosition])).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @param pBuffer    contents of the file
+     * @param pOffset    offset of the first appended commit
+     * @param pBaseSize  number of commits in the base section
+     * @return the appended commits, null if a commit references a parent that does not exist
+     */
+    private static _Appended read(@NotNull ByteBuffer pBuffer, int pOffset, int pBaseSize)
+    {
+      ObjectId[] ids = new ObjectId[16];
+      int[][] parents = new int[16][];
+      int[] commitTimes = new int[16];
+      int[] generations = new int[16];
+      int size = 0;
+      int position = pOffset;
+      byte[] rawId = new byte[Constants.OBJECT_ID_LENGTH];
+      while (pBuffer.limit() - position >= APPENDED_HEADER_SIZE)
+      {
+        int numParents = pBuffer.getInt(position + Constants.OBJECT_ID_LENGTH + 8);
+        if (numParents < 0 || pBuffer.limit() - position - APPENDED_HEADER_SIZE < (long) numParents * 4)
+          break;
+        if (size == ids.length)
+        {
+          ids = Arrays.copyOf(ids, size * 2);
+          parents = Arrays.copyOf(parents, size * 2);
+          commitTimes = Arrays.copyOf(commitTimes, size * 2);
+          generations = Arrays.copyOf(generations, size * 2);
+        }
+        ByteBuffer idBuffer = pBuffer.duplicate();
+        idBuffer.position(position);
+        idBuffer.get(rawId);
+        ids[size] = ObjectId.fromRaw(rawId);
+        commitTimes[size] = pBuffer.getInt(position + Constants.OBJECT_ID_LENGTH);
+        generations[size] = pBuffer.getInt(position + Constants.OBJECT_ID_LENGTH + 4);
+        parents[size] = new int[numParents];
+        for (int parentIndex = 0; parentIndex < numParents; parentIndex++)
+        {
+          parents[size][parentIndex] = pBuffer.getInt(position + APPENDED_HEADER_SIZE + 4 * parentIndex);
+        }
+        size++;
+        position += APPENDED_HEADER_SIZE + 4 * numParents;
+      }
+      for (int index = 0; index < size; index++)
+      {
+        for (int parent : parents[index])
+        {
+          if (parent < 0 || parent >= pBaseSize + size)
+            return null;
+        }
+      }
+      return new _Appended(Arrays.copyOf(ids, size), Arrays.copyOf(parents, size), Arrays.copyOf(commitTimes, size), Arrays.copyOf(generations, size),
+                           position - pOffset);
+    }
+
+    @NotNull
+    private _Appended append(@NotNull ObjectId[] pIds, @NotNull int[][] pParents, @NotNull int[] pCommitTimes, @NotNull int[] pGenerations)
+    {
+      int newSize = size + pIds.length;
+      ObjectId[] newIds = Arrays.copyOf(ids, newSize);
+      int[][] newParents = Arrays.copyOf(parents, newSize);
+      int[] newCommitTimes = Arrays.copyOf(commitTimes, newSize);
+      int[] newGenerations = Arrays.copyOf(generations, newSize);
+      long newLength = length;
+      for (int index = 0; index < pIds.length; index++)
+      {
+        newIds[size + index] = pIds[index];
+        newParents[size + index] = pParents[index];
+        newCommitTimes[size + index] = pCommitTimes[index];
+        newGenerations[size + index] = pGenerations[index];
+        newLength += APPENDED_HEADER_SIZE + 4 * pParents[index].length;
+      }
+      return new _Appended(newIds, newParents, newCommitTimes, newGenerations, newLength);
+    }
+
+    /**
+     * @param pId id of a commit
+     * @return position of the commit among the appended commits, -1 if it was not appended
+     */
+    private int find(@NotNull AnyObjectId pId)
+    {
+      int low = 0;
+      int high = size - 1;
+      while (low <= high)
+      {
+        int middle = (low + high) >>> 1;
+        int comparison = ids[sortedPositions[middle]].compareTo(pId);
+        if (comparison == 0)
+          return sortedPositions[middle];
+        if (comparison > 0)
+          high = middle - 1;
+        else
+          low = middle + 1;
+      }
+      return -1;
+    }
+
+    /**
+     * @param pFromPosition position of the first commit to encode
+     * @return the commits starting at the given position, in the format of the file
+     */
+    @NotNull
+    private ByteBuffer encode(int pFromPosition)
+    {
+      int encodedLength = 0;
+      for (int position = pFromPosition; position < size; position++)
+      {
+        encodedLength += APPENDED_HEADER_SIZE + 4 * parents[position].length;
+      }
+      ByteBuffer encoded = ByteBuffer.allocate(encodedLength);
+      byte[] rawId = new byte[Constants.OBJECT_ID_LENGTH];
+      for (int position = pFromPosition; position < size; position++)
+      {
+        ids[position].copyRawTo(rawId, 0);
+        encoded.put(rawId);
+        encoded.putInt(commitTimes[position]);
+        encoded.putInt(generations[position]);
+        encoded.putInt(parents[position].length);
+        for (int parent : parents[position])
+        {
+          encoded.putInt(parent);
+        }
+      }
+      encoded.flip();
+      return encoded;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package de.adito.git.impl.dag;
+
+import de.adito.git.api.data.ICommit;
+import de.adito.git.impl.data.CommitImpl;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectIdOwnerMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact index of a commit graph. Each commit is assigned an int the first time it is encountered, either as commit itself or as parent of another commit.
+ * The parents of a commit are stored as int[] of these indices, so the graph can be traversed and compared without going over the (hex) ids of the commits
+ * or allocating new ICommit objects for the parents
+ *
+ * @author agent, 18.10.2026
+ */
+public class CommitGraphIndex
+{
+
+  private static final int[] NO_PARENTS = new int[0];
+  private static final int INITIAL_CAPACITY = 1024;
+  private final ObjectIdOwnerMap<_IndexEntry> indices = new ObjectIdOwnerMap<>();
+  private int[][] parents = new int[INITIAL_CAPACITY][];
+  private int size = 0;
+
+  /**
+   * Adds the commit and its current parents (as given by ICommit.getParents) to the index
+   *
+   * @param pCommit commit to add
+   * @return index of the commit
+   */
+  public int add(@NotNull ICommit pCommit)
+  {
+    int commitIndex = getOrCreateIndex(getObjectId(pCommit));
+    List<ICommit> commitParents = pCommit.getParents();
+    if (commitParents.isEmpty())
+      parents[commitIndex] = NO_PARENTS;
+    else
+    {
+      int[] parentIndices = new int[commitParents.size()];
+      for (int index = 0; index < parentIndices.length; index++)
+      {
+        parentIndices[index] = getOrCreateIndex(getObjectId(commitParents.get(index)));
+      }
+      parents[commitIndex] = parentIndices;
+    }
+    return commitIndex;
+  }
+
+  /**
+   * @param pId id of the commit
+   * @return index of the commit with the given id. If the commit is not yet part of the index, it is assigned a new index
+   */
+  public int getOrCreateIndex(@NotNull AnyObjectId pId)
+  {
+    _IndexEntry entry = indices.get(pId);
+    if (entry == null)
+    {
+      if (size == parents.length)
+        parents = Arrays.copyOf(parents, size * 2);
+      entry = new _IndexEntry(pId, size++);
+      indices.add(entry);
+    }
+    return entry.index;
+  }
+
+  /**
+   * @param pId id of the commit
+   * @return index of the commit with the given id, -1 if the commit is not part of the index
+   */
+  public int indexOf(@NotNull AnyObjectId pId)
+  {
+    _IndexEntry entry = indices.get(pId);
+    return entry == null ? -1 : entry.index;
+  }
+
+  /**
+   * @param pCommitIndex index of the commit
+   * @return indices of the parents of the commit. Empty if the commit has no parents or was so far only encountered as parent of another commit.
+   * Do not modify the returned array
+   */
+  @NotNull
+  public int[] getParents(int pCommitIndex)
+  {
+    int[] commitParents = parents[pCommitIndex];
+    return commitParents == null ? NO_PARENTS : commitParents;
+  }
+
+  /**
+   * @return number of commits that were assigned an index
+   */
+  public int size()
+  {
+    return size;
+  }
+
+  /**
+   * @param pCommit ICommit
+   * @return ObjectId of the commit, taken directly from the underlying RevCommit if possible
+   */
+  @NotNull
+  public static AnyObjectId getObjectId(@NotNull ICommit pCommit)
+  {
+    if (pCommit instanceof CommitImpl)
+      return ((CommitImpl) pCommit).getObjectId();
+    return ObjectId.isId(pCommit.getId()) ? ObjectId.fromString(pCommit.getId()) : ObjectId.zeroId();
+  }
+
+  /**
+   * Entry of the map from ObjectId to index
+   */
+  private static class _IndexEntry extends ObjectIdOwnerMap.Entry
+  {
+    private static final long serialVersionUID = 1L;
+    private final int index;
+
+    _IndexEntry(@NotNull AnyObjectId pId, int pIndex)
+    {
+      super(pId);
+      index = pIndex;
+    }
+  }
+}
@@ -0,0 +1,765 @@
+package de.adito.git.impl.dag;
+
+import com.google.common.collect.Iterators;
+import de.adito.git.api.dag.IDAGObject;
+import de.adito.git.api.data.ICommit;
+import de.adito.git.api.data.ICommitFilter;
+import de.adito.git.impl.data.CommitImpl;
+import org.eclipse.jgit.errors.RevWalkException;
+import org.eclipse.jgit.lib.*;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent index for filtering the history, stored in the adito-index folder of the .git folder. Knows the author of each commit, and for each parent of
+ * a commit a bloom filter of the paths the commit changed compared to that parent. Together with the commit times and parents from the commit graph cache,
+ * the history can be filtered by author, date and files without reading the commits that are filtered out from the object database. Trees are only
+ * compared if the bloom filter reports that one of the files might have changed.
+ * The index is updated incrementally in the background: only commits of the commit graph cache that are not yet part of the index are read, and they are
+ * appended to the index file in batches. Until the index contains nearly all commits of the commit graph cache, walks are refused so the history is read
+ * via the log instead
+ *
+ * @author agent, 18.10.2026
+ */
+public class CommitSearchIndex
+{
+
+  public static final String FOLDER_NAME = "adito-index";
+  static final String FILE_NAME = "commits";
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+  private static final int MAGIC = 0x41434958;
+  private static final int VERSION = 2;
+  private static final int HEADER_SIZE = 8;
+  private static final byte AUTHOR_RECORD = 0;
+  private static final byte COMMIT_RECORD = 1;
+  private static final int NO_FILTER = -1;
+  // commits that are indexed before they are appended to the file and can be used by walks
+  static final int BATCH_SIZE = 5000;
+  // walks are refused if more commits of the commit graph cache are not indexed, reading the trees of these commits would take too long
+  static final int MAX_NUM_UNINDEXED_COMMITS = 256;
+  private final Logger logger = Logger.getLogger(CommitSearchIndex.class.getName());
+  private final Object loadLock = new Object();
+  private final File file;
+  private volatile _Snapshot snapshot = null;
+  // index whose content is stored in the file and the length of the file, null if the file does not contain a valid index
+  private _Snapshot writtenSnapshot = null;
+  private long writtenLength = 0;
+
+  /**
+   * @param pGitDir .git folder of the repository
+   */
+  public CommitSearchIndex(@NotNull File pGitDir)
+  {
+    file = new File(new File(pGitDir, FOLDER_NAME), FILE_NAME);
+  }
+
+  /**
+   * Adds all commits of the commit graph cache that are not yet part of the index. The commits are added in batches, each batch is appended to the index
+   * file and can be used by walks once it is complete. Reads the trees of all new commits, so this should be called in the background
+   *
+   * @param pRepository Repository whose commits are indexed
+   * @param pGraphCache commit graph cache of the repository, should be updated before this index
+   * @throws IOException if the commits cannot be read or the index cannot be written
+   */
+  public synchronized void update(@NotNull Repository pRepository, @NotNull CommitGraphCache pGraphCache) throws IOException
+  {
+    CommitGraphFile graph = pGraphCache.getGraph();
+    try (RevWalk revWalk = new RevWalk(pRepository))
+    {
+      int index = 0;
+      while (index < graph.size())
+      {
+        _Snapshot current = _getSnapshot();
+        List<_Entry> entries = new ArrayList<>(current.entries);
+        List<String> authors = new ArrayList<>(current.authors);
+        Map<String, Integer> authorIds = new HashMap<>(current.authorIds);
+        for (; index < graph.size() && entries.size() - current.entries.size() < BATCH_SIZE; index++)
+        {
+          ObjectId id = graph.getId(index);
+          if (!current.entriesById.contains(id))
+          {
+            RevCommit commit = revWalk.parseCommit(id);
+            int author = authorIds.computeIfAbsent(commit.getAuthorIdent().getName(), pAuthor -> {
+              authors.add(pAuthor);
+              return authors.size() - 1;
+            });
+            // the message is not needed, do not keep it in memory for all indexed commits
+            commit.disposeBody();
+            entries.add(new _Entry(id, entries.size(), author, _createChangedPathFilters(revWalk, commit)));
+          }
+        }
+        if (entries.size() > current.entries.size())
+          _publish(current, new _Snapshot(entries, authors));
+      }
+    }
+  }
+
+  /**
+   * Iterates over the commits reachable from the given start points that pass the filter, in the same order as the walk over the commit graph cache.
+   * The parents of the commits are rewritten to the nearest ancestors that pass the filter. If files are given, the history is simplified like it is by
+   * the log of git: a merge commit that did not change the files compared to one of its parents is only followed to that parent
+   *
+   * @param pRevWalk      RevWalk used to parse the commits
+   * @param pGraphCache   commit graph cache of the repository
+   * @param pStartPoints  ids of the commits to start from
+   * @param pStashCommits ids of the stash commits, these and the commits created along with them are filtered out
+   * @param pFilter       filter for the author and the dates of the commits
+   * @param pPaths        paths relative to the root of the repository, commits have to change at least one of them. Empty if not filtered by files
+   * @return Iterator over the commits, or null if a start point is a commit that is not yet part of the commit graph cache or if too many commits of the
+   * commit graph cache are not yet indexed
+   * @throws IOException if an error occurs while checking start points that are not part of the commit graph cache
+   */
+  @Nullable
+  public Iterator<ICommit> walk(@NotNull RevWalk pRevWalk, @NotNull CommitGraphCache pGraphCache, @NotNull Collection<? extends AnyObjectId> pStartPoints,
+                                @NotNull Collection<? extends AnyObjectId> pStashCommits, @NotNull ICommitFilter pFilter, @NotNull List<String> pPaths)
+      throws IOException
+  {
+    CommitGraphFile graph = pGraphCache.getGraph();
+    _Snapshot current = _getSnapshot();
+    // commits are only indexed after they were added to the graph, so the index may know commits the graph does not know yet
+    if (graph.size() - current.entries.size() > MAX_NUM_UNINDEXED_COMMITS)
+      return null;
+    List<Integer> startIndices = CommitGraphCache.findStartIndices(graph, pRevWalk, pStartPoints);
+    if (startIndices == null)
+      return null;
+    _Search search = new _Search(graph, current, pRevWalk, pStashCommits, pFilter, pPaths);
+    DAGFilterIterator<_Node> nodes = new DAGFilterIterator<>(new _NodeWalkIterator(search, startIndices), pNode -> search.matches(pNode.index));
+    return Iterators.transform(nodes, search::toCommit);
+  }
+
+  /**
+   * @param pRevWalk RevWalk used to parse the trees
+   * @param pCommit  commit to create the filters for
+   * @return one filter for each parent of the commit, or a single filter of all paths of the commit if the commit has no parents. Null entries for
+   * parents the commit changed too many paths compared to
+   * @throws IOException if a tree cannot be read
+   */
+  @NotNull
+  private static byte[][] _createChangedPathFilters(@NotNull RevWalk pRevWalk, @NotNull RevCommit pCommit) throws IOException
+  {
+    byte[][] filters = new byte[Math.max(1, pCommit.getParentCount())][];
+    for (int parentIndex = 0; parentIndex < filters.length; parentIndex++)
+    {
+      try (TreeWalk treeWalk = new TreeWalk(pRevWalk.getObjectReader()))
+      {
+        treeWalk.setRecursive(true);
+        // skips subtrees that are the same in both trees without reading them
+        treeWalk.setFilter(TreeFilter.ANY_DIFF);
+        if (pCommit.getParentCount() == 0)
+          treeWalk.addTree(new EmptyTreeIterator());
+        else
+          treeWalk.addTree(pRevWalk.parseCommit(pCommit.getParent(parentIndex)).getTree());
+        treeWalk.addTree(pCommit.getTree());
+        Set<String> changedPaths = new HashSet<>();
+        while (treeWalk.next() && changedPaths.size() <= ChangedPathFilter.MAX_CHANGED_PATHS)
+        {
+          String path = treeWalk.getPathString();
+          // add the folders as well, so the filter can tell if anything in a folder changed
+          for (int separator = path.indexOf('/'); separator >= 0; separator = path.indexOf('/', separator + 1))
+          {
+            changedPaths.add(path.substring(0, separator));
+          }
+          changedPaths.add(path);
+        }
+        if (changedPaths.size() <= ChangedPathFilter.MAX_CHANGED_PATHS)
+          filters[parentIndex] = ChangedPathFilter.create(changedPaths);
+      }
+    }
+    return filters;
+  }
+
+  /**
+   * @return the current index, read from disk if the index was not loaded yet. An empty index if no valid index file exists
+   */
+  @NotNull
+  private _Snapshot _getSnapshot()
+  {
+    _Snapshot current = snapshot;
+    if (current == null)
+    {
+      // an update may run at the same time, so only loading the file is synchronized here
+      synchronized (loadLock)
+      {
+        if (snapshot == null)
+          _load();
+        current = snapshot;
+      }
+    }
+    return current;
+  }
+
+  private void _load()
+  {
+    _Snapshot loaded = _Snapshot.EMPTY;
+    if (file.exists())
+    {
+      try
+      {
+        _ReadResult readResult = _read(file);
+        loaded = readResult.snapshot;
+        writtenSnapshot = loaded;
+        writtenLength = readResult.length;
+      }
+      catch (IOException pE)
+      {
+        logger.log(Level.WARNING, pE, () -> "Could not read the commit search index, rebuilding it");
+      }
+    }
+    snapshot = loaded;
+  }
+
+  /**
+   * makes the updated index available to walks and stores the new commits in the index file. The new commits are appended to the file if it contains the
+   * current index, else the whole file is written
+   *
+   * @param pCurrent current index
+   * @param pUpdated index that contains all commits and authors of the current index, followed by the new ones
+   * @throws IOException if the file cannot be written
+   */
+  private void _publish(@NotNull _Snapshot pCurrent, @NotNull _Snapshot pUpdated) throws IOException
+  {
+    snapshot = pUpdated;
+    if (writtenSnapshot == pCurrent)
+      _append(pCurrent, pUpdated);
+    else
+      _write(pUpdated);
+    writtenSnapshot = pUpdated;
+  }
+
+  /**
+   * @param pFile index file
+   * @return the index stored in the file. A record at the end of the file that was only written partly is ignored
+   * @throws IOException if the file cannot be read or is no valid index file
+   */
+  @NotNull
+  private static _ReadResult _read(@NotNull File pFile) throws IOException
+  {
+    List<String> authors = new ArrayList<>();
+    List<_Entry> entries = new ArrayList<>();
+    long length = HEADER_SIZE;
+    try (_CountingInputStream countingInput = new _CountingInputStream(new BufferedInputStream(new FileInputStream(pFile)));
+         DataInputStream input = new DataInputStream(countingInput))
+    {
+      if (input.readInt() != MAGIC || input.readInt() != VERSION)
+        throw new IOException("Unknown format of commit search index " + pFile);
+      try
+      {
+        byte[] rawId = new byte[Constants.OBJECT_ID_LENGTH];
+        for (int recordType = input.read(); recordType >= 0; recordType = input.read())
+        {
+          if (recordType == AUTHOR_RECORD)
+            authors.add(input.readUTF());
+          else if (recordType == COMMIT_RECORD)
+          {
+            input.readFully(rawId);
+            int author = input.readInt();
+            if (author < 0 || author >= authors.size())
+              throw new IOException("Commit search index " + pFile + " is corrupt");
+            byte[][] filters = new byte[input.readUnsignedByte()][];
+            for (int filterIndex = 0; filterIndex < filters.length; filterIndex++)
+            {
+              int filterLength = input.readInt();
+              if (filterLength != NO_FILTER)
+              {
+                filters[filterIndex] = new byte[filterLength];
+                input.readFully(filters[filterIndex]);
+              }
+            }
+            entries.add(new _Entry(ObjectId.fromRaw(rawId), entries.size(), author, filters));
+          }
+          else
+            throw new IOException("Commit search index " + pFile + " is corrupt");
+          length = countingInput.count;
+        }
+      }
+      catch (EOFException pE)
+      {
+        // the last record was only written partly, it is written again by the next update
+      }
+    }
+    catch (EOFException | NegativeArraySizeException pE)
+    {
+      throw new IOException("Commit search index " + pFile + " is truncated or corrupt", pE);
+    }
+    return new _ReadResult(new _Snapshot(entries, authors), length);
+  }
+
+  /**
+   * appends the authors and commits of the updated index that are not part of the current index to the index file
+   *
+   * @param pCurrent index that is stored in the index file
+   * @param pUpdated updated index
+   * @throws IOException if the file cannot be written
+   */
+  private void _append(@NotNull _Snapshot pCurrent, @NotNull _Snapshot pUpdated) throws IOException
+  {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE))
+    {
+      // drops the rest of a record that was only written partly
+      channel.truncate(writtenLength);
+      channel.position(writtenLength);
+      DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+      _writeRecords(output, pUpdated, pCurrent.authors.size(), pCurrent.entries.size());
+      output.flush();
+      writtenLength = channel.position();
+    }
+  }
+
+  /**
+   * writes the whole index to the index file. A temporary file is written first, so the index file is never left in a half written state
+   *
+   * @param pSnapshot index to write
+   * @throws IOException if the file cannot be written
+   */
+  private void _write(@NotNull _Snapshot pSnapshot) throws IOException
+  {
+    Files.createDirectories(file.getParentFile().toPath());
+    File tempFile = new File(file.getParentFile(), FILE_NAME + TEMP_FILE_SUFFIX);
+    try
+    {
+      try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile))))
+      {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        _writeRecords(output, pSnapshot, 0, 0);
+      }
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      writtenLength = file.length();
+    }
+    finally
+    {
+      Files.deleteIfExists(tempFile.toPath());
+    }
+  }
+
+  /**
+   * writes the authors and commits of the index starting at the given positions. The authors are written first, since the commits refer to them
+   *
+   * @param pOutput         stream to write to
+   * @param pSnapshot       index to write
+   * @param pFirstAuthor    position of the first author to write
+   * @param pFirstEntry     position of the first commit to write
+   * @throws IOException if the records cannot be written
+   */
+  private static void _writeRecords(@NotNull DataOutputStream pOutput, @NotNull _Snapshot pSnapshot, int pFirstAuthor, int pFirstEntry) throws IOException
+  {
+    for (String author : pSnapshot.authors.subList(pFirstAuthor, pSnapshot.authors.size()))
+    {
+      pOutput.writeByte(AUTHOR_RECORD);
+      pOutput.writeUTF(author);
+    }
+    byte[] rawId = new byte[Constants.OBJECT_ID_LENGTH];
+    for (_Entry entry : pSnapshot.entries.subList(pFirstEntry, pSnapshot.entries.size()))
+    {
+      pOutput.writeByte(COMMIT_RECORD);
+      entry.copyRawTo(rawId, 0);
+      pOutput.write(rawId);
+      pOutput.writeInt(entry.author);
+      // octopus merges with more than 255 parents do not exist in practice, git itself limits the number of parents of a merge to 16
+      pOutput.writeByte(entry.changedPathFilters.length);
+      for (byte[] filter : entry.changedPathFilters)
+      {
+        pOutput.writeInt(filter == null ? NO_FILTER : filter.length);
+        if (filter != null)
+          pOutput.write(filter);
+      }
+    }
+  }
+
+  /**
+   * Indexed data of a single commit
+   */
+  private static class _Entry extends ObjectId
+  {
+    private static final long serialVersionUID = 1L;
+    // position of the commit in the index, the position in the bitmaps of the authors
+    private final int position;
+    private final int author;
+    private final byte[][] changedPathFilters;
+
+    _Entry(@NotNull AnyObjectId pId, int pPosition, int pAuthor, @NotNull byte[][] pChangedPathFilters)
+    {
+      super(pId);
+      position = pPosition;
+      author = pAuthor;
+      changedPathFilters = pChangedPathFilters;
+    }
+  }
+
+  /**
+   * Index read from the index file, together with the length of the part of the file that contains complete records
+   */
+  private static class _ReadResult
+  {
+    private final _Snapshot snapshot;
+    private final long length;
+
+    _ReadResult(@NotNull _Snapshot pSnapshot, long pLength)
+    {
+      snapshot = pSnapshot;
+      length = pLength;
+    }
+  }
+
+  /**
+   * Counts the bytes read from the stream, so the end of the last complete record is known
+   */
+  private static class _CountingInputStream extends FilterInputStream
+  {
+    private long count = 0;
+
+    _CountingInputStream(@NotNull InputStream pInput)
+    {
+      super(pInput);
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+      int value = super.read();
+      if (value >= 0)
+        count++;
+      return value;
+    }
+
+    @Override
+    public int read(byte[] pBuffer, int pOffset, int pLength) throws IOException
+    {
+      int numRead = super.read(pBuffer, pOffset, pLength);
+      if (numRead > 0)
+        count += numRead;
+      return numRead;
+    }
+
+    @Override
+    public long skip(long pNumBytes) throws IOException
+    {
+      long numSkipped = super.skip(pNumBytes);
+      count += numSkipped;
+      return numSkipped;
+    }
+  }
+
+  /**
+   * State of the index at one point in time, is not changed once created so walks can use it while the index is updated
+   */
+  private static class _Snapshot
+  {
+    private static final _Snapshot EMPTY = new _Snapshot(List.of(), List.of());
+    private final List<_Entry> entries;
+    private final List<String> authors;
+    private final Map<String, Integer> authorIds = new HashMap<>();
+    private final ObjectIdSubclassMap<_Entry> entriesById = new ObjectIdSubclassMap<>();
+    // author id -> bitmap of the positions of the commits of the author
+    private final List<BitSet> commitsByAuthor = new ArrayList<>();
+
+    _Snapshot(@NotNull List<_Entry> pEntries, @NotNull List<String> pAuthors)
+    {
+      entries = pEntries;
+      authors = pAuthors;
+      for (String author : pAuthors)
+      {
+        authorIds.put(author, authorIds.size());
+        commitsByAuthor.add(new BitSet());
+      }
+      for (_Entry entry : pEntries)
+      {
+        entriesById.add(entry);
+        commitsByAuthor.get(entry.author).set(entry.position);
+      }
+    }
+  }
+
+  /**
+   * Evaluates the filter for the commits of a single walk. Each commit is only evaluated once, the commit is only read from the object database if it is
+   * not part of the index or if the bloom filter reports that one of the files might have changed
+   */
+  private static class _Search
+  {
+    private final CommitGraphFile graph;
+    private final _Snapshot snapshot;
+    private final RevWalk revWalk;
+    private final BitSet stashCommits;
+    private final String author;
+    private final BitSet commitsOfAuthor;
+    private final Instant startDate;
+    private final Instant endDate;
+    private final TreeFilter pathFilter;
+    private final List<int[]> pathHashes = new ArrayList<>();
+    private final BitSet evaluated = new BitSet();
+    private final BitSet matching = new BitSet();
+    // merges that did not change the files compared to one of their parents -> that parent
+    private final Map<Integer, int[]> simplifiedParents = new HashMap<>();
+
+    _Search(@NotNull CommitGraphFile pGraph, @NotNull _Snapshot pSnapshot, @NotNull RevWalk pRevWalk, @NotNull Collection<? extends AnyObjectId> pStashCommits,
+            @NotNull ICommitFilter pFilter, @NotNull List<String> pPaths)
+    {
+      graph = pGraph;
+      snapshot = pSnapshot;
+      revWalk = pRevWalk;
+      author = pFilter.getAuthor();
+      Integer authorId = author == null ? null : snapshot.authorIds.get(author);
+      commitsOfAuthor = authorId == null ? new BitSet() : snapshot.commitsByAuthor.get(authorId);
+      startDate = pFilter.getStartDate();
+      endDate = pFilter.getEndDate();
+      pathFilter = pPaths.isEmpty() ? null : AndTreeFilter.create(PathFilterGroup.createFromStrings(pPaths), TreeFilter.ANY_DIFF);
+      pPaths.forEach(pPath -> pathHashes.add(ChangedPathFilter.hash(pPath)));
+      stashCommits = CommitGraphCache.findStashCommits(pGraph, pStashCommits);
+    }
+
+    /**
+     * @param pIndex index of the commit in the graph
+     * @return true if the commit passes the filter
+     */
+    boolean matches(int pIndex)
+    {
+      _evaluate(pIndex);
+      return matching.get(pIndex);
+    }
+
+    /**
+     * @param pIndex index of the commit in the graph
+     * @return indices of the parents the walk continues with
+     */
+    @NotNull
+    int[] getParents(int pIndex)
+    {
+      _evaluate(pIndex);
+      int[] parents = simplifiedParents.get(pIndex);
+      return parents == null ? graph.getParents(pIndex) : parents;
+    }
+
+    /**
+     * @param pNode node that passed the filter, with rewritten parents
+     * @return parsed commit of the node, its parents are the rewritten parents of the node
+     */
+    @NotNull
+    ICommit toCommit(@NotNull _Node pNode)
+    {
+      try
+      {
+        CommitImpl commit = new CommitImpl(revWalk.parseCommit(graph.getId(pNode.index)));
+        List<ICommit> parents = new ArrayList<>();
+        for (_Node parent : pNode.getParents())
+        {
+          RevCommit parentCommit = revWalk.lookupCommit(graph.getId(parent.index));
+          revWalk.parseHeaders(parentCommit);
+          parents.add(new CommitImpl(parentCommit));
+        }
+        commit.setParents(parents);
+        return commit;
+      }
+      catch (IOException pE)
+      {
+        throw new RevWalkException(pE);
+      }
+    }
+
+    private void _evaluate(int pIndex)
+    {
+      if (evaluated.get(pIndex))
+        return;
+      evaluated.set(pIndex);
+      try
+      {
+        _Entry entry = snapshot.entriesById.get(graph.getId(pIndex));
+        // the files are checked first, since this also determines the parents the walk continues with
+        if (_isPathChanged(pIndex, entry) && !stashCommits.get(pIndex) && _isInDateRange(pIndex) && _isAuthorMatch(pIndex, entry))
+          matching.set(pIndex);
+      }
+      catch (IOException pE)
+      {
+        throw new RevWalkException(pE);
+      }
+    }
+
+    private boolean _isInDateRange(int pIndex)
+    {
+      // the commit graph stores the commit time, which is the time of the commit in the history
+      Instant commitTime = Instant.ofEpochSecond(graph.getCommitTime(pIndex));
+      return (startDate == null || startDate.isBefore(commitTime)) && (endDate == null || endDate.isAfter(commitTime));
+    }
+
+    private boolean _isAuthorMatch(int pIndex, @Nullable _Entry pEntry) throws IOException
+    {
+      if (author == null)
+        return true;
+      if (pEntry != null)
+        return commitsOfAuthor.get(pEntry.position);
+      return author.equals(revWalk.parseCommit(graph.getId(pIndex)).getAuthorIdent().getName());
+    }
+
+    /**
+     * Determines if the commit changed one of the files. If a merge did not change the files compared to one of its parents, the walk only continues
+     * with that parent
+     *
+     * @param pIndex index of the commit in the graph
+     * @param pEntry indexed data of the commit, null if the commit is not indexed yet
+     * @return true if the commit changed one of the files, or if the commit is not filtered by files
+     * @throws IOException if the trees of the commit cannot be read
+     */
+    private boolean _isPathChanged(int pIndex, @Nullable _Entry pEntry) throws IOException
+    {
+      if (pathFilter == null)
+        return true;
+      int[] parents = graph.getParents(pIndex);
+      if (parents.length == 0)
+        return _isPathChanged(pIndex, -1, pEntry == null ? null : pEntry.changedPathFilters[0], pEntry != null);
+      for (int parentIndex = 0; parentIndex < parents.length; parentIndex++)
+      {
+        boolean isIndexed = pEntry != null && parentIndex < pEntry.changedPathFilters.length;
+        if (!_isPathChanged(pIndex, parents[parentIndex], isIndexed ? pEntry.changedPathFilters[parentIndex] : null, isIndexed))
+        {
+          if (parents.length > 1)
+            simplifiedParents.put(pIndex, new int[]{parents[parentIndex]});
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * @param pIndex             index of the commit in the graph
+     * @param pParent            index of the parent in the graph, -1 if the commit is compared to the empty tree
+     * @param pChangedPathFilter filter of the paths the commit changed compared to the parent, null if there is none
+     * @param pIsIndexed         true if the commit is indexed. If the commit is indexed and has no filter, it changed too many paths for a filter
+     * @return true if the commit changed one of the files compared to the parent
+     * @throws IOException if the trees cannot be read
+     */
+    private boolean _isPathChanged(int pIndex, int pParent, @Nullable byte[] pChangedPathFilter, boolean pIsIndexed) throws IOException
+    {
+      if (pIsIndexed && pathHashes.stream().noneMatch(pHashes -> ChangedPathFilter.mightContain(pChangedPathFilter, pHashes)))
+        return false;
+      try (TreeWalk treeWalk = new TreeWalk(revWalk.getObjectReader()))
+      {
+        treeWalk.setRecursive(true);
+        treeWalk.setFilter(pathFilter);
+        if (pParent < 0)
+          treeWalk.addTree(new EmptyTreeIterator());
+        else
+          treeWalk.addTree(revWalk.parseCommit(graph.getId(pParent)).getTree());
+        treeWalk.addTree(revWalk.parseCommit(graph.getId(pIndex)).getTree());
+        return treeWalk.next();
+      }
+    }
+  }
+
+  /**
+   * Commit of a walk, only holds the index of the commit in the graph. Used to rewrite the parents via the DAGFilterIterator without parsing the commits
+   */
+  private static class _Node implements IDAGObject<_Node>
+  {
+    private final _Search search;
+    private final int index;
+    private List<_Node> parents = null;
+
+    _Node(@NotNull _Search pSearch, int pIndex)
+    {
+      search = pSearch;
+      index = pIndex;
+    }
+
+    @Override
+    public List<_Node> getParents()
+    {
+      if (parents == null)
+      {
+        parents = new ArrayList<>();
+        for (int parent : search.getParents(index))
+        {
+          parents.add(new _Node(search, parent));
+        }
+      }
+      return parents;
+    }
+
+    @Override
+    public void setParents(List<_Node> pParents)
+    {
+      parents = pParents;
+    }
+
+    @Override
+    public boolean equals(Object pO)
+    {
+      if (this == pO)
+        return true;
+      if (pO == null || getClass() != pO.getClass())
+        return false;
+      return index == ((_Node) pO).index;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return index;
+    }
+  }
+
+  /**
+   * Walks the graph in the same order as the walk over the commit graph cache, but only continues with the parents determined by the search
+   */
+  private static class _NodeWalkIterator implements Iterator<_Node>
+  {
+    private final _Search search;
+    private final PriorityQueue<Integer> queue;
+    private final BitSet queued = new BitSet();
+
+    _NodeWalkIterator(@NotNull _Search pSearch, @NotNull List<Integer> pStartIndices)
+    {
+      search = pSearch;
+      CommitGraphFile graph = pSearch.graph;
+      queue = new PriorityQueue<>(Comparator.<Integer>comparingInt(graph::getCommitTime).thenComparingInt(graph::getGeneration).reversed());
+      for (int startIndex : pStartIndices)
+      {
+        _enqueue(startIndex);
+      }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      return !queue.isEmpty();
+    }
+
+    @Override
+    public _Node next()
+    {
+      if (queue.isEmpty())
+        throw new NoSuchElementException();
+      int index = queue.poll();
+      for (int parent : search.getParents(index))
+      {
+        _enqueue(parent);
+      }
+      return new _Node(search, index);
+    }
+
+    private void _enqueue(int pIndex)
+    {
+      if (!queued.get(pIndex))
+      {
+        queued.set(pIndex);
+        queue.add(pIndex);
+      }
+    }
+  }
+}
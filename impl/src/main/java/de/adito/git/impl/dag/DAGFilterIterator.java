@@ -8,14 +8,30 @@ import java.util.*;
 import java.util.function.Predicate;
 
 /**
+ * Iterator that only returns the elements of a DAG that pass a predicate. The parents of the returned elements are rewritten, so that an element that does
+ * not pass the predicate is replaced by its parents.
+ * <p>
+ * Each element gets an index when it is first encountered, the result of the predicate is stored for each index in a bitmap so the predicate is only
+ * evaluated once per element. For each rejected element that is still a parent of a queued element, the queued elements that have it as parent are
+ * stored, so rewriting the parents when a rejected element comes up only touches the elements that actually have it as parent. Since the elements of the DAG
+ * come up after all of their children, the index of an element is released once the element is returned or rejected
+ *
  * @author m.kaspera, 22.05.2019
  */
 public class DAGFilterIterator<T extends IDAGObject<T>> implements IDAGFilterIterator<T>
 {
 
-  private final LinkedList<T> elementQueue = new LinkedList<>();
+  private final ArrayDeque<T> elementQueue = new ArrayDeque<>();
   private final Iterator<T> iterator;
   private final Predicate<T> filterPredicate;
+  private final Map<T, Integer> indices = new HashMap<>();
+  private int nextIndex = 0;
+  private final BitSet evaluated = new BitSet();
+  private final BitSet matches = new BitSet();
+  // index of a rejected element -> queued elements that have the rejected element as parent
+  private final Map<Integer, List<T>> dependents = new HashMap<>();
+  // index of a queued element -> number of its parents that do not pass the predicate
+  private int[] rejectedParentCounts = new int[64];
 
   public DAGFilterIterator(Iterator<T> pIterator, Predicate<T> pFilterPredicate)
   {
@@ -37,73 +53,103 @@ public class DAGFilterIterator<T extends IDAGObject<T>> implements IDAGFilterIte
   public T next()
   {
     if (!elementQueue.isEmpty() && _isParentsMatch(elementQueue.peekFirst()))
-      return elementQueue.poll();
+      return _pollFirst();
     while (iterator.hasNext() && !_isParentsMatch(elementQueue.peekFirst()))
     {
       _acceptNext(iterator.next());
     }
-    return elementQueue.poll();
+    return _pollFirst();
   }
 
   /**
-   * adds the next element to the elementQueue if it fits the predicate, else swaps all it occurrances with its parents
+   * removes the first element of the queue and releases its index, no element that comes up later can have it as parent
+   *
+   * @return first element of the queue, null if the queue is empty
+   */
+  private T _pollFirst()
+  {
+    T element = elementQueue.poll();
+    if (element != null)
+      indices.remove(element);
+    return element;
+  }
+
+  /**
+   * adds the next element to the elementQueue if it fits the predicate, else replaces it with its parents in the parents of all queued elements that
+   * have it as parent
    *
    * @param pElement next Element from the DAG
    */
   private void _acceptNext(T pElement)
   {
-    if (filterPredicate.test(pElement))
+    if (_matches(pElement))
     {
+      int elementIndex = _getIndex(pElement);
+      if (pElement.getParents() != null)
+      {
+        for (T parent : pElement.getParents())
+        {
+          if (!_matches(parent))
+            _addDependent(parent, pElement, elementIndex);
+        }
+      }
       elementQueue.add(pElement);
     }
     else
     {
-      for (T queueElement : elementQueue)
+      List<T> elementDependents = dependents.remove(_getIndex(pElement));
+      if (elementDependents != null)
       {
-        _swapIfApplicable(queueElement, pElement);
+        for (T dependent : elementDependents)
+        {
+          _replaceParent(dependent, pElement);
+        }
       }
+      indices.remove(pElement);
     }
   }
 
   /**
-   * replace pSwapWithParents with its parents if it is a parent of pQueueElement
+   * replace pSwapWithParents with its parents in the parents of pQueueElement. Elements of the parents of pSwapWithParents will be inserted in the position
+   * pSwapWithParents was at, parents that pQueueElement already has are not inserted a second time
    *
-   * @param pQueueElement    element from the queue
-   * @param pSwapWithParents element that should be replaced with its parents if contained in the parentList of pQueueElement
+   * @param pQueueElement    element from the queue that has pSwapWithParents as parent
+   * @param pSwapWithParents element that does not pass the predicate
    */
-  private void _swapIfApplicable(T pQueueElement, T pSwapWithParents)
+  private void _replaceParent(T pQueueElement, T pSwapWithParents)
   {
-    if (pQueueElement.getParents().contains(pSwapWithParents))
+    int queueElementIndex = _getIndex(pQueueElement);
+    List<T> replaceWith = pSwapWithParents.getParents() == null ? List.of() : pSwapWithParents.getParents();
+    // use a set here to avoid putting duplicates into the list, a linked one to keep the order of the parents
+    Set<T> newParents = new LinkedHashSet<>();
+    for (T originalParent : pQueueElement.getParents())
     {
-      pQueueElement.setParents(_replace(pQueueElement.getParents(), pSwapWithParents, pSwapWithParents.getParents()));
+      if (!originalParent.equals(pSwapWithParents))
+        newParents.add(originalParent);
+      else
+      {
+        rejectedParentCounts[queueElementIndex]--;
+        for (T replacement : replaceWith)
+        {
+          if (!pQueueElement.getParents().contains(replacement) && newParents.add(replacement) && !_matches(replacement))
+            _addDependent(replacement, pQueueElement, queueElementIndex);
+        }
+      }
     }
+    pQueueElement.setParents(new ArrayList<>(newParents));
   }
 
   /**
-   * replace pElementToReplace in pOriginalList with pReplaceWith. Elements of pReplaceWith will be inserted in the position pElementToReplace was at,
-   * if the size of pReplaceWith is bigger 1 all elements behind pElementToReplace will be moved back
+   * registers pDependent as element that has to be rewritten once pRejectedParent comes up
    *
-   * @param pOriginalList     List to perform the replace operation on
-   * @param pElementToReplace element to replace
-   * @param pReplaceWith      list of objects that should be put into place instead of pElementToReplace
-   * @return pOriginalList that has pElementToReplace replaced with pReplaceWith
+   * @param pRejectedParent parent of pDependent that does not pass the predicate
+   * @param pDependent      queued element
+   * @param pDependentIndex index of pDependent
    */
-  private List<T> _replace(List<T> pOriginalList, T pElementToReplace, List<T> pReplaceWith)
+  private void _addDependent(T pRejectedParent, T pDependent, int pDependentIndex)
   {
-    // use a set here to avoid puttting duplicates into the list
-    Set<T> listCopy = new HashSet<>();
-    for (T originalElem : pOriginalList)
-    {
-      if (!originalElem.equals(pElementToReplace))
-      {
-        listCopy.add(originalElem);
-      }
-      else
-      {
-        listCopy.addAll(pReplaceWith);
-      }
-    }
-    return new ArrayList<>(listCopy);
+    dependents.computeIfAbsent(_getIndex(pRejectedParent), pIndex -> new ArrayList<>(2)).add(pDependent);
+    rejectedParentCounts[pDependentIndex]++;
   }
 
   /**
@@ -116,14 +162,41 @@ public class DAGFilterIterator<T extends IDAGObject<T>> implements IDAGFilterIte
   {
     if (pElement == null)
       return false;
-    if (pElement.getParents() == null)
-      return true;
-    for (T parent : pElement.getParents())
+    return rejectedParentCounts[_getIndex(pElement)] == 0;
+  }
+
+  /**
+   * @param pElement element to test
+   * @return result of the predicate for the element, the predicate is only evaluated the first time an element is tested
+   */
+  private boolean _matches(T pElement)
+  {
+    int index = _getIndex(pElement);
+    if (!evaluated.get(index))
+    {
+      evaluated.set(index);
+      if (filterPredicate.test(pElement))
+        matches.set(index);
+    }
+    return matches.get(index);
+  }
+
+  /**
+   * @param pElement element to get the index for
+   * @return index of the element, a new index is assigned if the element was not encountered before
+   */
+  private int _getIndex(T pElement)
+  {
+    Integer index = indices.get(pElement);
+    if (index == null)
     {
-      if (!filterPredicate.test(parent))
-        return false;
+      // not the size of the map, the indices of released elements are not re-used
+      index = nextIndex++;
+      indices.put(pElement, index);
+      if (index >= rejectedParentCounts.length)
+        rejectedParentCounts = Arrays.copyOf(rejectedParentCounts, rejectedParentCounts.length * 2);
     }
-    return true;
+    return index;
   }
 
   @Override
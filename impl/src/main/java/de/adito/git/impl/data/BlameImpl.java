@@ -8,6 +8,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * @author a.arnold, 22.01.2019
@@ -16,10 +17,13 @@ public class BlameImpl implements IBlame
 {
 
   private final BlameResult blame;
+  // 1 for each line whose region was computed completely. Only set after the region is computed, so another thread that sees the flag also sees the data
+  private final AtomicIntegerArray computedLines;
 
   public BlameImpl(BlameResult pBlame)
   {
     blame = pBlame;
+    computedLines = new AtomicIntegerArray(pBlame.getResultContents().size());
   }
 
   /**
@@ -30,7 +34,15 @@ public class BlameImpl implements IBlame
   {
     try
     {
-      return blame.computeNext();
+      int firstIndex = blame.computeNext();
+      if (firstIndex >= 0)
+      {
+        for (int index = firstIndex; index < firstIndex + blame.lastLength(); index++)
+        {
+          computedLines.set(index, 1);
+        }
+      }
+      return firstIndex;
     }
     catch (IOException pE)
     {
@@ -38,6 +50,15 @@ public class BlameImpl implements IBlame
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isComputed(int pIndex)
+  {
+    return computedLines.get(pIndex) == 1;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -54,6 +75,8 @@ public class BlameImpl implements IBlame
   @Nullable
   public String getSourceAuthor(int pIndex)
   {
+    if (!isComputed(pIndex))
+      return null;
     return blame.getSourceAuthor(pIndex).getName();
   }
 
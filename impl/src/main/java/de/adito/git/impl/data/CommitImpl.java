@@ -1,12 +1,19 @@
 package de.adito.git.impl.data;
 
 import de.adito.git.api.data.ICommit;
+import org.eclipse.jgit.errors.RevWalkException;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -15,13 +22,37 @@ import java.util.stream.Collectors;
 public class CommitImpl implements ICommit
 {
 
-  private final RevCommit revCommit;
+  private final ObjectId objectId;
+  // repository to read the commit from and supplier of the parents, only set if the commit is read once it is accessed
+  @Nullable
+  private final Repository repository;
+  @Nullable
+  private final Supplier<List<ICommit>> parentsSupplier;
+  private volatile RevCommit revCommit;
   private List<ICommit> parents = null;
   public static final ICommit VOID_COMMIT = VoidCommit.getInstance();
 
   public CommitImpl(@NotNull RevCommit pRevCommit)
   {
+    objectId = pRevCommit.getId();
     revCommit = pRevCommit;
+    repository = null;
+    parentsSupplier = null;
+  }
+
+  /**
+   * Creates a commit that is only read from the repository once its author, committer, time or message is accessed. Reading the commit does not use a
+   * RevWalk, so the commit may be accessed from any thread
+   *
+   * @param pId         id of the commit
+   * @param pRepository Repository that contains the commit
+   * @param pParents    supplies the parents of the commit, called the first time the parents are accessed
+   */
+  public CommitImpl(@NotNull AnyObjectId pId, @NotNull Repository pRepository, @NotNull Supplier<List<ICommit>> pParents)
+  {
+    objectId = pId.copy();
+    repository = pRepository;
+    parentsSupplier = pParents;
   }
 
   /**
@@ -30,7 +61,7 @@ public class CommitImpl implements ICommit
   @Override
   public String getAuthor()
   {
-    return revCommit.getAuthorIdent().getName();
+    return _getRevCommit().getAuthorIdent().getName();
   }
 
   /**
@@ -39,7 +70,7 @@ public class CommitImpl implements ICommit
   @Override
   public String getEmail()
   {
-    return revCommit.getAuthorIdent().getEmailAddress();
+    return _getRevCommit().getAuthorIdent().getEmailAddress();
   }
 
   /**
@@ -48,7 +79,7 @@ public class CommitImpl implements ICommit
   @Override
   public String getCommitter()
   {
-    return revCommit.getCommitterIdent().getName();
+    return _getRevCommit().getCommitterIdent().getName();
   }
 
   /**
@@ -57,7 +88,7 @@ public class CommitImpl implements ICommit
   @Override
   public Instant getTime()
   {
-    return revCommit.getCommitterIdent().getWhen().toInstant();
+    return _getRevCommit().getCommitterIdent().getWhen().toInstant();
   }
 
   /**
@@ -66,7 +97,7 @@ public class CommitImpl implements ICommit
   @Override
   public String getMessage()
   {
-    return revCommit.getFullMessage();
+    return _getRevCommit().getFullMessage();
   }
 
   /**
@@ -75,7 +106,7 @@ public class CommitImpl implements ICommit
   @Override
   public String getShortMessage()
   {
-    return revCommit.getShortMessage();
+    return _getRevCommit().getShortMessage();
   }
 
   /**
@@ -84,7 +115,16 @@ public class CommitImpl implements ICommit
   @Override
   public String getId()
   {
-    return ObjectId.toString(revCommit.getId());
+    return ObjectId.toString(objectId);
+  }
+
+  /**
+   * @return the ObjectId of the commit, avoids the conversion to the hex representation of getId
+   */
+  @NotNull
+  public ObjectId getObjectId()
+  {
+    return objectId;
   }
 
   /**
@@ -94,11 +134,16 @@ public class CommitImpl implements ICommit
   @Override
   public List<ICommit> getParents()
   {
-    if (parents != null)
-      return parents;
-    if (revCommit.getParents() != null)
-      return Arrays.stream(revCommit.getParents()).map(CommitImpl::new).collect(Collectors.toList());
-    return Collections.emptyList();
+    if (parents == null)
+    {
+      if (parentsSupplier != null)
+        parents = parentsSupplier.get();
+      else if (revCommit.getParents() != null)
+        parents = Arrays.stream(revCommit.getParents()).map(CommitImpl::new).collect(Collectors.toList());
+      else
+        parents = Collections.emptyList();
+    }
+    return parents;
   }
 
   @Override
@@ -112,6 +157,8 @@ public class CommitImpl implements ICommit
   {
     if (obj == null)
       return false;
+    else if (obj instanceof CommitImpl)
+      return objectId.equals((AnyObjectId) ((CommitImpl) obj).objectId);
     else if (!(obj instanceof ICommit))
       return false;
     else return ((ICommit) obj).getId().equals(getId());
@@ -120,6 +167,28 @@ public class CommitImpl implements ICommit
   @Override
   public int hashCode()
   {
-    return Objects.hash(revCommit.getId());
+    return Objects.hash(objectId);
+  }
+
+  /**
+   * @return the RevCommit of this commit, read from the repository the first time it is needed
+   */
+  @NotNull
+  private RevCommit _getRevCommit()
+  {
+    RevCommit commit = revCommit;
+    if (commit == null)
+    {
+      try
+      {
+        commit = RevCommit.parse(Objects.requireNonNull(repository).open(objectId, Constants.OBJ_COMMIT).getCachedBytes());
+      }
+      catch (IOException pE)
+      {
+        throw new RevWalkException(pE);
+      }
+      revCommit = commit;
+    }
+    return commit;
   }
 }
@@ -7,6 +7,7 @@ import de.adito.git.api.data.diff.EChangeType;
 import de.adito.git.api.data.diff.IFileChangeType;
 import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.lib.IndexDiff;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.text.Collator;
@@ -18,22 +19,70 @@ import java.util.*;
 public class FileStatusImpl implements IFileStatus
 {
 
-  private final Status status;
+  private final Set<String> added;
+  private final Set<String> changed;
+  private final Set<String> removed;
+  private final Set<String> missing;
+  private final Set<String> modified;
+  private final Set<String> untracked;
+  private final Set<String> untrackedFolders;
+  private final Set<String> conflicting;
+  private final Map<String, IndexDiff.StageState> conflictingStageState;
+  private final Set<String> ignoredNotInIndex;
   private final File gitDirectory;
   private List<IFileChangeType> uncommittedFiles;
 
   public FileStatusImpl(Status pStatus, File pGitDirectory)
   {
-    status = pStatus;
+    this(pStatus.getAdded(), pStatus.getChanged(), pStatus.getRemoved(), pStatus.getMissing(), pStatus.getModified(), pStatus.getUntracked(),
+         pStatus.getUntrackedFolders(), pStatus.getConflicting(), pStatus.getConflictingStageState(), pStatus.getIgnoredNotInIndex(), pGitDirectory);
+  }
+
+  private FileStatusImpl(Set<String> pAdded, Set<String> pChanged, Set<String> pRemoved, Set<String> pMissing, Set<String> pModified, Set<String> pUntracked,
+                         Set<String> pUntrackedFolders, Set<String> pConflicting, Map<String, IndexDiff.StageState> pConflictingStageState,
+                         Set<String> pIgnoredNotInIndex, File pGitDirectory)
+  {
+    added = Collections.unmodifiableSet(pAdded);
+    changed = Collections.unmodifiableSet(pChanged);
+    removed = Collections.unmodifiableSet(pRemoved);
+    missing = Collections.unmodifiableSet(pMissing);
+    modified = Collections.unmodifiableSet(pModified);
+    untracked = Collections.unmodifiableSet(pUntracked);
+    untrackedFolders = Collections.unmodifiableSet(pUntrackedFolders);
+    conflicting = Collections.unmodifiableSet(pConflicting);
+    conflictingStageState = Collections.unmodifiableMap(pConflictingStageState);
+    ignoredNotInIndex = Collections.unmodifiableSet(pIgnoredNotInIndex);
     gitDirectory = pGitDirectory;
   }
 
+  /**
+   * Creates a new FileStatusImpl that contains the information of this status for all files that are not affected by pPaths, and the information of
+   * pPathStatus for all files affected by pPaths. pPathStatus should be a status that was calculated only for pPaths
+   *
+   * @param pPathStatus status that was calculated only for the given paths
+   * @param pPaths      paths relative to the root of the repository, with "/" as separator. All entries that are either equal to or below any of these paths
+   *                    are taken from pPathStatus
+   * @return new FileStatusImpl that combines this status and pPathStatus
+   */
+  @NotNull
+  public FileStatusImpl merge(@NotNull FileStatusImpl pPathStatus, @NotNull Collection<String> pPaths)
+  {
+    _PathIndex paths = new _PathIndex(pPaths);
+    return new FileStatusImpl(_merge(added, pPathStatus.added, paths, false), _merge(changed, pPathStatus.changed, paths, false),
+                              _merge(removed, pPathStatus.removed, paths, false), _merge(missing, pPathStatus.missing, paths, false),
+                              _merge(modified, pPathStatus.modified, paths, false), _merge(untracked, pPathStatus.untracked, paths, false),
+                              _merge(untrackedFolders, pPathStatus.untrackedFolders, paths, true),
+                              _merge(conflicting, pPathStatus.conflicting, paths, false),
+                              _merge(conflictingStageState, pPathStatus.conflictingStageState, paths),
+                              _merge(ignoredNotInIndex, pPathStatus.ignoredNotInIndex, paths, true), gitDirectory);
+  }
+
   /**
    * {@inheritDoc}
    */
   public boolean isClean()
   {
-    return status.isClean();
+    return !hasUncommittedChanges() && untracked.isEmpty();
   }
 
   /**
@@ -41,7 +90,7 @@ public class FileStatusImpl implements IFileStatus
    */
   public boolean hasUncommittedChanges()
   {
-    return status.hasUncommittedChanges();
+    return !(added.isEmpty() && changed.isEmpty() && removed.isEmpty() && missing.isEmpty() && modified.isEmpty() && conflicting.isEmpty());
   }
 
   /**
@@ -49,7 +98,7 @@ public class FileStatusImpl implements IFileStatus
    */
   public Set<String> getAdded()
   {
-    return status.getAdded();
+    return added;
   }
 
   /**
@@ -57,7 +106,7 @@ public class FileStatusImpl implements IFileStatus
    */
   public Set<String> getChanged()
   {
-    return status.getChanged();
+    return changed;
   }
 
   /**
@@ -65,7 +114,7 @@ public class FileStatusImpl implements IFileStatus
    */
   public Set<String> getRemoved()
   {
-    return status.getRemoved();
+    return removed;
   }
 
   /**
@@ -73,7 +122,7 @@ public class FileStatusImpl implements IFileStatus
    */
   public Set<String> getMissing()
   {
-    return status.getMissing();
+    return missing;
   }
 
   /**
@@ -81,7 +130,7 @@ public class FileStatusImpl implements IFileStatus
    */
   public Set<String> getModified()
   {
-    return status.getModified();
+    return modified;
   }
 
   /**
@@ -89,7 +138,7 @@ public class FileStatusImpl implements IFileStatus
    */
   public Set<String> getUntracked()
   {
-    return status.getUntracked();
+    return untracked;
   }
 
   /**
@@ -97,7 +146,7 @@ public class FileStatusImpl implements IFileStatus
    */
   public Set<String> getUntrackedFolders()
   {
-    return status.getUntrackedFolders();
+    return untrackedFolders;
   }
 
   /**
@@ -105,7 +154,7 @@ public class FileStatusImpl implements IFileStatus
    */
   public Set<String> getConflicting()
   {
-    return status.getConflicting();
+    return conflicting;
   }
 
   /**
@@ -113,13 +162,12 @@ public class FileStatusImpl implements IFileStatus
    */
   public Map<String, EStageState> getConflictingStageState()
   {
-    Map<String, EStageState> conflictingStageState = new HashMap<>();
-    Map<String, IndexDiff.StageState> jgitConflictingStageState = status.getConflictingStageState();
-    for (Map.Entry<String, IndexDiff.StageState> conflictingStageStateEntry : jgitConflictingStageState.entrySet())
+    Map<String, EStageState> conflictingStageStates = new HashMap<>();
+    for (Map.Entry<String, IndexDiff.StageState> conflictingStageStateEntry : conflictingStageState.entrySet())
     {
-      conflictingStageState.put(conflictingStageStateEntry.getKey(), _fromStageState(conflictingStageStateEntry.getValue()));
+      conflictingStageStates.put(conflictingStageStateEntry.getKey(), _fromStageState(conflictingStageStateEntry.getValue()));
     }
-    return conflictingStageState;
+    return conflictingStageStates;
   }
 
   /**
@@ -127,7 +175,7 @@ public class FileStatusImpl implements IFileStatus
    */
   public Set<String> getIgnoredNotInIndex()
   {
-    return status.getIgnoredNotInIndex();
+    return ignoredNotInIndex;
   }
 
   /**
@@ -135,7 +183,14 @@ public class FileStatusImpl implements IFileStatus
    */
   public Set<String> getUncommittedChanges()
   {
-    return status.getUncommittedChanges();
+    Set<String> uncommittedChanges = new HashSet<>();
+    uncommittedChanges.addAll(added);
+    uncommittedChanges.addAll(changed);
+    uncommittedChanges.addAll(removed);
+    uncommittedChanges.addAll(missing);
+    uncommittedChanges.addAll(modified);
+    uncommittedChanges.addAll(conflicting);
+    return uncommittedChanges;
   }
 
   /**
@@ -152,13 +207,13 @@ public class FileStatusImpl implements IFileStatus
                 conflicting in the end, not changed. distinct() only guarantees that on ordered streams
          */
       HashMap<String, EChangeType> fileChangeTypes = new HashMap<>();
-      status.getChanged().forEach(changed -> fileChangeTypes.put(changed, EChangeType.CHANGED));
-      status.getModified().forEach(modified -> fileChangeTypes.put(modified, EChangeType.MODIFY));
-      status.getAdded().forEach(added -> fileChangeTypes.put(added, EChangeType.ADD));
-      status.getUntracked().forEach(unTracked -> fileChangeTypes.put(unTracked, EChangeType.NEW));
-      status.getRemoved().forEach(removed -> fileChangeTypes.put(removed, EChangeType.DELETE));
-      status.getMissing().forEach(missing -> fileChangeTypes.put(missing, EChangeType.MISSING));
-      status.getConflicting().forEach(conflicting -> fileChangeTypes.put(conflicting, EChangeType.CONFLICTING));
+      getChanged().forEach(changed -> fileChangeTypes.put(changed, EChangeType.CHANGED));
+      getModified().forEach(modified -> fileChangeTypes.put(modified, EChangeType.MODIFY));
+      getAdded().forEach(added -> fileChangeTypes.put(added, EChangeType.ADD));
+      getUntracked().forEach(unTracked -> fileChangeTypes.put(unTracked, EChangeType.NEW));
+      getRemoved().forEach(removed -> fileChangeTypes.put(removed, EChangeType.DELETE));
+      getMissing().forEach(missing -> fileChangeTypes.put(missing, EChangeType.MISSING));
+      getConflicting().forEach(conflicting -> fileChangeTypes.put(conflicting, EChangeType.CONFLICTING));
       uncommittedFiles = _toFileChangeTypes(fileChangeTypes);
     }
     return uncommittedFiles;
@@ -179,6 +234,38 @@ public class FileStatusImpl implements IFileStatus
     return fileChangeTypes;
   }
 
+  /**
+   * @param pCurrent       set with the entries of the complete status
+   * @param pPathEntries   set with the entries of the status that was only calculated for pPaths
+   * @param pPaths         paths whose entries should be taken from pPathEntries
+   * @param pWithAncestors true if entries that are a parent folder of any of pPaths should also be replaced, used for folder based sets
+   * @return new set containing the entries of pCurrent not affected by pPaths and all entries of pPathEntries
+   */
+  @NotNull
+  private static Set<String> _merge(@NotNull Set<String> pCurrent, @NotNull Set<String> pPathEntries, @NotNull _PathIndex pPaths, boolean pWithAncestors)
+  {
+    Set<String> merged = new HashSet<>(pCurrent);
+    merged.removeIf(pEntry -> pPaths.isAffected(pEntry, pWithAncestors));
+    merged.addAll(pPathEntries);
+    return merged;
+  }
+
+  /**
+   * @param pCurrent     map with the entries of the complete status
+   * @param pPathEntries map with the entries of the status that was only calculated for pPaths
+   * @param pPaths       paths whose entries should be taken from pPathEntries
+   * @return new map containing the entries of pCurrent not affected by pPaths and all entries of pPathEntries
+   */
+  @NotNull
+  private static Map<String, IndexDiff.StageState> _merge(@NotNull Map<String, IndexDiff.StageState> pCurrent,
+                                                          @NotNull Map<String, IndexDiff.StageState> pPathEntries, @NotNull _PathIndex pPaths)
+  {
+    Map<String, IndexDiff.StageState> merged = new HashMap<>(pCurrent);
+    merged.keySet().removeIf(pEntry -> pPaths.isAffected(pEntry, false));
+    merged.putAll(pPathEntries);
+    return merged;
+  }
+
   /**
    * @param pStageState IndexDiff.StageState to "wrap"
    * @return "wrapped" IndexDiff.StageState
@@ -264,4 +351,43 @@ public class FileStatusImpl implements IFileStatus
   {
     return Objects.hash(gitDirectory, getUncommitted());
   }
+
+  /**
+   * The changed paths, indexed so that checking an entry only takes one lookup per folder of the entry instead of a comparison with each of the paths
+   */
+  private static class _PathIndex
+  {
+    private final Set<String> paths;
+    private final Set<String> pathsAndAncestors = new HashSet<>();
+
+    _PathIndex(@NotNull Collection<String> pPaths)
+    {
+      paths = new HashSet<>(pPaths);
+      for (String path : paths)
+      {
+        pathsAndAncestors.add(path);
+        for (int separatorIndex = path.indexOf('/'); separatorIndex >= 0; separatorIndex = path.indexOf('/', separatorIndex + 1))
+        {
+          pathsAndAncestors.add(path.substring(0, separatorIndex));
+        }
+      }
+    }
+
+    /**
+     * @param pEntry         path of an entry of the status
+     * @param pWithAncestors true if pEntry also counts as affected if it is a parent folder of any of the paths
+     * @return true if pEntry is equal to or lies below any of the paths (or is a parent folder, if pWithAncestors is true)
+     */
+    boolean isAffected(@NotNull String pEntry, boolean pWithAncestors)
+    {
+      if (paths.contains(pEntry) || (pWithAncestors && pathsAndAncestors.contains(pEntry)))
+        return true;
+      for (int separatorIndex = pEntry.indexOf('/'); separatorIndex >= 0; separatorIndex = pEntry.indexOf('/', separatorIndex + 1))
+      {
+        if (paths.contains(pEntry.substring(0, separatorIndex)))
+          return true;
+      }
+      return false;
+    }
+  }
 }
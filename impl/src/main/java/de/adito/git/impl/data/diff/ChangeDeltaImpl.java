@@ -5,7 +5,6 @@ import de.adito.git.impl.EnumMappings;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jgit.diff.Edit;
 import org.eclipse.jgit.diff.EditList;
-import org.eclipse.jgit.diff.RawTextComparator;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -335,11 +334,11 @@ public final class ChangeDeltaImpl implements IChangeDelta
   {
     if (pChangeSide == EChangeSide.NEW)
     {
-      return textVersionProvider.getVersion(pChangeSide).substring(startTextIndexNew, endTextIndexNew);
+      return textVersionProvider.getText(pChangeSide, startTextIndexNew, endTextIndexNew);
     }
     else
     {
-      return textVersionProvider.getVersion(pChangeSide).substring(startTextIndexOld, endTextIndexOld);
+      return textVersionProvider.getText(pChangeSide, startTextIndexOld, endTextIndexOld);
     }
   }
 
@@ -377,72 +376,12 @@ public final class ChangeDeltaImpl implements IChangeDelta
     if (changeStatus.getChangeType() == EChangeType.ADD)
       originalVersion = "";
     else
-      // the diff only works on a line-basis, so we split our line such that each word is on a separate line
-      originalVersion = textVersionProvider.getVersion(EChangeSide.OLD).substring(startTextIndexOld, endTextIndexOld);
+      originalVersion = textVersionProvider.getText(EChangeSide.OLD, startTextIndexOld, endTextIndexOld);
     if (changeStatus.getChangeType() == EChangeType.DELETE)
       newVersion = "";
     else
-      newVersion = textVersionProvider.getVersion(EChangeSide.NEW).substring(startTextIndexNew, endTextIndexNew);
-    int numLinesChanged = (endLineIndexNew - startLineIndexNew) + (endLineIndexOld - startLineIndexOld);
-    // The word-based algorithm takes a lot of time if there are more than a few lines affected. To avoid overly long load times, use the normal line-based diff
-    // instead of the word-based one if the change is bigger than a certain amount of lines
-    if (numLinesChanged < 20)
-    {
-      String originalProcessedVersion = originalVersion.replace(" ", "\n");
-      String newProcessedVersion = newVersion.replace(" ", "\n");
-      EditList editList = LineIndexDiffUtil.getChangedLines(originalProcessedVersion, newProcessedVersion, RawTextComparator.DEFAULT);
-      if (changeStatus.getChangeType() == EChangeType.MODIFY)
-        editList = _validateLines(editList, originalVersion, newVersion, originalProcessedVersion, newProcessedVersion);
-      return LineIndexDiffUtil.getTextOffsets(originalProcessedVersion, newProcessedVersion, editList,
-                                              new LinePartChangeDeltaFactory(startTextIndexOld, startTextIndexNew));
-    }
-    else
-    {
-      EditList editList = LineIndexDiffUtil.getChangedLines(originalVersion, newVersion, RawTextComparator.DEFAULT);
-      return LineIndexDiffUtil.getTextOffsets(originalVersion, newVersion, editList,
-                                              new LinePartChangeDeltaFactory(startTextIndexOld, startTextIndexNew));
-    }
-  }
-
-  /**
-   * Goes through the lines and checks if there are lines the diff algorithm considered equal. The lines may not be equal however, when the "\n" is a "\n" in
-   * one line and replaced " " in the other. This methods detects all these cases and modifies the editList in such a way that those lines are also considered changed
-   *
-   * @param pEditList                EditList
-   * @param pOriginalVersion         original version of the string
-   * @param pNewVersion              new version of the string
-   * @param pOriginalReplacedVersion original version of the string with " " replaced by "\n"
-   * @param pNewReplacedVersion      new version of the string with " " replaced by "\n"
-   * @return corrected version of the EditList
-   */
-  static EditList _validateLines(EditList pEditList, String pOriginalVersion, String pNewVersion, String pOriginalReplacedVersion, String pNewReplacedVersion)
-  {
-    EditList editList = pEditList;
-    List<Integer> unmodifiedOriginalLines = _getUnmodifiedLines(editList, pOriginalReplacedVersion, new OriginalEditSideInfo());
-    List<Integer> unmodifiedNewLines = _getUnmodifiedLines(editList, pNewReplacedVersion, new NewEditSideInfo());
-    List<Integer> checkedNewLines = new ArrayList<>();
-    for (int unmodifedLine : unmodifiedOriginalLines)
-    {
-      int correspondingLine = unmodifedLine + _getOffset(pEditList, unmodifedLine, new OriginalEditSideInfo(), new NewEditSideInfo());
-      checkedNewLines.add(correspondingLine);
-      if (_isDifferentCharacter(pOriginalVersion, StringUtils.ordinalIndexOf(pOriginalReplacedVersion, "\n", unmodifedLine + 1), pNewVersion,
-                                StringUtils.ordinalIndexOf(pNewReplacedVersion, "\n", correspondingLine + 1)))
-      {
-        _fixEditList(editList, unmodifedLine, correspondingLine);
-      }
-    }
-    unmodifiedNewLines.removeAll(checkedNewLines);
-    for (int unmodifedLine : unmodifiedNewLines)
-    {
-      int correspondingLine = unmodifedLine + _getOffset(pEditList, unmodifedLine, new NewEditSideInfo(), new OriginalEditSideInfo());
-      if (_isDifferentCharacter(pOriginalVersion, StringUtils.ordinalIndexOf(pOriginalReplacedVersion, "\n", correspondingLine + 1), pNewVersion,
-                                StringUtils.ordinalIndexOf(pNewReplacedVersion, "\n", unmodifedLine + 1)))
-      {
-        _fixEditList(editList, correspondingLine, unmodifedLine);
-      }
-    }
-    editList = _compressList(editList);
-    return editList;
+      newVersion = textVersionProvider.getText(EChangeSide.NEW, startTextIndexNew, endTextIndexNew);
+    return WordDiff.getChangedWords(originalVersion, newVersion, new LinePartChangeDeltaFactory(startTextIndexOld, startTextIndexNew));
   }
 
   /**
@@ -507,86 +446,6 @@ public final class ChangeDeltaImpl implements IChangeDelta
     return pEditSideInfo.getStart(pEdit) == pEditSideInfo.getEnd(pEdit);
   }
 
-  /**
-   * Adds a new edit with given old and newIndex into the editList (at the appropriate index)
-   *
-   * @param pEditList EditList
-   * @param pOldIndex startIndex for the original side
-   * @param pNewIndex startIndex for the new side
-   */
-  private static void _fixEditList(EditList pEditList, int pOldIndex, int pNewIndex)
-  {
-    int index = 0;
-    while (pEditList.size() > index && pOldIndex >= pEditList.get(index).getEndA() && pNewIndex >= pEditList.get(index).getEndB())
-    {
-      index++;
-    }
-    pEditList.add(index, new Edit(pOldIndex, pOldIndex + 1, pNewIndex, pNewIndex + 1));
-  }
-
-  /**
-   * Goes throught the editList and combines adjacent or overlapping edits
-   *
-   * @param pEditList the EditList to compress
-   * @return compressed EditList
-   */
-  private static EditList _compressList(EditList pEditList)
-  {
-    EditList editList = new EditList();
-    int index = 0;
-    if (!pEditList.isEmpty())
-    {
-      Edit edit = pEditList.get(index);
-      index++;
-      while (index < pEditList.size())
-      {
-        if (pEditList.get(index - 1).getEndA() < pEditList.get(index).getBeginA() || pEditList.get(index - 1).getEndB() < pEditList.get(index).getBeginB())
-        {
-          editList.add(new Edit(edit.getBeginA(), pEditList.get(index - 1).getEndA(), edit.getBeginB(), pEditList.get(index - 1).getEndB()));
-          edit = pEditList.get(index);
-        }
-        index++;
-      }
-      editList.add(new Edit(edit.getBeginA(), pEditList.get(index - 1).getEndA(), edit.getBeginB(), pEditList.get(index - 1).getEndB()));
-    }
-    return editList;
-  }
-
-  /**
-   * gets the amount of lines that the other side is offset by for a given line
-   *
-   * @param pEditList             EditList
-   * @param pIndex                index of the line
-   * @param pEditSideInformation  IEditSideInfo to extract start and endIndex of the side of the line
-   * @param pOtherSideInformation IEditSideInfo to extract start and endIndex of the other side of the line
-   * @return number of lines that the other side is offset by for a given line
-   */
-  private static int _getOffset(EditList pEditList, int pIndex, IEditSideInfo pEditSideInformation, IEditSideInfo pOtherSideInformation)
-  {
-    int offset = 0;
-    for (Edit edit : pEditList)
-    {
-      if (pEditSideInformation.getStart(edit) < pIndex)
-        offset += (pOtherSideInformation.getEnd(edit) - pOtherSideInformation.getStart(edit)) - (pEditSideInformation.getEnd(edit) - pEditSideInformation.getStart(edit));
-      else break;
-    }
-    return offset;
-  }
-
-  /**
-   * check if the given characters (through the string and index) are different
-   *
-   * @param pOriginalVersion      String of the original version
-   * @param pOriginalVersionIndex index of the character in the original version
-   * @param pNewVersion           String of the new version
-   * @param pNewVersionIndex      index of the character in the new version
-   * @return true if the characters do not match, false otherwise
-   */
-  private static boolean _isDifferentCharacter(String pOriginalVersion, int pOriginalVersionIndex, String pNewVersion, int pNewVersionIndex)
-  {
-    return pOriginalVersion.charAt(pOriginalVersionIndex) != pNewVersion.charAt(pNewVersionIndex);
-  }
-
   @Override
   public IChangeDelta acceptChange(EChangeSide pChangedSide, IOffsetsChange pOffsetsChange)
   {
@@ -0,0 +1,174 @@
+package de.adito.git.impl.data.diff;
+
+import de.adito.git.api.data.diff.EChangeSide;
+import de.adito.git.api.data.diff.IChangeDelta;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * List of the IChangeDeltas of a FileDiff. Offsets that have to be applied to all deltas after a given index (e.g. because a delta was accepted and
+ * the text after it moved) are only recorded in Fenwick trees, and applied to a delta once that delta is actually retrieved from the list. This means
+ * applying an offset to all following deltas does not create new deltas for all of them each time
+ *
+ * @author agent, 18.10.2026
+ */
+final class ChangeDeltaList extends AbstractList<IChangeDelta> implements RandomAccess
+{
+
+  private final List<IChangeDelta> deltas;
+  private final _FenwickTree textOffsetsOld;
+  private final _FenwickTree lineOffsetsOld;
+  private final _FenwickTree textOffsetsNew;
+  private final _FenwickTree lineOffsetsNew;
+  // position of the stored deltas by identity, used to find the index of a delta without comparing it to all other deltas
+  private final Map<IChangeDelta, Integer> indexByIdentity = new IdentityHashMap<>();
+
+  ChangeDeltaList(@NotNull List<IChangeDelta> pDeltas)
+  {
+    deltas = new ArrayList<>(pDeltas);
+    textOffsetsOld = new _FenwickTree(deltas.size());
+    lineOffsetsOld = new _FenwickTree(deltas.size());
+    textOffsetsNew = new _FenwickTree(deltas.size());
+    lineOffsetsNew = new _FenwickTree(deltas.size());
+    for (int index = 0; index < deltas.size(); index++)
+    {
+      indexByIdentity.put(deltas.get(index), index);
+    }
+  }
+
+  @Override
+  public IChangeDelta get(int pIndex)
+  {
+    IChangeDelta delta = deltas.get(pIndex);
+    int textOffsetOld = textOffsetsOld.get(pIndex);
+    int lineOffsetOld = lineOffsetsOld.get(pIndex);
+    int textOffsetNew = textOffsetsNew.get(pIndex);
+    int lineOffsetNew = lineOffsetsNew.get(pIndex);
+    if (textOffsetOld == 0 && lineOffsetOld == 0 && textOffsetNew == 0 && lineOffsetNew == 0)
+      return delta;
+    IChangeDelta movedDelta = delta;
+    if (textOffsetOld != 0 || lineOffsetOld != 0)
+      movedDelta = movedDelta.applyOffset(lineOffsetOld, textOffsetOld, EChangeSide.OLD);
+    if (textOffsetNew != 0 || lineOffsetNew != 0)
+      movedDelta = movedDelta.applyOffset(lineOffsetNew, textOffsetNew, EChangeSide.NEW);
+    _store(pIndex, movedDelta);
+    return movedDelta;
+  }
+
+  @Override
+  public IChangeDelta set(int pIndex, IChangeDelta pDelta)
+  {
+    IChangeDelta previous = get(pIndex);
+    _store(pIndex, pDelta);
+    return previous;
+  }
+
+  @Override
+  public int size()
+  {
+    return deltas.size();
+  }
+
+  @Override
+  public int indexOf(Object pObject)
+  {
+    Integer index = indexByIdentity.get(pObject);
+    if (index != null && textOffsetsOld.get(index) == 0 && lineOffsetsOld.get(index) == 0 && textOffsetsNew.get(index) == 0
+        && lineOffsetsNew.get(index) == 0)
+      return index;
+    return super.indexOf(pObject);
+  }
+
+  /**
+   * applies the given offsets to all deltas starting with the delta at index pFromIndex
+   *
+   * @param pFromIndex  index of the first delta that is affected
+   * @param pLineOffset offset for the line indices
+   * @param pTextOffset offset for the text indices
+   * @param pChangeSide side of the deltas that is affected
+   */
+  void applyOffset(int pFromIndex, int pLineOffset, int pTextOffset, @NotNull EChangeSide pChangeSide)
+  {
+    if (pFromIndex >= deltas.size())
+      return;
+    int fromIndex = Math.max(0, pFromIndex);
+    if (pChangeSide == EChangeSide.NEW)
+    {
+      textOffsetsNew.addFrom(fromIndex, pTextOffset);
+      lineOffsetsNew.addFrom(fromIndex, pLineOffset);
+    }
+    else
+    {
+      textOffsetsOld.addFrom(fromIndex, pTextOffset);
+      lineOffsetsOld.addFrom(fromIndex, pLineOffset);
+    }
+  }
+
+  /**
+   * stores the delta at the given index and removes any offsets that are not yet applied for that index
+   */
+  private void _store(int pIndex, @NotNull IChangeDelta pDelta)
+  {
+    IChangeDelta replaced = deltas.set(pIndex, pDelta);
+    indexByIdentity.remove(replaced, pIndex);
+    indexByIdentity.put(pDelta, pIndex);
+    textOffsetsOld.clear(pIndex);
+    lineOffsetsOld.clear(pIndex);
+    textOffsetsNew.clear(pIndex);
+    lineOffsetsNew.clear(pIndex);
+  }
+
+  /**
+   * Fenwick tree over the differences of the offsets, adding an offset to all elements from a given index on and getting the offset of a single element
+   * both take O(log n)
+   */
+  private static final class _FenwickTree
+  {
+    private final int[] tree;
+
+    _FenwickTree(int pSize)
+    {
+      tree = new int[pSize + 1];
+    }
+
+    /**
+     * adds the value to the elements from pIndex to the end
+     */
+    void addFrom(int pIndex, int pValue)
+    {
+      if (pValue == 0)
+        return;
+      for (int treeIndex = pIndex + 1; treeIndex < tree.length; treeIndex += treeIndex & -treeIndex)
+      {
+        tree[treeIndex] += pValue;
+      }
+    }
+
+    /**
+     * @return the offset of the element at pIndex
+     */
+    int get(int pIndex)
+    {
+      int value = 0;
+      for (int treeIndex = pIndex + 1; treeIndex > 0; treeIndex -= treeIndex & -treeIndex)
+      {
+        value += tree[treeIndex];
+      }
+      return value;
+    }
+
+    /**
+     * sets the offset of the element at pIndex to 0, without changing the offsets of other elements
+     */
+    void clear(int pIndex)
+    {
+      int value = get(pIndex);
+      if (value != 0)
+      {
+        addFrom(pIndex, -value);
+        addFrom(pIndex + 1, value);
+      }
+    }
+  }
+}
@@ -9,7 +9,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.ref.SoftReference;
 import java.nio.charset.Charset;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -21,25 +23,35 @@ public class FileContentInfoImpl implements IFileContentInfo
 {
 
   private final Supplier<String> fileContent;
-  private final Supplier<String> originalFileContent;
   private final Supplier<Charset> encoding;
   private final Supplier<ELineEnding> lineEnding;
 
   public FileContentInfoImpl(Supplier<byte[]> pBytes, IFileSystemUtil pFileSystemUtil)
   {
-    byte[] bytes = pBytes.get();
-    encoding = Suppliers.memoize(() -> Util.getEncoding(bytes, pFileSystemUtil));
-    originalFileContent = () -> new String(bytes, encoding.get());
-    fileContent = Suppliers.memoize(() -> _cleanString(new String(bytes, encoding.get())));
-    lineEnding = Suppliers.memoize(this::_findLineEnding);
+    this(pBytes, (Function<byte[], Charset>) pContent -> Util.getEncoding(pContent, pFileSystemUtil));
+  }
+
+  /**
+   * The bytes are only retrieved once the content, encoding or line ending is needed. Only the decoded content is kept, and only as long as there is
+   * enough memory, after that the bytes are retrieved and decoded again. pBytes should therefore not keep the bytes by itself, unless the content may
+   * change between two calls (e.g. the content of a file in the working tree)
+   *
+   * @param pBytes            supplies the content of the file
+   * @param pEncodingDetector determines the encoding of the content
+   */
+  public FileContentInfoImpl(Supplier<byte[]> pBytes, Function<byte[], Charset> pEncodingDetector)
+  {
+    Supplier<_DecodedContent> decodedContent = new _SoftMemoizingSupplier<>(() -> new _DecodedContent(pBytes.get(), pEncodingDetector));
+    encoding = Suppliers.memoize(() -> decodedContent.get().encoding);
+    lineEnding = Suppliers.memoize(() -> decodedContent.get().lineEnding);
+    fileContent = () -> decodedContent.get().content;
   }
 
   public FileContentInfoImpl(Supplier<String> pFileContent, Supplier<Charset> pEncoding)
   {
     fileContent = Suppliers.memoize(() -> _cleanString(pFileContent.get()));
-    originalFileContent = pFileContent;
     encoding = pEncoding;
-    lineEnding = Suppliers.memoize(this::_findLineEnding);
+    lineEnding = Suppliers.memoize(() -> _findLineEnding(pFileContent.get()));
   }
 
   public Supplier<String> getFileContent()
@@ -81,17 +93,16 @@ public class FileContentInfoImpl implements IFileContentInfo
   /**
    * Returns the LineEnding, which is most often found in the fileContent.
    *
+   * @param pContent content of the file, with the original line endings
    * @return the LineEnding, which is most often found
    */
-  private ELineEnding _findLineEnding()
+  private static ELineEnding _findLineEnding(@NotNull String pContent)
   {
-    String content = originalFileContent.get();
-
-    int windows = StringUtils.countMatches(content, ELineEnding.WINDOWS.getLineEnding());
+    int windows = StringUtils.countMatches(pContent, ELineEnding.WINDOWS.getLineEnding());
 
     // The windows line-endings are also found here, so they have to be subtracted.
-    int unix = StringUtils.countMatches(content, ELineEnding.UNIX.getLineEnding()) - windows;
-    int mac = StringUtils.countMatches(content, ELineEnding.MAC.getLineEnding()) - windows;
+    int unix = StringUtils.countMatches(pContent, ELineEnding.UNIX.getLineEnding()) - windows;
+    int mac = StringUtils.countMatches(pContent, ELineEnding.MAC.getLineEnding()) - windows;
 
     int max = Math.max(windows, Math.max(unix, mac));
 
@@ -102,4 +113,48 @@ public class FileContentInfoImpl implements IFileContentInfo
     else
       return ELineEnding.MAC;
   }
+
+  /**
+   * Content of a file decoded with its encoding, together with the information that can only be determined from the undecoded or uncleaned content
+   */
+  private static class _DecodedContent
+  {
+    private final Charset encoding;
+    private final ELineEnding lineEnding;
+    private final String content;
+
+    _DecodedContent(@NotNull byte[] pBytes, @NotNull Function<byte[], Charset> pEncodingDetector)
+    {
+      encoding = pEncodingDetector.apply(pBytes);
+      String originalContent = new String(pBytes, encoding);
+      lineEnding = _findLineEnding(originalContent);
+      content = _cleanString(originalContent);
+    }
+  }
+
+  /**
+   * Supplier that keeps the supplied value as long as there is enough memory, and supplies it again once the value was garbage collected
+   */
+  private static class _SoftMemoizingSupplier<T> implements Supplier<T>
+  {
+    private final Supplier<T> delegate;
+    private SoftReference<T> value = new SoftReference<>(null);
+
+    _SoftMemoizingSupplier(@NotNull Supplier<T> pDelegate)
+    {
+      delegate = pDelegate;
+    }
+
+    @Override
+    public synchronized T get()
+    {
+      T currentValue = value.get();
+      if (currentValue == null)
+      {
+        currentValue = delegate.get();
+        value = new SoftReference<>(currentValue);
+      }
+      return currentValue;
+    }
+  }
 }
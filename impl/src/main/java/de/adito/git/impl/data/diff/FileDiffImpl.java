@@ -2,7 +2,6 @@ package de.adito.git.impl.data.diff;
 
 import de.adito.git.api.data.diff.*;
 import de.adito.git.impl.EnumMappings;
-import de.adito.git.impl.Util;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.subjects.BehaviorSubject;
 import io.reactivex.rxjava3.subjects.ReplaySubject;
@@ -31,9 +30,9 @@ public class FileDiffImpl implements IFileDiff
   private final IFileContentInfo newFileContentInfo;
   // in order to preserve the lazy nature of the fileContentInfo, the inital state of the textChangesEvents is only set once it is actually required
   private boolean initialObservableStateSet = false;
-  private String oldVersion;
-  private String newVersion;
-  private List<IChangeDelta> changeDeltas;
+  private TextRope oldVersion;
+  private TextRope newVersion;
+  private ChangeDeltaList changeDeltas;
 
   public FileDiffImpl(@NotNull IFileDiffHeader pFileDiffHeader, @NotNull EditList pEditList, @NotNull IFileContentInfo pOriginalFileContentInfo,
                       @NotNull IFileContentInfo pNewFileContentInfo)
@@ -109,8 +108,8 @@ public class FileDiffImpl implements IFileDiff
    */
   private void _loadFileContent()
   {
-    oldVersion = originalFileContentInfo.getFileContent().get();
-    newVersion = newFileContentInfo.getFileContent().get();
+    oldVersion = new TextRope(originalFileContentInfo.getFileContent().get());
+    newVersion = new TextRope(newFileContentInfo.getFileContent().get());
     _initChangeDeltas();
   }
 
@@ -156,10 +155,8 @@ public class FileDiffImpl implements IFileDiff
     int deltaIndex = changeDeltas.indexOf(pChangeDelta);
     if (deltaIndex != -1)
     {
-      String prefix = oldVersion.substring(0, pChangeDelta.getEndTextIndex(EChangeSide.OLD));
       String infix = newVersion.substring(pChangeDelta.getStartTextIndex(EChangeSide.NEW), pChangeDelta.getEndTextIndex(EChangeSide.NEW));
-      String postfix = oldVersion.substring(pChangeDelta.getEndTextIndex(EChangeSide.OLD));
-      oldVersion = prefix + infix + postfix;
+      oldVersion.insert(pChangeDelta.getEndTextIndex(EChangeSide.OLD), infix);
       deltaTextChangeEvent = new DeltaTextChangeEventImpl(pChangeDelta.getEndTextIndex(EChangeSide.OLD), 0, infix, this, EChangeSide.OLD);
       int lineDifference = pChangeDelta.getEndLine(EChangeSide.NEW) - pChangeDelta.getStartLine(EChangeSide.NEW);
       // exchange delta with updated delta, then propagate additional characters/lines to all deltas that occur later on in the file
@@ -259,7 +256,6 @@ public class FileDiffImpl implements IFileDiff
   private IOffsetsChange _updateTextWithDelta(IDelta pChangeDelta, List<IDeltaTextChangeEvent> pDeltaTextChangeEvents, EChangeSide pApplyingSide,
                                               IOffsetsChange pOffsetsChange, boolean pOverride)
   {
-    String prefix;
     String infix = "";
     String replacedText;
     boolean isChangeNewVersion = pApplyingSide == EChangeSide.OLD;
@@ -270,8 +266,8 @@ public class FileDiffImpl implements IFileDiff
     int changedEndTextIndex = pChangeDelta.getEndTextIndex(EChangeSide.invert(pApplyingSide)) + pOffsetsChange.getTextOffset();
     int startIndex;
     EChangeType deltaChangeType = pChangeDelta.getChangeType();
-    String changedSideString = EChangeSide.invert(pApplyingSide) == EChangeSide.NEW ? newVersion : oldVersion;
-    String appliedSideString = EChangeSide.invert(pApplyingSide) == EChangeSide.NEW ? oldVersion : newVersion;
+    TextRope changedSideString = EChangeSide.invert(pApplyingSide) == EChangeSide.NEW ? newVersion : oldVersion;
+    TextRope appliedSideString = EChangeSide.invert(pApplyingSide) == EChangeSide.NEW ? oldVersion : newVersion;
     boolean isPointChange = !pOverride && ((isChangeNewVersion && deltaChangeType == EChangeType.ADD) || (!isChangeNewVersion && deltaChangeType == EChangeType.DELETE));
     boolean isPointChangeReverse = !pOverride && ((!isChangeNewVersion && deltaChangeType == EChangeType.ADD) || (isChangeNewVersion && deltaChangeType == EChangeType.DELETE));
     boolean isPointChangeAtEOL = safeIsNewlines(appliedEndTextIndex - 1, appliedSideString, changedEndTextIndex - 1, changedSideString)
@@ -280,7 +276,6 @@ public class FileDiffImpl implements IFileDiff
     // the if statement here may be true if e.g. the last line does not have a newline, yet the other side has modified or added lines beyond that
     if (changedSideLength < changedStartTextIndex)
     {
-      prefix = changedSideString;
       infix = "\n";
       startIndex = changedSideLength;
     }
@@ -289,7 +284,6 @@ public class FileDiffImpl implements IFileDiff
       startIndex = Math.max(0, changedStartTextIndex);
       if (isPointChangeAtEOL)
         startIndex = Math.max(0, startIndex - 1);
-      prefix = changedSideString.substring(0, startIndex);
     }
     // calculate the changed text. ADD and DELETE have a special treatment here, because they are changes that cover only a point on one side of the change (e.g. an
     // insert happens between characters, doesnt affect the characters around it). To make highlighting easier, the indices of the ChangeDelta do not cover that
@@ -319,13 +313,9 @@ public class FileDiffImpl implements IFileDiff
       postFixStartIndex = Math.min(changedSideLength, changedEndTextIndex);
       textEventRemovalLength = changedEndTextIndex - changedStartTextIndex;
     }
-    String postFix = changedSideString.substring(postFixStartIndex);
 
-    // build new version from sum of prefix + infix + postfix
-    if (isChangeNewVersion)
-      newVersion = prefix + infix + postFix;
-    else
-      oldVersion = prefix + infix + postFix;
+    // replace the text between the prefix and the postfix with the infix
+    changedSideString.replace(startIndex, postFixStartIndex, infix);
     pDeltaTextChangeEvents.add(new DeltaTextChangeEventImpl(startIndex, textEventRemovalLength, infix, this, EChangeSide.invert(pApplyingSide)));
     // calculate index differences for the following deltas
     int lineEndingDiff = (infix.split("\n", -1).length - 1) - (replacedText.split("\n", -1).length - 1);
@@ -341,10 +331,19 @@ public class FileDiffImpl implements IFileDiff
    * @param pSecondString String whose character at index pIndexTwo should be checked
    * @return true if both characters are a UNIX newline
    */
-  private boolean safeIsNewlines(int pIndexOne, String pFirstString, int pIndexTwo, String pSecondString)
+  private boolean safeIsNewlines(int pIndexOne, TextRope pFirstString, int pIndexTwo, TextRope pSecondString)
+  {
+    return _isNewline(pFirstString, pIndexOne) && _isNewline(pSecondString, pIndexTwo);
+  }
+
+  /**
+   * @param pText  text
+   * @param pIndex index of the character to check
+   * @return true if the index is inside the text and the character at the index is a UNIX newline
+   */
+  private static boolean _isNewline(TextRope pText, int pIndex)
   {
-    return Util.safeIsCharAt(pFirstString, pIndexOne, '\n')
-        && Util.safeIsCharAt(pSecondString, pIndexTwo, '\n');
+    return pIndex >= 0 && pIndex < pText.length() && pText.charAt(pIndex) == '\n';
   }
 
   @Override
@@ -366,34 +365,22 @@ public class FileDiffImpl implements IFileDiff
   {
     if (newVersion == null || oldVersion == null)
       _loadFileContent();
-    String prefix = pChangeSide == EChangeSide.NEW ? newVersion.substring(0, pOffset) : oldVersion.substring(0, pOffset);
+    TextRope changedVersion = pChangeSide == EChangeSide.NEW ? newVersion : oldVersion;
     if (pText == null)
     {
-      String postfix = pChangeSide == EChangeSide.NEW ? newVersion.substring(pOffset + pLength) : oldVersion.substring(pOffset + pLength);
       _processDeleteEvent(pOffset, pLength, pChangeSide);
-      if (pChangeSide == EChangeSide.NEW)
-        newVersion = prefix + postfix;
-      else
-        oldVersion = prefix + postfix;
+      changedVersion.delete(pOffset, pOffset + pLength);
     }
     else
     {
       int affectedDelta = -1;
       if (pLength > 0)
       {
-        String postfix = pChangeSide == EChangeSide.NEW ? newVersion.substring(pOffset + pLength) : oldVersion.substring(pOffset + pLength);
         affectedDelta = _processDeleteEvent(pOffset, pLength, pChangeSide);
-        if (pChangeSide == EChangeSide.NEW)
-          newVersion = prefix + postfix;
-        else
-          oldVersion = prefix + postfix;
+        changedVersion.delete(pOffset, pOffset + pLength);
       }
-      String postfix = pChangeSide == EChangeSide.NEW ? newVersion.substring(pOffset) : oldVersion.substring(pOffset);
       _processInsertEvent(pOffset, pText, pChangeSide, affectedDelta, pTrySnapToDelta);
-      if (pChangeSide == EChangeSide.NEW)
-        newVersion = prefix + pText + postfix;
-      else
-        oldVersion = prefix + pText + postfix;
+      changedVersion.insert(pOffset, pText);
     }
     // signal an empty change for UI updates, this method should be called in response to an update in a document or similar, not the other way round
     _fireTextChangeEvent(new DeltaTextChangeEventImpl(0, 0, "", this, pChangeSide));
@@ -490,47 +477,48 @@ public class FileDiffImpl implements IFileDiff
   {
     if (oldVersion == null || newVersion == null)
       _loadFileContent();
-    return pChangeSide == EChangeSide.NEW ? newVersion : oldVersion;
+    return pChangeSide == EChangeSide.NEW ? newVersion.toString() : oldVersion.toString();
   }
 
+  /**
+   * Each changeDelta is compared with the first changeDelta of the other diff whose OLD range overlaps with it, since only overlapping deltas can conflict.
+   * The changeDeltas of both diffs are sorted by their OLD ranges, so a single sweep over both lists finds these overlapping deltas
+   */
   @Override
   public @NotNull List<ConflictPair> markConflicting(@NotNull IFileDiff pOtherFileDiff, @NotNull EConflictSide pConflictSide)
   {
     List<ConflictPair> conflictPairs = new ArrayList<>();
     if (oldVersion == null || newVersion == null)
       _loadFileContent();
+    List<IChangeDelta> otherChangeDeltas = pOtherFileDiff.getChangeDeltas();
+    boolean isSorted = _isSortedByOldRange(changeDeltas) && _isSortedByOldRange(otherChangeDeltas);
+    // index of the first delta of the other diff that does not end before the current delta starts
+    int otherStartIndex = 0;
     for (int index = 0; index < changeDeltas.size(); index++)
     {
       IChangeDelta changeDelta = changeDeltas.get(index);
-      for (int otherDiffIndex = 0; otherDiffIndex < pOtherFileDiff.getChangeDeltas().size(); otherDiffIndex++)
+      int otherDiffIndex;
+      if (isSorted)
       {
-        EConflictType conflictType = pOtherFileDiff.getChangeDeltas().get(otherDiffIndex).isConflictingWith(changeDelta, pConflictSide);
-        if (conflictType == EConflictType.CONFLICTING)
-        {
-          changeDeltas.set(index, changeDelta.setChangeStatus(new ChangeStatusImpl(changeDelta.getChangeStatus(), changeDelta.getChangeType(), conflictType)));
-          conflictPairs.add(new ConflictPair(index, otherDiffIndex, EConflictType.CONFLICTING));
-          break;
-        }
-        else if (conflictType == EConflictType.ENCLOSED_BY_YOURS)
-        {
-          changeDeltas.set(index, changeDelta.setChangeStatus(new ChangeStatusImpl(changeDelta.getChangeStatus(), changeDelta.getChangeType(), conflictType)));
-          conflictPairs.add(new ConflictPair(index, otherDiffIndex, EConflictType.ENCLOSED_BY_YOURS));
-          break;
-        }
-        else if (conflictType == EConflictType.ENCLOSED_BY_THEIRS)
-        {
-          changeDeltas.set(index, changeDelta.setChangeStatus(new ChangeStatusImpl(changeDelta.getChangeStatus(), changeDelta.getChangeType(), conflictType)));
-          conflictPairs.add(new ConflictPair(index, otherDiffIndex, EConflictType.ENCLOSED_BY_THEIRS));
+        while (otherStartIndex < otherChangeDeltas.size()
+            && otherChangeDeltas.get(otherStartIndex).getEndTextIndex(EChangeSide.OLD) <= changeDelta.getStartTextIndex(EChangeSide.OLD))
+          otherStartIndex++;
+        otherDiffIndex = otherStartIndex;
+      }
+      else
+        otherDiffIndex = 0;
+      for (; otherDiffIndex < otherChangeDeltas.size(); otherDiffIndex++)
+      {
+        IChangeDelta otherChangeDelta = otherChangeDeltas.get(otherDiffIndex);
+        // the deltas of the other diff that come after this one start after the current delta ends, so they cannot overlap it either
+        if (isSorted && otherChangeDelta.getStartTextIndex(EChangeSide.OLD) >= changeDelta.getEndTextIndex(EChangeSide.OLD))
           break;
-        }
-        else if (conflictType == EConflictType.RESOLVABLE)
+        EConflictType conflictType = otherChangeDelta.isConflictingWith(changeDelta, pConflictSide);
+        if (conflictType != EConflictType.NONE)
         {
-          conflictPairs.add(new ConflictPair(index, otherDiffIndex, EConflictType.RESOLVABLE));
-          break;
-        }
-        else if (conflictType == EConflictType.SAME)
-        {
-          conflictPairs.add(new ConflictPair(index, otherDiffIndex, EConflictType.SAME));
+          if (conflictType == EConflictType.CONFLICTING || conflictType == EConflictType.ENCLOSED_BY_YOURS || conflictType == EConflictType.ENCLOSED_BY_THEIRS)
+            changeDeltas.set(index, changeDelta.setChangeStatus(new ChangeStatusImpl(changeDelta.getChangeStatus(), changeDelta.getChangeType(), conflictType)));
+          conflictPairs.add(new ConflictPair(index, otherDiffIndex, conflictType));
           break;
         }
       }
@@ -538,6 +526,23 @@ public class FileDiffImpl implements IFileDiff
     return conflictPairs;
   }
 
+  /**
+   * @param pChangeDeltas list of changeDeltas
+   * @return true if both the start and the end indices of the OLD ranges of the changeDeltas never decrease
+   */
+  private static boolean _isSortedByOldRange(@NotNull List<IChangeDelta> pChangeDeltas)
+  {
+    for (int index = 1; index < pChangeDeltas.size(); index++)
+    {
+      IChangeDelta previousChangeDelta = pChangeDeltas.get(index - 1);
+      IChangeDelta changeDelta = pChangeDeltas.get(index);
+      if (changeDelta.getStartTextIndex(EChangeSide.OLD) < previousChangeDelta.getStartTextIndex(EChangeSide.OLD)
+          || changeDelta.getEndTextIndex(EChangeSide.OLD) < previousChangeDelta.getEndTextIndex(EChangeSide.OLD))
+        return false;
+    }
+    return true;
+  }
+
   @Override
   public @NotNull File getFile()
   {
@@ -561,7 +566,7 @@ public class FileDiffImpl implements IFileDiff
 
 
   /**
-   * applies the given text and lineoffsets to the deltas for indices after pDeltaIndex
+   * applies the given text and lineoffsets to the deltas for indices after pDeltaIndex. The offsets are only applied to the deltas once they are retrieved
    *
    * @param pDeltaIndex     index for the list of deltas, given index is exclusive
    * @param pTextDifference offset that will be added to the textOffsets
@@ -569,10 +574,7 @@ public class FileDiffImpl implements IFileDiff
    */
   private void _applyOffsetToFollowingDeltas(int pDeltaIndex, int pTextDifference, int pLineDifference, EChangeSide pChangeSide)
   {
-    for (int index = pDeltaIndex + 1; index < changeDeltas.size(); index++)
-    {
-      changeDeltas.set(index, changeDeltas.get(index).applyOffset(pLineDifference, pTextDifference, pChangeSide));
-    }
+    changeDeltas.applyOffset(pDeltaIndex + 1, pLineDifference, pTextDifference, pChangeSide);
   }
 
   /**
@@ -580,8 +582,8 @@ public class FileDiffImpl implements IFileDiff
    */
   private void _initChangeDeltas()
   {
-    changeDeltas = LineIndexDiffUtil.getTextOffsets(originalFileContentInfo.getFileContent().get(), newFileContentInfo.getFileContent().get(), editList,
-                                                    new ChangeDeltaImplFactory());
+    changeDeltas = new ChangeDeltaList(LineIndexDiffUtil.getTextOffsets(originalFileContentInfo.getFileContent().get(),
+                                                                        newFileContentInfo.getFileContent().get(), editList, new ChangeDeltaImplFactory()));
   }
 
   /**
@@ -595,7 +597,28 @@ public class FileDiffImpl implements IFileDiff
     public IChangeDelta createDelta(@NotNull Edit pEdit, @NotNull ChangeDeltaTextOffsets pDeltaTextOffsets)
     {
       return new ChangeDeltaImpl(pEdit, new ChangeStatusImpl(EChangeStatus.PENDING, EnumMappings.toChangeType(pEdit.getType()), EConflictType.NONE),
-                                 pDeltaTextOffsets, FileDiffImpl.this::getText);
+                                 pDeltaTextOffsets, new TextVersionProvider());
+    }
+  }
+
+  /**
+   * Provides the current texts of this FileDiff. Parts of the text are taken directly from the TextRopes, so the whole text does not have to be built
+   */
+  private class TextVersionProvider implements ITextVersionProvider
+  {
+
+    @Override
+    public String getVersion(EChangeSide pChangeSide)
+    {
+      return FileDiffImpl.this.getText(pChangeSide);
+    }
+
+    @Override
+    public String getText(EChangeSide pChangeSide, int pStartIndex, int pEndIndex)
+    {
+      if (oldVersion == null || newVersion == null)
+        _loadFileContent();
+      return pChangeSide == EChangeSide.NEW ? newVersion.substring(pStartIndex, pEndIndex) : oldVersion.substring(pStartIndex, pEndIndex);
     }
   }
 
@@ -16,4 +16,15 @@ interface ITextVersionProvider
    */
   String getVersion(EChangeSide pChangeSide);
 
+  /**
+   * @param pChangeSide which version should be provided
+   * @param pStartIndex start index of the requested text, inclusive
+   * @param pEndIndex   end index of the requested text, exclusive
+   * @return the text between the indices of the passed version
+   */
+  default String getText(EChangeSide pChangeSide, int pStartIndex, int pEndIndex)
+  {
+    return getVersion(pChangeSide).substring(pStartIndex, pEndIndex);
+  }
+
 }
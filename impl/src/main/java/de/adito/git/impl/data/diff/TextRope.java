@@ -0,0 +1,265 @@
+package de.adito.git.impl.data.diff;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Random;
+
+/**
+ * Mutable text, stored as a balanced tree (treap) of pieces. Each piece references a range of either the original text or of an inserted text, so
+ * replacing a part of the text only splits and joins the tree at the affected positions instead of copying the whole text.
+ * The String representation of the whole text is cached until the next modification
+ *
+ * @author agent, 18.10.2026
+ */
+final class TextRope
+{
+
+  private static final int MAX_INITIAL_PIECE_LENGTH = 1024;
+  private final Random random = new Random();
+  private _Piece root = null;
+  private String cachedText;
+
+  TextRope(@NotNull String pText)
+  {
+    for (int pieceStart = 0; pieceStart < pText.length(); pieceStart += MAX_INITIAL_PIECE_LENGTH)
+    {
+      root = _merge(root, new _Piece(pText, pieceStart, Math.min(pText.length(), pieceStart + MAX_INITIAL_PIECE_LENGTH), random.nextInt()));
+    }
+    cachedText = pText;
+  }
+
+  /**
+   * @return number of characters of the text
+   */
+  int length()
+  {
+    return _length(root);
+  }
+
+  /**
+   * @param pIndex index of the character
+   * @return character at the given index
+   * @throws IndexOutOfBoundsException if the index is negative or not smaller than the length of the text
+   */
+  char charAt(int pIndex)
+  {
+    if (pIndex < 0 || pIndex >= length())
+      throw new IndexOutOfBoundsException("index " + pIndex + ", length " + length());
+    if (cachedText != null)
+      return cachedText.charAt(pIndex);
+    _Piece piece = root;
+    int index = pIndex;
+    while (true)
+    {
+      int leftLength = _length(piece.left);
+      if (index < leftLength)
+        piece = piece.left;
+      else if (index < leftLength + piece.pieceLength())
+        return piece.source.charAt(piece.start + index - leftLength);
+      else
+      {
+        index -= leftLength + piece.pieceLength();
+        piece = piece.right;
+      }
+    }
+  }
+
+  /**
+   * @param pStart start index, inclusive
+   * @param pEnd   end index, exclusive
+   * @return the text between the given indices
+   * @throws IndexOutOfBoundsException if the indices are not inside the text or pStart is bigger than pEnd
+   */
+  @NotNull
+  String substring(int pStart, int pEnd)
+  {
+    _checkRange(pStart, pEnd);
+    if (cachedText != null)
+      return cachedText.substring(pStart, pEnd);
+    StringBuilder builder = new StringBuilder(pEnd - pStart);
+    _appendRange(root, pStart, pEnd, builder);
+    return builder.toString();
+  }
+
+  /**
+   * @param pStart start index, inclusive
+   * @return the text from the given index to the end of the text
+   */
+  @NotNull
+  String substring(int pStart)
+  {
+    return substring(pStart, length());
+  }
+
+  /**
+   * replaces the text between the given indices with pText
+   *
+   * @param pStart start index, inclusive
+   * @param pEnd   end index, exclusive
+   * @param pText  text to put in place of the removed text
+   * @throws IndexOutOfBoundsException if the indices are not inside the text or pStart is bigger than pEnd
+   */
+  void replace(int pStart, int pEnd, @NotNull String pText)
+  {
+    _checkRange(pStart, pEnd);
+    if (pStart == pEnd && pText.isEmpty())
+      return;
+    _Piece[] tail = _split(root, pEnd);
+    _Piece[] head = _split(tail[0], pStart);
+    _Piece inserted = pText.isEmpty() ? null : new _Piece(pText, 0, pText.length(), random.nextInt());
+    root = _merge(_merge(head[0], inserted), tail[1]);
+    cachedText = null;
+  }
+
+  /**
+   * @param pIndex index at which to insert the text
+   * @param pText  text to insert
+   */
+  void insert(int pIndex, @NotNull String pText)
+  {
+    replace(pIndex, pIndex, pText);
+  }
+
+  /**
+   * @param pStart start index, inclusive
+   * @param pEnd   end index, exclusive
+   */
+  void delete(int pStart, int pEnd)
+  {
+    replace(pStart, pEnd, "");
+  }
+
+  @Override
+  public String toString()
+  {
+    if (cachedText == null)
+    {
+      StringBuilder builder = new StringBuilder(length());
+      _appendRange(root, 0, length(), builder);
+      cachedText = builder.toString();
+    }
+    return cachedText;
+  }
+
+  private void _checkRange(int pStart, int pEnd)
+  {
+    if (pStart < 0 || pEnd > length() || pStart > pEnd)
+      throw new IndexOutOfBoundsException("begin " + pStart + ", end " + pEnd + ", length " + length());
+  }
+
+  /**
+   * appends the text of the subtree between the given indices (relative to the subtree) to the builder
+   */
+  private static void _appendRange(@Nullable _Piece pPiece, int pStart, int pEnd, @NotNull StringBuilder pBuilder)
+  {
+    if (pPiece == null || pStart >= pEnd)
+      return;
+    int leftLength = _length(pPiece.left);
+    if (pStart < leftLength)
+      _appendRange(pPiece.left, pStart, Math.min(pEnd, leftLength), pBuilder);
+    int pieceStart = Math.max(pStart - leftLength, 0);
+    int pieceEnd = Math.min(pEnd - leftLength, pPiece.pieceLength());
+    if (pieceStart < pieceEnd)
+      pBuilder.append(pPiece.source, pPiece.start + pieceStart, pPiece.start + pieceEnd);
+    int rightOffset = leftLength + pPiece.pieceLength();
+    if (pEnd > rightOffset)
+      _appendRange(pPiece.right, Math.max(pStart - rightOffset, 0), pEnd - rightOffset, pBuilder);
+  }
+
+  /**
+   * splits the subtree at the given position
+   *
+   * @param pPiece    root of the subtree
+   * @param pPosition position relative to the subtree
+   * @return array with the subtree containing the text before pPosition at index 0, and the subtree containing the rest at index 1
+   */
+  @NotNull
+  private _Piece[] _split(@Nullable _Piece pPiece, int pPosition)
+  {
+    if (pPiece == null)
+      return new _Piece[2];
+    int leftLength = _length(pPiece.left);
+    if (pPosition <= leftLength)
+    {
+      _Piece[] parts = _split(pPiece.left, pPosition);
+      pPiece.left = parts[1];
+      pPiece.update();
+      parts[1] = pPiece;
+      return parts;
+    }
+    if (pPosition >= leftLength + pPiece.pieceLength())
+    {
+      _Piece[] parts = _split(pPiece.right, pPosition - leftLength - pPiece.pieceLength());
+      pPiece.right = parts[0];
+      pPiece.update();
+      parts[0] = pPiece;
+      return parts;
+    }
+    // position lies inside this piece, split the piece itself. Both halves still reference the same source
+    int splitIndex = pPiece.start + pPosition - leftLength;
+    _Piece before = new _Piece(pPiece.source, pPiece.start, splitIndex, random.nextInt());
+    _Piece after = new _Piece(pPiece.source, splitIndex, pPiece.end, random.nextInt());
+    return new _Piece[]{_merge(pPiece.left, before), _merge(after, pPiece.right)};
+  }
+
+  /**
+   * joins two subtrees, all text of pLeft comes before the text of pRight
+   */
+  @Nullable
+  private static _Piece _merge(@Nullable _Piece pLeft, @Nullable _Piece pRight)
+  {
+    if (pLeft == null)
+      return pRight;
+    if (pRight == null)
+      return pLeft;
+    if (pLeft.priority > pRight.priority)
+    {
+      pLeft.right = _merge(pLeft.right, pRight);
+      pLeft.update();
+      return pLeft;
+    }
+    pRight.left = _merge(pLeft, pRight.left);
+    pRight.update();
+    return pRight;
+  }
+
+  private static int _length(@Nullable _Piece pPiece)
+  {
+    return pPiece == null ? 0 : pPiece.length;
+  }
+
+  /**
+   * Node of the tree, references the characters between start and end of the source
+   */
+  private static final class _Piece
+  {
+    private final String source;
+    private final int start;
+    private final int end;
+    private final int priority;
+    private _Piece left;
+    private _Piece right;
+    // length of the text of the whole subtree
+    private int length;
+
+    _Piece(@NotNull String pSource, int pStart, int pEnd, int pPriority)
+    {
+      source = pSource;
+      start = pStart;
+      end = pEnd;
+      priority = pPriority;
+      length = pEnd - pStart;
+    }
+
+    int pieceLength()
+    {
+      return end - start;
+    }
+
+    void update()
+    {
+      length = _length(left) + pieceLength() + _length(right);
+    }
+  }
+}
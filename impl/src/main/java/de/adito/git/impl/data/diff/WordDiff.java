@@ -0,0 +1,240 @@
+package de.adito.git.impl.data.diff;
+
+import org.eclipse.jgit.diff.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Word based diff of two texts. The texts are split into tokens, a token is a word together with the space or newline that ends it. Equal tokens of both
+ * texts get the same int id and the diff is calculated on these ids, so no Strings have to be created for the single words and the texts do not have to be
+ * converted for the line based diff. Since the space or newline is part of the token, a word that is followed by a space in one text and by a newline in
+ * the other text counts as changed. Regions of tokens that are too common for the histogram diff, and texts with more than MAX_NUM_TOKENS tokens, are
+ * marked as one changed region instead of being diffed with a more expensive algorithm
+ *
+ * @author agent, 18.10.2026
+ */
+final class WordDiff
+{
+
+  // tokens of both texts together, about 4000 lines of code
+  static final int MAX_NUM_TOKENS = 50000;
+
+  private WordDiff()
+  {
+  }
+
+  /**
+   * @param pOriginalContent    original version of the text
+   * @param pChangedContent     changed version of the text
+   * @param pChangeDeltaFactory creates the deltas from the edits and the text offsets of the changed words
+   * @param <T>                 type of the created deltas
+   * @return one delta for each range of changed words, the text offsets are relative to the start of the passed texts
+   */
+  @NotNull
+  static <T> List<T> getChangedWords(@NotNull String pOriginalContent, @NotNull String pChangedContent, @NotNull IChangeDeltaFactory<T> pChangeDeltaFactory)
+  {
+    _TokenIds tokenIds = new _TokenIds();
+    _TokenSequence originalTokens = new _TokenSequence(pOriginalContent, tokenIds);
+    _TokenSequence changedTokens = new _TokenSequence(pChangedContent, tokenIds);
+    EditList editList;
+    if (originalTokens.size() + changedTokens.size() > MAX_NUM_TOKENS)
+    {
+      editList = new EditList();
+      editList.add(new Edit(0, originalTokens.size(), 0, changedTokens.size()));
+    }
+    else
+    {
+      HistogramDiff histogramDiff = new HistogramDiff();
+      // without a fallback, a region with too many occurrences of the same tokens becomes one edit instead of being diffed by Myers in quadratic time
+      histogramDiff.setFallbackAlgorithm(null);
+      editList = histogramDiff.diff(_TokenComparator.INSTANCE, originalTokens, changedTokens);
+    }
+    List<T> deltas = new ArrayList<>(editList.size());
+    for (Edit edit : editList)
+    {
+      int startIndexOld = originalTokens.getStartIndexSafely(edit.getBeginA());
+      int endIndexOld = originalTokens.getEndIndex(Math.max(edit.getBeginA(), edit.getEndA() - 1));
+      int startIndexNew = changedTokens.getStartIndexSafely(edit.getBeginB());
+      int endIndexNew;
+      if (edit.getType() == Edit.Type.DELETE)
+        endIndexNew = startIndexNew;
+      else
+        endIndexNew = changedTokens.getEndIndex(Math.max(edit.getBeginB(), edit.getEndB() - 1));
+      deltas.add(pChangeDeltaFactory.createDelta(edit, new ChangeDeltaTextOffsets(startIndexOld, endIndexOld, startIndexNew, endIndexNew)));
+    }
+    return deltas;
+  }
+
+  /**
+   * Tokens of a text, stored as the end index of each token and the id of its content. The text is split at each space and newline, the token after the last
+   * space or newline ends at the end of the text and is not part of the sequence if it is empty. The offsets work like the lines of
+   * LineIndexDiffUtil.getLineInfos, with the tokens as lines
+   */
+  private static final class _TokenSequence extends Sequence
+  {
+    private final int[] ids;
+    // index after the last character of each token, including the space or newline. The last token is always the rest of the text, even if it is empty
+    private final int[] endIndices;
+    private final int numTokens;
+    private final int size;
+
+    _TokenSequence(@NotNull String pText, @NotNull _TokenIds pTokenIds)
+    {
+      int[] tokenEnds = new int[16];
+      int[] tokenIds = new int[16];
+      int count = 0;
+      int tokenStart = 0;
+      for (int index = 0; index <= pText.length(); index++)
+      {
+        if (index == pText.length() || _isTokenEnd(pText.charAt(index)))
+        {
+          int tokenEnd = index == pText.length() ? index : index + 1;
+          if (count == tokenEnds.length)
+          {
+            tokenEnds = Arrays.copyOf(tokenEnds, count * 2);
+            tokenIds = Arrays.copyOf(tokenIds, count * 2);
+          }
+          tokenEnds[count] = tokenEnd;
+          tokenIds[count] = pTokenIds.getId(pText, tokenStart, tokenEnd);
+          count++;
+          tokenStart = tokenEnd;
+        }
+      }
+      endIndices = tokenEnds;
+      ids = tokenIds;
+      numTokens = count;
+      // the rest of the text after the last space or newline is only a token if it is not empty
+      size = endIndices[count - 1] == (count == 1 ? 0 : endIndices[count - 2]) ? count - 1 : count;
+    }
+
+    @Override
+    public int size()
+    {
+      return size;
+    }
+
+    /**
+     * @param pIndex index of the token
+     * @return start index of the token, or one after the end of the last token if the index is out of bounds
+     */
+    int getStartIndexSafely(int pIndex)
+    {
+      if (pIndex < numTokens)
+        return pIndex == 0 ? 0 : endIndices[pIndex - 1];
+      return endIndices[numTokens - 1] + 1;
+    }
+
+    /**
+     * @param pIndex index of the token, the last token is used if the index is out of bounds
+     * @return index after the last character of the token
+     */
+    int getEndIndex(int pIndex)
+    {
+      return endIndices[Math.min(numTokens - 1, pIndex)];
+    }
+
+    private static boolean _isTokenEnd(char pCharacter)
+    {
+      return pCharacter == ' ' || pCharacter == '\n';
+    }
+  }
+
+  /**
+   * Compares tokens by their ids
+   */
+  private static final class _TokenComparator extends SequenceComparator<_TokenSequence>
+  {
+    private static final _TokenComparator INSTANCE = new _TokenComparator();
+
+    @Override
+    public boolean equals(_TokenSequence pSequence, int pIndex, _TokenSequence pOtherSequence, int pOtherIndex)
+    {
+      return pSequence.ids[pIndex] == pOtherSequence.ids[pOtherIndex];
+    }
+
+    @Override
+    public int hash(_TokenSequence pSequence, int pIndex)
+    {
+      return pSequence.ids[pIndex];
+    }
+  }
+
+  /**
+   * Assigns the same id to tokens with the same content. Hash table with open addressing, the content of the tokens is compared directly in the texts
+   */
+  private static final class _TokenIds
+  {
+    // id + 1 of the token in each slot, 0 for an empty slot
+    private int[] slots = new int[64];
+    private int[] hashes = new int[32];
+    private String[] texts = new String[32];
+    private int[] startIndices = new int[32];
+    private int[] endIndices = new int[32];
+    private int numIds = 0;
+
+    /**
+     * @param pText       text containing the token
+     * @param pStartIndex start index of the token in the text
+     * @param pEndIndex   end index of the token in the text, exclusive
+     * @return id of the token, the same for all tokens with the same content
+     */
+    int getId(@NotNull String pText, int pStartIndex, int pEndIndex)
+    {
+      int hash = 0;
+      for (int index = pStartIndex; index < pEndIndex; index++)
+      {
+        hash = 31 * hash + pText.charAt(index);
+      }
+      int mask = slots.length - 1;
+      int slot = _spread(hash) & mask;
+      while (slots[slot] != 0)
+      {
+        int id = slots[slot] - 1;
+        if (hashes[id] == hash && endIndices[id] - startIndices[id] == pEndIndex - pStartIndex
+            && texts[id].regionMatches(startIndices[id], pText, pStartIndex, pEndIndex - pStartIndex))
+          return id;
+        slot = (slot + 1) & mask;
+      }
+      int id = numIds++;
+      if (id == hashes.length)
+      {
+        hashes = Arrays.copyOf(hashes, id * 2);
+        texts = Arrays.copyOf(texts, id * 2);
+        startIndices = Arrays.copyOf(startIndices, id * 2);
+        endIndices = Arrays.copyOf(endIndices, id * 2);
+      }
+      hashes[id] = hash;
+      texts[id] = pText;
+      startIndices[id] = pStartIndex;
+      endIndices[id] = pEndIndex;
+      slots[slot] = id + 1;
+      // keep the table at most half full
+      if (numIds * 2 > slots.length)
+        _rehash();
+      return id;
+    }
+
+    private void _rehash()
+    {
+      slots = new int[slots.length * 2];
+      int mask = slots.length - 1;
+      for (int id = 0; id < numIds; id++)
+      {
+        int slot = _spread(hashes[id]) & mask;
+        while (slots[slot] != 0)
+        {
+          slot = (slot + 1) & mask;
+        }
+        slots[slot] = id + 1;
+      }
+    }
+
+    private static int _spread(int pHash)
+    {
+      return pHash ^ (pHash >>> 16);
+    }
+  }
+}
@@ -11,6 +11,8 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * RevFilter that filters out all stash commits. This is not as simple as it sounds, as a stash command can lead to up to three stash commits being
@@ -44,6 +46,15 @@ public class StashCommitFilter extends RevFilter
     }
   }
 
+  /**
+   * @return ids of the commits that are explicitly in the stash branch, without the commits that were created along with them
+   */
+  @NotNull
+  public List<ObjectId> getStashedCommitIds()
+  {
+    return Collections.unmodifiableList(stashedCommitIdList);
+  }
+
   @Override
   public boolean include(RevWalk pWalker, RevCommit pCommit)
   {
@@ -0,0 +1,159 @@
+package de.adito.git.impl.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Determines the encoding of a byte array by looking at its content. Only a prefix of bounded size is examined, so the cost of the detection does not
+ * depend on the size of the content
+ *
+ * @author agent, 18.10.2026
+ */
+public final class EncodingDetector
+{
+
+  static final int MAX_PREFIX_LENGTH = 64 * 1024;
+  private static final int MAX_XML_DECLARATION_LENGTH = 256;
+  private static final Pattern XML_ENCODING_PATTERN = Pattern.compile("^<\\?xml[^>]*encoding\\s*=\\s*[\"']([A-Za-z0-9._:\\-]+)[\"']");
+
+  private EncodingDetector()
+  {
+  }
+
+  /**
+   * Checks, in this order, for a byte order mark, an encoding declared in an xml declaration and if the content is valid UTF-8
+   *
+   * @param pContent         byte array representing a String with an unknown encoding
+   * @param pDefaultEncoding encoding used if the content is plain ASCII or if the encoding cannot be determined
+   * @return Encoding that was most likely used to create the byte array
+   */
+  @NotNull
+  public static Charset detectEncoding(@NotNull byte[] pContent, @NotNull Charset pDefaultEncoding)
+  {
+    Charset encoding = _getByteOrderMarkEncoding(pContent);
+    if (encoding == null)
+      encoding = _getXmlDeclarationEncoding(pContent);
+    if (encoding != null)
+      return encoding;
+    switch (_checkUtf8(pContent, Math.min(pContent.length, MAX_PREFIX_LENGTH)))
+    {
+      case ASCII:
+        return pDefaultEncoding;
+      case UTF_8:
+        return StandardCharsets.UTF_8;
+      default:
+        // ISO-8859-1 maps each byte to exactly one character, so the content is not garbled if it is written again
+        return StandardCharsets.UTF_8.equals(pDefaultEncoding) ? StandardCharsets.ISO_8859_1 : pDefaultEncoding;
+    }
+  }
+
+  @Nullable
+  private static Charset _getByteOrderMarkEncoding(@NotNull byte[] pContent)
+  {
+    if (pContent.length >= 3 && (pContent[0] & 0xFF) == 0xEF && (pContent[1] & 0xFF) == 0xBB && (pContent[2] & 0xFF) == 0xBF)
+      return StandardCharsets.UTF_8;
+    if (pContent.length >= 2 && (pContent[0] & 0xFF) == 0xFE && (pContent[1] & 0xFF) == 0xFF)
+      return StandardCharsets.UTF_16BE;
+    if (pContent.length >= 2 && (pContent[0] & 0xFF) == 0xFF && (pContent[1] & 0xFF) == 0xFE)
+      return StandardCharsets.UTF_16LE;
+    return null;
+  }
+
+  /**
+   * @return the encoding named in the encoding attribute of the xml declaration, or null if there is no such declaration or the encoding is unknown
+   */
+  @Nullable
+  private static Charset _getXmlDeclarationEncoding(@NotNull byte[] pContent)
+  {
+    if (pContent.length < 5 || pContent[0] != '<' || pContent[1] != '?')
+      return null;
+    String declaration = new String(pContent, 0, Math.min(pContent.length, MAX_XML_DECLARATION_LENGTH), StandardCharsets.US_ASCII);
+    Matcher matcher = XML_ENCODING_PATTERN.matcher(declaration);
+    if (matcher.find())
+    {
+      try
+      {
+        return Charset.forName(matcher.group(1));
+      }
+      catch (IllegalArgumentException pE)
+      {
+        // unknown or illegal charset name, determine the encoding by the content instead
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param pContent byte array to check
+   * @param pLength  number of bytes to check, a multi-byte character that is cut off at the end of the checked bytes is valid
+   * @return ASCII if the checked bytes only contain ASCII characters, UTF_8 if they contain multi-byte characters that are valid UTF-8, INVALID otherwise
+   */
+  @NotNull
+  private static EUtf8Check _checkUtf8(@NotNull byte[] pContent, int pLength)
+  {
+    boolean isAscii = true;
+    int index = 0;
+    while (index < pLength)
+    {
+      int lead = pContent[index] & 0xFF;
+      if (lead < 0x80)
+      {
+        index++;
+        continue;
+      }
+      isAscii = false;
+      int numContinuationBytes;
+      int minSecondByte = 0x80;
+      int maxSecondByte = 0xBF;
+      if (lead >= 0xC2 && lead <= 0xDF)
+        numContinuationBytes = 1;
+      else if (lead >= 0xE0 && lead <= 0xEF)
+      {
+        numContinuationBytes = 2;
+        // no overlong encodings and no surrogates
+        if (lead == 0xE0)
+          minSecondByte = 0xA0;
+        else if (lead == 0xED)
+          maxSecondByte = 0x9F;
+      }
+      else if (lead >= 0xF0 && lead <= 0xF4)
+      {
+        numContinuationBytes = 3;
+        // no overlong encodings and nothing above U+10FFFF
+        if (lead == 0xF0)
+          minSecondByte = 0x90;
+        else if (lead == 0xF4)
+          maxSecondByte = 0x8F;
+      }
+      else
+        return EUtf8Check.INVALID;
+      for (int continuationIndex = 1; continuationIndex <= numContinuationBytes; continuationIndex++)
+      {
+        if (index + continuationIndex >= pLength)
+          return pLength < pContent.length ? EUtf8Check.UTF_8 : EUtf8Check.INVALID;
+        int continuationByte = pContent[index + continuationIndex] & 0xFF;
+        int min = continuationIndex == 1 ? minSecondByte : 0x80;
+        int max = continuationIndex == 1 ? maxSecondByte : 0xBF;
+        if (continuationByte < min || continuationByte > max)
+          return EUtf8Check.INVALID;
+      }
+      index += numContinuationBytes + 1;
+    }
+    return isAscii ? EUtf8Check.ASCII : EUtf8Check.UTF_8;
+  }
+
+  /**
+   * Result of the check if bytes are valid UTF-8
+   */
+  private enum EUtf8Check
+  {
+    ASCII,
+    UTF_8,
+    INVALID
+  }
+}
@@ -0,0 +1,138 @@
+package de.adito.git.impl;
+
+import de.adito.git.api.data.IBlame;
+import io.reactivex.rxjava3.core.Observable;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class BlameCacheTest
+{
+
+  @TempDir
+  File repoDir;
+
+  /**
+   * Tests that the blame is computed once per file, and that a commit only invalidates the blame of the files it changed
+   */
+  @Test
+  void testCommitOnlyInvalidatesChangedFiles() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      ObjectId firstHead = _commit(repository, "alice", "a.txt", "first\nsecond\nthird\n", "folder/b.txt", "content\n");
+      BlameCache blameCache = new BlameCache(git.getRepository());
+      Observable<Optional<IBlame>> blameOfA = blameCache.get(firstHead, "a.txt");
+      Observable<Optional<IBlame>> blameOfB = blameCache.get(firstHead, "folder/b.txt");
+      Assertions.assertEquals(List.of("alice", "alice", "alice"), _getAuthors(blameOfA));
+      Assertions.assertSame(blameOfA, blameCache.get(firstHead, "a.txt"));
+      Assertions.assertFalse(blameCache.get(firstHead, "unknown.txt").blockingLast().isPresent());
+
+      ObjectId secondHead = _commit(repository, "bob", "a.txt", "first\nchanged\nthird\n");
+      Assertions.assertSame(blameOfB, blameCache.get(secondHead, "folder/b.txt"));
+      Observable<Optional<IBlame>> changedBlameOfA = blameCache.get(secondHead, "a.txt");
+      Assertions.assertNotSame(blameOfA, changedBlameOfA);
+      Assertions.assertEquals(List.of("alice", "bob", "alice"), _getAuthors(changedBlameOfA));
+
+      // HEAD moving back to the parent is no commit, all blames have to be computed again
+      Assertions.assertNotSame(blameOfB, blameCache.get(firstHead, "folder/b.txt"));
+    }
+  }
+
+  /**
+   * Tests that each computed region is published, so the lines of the first regions are available before the whole file is computed
+   */
+  @Test
+  void testProgressiveUpdates() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      _commit(repository, "alice", "a.txt", "first\nsecond\nthird\n");
+      ObjectId head = _commit(repository, "bob", "a.txt", "first\nchanged\nthird\n");
+      BlameCache blameCache = new BlameCache(repository.getGit().getRepository());
+      // the computed lines are read when each update is published, before the next region is computed
+      List<List<Boolean>> computedLinesPerUpdate = blameCache.get(head, "a.txt")
+          .map(pBlame -> {
+            IBlame blame = pBlame.orElseThrow();
+            List<Boolean> computedLines = new ArrayList<>();
+            for (int index = 0; index < blame.getLineCount(); index++)
+            {
+              computedLines.add(blame.isComputed(index));
+            }
+            return computedLines;
+          })
+          .toList()
+          .blockingGet();
+      // the line of the newest commit is blamed first, then each unchanged region of the older commit
+      Assertions.assertEquals(List.of(List.of(false, true, false), List.of(true, true, false), List.of(true, true, true)), computedLinesPerUpdate);
+    }
+  }
+
+  /**
+   * Tests that HEAD moving to a merge commit of the last HEAD only invalidates the blame of the files the merge changed compared to the last HEAD
+   */
+  @Test
+  void testMergeOnlyInvalidatesChangedFiles() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      _commit(repository, "alice", "a.txt", "first\n", "b.txt", "first\n");
+      String mainBranch = git.getRepository().getBranch();
+      git.checkout().setCreateBranch(true).setName("side").call();
+      _commit(repository, "bob", "b.txt", "first\nside\n");
+      git.checkout().setName(mainBranch).call();
+      ObjectId mainHead = _commit(repository, "carol", "a.txt", "first\nmain\n");
+      BlameCache blameCache = new BlameCache(git.getRepository());
+      Observable<Optional<IBlame>> blameOfA = blameCache.get(mainHead, "a.txt");
+      Observable<Optional<IBlame>> blameOfB = blameCache.get(mainHead, "b.txt");
+      Assertions.assertEquals(List.of("alice", "carol"), _getAuthors(blameOfA));
+      Assertions.assertEquals(List.of("alice"), _getAuthors(blameOfB));
+
+      ObjectId mergeHead = git.merge().include(git.getRepository().resolve("side")).setMessage("merge").call().getNewHead();
+      Assertions.assertSame(blameOfA, blameCache.get(mergeHead, "a.txt"));
+      Observable<Optional<IBlame>> mergedBlameOfB = blameCache.get(mergeHead, "b.txt");
+      Assertions.assertNotSame(blameOfB, mergedBlameOfB);
+      Assertions.assertEquals(List.of("alice", "bob"), _getAuthors(mergedBlameOfB));
+    }
+  }
+
+  /**
+   * waits until the blame is computed completely and returns the author of each line
+   */
+  private static List<String> _getAuthors(Observable<Optional<IBlame>> pBlame)
+  {
+    IBlame blame = pBlame.blockingLast().orElseThrow();
+    List<String> authors = new ArrayList<>();
+    for (int index = 0; index < blame.getLineCount(); index++)
+    {
+      Assertions.assertTrue(blame.isComputed(index));
+      authors.add(blame.getSourceAuthor(index));
+    }
+    return authors;
+  }
+
+  /**
+   * writes the files, given as alternating path and content, and commits them
+   */
+  private static ObjectId _commit(TestRepository pRepository, String pAuthor, String... pPathsAndContents) throws Exception
+  {
+    for (int index = 0; index < pPathsAndContents.length; index += 2)
+    {
+      pRepository.write(pPathsAndContents[index], pPathsAndContents[index + 1]);
+    }
+    return pRepository.commit("commit by " + pAuthor, new PersonIdent(pAuthor, pAuthor + "@test.de")).getId();
+  }
+}
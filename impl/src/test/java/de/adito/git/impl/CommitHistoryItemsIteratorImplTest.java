@@ -0,0 +1,121 @@
+package de.adito.git.impl;
+
+import com.google.common.collect.Iterators;
+import de.adito.git.api.CommitHistoryTreeListItem;
+import de.adito.git.api.data.ICommit;
+import de.adito.git.impl.dag.DAGFilterIterator;
+import de.adito.git.impl.data.CommitImpl;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class CommitHistoryItemsIteratorImplTest
+{
+
+  private static final long START_TIME = 1_600_000_000_000L;
+
+  @TempDir
+  File repoDir;
+  private int commitCount = 0;
+
+  /**
+   * Tests that commits added on top of the first item are read and joined with the first item, keeping the lines below the first item
+   */
+  @Test
+  void testReadEntriesUntilFirstItem() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      for (int index = 0; index < 4; index++)
+      {
+        _commit(repository);
+      }
+      List<CommitHistoryTreeListItem> loadedItems = _createIterator(git).tryReadEntries(10);
+      Assertions.assertEquals(4, loadedItems.size());
+      RevCommit fifth = _commit(repository);
+      RevCommit sixth = _commit(repository);
+
+      List<CommitHistoryTreeListItem> newItems = _createIterator(git).tryReadEntriesUntil(loadedItems.get(0), 10);
+      Assertions.assertNotNull(newItems);
+      Assertions.assertEquals(3, newItems.size());
+      Assertions.assertEquals(sixth.getName(), newItems.get(0).getCommit().getId());
+      Assertions.assertEquals(fifth.getName(), newItems.get(1).getCommit().getId());
+      CommitHistoryTreeListItem joinedItem = newItems.get(2);
+      Assertions.assertEquals(loadedItems.get(0).getCommit(), joinedItem.getCommit());
+      Assertions.assertSame(loadedItems.get(0).getAncestryLines(), joinedItem.getAncestryLines());
+      // the new commits continue the line of the first item in the same color
+      for (CommitHistoryTreeListItem newItem : newItems)
+      {
+        Assertions.assertEquals(loadedItems.get(0).getKnotCoordinates().getColor(), newItem.getKnotCoordinates().getColor());
+        Assertions.assertEquals(loadedItems.get(0).getKnotCoordinates().getXCoordinate(), newItem.getKnotCoordinates().getXCoordinate());
+      }
+    }
+  }
+
+  /**
+   * Tests that no entries are returned if a new commit has a line that passes by the first item, since the lines of the existing items would change
+   */
+  @Test
+  void testReadEntriesUntilFirstItemWithPassingLine() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      _commit(repository);
+      RevCommit second = _commit(repository);
+      _commit(repository);
+      List<CommitHistoryTreeListItem> loadedItems = _createIterator(git).tryReadEntries(10);
+      git.checkout().setCreateBranch(true).setName("feature").setStartPoint(second).call();
+      _commit(repository);
+
+      Assertions.assertNull(_createIterator(git).tryReadEntriesUntil(loadedItems.get(0), 10));
+    }
+  }
+
+  /**
+   * Tests that no entries are returned if the commit of the first item is not within the maximum number of entries
+   */
+  @Test
+  void testReadEntriesUntilFirstItemNotFound() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      _commit(repository);
+      List<CommitHistoryTreeListItem> loadedItems = _createIterator(git).tryReadEntries(10);
+      for (int index = 0; index < 5; index++)
+      {
+        _commit(repository);
+      }
+
+      Assertions.assertNull(_createIterator(git).tryReadEntriesUntil(loadedItems.get(0), 3));
+      Assertions.assertNotNull(_createIterator(git).tryReadEntriesUntil(loadedItems.get(0), 5));
+    }
+  }
+
+  private CommitHistoryItemsIteratorImpl _createIterator(Git pGit) throws Exception
+  {
+    Iterator<ICommit> commits = Iterators.transform(pGit.log().all().call().iterator(), CommitImpl::new);
+    ICommit head = new CommitImpl(pGit.log().call().iterator().next());
+    return new CommitHistoryItemsIteratorImpl(new DAGFilterIterator<>(commits, pCommit -> true), new CommitRefsLookup(List.of(), List.of(), head));
+  }
+
+  /**
+   * commits a change to a file, each commit is one second after the commit before so the order of the commits in the log is defined
+   */
+  private RevCommit _commit(TestRepository pRepository) throws Exception
+  {
+    commitCount++;
+    pRepository.write("file.txt", "content " + commitCount);
+    return pRepository.commit("commit " + commitCount, TestRepository.createIdent("test", START_TIME + commitCount * 1000L));
+  }
+}
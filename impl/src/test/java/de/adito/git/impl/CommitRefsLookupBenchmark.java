@@ -0,0 +1,80 @@
+package de.adito.git.impl;
+
+import de.adito.git.api.data.ICommit;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+/**
+ * Measures the CommitRefsLookup against going through all branches and tags for each commit, the way the CommitHistoryTreeListItem used to determine its
+ * branches and tags. Not part of the unit tests, since the durations depend on the machine. Run the main method with the test classpath, the optional
+ * arguments are the number of refs and the number of commits
+ *
+ * @author agent, 18.10.2026
+ */
+class CommitRefsLookupBenchmark
+{
+
+  private static final int NUM_WARMUP_RUNS = 3;
+  private static final int NUM_MEASURED_RUNS = 5;
+
+  public static void main(String[] pArgs)
+  {
+    int numRefs = pArgs.length > 0 ? Integer.parseInt(pArgs[0]) : 10000;
+    int numCommits = pArgs.length > 1 ? Integer.parseInt(pArgs[1]) : 2000;
+    try (RevWalk revWalk = new RevWalk((ObjectReader) null))
+    {
+      CommitRefsLookupTest.RandomRefs refs = new CommitRefsLookupTest.RandomRefs(revWalk, new Random(42), numRefs, numCommits);
+      long linearTime = _measure(refs, CommitRefsLookupBenchmark::_scanLinear);
+      long lookupTime = _measure(refs, CommitRefsLookupBenchmark::_lookup);
+      System.out.printf("%d commits, %d refs: linear scan %d ms, lookup %d ms including building the lookup (median of %d runs)%n", numCommits, numRefs,
+                        linearTime / 1_000_000, lookupTime / 1_000_000, NUM_MEASURED_RUNS);
+    }
+  }
+
+  /**
+   * @param pRefs          commits and refs
+   * @param pDetermineRefs determines the branches and tags of all commits and returns the number of found refs
+   * @return median duration in nanoseconds
+   */
+  private static long _measure(CommitRefsLookupTest.RandomRefs pRefs, ToIntFunction<CommitRefsLookupTest.RandomRefs> pDetermineRefs)
+  {
+    long[] durations = new long[NUM_MEASURED_RUNS];
+    for (int run = 0; run < NUM_WARMUP_RUNS + NUM_MEASURED_RUNS; run++)
+    {
+      long start = System.nanoTime();
+      if (pDetermineRefs.applyAsInt(pRefs) < 0)
+        throw new IllegalStateException();
+      if (run >= NUM_WARMUP_RUNS)
+        durations[run - NUM_WARMUP_RUNS] = System.nanoTime() - start;
+    }
+    Arrays.sort(durations);
+    return durations[NUM_MEASURED_RUNS / 2];
+  }
+
+  private static int _scanLinear(CommitRefsLookupTest.RandomRefs pRefs)
+  {
+    int numRefs = 0;
+    for (ICommit commit : pRefs.commits)
+    {
+      numRefs += CommitRefsLookupTest.getBelongingBranches(commit, pRefs.branches, pRefs.head).size();
+      numRefs += CommitRefsLookupTest.getBelongingTags(commit, pRefs.tags).size();
+    }
+    return numRefs;
+  }
+
+  private static int _lookup(CommitRefsLookupTest.RandomRefs pRefs)
+  {
+    CommitRefsLookup refsLookup = new CommitRefsLookup(pRefs.branches, pRefs.tags, pRefs.head);
+    int numRefs = 0;
+    for (ICommit commit : pRefs.commits)
+    {
+      numRefs += refsLookup.getBranches(commit).size();
+      numRefs += refsLookup.getTags(commit).size();
+    }
+    return numRefs;
+  }
+}
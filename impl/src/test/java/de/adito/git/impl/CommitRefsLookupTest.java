@@ -0,0 +1,139 @@
+package de.adito.git.impl;
+
+import de.adito.git.api.TrackedBranchStatusCache;
+import de.adito.git.api.data.IBranch;
+import de.adito.git.api.data.ICommit;
+import de.adito.git.api.data.ITag;
+import de.adito.git.api.data.TrackedBranchStatus;
+import de.adito.git.impl.data.BranchImpl;
+import de.adito.git.impl.data.CommitImpl;
+import de.adito.git.impl.data.TagImpl;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectIdRef;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class CommitRefsLookupTest
+{
+
+  private static final int NUM_REFS = 1000;
+  private static final int NUM_COMMITS = 500;
+  private static final TrackedBranchStatusCache TRACKED_BRANCH_STATUS_CACHE = new TrackedBranchStatusCache()
+  {
+    @NotNull
+    @Override
+    protected TrackedBranchStatus getTrackedBranchStatus(@NotNull IBranch pBranch)
+    {
+      return TrackedBranchStatus.NONE;
+    }
+  };
+
+  /**
+   * Compares the lookup with going through all branches and tags for each commit (the way the CommitHistoryTreeListItem used to determine its branches and
+   * tags). Makes sure both yield the same results
+   */
+  @Test
+  void testLookupAgainstLinearScan()
+  {
+    try (RevWalk revWalk = new RevWalk((ObjectReader) null))
+    {
+      RandomRefs refs = new RandomRefs(revWalk, new Random(42), NUM_REFS, NUM_COMMITS);
+
+      List<List<IBranch>> linearBranches = new ArrayList<>();
+      List<List<ITag>> linearTags = new ArrayList<>();
+      for (ICommit commit : refs.commits)
+      {
+        linearBranches.add(getBelongingBranches(commit, refs.branches, refs.head));
+        linearTags.add(getBelongingTags(commit, refs.tags));
+      }
+
+      CommitRefsLookup refsLookup = new CommitRefsLookup(refs.branches, refs.tags, refs.head);
+      List<List<IBranch>> lookupBranches = new ArrayList<>();
+      List<List<ITag>> lookupTags = new ArrayList<>();
+      for (ICommit commit : refs.commits)
+      {
+        lookupBranches.add(refsLookup.getBranches(commit));
+        lookupTags.add(refsLookup.getTags(commit));
+      }
+
+      Assertions.assertEquals(linearBranches, lookupBranches);
+      Assertions.assertEquals(linearTags, lookupTags);
+      Assertions.assertEquals(IBranch.HEAD, lookupBranches.get(0).get(0));
+    }
+  }
+
+  private static ObjectId _randomId(Random pRandom)
+  {
+    byte[] bytes = new byte[20];
+    pRandom.nextBytes(bytes);
+    return ObjectId.fromRaw(bytes);
+  }
+
+  /**
+   * Determines the branches of the commit by going through all branches, the way the CommitHistoryTreeListItem used to do it
+   */
+  static List<IBranch> getBelongingBranches(ICommit pCommit, List<IBranch> pAllBranches, ICommit pHead)
+  {
+    List<IBranch> belongingBranches = new ArrayList<>();
+    if (pHead.getId().equals(pCommit.getId()))
+      belongingBranches.add(IBranch.HEAD);
+    for (IBranch branch : pAllBranches)
+    {
+      if (branch.getId().equals(pCommit.getId()))
+        belongingBranches.add(branch);
+    }
+    return belongingBranches;
+  }
+
+  /**
+   * Determines the tags of the commit by going through all tags, the way the CommitHistoryTreeListItem used to do it
+   */
+  static List<ITag> getBelongingTags(ICommit pCommit, List<ITag> pAllTags)
+  {
+    List<ITag> belongingTags = new ArrayList<>();
+    for (ITag tag : pAllTags)
+    {
+      if (tag.getId().equals(pCommit.getId()))
+        belongingTags.add(tag);
+    }
+    return belongingTags;
+  }
+
+  /**
+   * Random commits with random branches and tags, about half of the refs point to one of the commits
+   */
+  static class RandomRefs
+  {
+    final List<ICommit> commits = new ArrayList<>();
+    final List<IBranch> branches = new ArrayList<>();
+    final List<ITag> tags = new ArrayList<>();
+    final ICommit head;
+
+    RandomRefs(RevWalk pRevWalk, Random pRandom, int pNumRefs, int pNumCommits)
+    {
+      for (int index = 0; index < pNumCommits; index++)
+      {
+        commits.add(new CommitImpl(pRevWalk.lookupCommit(_randomId(pRandom))));
+      }
+      for (int index = 0; index < pNumRefs / 2; index++)
+      {
+        ObjectId branchTarget = pRandom.nextBoolean() ? ObjectId.fromString(commits.get(pRandom.nextInt(pNumCommits)).getId()) : _randomId(pRandom);
+        branches.add(new BranchImpl(new ObjectIdRef.PeeledNonTag(Ref.Storage.LOOSE, "refs/heads/branch" + index, branchTarget), TRACKED_BRANCH_STATUS_CACHE));
+        ObjectId tagTarget = pRandom.nextBoolean() ? ObjectId.fromString(commits.get(pRandom.nextInt(pNumCommits)).getId()) : _randomId(pRandom);
+        tags.add(new TagImpl(new ObjectIdRef.PeeledNonTag(Ref.Storage.LOOSE, "refs/tags/tag" + index, tagTarget)));
+      }
+      head = commits.get(0);
+    }
+  }
+}
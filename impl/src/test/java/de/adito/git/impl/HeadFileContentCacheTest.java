@@ -0,0 +1,47 @@
+package de.adito.git.impl;
+
+import de.adito.git.impl.data.diff.FileContentInfoImpl;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class HeadFileContentCacheTest
+{
+
+  private static final ObjectId FIRST_HEAD = ObjectId.fromString("1111111111111111111111111111111111111111");
+  private static final ObjectId SECOND_HEAD = ObjectId.fromString("2222222222222222222222222222222222222222");
+
+  /**
+   * Tests that the content of a file is only loaded once per HEAD, and loaded again once HEAD moves
+   */
+  @Test
+  void testLoadOncePerHead() throws Exception
+  {
+    HeadFileContentCache cache = new HeadFileContentCache();
+    AtomicInteger numLoads = new AtomicInteger();
+    HeadFileContentCache.ContentLoader loader = () -> {
+      numLoads.incrementAndGet();
+      return new FileContentInfoImpl(() -> "first line\r\nsecond line\r\n", () -> StandardCharsets.UTF_8);
+    };
+
+    HeadFileContentCache.HeadFileContent content = cache.get(FIRST_HEAD, "src/a.txt", loader);
+    Assertions.assertEquals("first line\nsecond line\n", content.getContentInfo().getFileContent().get());
+    Assertions.assertEquals(2, content.getHashedText(RawTextComparator.DEFAULT).size());
+    Assertions.assertSame(content.getHashedText(RawTextComparator.DEFAULT), content.getHashedText(RawTextComparator.DEFAULT));
+    Assertions.assertSame(content, cache.get(FIRST_HEAD, "src/a.txt", loader));
+    Assertions.assertEquals(1, numLoads.get());
+
+    cache.get(FIRST_HEAD, "src/b.txt", loader);
+    Assertions.assertEquals(2, numLoads.get());
+
+    Assertions.assertNotSame(content, cache.get(SECOND_HEAD, "src/a.txt", loader));
+    Assertions.assertEquals(3, numLoads.get());
+  }
+}
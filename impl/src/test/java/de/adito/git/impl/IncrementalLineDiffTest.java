@@ -0,0 +1,138 @@
+package de.adito.git.impl;
+
+import org.eclipse.jgit.diff.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class IncrementalLineDiffTest
+{
+
+  private static final RawTextComparator COMPARATOR = RawTextComparator.DEFAULT;
+
+  /**
+   * Tests that random edits of the text, each diffed only in the changed window, always result in edits that transform the HEAD version into the
+   * current version
+   */
+  @Test
+  void testRandomEdits()
+  {
+    Random random = new Random(18102026);
+    List<String> headLines = _createLines(2000);
+    HashedSequencePair<RawText> headPair = _hash(headLines);
+    HashedSequence<RawText> headText = headPair.getA();
+    IncrementalLineDiff lineDiff = new IncrementalLineDiff();
+    List<String> currentLines = new ArrayList<>(headLines);
+    for (int iteration = 0; iteration < 500; iteration++)
+    {
+      int lineIndex = random.nextInt(currentLines.size());
+      switch (random.nextInt(3))
+      {
+        case 0:
+          currentLines.add(lineIndex, "inserted line " + iteration);
+          break;
+        case 1:
+          if (currentLines.size() > 1)
+            currentLines.remove(lineIndex);
+          break;
+        default:
+          currentLines.set(lineIndex, "changed line " + iteration);
+      }
+      HashedSequence<RawText> currentText = _hash(currentLines).getB();
+      EditList edits = lineDiff.diff(headPair.getComparator(), headText, currentText);
+      Assertions.assertEquals(currentLines, _apply(headLines, currentLines, edits), "iteration " + iteration);
+    }
+  }
+
+  /**
+   * Tests that a change far away from other changes results in the same edits as a diff of the whole text
+   */
+  @Test
+  void testSingleChangeSameAsFullDiff()
+  {
+    List<String> headLines = _createLines(1000);
+    HashedSequencePair<RawText> headPair = _hash(headLines);
+    IncrementalLineDiff lineDiff = new IncrementalLineDiff();
+    List<String> currentLines = new ArrayList<>(headLines);
+    currentLines.set(100, "changed line");
+    lineDiff.diff(headPair.getComparator(), headPair.getA(), _hash(currentLines).getB());
+    currentLines.add(700, "inserted line");
+    currentLines.remove(400);
+    HashedSequencePair<RawText> currentPair = _hash(currentLines);
+    EditList edits = lineDiff.diff(headPair.getComparator(), headPair.getA(), currentPair.getB());
+
+    HashedSequencePair<RawText> fullPair = new HashedSequencePair<>(COMPARATOR, _raw(headLines), _raw(currentLines));
+    Assertions.assertEquals(new HistogramDiff().diff(fullPair.getComparator(), fullPair.getA(), fullPair.getB()), edits);
+    Assertions.assertEquals(3, edits.size());
+  }
+
+  /**
+   * Tests that a second change far away from the first change in a big file results in the same edits as a diff of the whole file
+   */
+  @Test
+  void testBigFile()
+  {
+    List<String> headLines = _createLines(50000);
+    HashedSequencePair<RawText> headPair = _hash(headLines);
+    IncrementalLineDiff lineDiff = new IncrementalLineDiff();
+    List<String> currentLines = new ArrayList<>(headLines);
+    currentLines.set(10000, "changed line");
+    lineDiff.diff(headPair.getComparator(), headPair.getA(), _hash(currentLines).getB());
+    currentLines.set(30000, "another changed line");
+    HashedSequence<RawText> currentText = _hash(currentLines).getB();
+
+    EditList edits = lineDiff.diff(headPair.getComparator(), headPair.getA(), currentText);
+    Assertions.assertEquals(new HistogramDiff().diff(headPair.getComparator(), headPair.getA(), currentText), edits);
+    Assertions.assertEquals(2, edits.size());
+  }
+
+  /**
+   * applies the edits to the lines of the HEAD version, taking the inserted lines from the current version
+   */
+  private static List<String> _apply(List<String> pHeadLines, List<String> pCurrentLines, EditList pEdits)
+  {
+    List<String> result = new ArrayList<>();
+    int headIndex = 0;
+    int lastEndB = 0;
+    for (Edit edit : pEdits)
+    {
+      Assertions.assertTrue(edit.getBeginA() >= headIndex && edit.getBeginB() >= lastEndB, "edits have to be sorted");
+      Assertions.assertEquals(edit.getBeginA() - headIndex, edit.getBeginB() - lastEndB, "unchanged lines have to be on both sides");
+      result.addAll(pHeadLines.subList(headIndex, edit.getBeginA()));
+      result.addAll(pCurrentLines.subList(edit.getBeginB(), edit.getEndB()));
+      headIndex = edit.getEndA();
+      lastEndB = edit.getEndB();
+    }
+    result.addAll(pHeadLines.subList(headIndex, pHeadLines.size()));
+    return result;
+  }
+
+  private static List<String> _createLines(int pNumLines)
+  {
+    List<String> lines = new ArrayList<>();
+    for (int index = 0; index < pNumLines; index++)
+    {
+      lines.add("line " + index + (index % 7 == 0 ? " {" : ""));
+    }
+    return lines;
+  }
+
+  /**
+   * @return pair with the given lines on both sides
+   */
+  private static HashedSequencePair<RawText> _hash(List<String> pLines)
+  {
+    RawText rawText = _raw(pLines);
+    return new HashedSequencePair<>(COMPARATOR, rawText, rawText);
+  }
+
+  private static RawText _raw(List<String> pLines)
+  {
+    return new RawText((String.join("\n", pLines) + "\n").getBytes(StandardCharsets.UTF_8));
+  }
+}
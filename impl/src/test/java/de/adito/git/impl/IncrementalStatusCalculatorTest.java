@@ -0,0 +1,109 @@
+package de.adito.git.impl;
+
+import de.adito.git.api.data.IFileStatus;
+import de.adito.git.impl.dag.CommitGraphCache;
+import de.adito.git.impl.dag.CommitSearchIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class IncrementalStatusCalculatorTest
+{
+
+  @TempDir
+  File repoDir;
+
+  /**
+   * Tests that changes of the reported files are picked up, and that the status of files that were not reported is taken from the last status
+   */
+  @Test
+  void testIncrementalStatus() throws Exception
+  {
+    try (TestRepository repository = _initRepo())
+    {
+      IncrementalStatusCalculator calculator = new IncrementalStatusCalculator(repository.getGit());
+      Assertions.assertTrue(calculator.calculateStatus().isClean());
+
+      File fileA = repository.write("a.txt", "changed");
+      File fileC = repository.write("folder/c.txt", "new");
+      calculator.addChangedFiles(List.of(fileA, fileC));
+      IFileStatus status = calculator.calculateStatus();
+      Assertions.assertEquals(Set.of("a.txt"), status.getModified());
+      Assertions.assertEquals(Set.of("folder/c.txt"), status.getUntracked());
+
+      // b.txt is changed but not reported, so the status should not contain it until a full status is calculated
+      repository.write("b.txt", "changed");
+      Assertions.assertTrue(Files.deleteIfExists(fileC.toPath()));
+      calculator.addChangedFiles(List.of(fileC));
+      status = calculator.calculateStatus();
+      Assertions.assertEquals(Set.of("a.txt"), status.getModified());
+      Assertions.assertTrue(status.getUntracked().isEmpty());
+
+      Assertions.assertTrue(calculator.requestReconciliation());
+      status = calculator.calculateStatus();
+      Assertions.assertEquals(Set.of("a.txt", "b.txt"), status.getModified());
+      Assertions.assertFalse(calculator.requestReconciliation());
+    }
+  }
+
+  /**
+   * Tests that unknown changes and changes to the index lead to a status of the whole working tree
+   */
+  @Test
+  void testFullStatusTriggers() throws Exception
+  {
+    try (TestRepository repository = _initRepo())
+    {
+      IncrementalStatusCalculator calculator = new IncrementalStatusCalculator(repository.getGit());
+      Assertions.assertTrue(calculator.calculateStatus().isClean());
+
+      repository.write("a.txt", "changed");
+      calculator.addChangedFiles(null);
+      Assertions.assertEquals(Set.of("a.txt"), calculator.calculateStatus().getModified());
+
+      repository.getGit().add().addFilepattern("a.txt").call();
+      repository.write("b.txt", "changed");
+      calculator.addChangedFiles(List.of(new File(repoDir, ".git/index")));
+      IFileStatus status = calculator.calculateStatus();
+      Assertions.assertEquals(Set.of("a.txt"), status.getChanged());
+      Assertions.assertEquals(Set.of("b.txt"), status.getModified());
+    }
+  }
+
+  /**
+   * Tests that the files written by the commit graph cache and the commit search index do not lead to a status of the whole working tree
+   */
+  @Test
+  void testCacheFilesAreNoFullStatusTrigger() throws Exception
+  {
+    try (TestRepository repository = _initRepo())
+    {
+      IncrementalStatusCalculator calculator = new IncrementalStatusCalculator(repository.getGit());
+      Assertions.assertTrue(calculator.calculateStatus().isClean());
+
+      // b.txt is changed but not reported, so only a full status contains it
+      repository.write("b.txt", "changed");
+      File indexFolder = new File(repository.getGit().getRepository().getDirectory(), CommitSearchIndex.FOLDER_NAME);
+      calculator.addChangedFiles(List.of(new File(indexFolder, "commits"), new File(indexFolder, "commits.tmp"), indexFolder,
+                                         new File(repository.getGit().getRepository().getDirectory(), CommitGraphCache.FILE_NAME)));
+      Assertions.assertTrue(calculator.calculateStatus().isClean());
+    }
+  }
+
+  private TestRepository _initRepo() throws Exception
+  {
+    TestRepository repository = new TestRepository(repoDir);
+    repository.write("a.txt", "a");
+    repository.write("b.txt", "b");
+    repository.commit("initial commit");
+    return repository;
+  }
+}
@@ -0,0 +1,98 @@
+package de.adito.git.impl;
+
+import de.adito.git.api.data.diff.IFileContentInfo;
+import de.adito.git.api.data.diff.IFileDiff;
+import de.adito.git.impl.data.diff.FileContentInfoImpl;
+import de.adito.git.impl.data.diff.FileDiffHeaderImpl;
+import de.adito.git.impl.data.diff.FileDiffImpl;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class ParallelDiffCalculatorTest
+{
+
+  private static final int NUM_FILES = 300;
+
+  @TempDir
+  File repoDir;
+
+  /**
+   * Tests that the diffs calculated in parallel are in the order of the DiffEntries and have the same changed lines as the diffs calculated by a single
+   * DiffFormatter
+   */
+  @Test
+  void testParallelDiffsEqualSequentialDiffs() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      for (int fileIndex = 0; fileIndex < NUM_FILES; fileIndex++)
+      {
+        _writeFile(repository, fileIndex, false);
+      }
+      RevCommit first = repository.commit("first");
+      for (int fileIndex = 0; fileIndex < NUM_FILES; fileIndex += 3)
+      {
+        _writeFile(repository, fileIndex, true);
+      }
+      repository.write("added.txt", "added");
+      RevCommit second = repository.commit("second");
+
+      List<DiffEntry> diffEntries;
+      List<String> sequentialEditLists = new ArrayList<>();
+      try (DiffFormatter formatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
+           ObjectReader reader = git.getRepository().newObjectReader())
+      {
+        formatter.setRepository(git.getRepository());
+        CanonicalTreeParser oldTree = new CanonicalTreeParser();
+        oldTree.reset(reader, first.getTree());
+        CanonicalTreeParser newTree = new CanonicalTreeParser();
+        newTree.reset(reader, second.getTree());
+        diffEntries = formatter.scan(oldTree, newTree);
+        for (DiffEntry diffEntry : diffEntries)
+        {
+          sequentialEditLists.add(formatter.toFileHeader(diffEntry).getHunks().get(0).toEditList().toString());
+        }
+      }
+      Assertions.assertEquals(NUM_FILES / 3 + 1, diffEntries.size());
+
+      IFileContentInfo emptyContent = new FileContentInfoImpl(() -> "", () -> StandardCharsets.UTF_8);
+      // fixed parallelism, so the entries are split into chunks even if the machine running the test has a single core
+      List<IFileDiff> fileDiffs = ParallelDiffCalculator.calculateDiffs(git.getRepository(), RawTextComparator.DEFAULT, diffEntries, (pDiffEntry, pEditList)
+          -> new FileDiffImpl(new FileDiffHeaderImpl(pDiffEntry, repoDir), pEditList, emptyContent, emptyContent), 4);
+      Assertions.assertEquals(diffEntries.size(), fileDiffs.size());
+      for (int index = 0; index < diffEntries.size(); index++)
+      {
+        Assertions.assertEquals(diffEntries.get(index).getNewPath(), fileDiffs.get(index).getFileHeader().getFilePath());
+        Assertions.assertEquals(sequentialEditLists.get(index), ((FileDiffImpl) fileDiffs.get(index)).getEditList().toString());
+      }
+    }
+  }
+
+  private static void _writeFile(TestRepository pRepository, int pFileIndex, boolean pChanged) throws Exception
+  {
+    StringBuilder content = new StringBuilder();
+    for (int line = 0; line < 50; line++)
+    {
+      content.append(pChanged && line == pFileIndex % 50 ? "changed line" : "line " + line).append('\n');
+    }
+    pRepository.write("file" + pFileIndex + ".txt", content.toString());
+  }
+}
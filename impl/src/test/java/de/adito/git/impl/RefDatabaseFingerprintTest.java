@@ -0,0 +1,49 @@
+package de.adito.git.impl;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class RefDatabaseFingerprintTest
+{
+
+  @TempDir
+  File repoDir;
+
+  /**
+   * Tests that changes in the working tree do not change the fingerprint, while new branches, tags and checkouts do
+   */
+  @Test
+  void testFingerprintChanges() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      File gitDir = git.getRepository().getDirectory();
+      repository.write("a.txt", "a");
+      repository.commit("initial commit");
+      RefDatabaseFingerprint initial = RefDatabaseFingerprint.calculate(gitDir);
+
+      repository.write("a.txt", "changed");
+      git.add().addFilepattern(".").call();
+      Assertions.assertEquals(initial, RefDatabaseFingerprint.calculate(gitDir));
+
+      git.branchCreate().setName("feature").call();
+      RefDatabaseFingerprint withBranch = RefDatabaseFingerprint.calculate(gitDir);
+      Assertions.assertFalse(initial.isSameRefs(withBranch));
+
+      git.tag().setName("v1").call();
+      RefDatabaseFingerprint withTag = RefDatabaseFingerprint.calculate(gitDir);
+      Assertions.assertFalse(withBranch.isSameRefs(withTag));
+
+      git.checkout().setName("feature").call();
+      Assertions.assertFalse(withTag.isSameRefs(RefDatabaseFingerprint.calculate(gitDir)));
+    }
+  }
+}
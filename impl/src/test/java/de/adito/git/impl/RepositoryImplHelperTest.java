@@ -0,0 +1,81 @@
+package de.adito.git.impl;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class RepositoryImplHelperTest
+{
+
+  @TempDir
+  File repoDir;
+
+  /**
+   * Tests that the versions of several files are found with a single call, and that missing or deleted files and directories are left out
+   */
+  @Test
+  void testGetFileVersions() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      repository.write("a.txt", "a");
+      repository.write("folder/b.txt", "b");
+      repository.write("folder/sub/c.txt", "c");
+      RevCommit first = repository.commit("first");
+      git.rm().addFilepattern("a.txt").call();
+      RevCommit second = repository.commit("second");
+
+      List<String> paths = List.of("a.txt", "folder/b.txt", "folder/sub/c.txt", "missing.txt", "folder");
+      Map<String, String> firstVersions = RepositoryImplHelper.getFileVersions(git.getRepository(), first.getName(), paths);
+      Assertions.assertEquals(Map.of("a.txt", _getBlobId(git, first, "a.txt"),
+                                     "folder/b.txt", _getBlobId(git, first, "folder/b.txt"),
+                                     "folder/sub/c.txt", _getBlobId(git, first, "folder/sub/c.txt")), firstVersions);
+
+      // the deleted file is no longer part of the second commit
+      Map<String, String> secondVersions = RepositoryImplHelper.getFileVersions(git.getRepository(), second.getName(), paths);
+      Assertions.assertEquals(Map.of("folder/b.txt", firstVersions.get("folder/b.txt"),
+                                     "folder/sub/c.txt", firstVersions.get("folder/sub/c.txt")), secondVersions);
+      Assertions.assertTrue(RepositoryImplHelper.getFileVersions(git.getRepository(), second.getName(), List.of()).isEmpty());
+    }
+  }
+
+  /**
+   * Tests that the ref ids contain HEAD, the branches and the tags, and that HEAD is left out as long as there is no commit
+   */
+  @Test
+  void testRefIds() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      Assertions.assertTrue(RepositoryImplHelper.refIds(git).isEmpty());
+      repository.write("a.txt", "a");
+      RevCommit first = repository.commit("first");
+      git.branchCreate().setName("feature").call();
+      git.tag().setName("v1").setAnnotated(false).call();
+
+      String branch = git.getRepository().getFullBranch();
+      Assertions.assertEquals(Map.of("HEAD", first.getName(), branch, first.getName(), "refs/heads/feature", first.getName(), "refs/tags/v1", first.getName()),
+                              RepositoryImplHelper.refIds(git));
+    }
+  }
+
+  private static String _getBlobId(Git pGit, RevCommit pCommit, String pPath) throws Exception
+  {
+    try (TreeWalk treeWalk = TreeWalk.forPath(pGit.getRepository(), pPath, pCommit.getTree()))
+    {
+      return treeWalk.getObjectId(0).getName();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package de.adito.git.impl;
+
+import de.adito.git.api.data.StatusDelta;
+import de.adito.git.api.data.diff.EChangeType;
+import de.adito.git.api.data.diff.IFileChangeType;
+import de.adito.git.impl.data.FileChangeTypeImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class StatusSnapshotTest
+{
+
+  private static final File FILE_A = new File("a.txt");
+  private static final File FILE_B = new File("b.txt");
+  private static final File FILE_C = new File("c.txt");
+
+  /**
+   * Tests that the deltas between consecutive snapshots only contain the files whose status changed
+   */
+  @Test
+  void testDeltas()
+  {
+    StatusSnapshot first = StatusSnapshot.EMPTY.next(List.of(_changeType(FILE_A, EChangeType.MODIFY), _changeType(FILE_B, EChangeType.NEW)));
+    Assertions.assertEquals(List.of(FILE_A, FILE_B), _files(first.getDelta().getAdded()));
+    Assertions.assertTrue(first.getDelta().getChanged().isEmpty());
+    Assertions.assertTrue(first.getDelta().getRemoved().isEmpty());
+
+    StatusSnapshot second = first.next(List.of(_changeType(FILE_A, EChangeType.CHANGED), _changeType(FILE_C, EChangeType.NEW)));
+    StatusDelta delta = second.getDelta();
+    Assertions.assertEquals(List.of(FILE_C), _files(delta.getAdded()));
+    Assertions.assertEquals(List.of(FILE_A), _files(delta.getChanged()));
+    Assertions.assertEquals(EChangeType.CHANGED, delta.getChanged().get(0).getChangeType());
+    Assertions.assertEquals(List.of(FILE_B), delta.getRemoved());
+
+    // same status again, nothing changed
+    StatusSnapshot third = second.next(List.of(_changeType(FILE_C, EChangeType.NEW), _changeType(FILE_A, EChangeType.CHANGED)));
+    Assertions.assertTrue(third.getDelta().isEmpty());
+    Assertions.assertEquals(2, third.getDeltaFromEmpty().getAdded().size());
+
+    List<File> removed = new ArrayList<>(third.next(List.of()).getDelta().getRemoved());
+    Collections.sort(removed);
+    Assertions.assertEquals(List.of(FILE_A, FILE_C), removed);
+  }
+
+  private static IFileChangeType _changeType(File pFile, EChangeType pChangeType)
+  {
+    return new FileChangeTypeImpl(pFile, pFile, pChangeType);
+  }
+
+  private static List<File> _files(List<IFileChangeType> pChangeTypes)
+  {
+    return pChangeTypes.stream().map(IFileChangeType::getFile).sorted().collect(Collectors.toList());
+  }
+}
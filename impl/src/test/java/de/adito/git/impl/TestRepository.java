@@ -0,0 +1,104 @@
+package de.adito.git.impl;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Git repository in a temporary folder of a test, with methods to write files and commit them
+ *
+ * @author agent, 18.10.2026
+ */
+public class TestRepository implements AutoCloseable
+{
+
+  private final File directory;
+  private final Git git;
+
+  /**
+   * @param pDirectory empty folder in which the repository is created, usually the TempDir of the test
+   * @throws GitAPIException if the repository cannot be initialized
+   */
+  public TestRepository(@NotNull File pDirectory) throws GitAPIException
+  {
+    directory = pDirectory;
+    git = Git.init().setDirectory(pDirectory).call();
+  }
+
+  @NotNull
+  public Git getGit()
+  {
+    return git;
+  }
+
+  /**
+   * writes the content to the file, the folders of the file are created if necessary
+   *
+   * @param pPath    path of the file, relative to the root of the repository
+   * @param pContent content of the file, written in UTF-8
+   * @return the written file
+   * @throws IOException if the file cannot be written
+   */
+  @NotNull
+  public File write(@NotNull String pPath, @NotNull String pContent) throws IOException
+  {
+    File file = new File(directory, pPath);
+    Files.createDirectories(file.getParentFile().toPath());
+    Files.write(file.toPath(), pContent.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  /**
+   * adds all files of the working tree and commits them as the default test user
+   *
+   * @param pMessage message of the commit
+   * @return the created commit
+   * @throws GitAPIException if the files cannot be added or committed
+   */
+  @NotNull
+  public RevCommit commit(@NotNull String pMessage) throws GitAPIException
+  {
+    return commit(pMessage, new PersonIdent("test", "test@test.de"));
+  }
+
+  /**
+   * adds all files of the working tree and commits them
+   *
+   * @param pMessage message of the commit
+   * @param pIdent   author and committer of the commit
+   * @return the created commit
+   * @throws GitAPIException if the files cannot be added or committed
+   */
+  @NotNull
+  public RevCommit commit(@NotNull String pMessage, @NotNull PersonIdent pIdent) throws GitAPIException
+  {
+    git.add().addFilepattern(".").call();
+    return git.commit().setMessage(pMessage).setAuthor(pIdent).setCommitter(pIdent).call();
+  }
+
+  /**
+   * @param pName       name of the person, the mail address is derived from the name
+   * @param pTimeMillis time of the commit in milliseconds since the epoch, in UTC
+   * @return ident to use as author and committer of a commit, so the order of the commits in the log is defined
+   */
+  @NotNull
+  public static PersonIdent createIdent(@NotNull String pName, long pTimeMillis)
+  {
+    return new PersonIdent(pName, pName + "@test.de", new Date(pTimeMillis), TimeZone.getTimeZone("UTC"));
+  }
+
+  @Override
+  public void close()
+  {
+    git.close();
+  }
+}
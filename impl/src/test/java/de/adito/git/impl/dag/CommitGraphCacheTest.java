@@ -0,0 +1,217 @@
+package de.adito.git.impl.dag;
+
+import de.adito.git.api.data.ICommit;
+import de.adito.git.impl.TestRepository;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeResult;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class CommitGraphCacheTest
+{
+
+  @TempDir
+  File repoDir;
+
+  /**
+   * Tests that the walk over the cache returns the same commits as the log, and that new commits are added to the cache incrementally
+   */
+  @Test
+  void testWalkAndIncrementalUpdate() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      _commit(repository, "a.txt", 1000);
+      _commit(repository, "b.txt", 2000);
+      git.branchCreate().setName("feature").call();
+      _commit(repository, "c.txt", 3000);
+      git.checkout().setName("feature").call();
+      _commit(repository, "d.txt", 4000);
+      git.checkout().setName("master").call();
+      MergeResult mergeResult = git.merge().include(git.getRepository().resolve("feature")).setMessage("merge").call();
+      Assertions.assertTrue(mergeResult.getMergeStatus().isSuccessful());
+
+      File gitDir = git.getRepository().getDirectory();
+      CommitGraphCache cache = new CommitGraphCache(gitDir);
+      cache.update(git.getRepository());
+      Assertions.assertTrue(new File(gitDir, CommitGraphCache.FILE_NAME).exists());
+      Assertions.assertEquals(_log(git), _walk(cache, git));
+
+      // new commit is not part of the cache until the cache is updated
+      _commit(repository, "e.txt", 5000);
+      Assertions.assertNull(cache.walk(git.getRepository(), CommitGraphCache.getRefTips(git.getRepository()), List.of()));
+      long fileLength = new File(gitDir, CommitGraphCache.FILE_NAME).length();
+      cache.update(git.getRepository());
+      List<ObjectId> expected = _log(git);
+      Assertions.assertEquals(6, expected.size());
+      Assertions.assertEquals(expected, _walk(cache, git));
+      // the new commit is appended to the file instead of writing the whole file again
+      Assertions.assertEquals(1, cache.getGraph().getAppendedSize());
+      Assertions.assertTrue(new File(gitDir, CommitGraphCache.FILE_NAME).length() > fileLength);
+      // a new cache reads the persisted graph, including the appended commit
+      Assertions.assertEquals(expected, _walk(new CommitGraphCache(gitDir), git));
+    }
+  }
+
+  /**
+   * Tests that the commits of the walk have the same messages and parents as the commits of the log, even though they are only read once they are accessed
+   */
+  @Test
+  void testLazyCommits() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      _commit(repository, "a.txt", 1000);
+      _commit(repository, "b.txt", 2000);
+      CommitGraphCache cache = new CommitGraphCache(git.getRepository().getDirectory());
+      cache.update(git.getRepository());
+      _commit(repository, "c.txt", 3000);
+      cache.update(git.getRepository());
+
+      Iterator<ICommit> commits = cache.walk(git.getRepository(), CommitGraphCache.getRefTips(git.getRepository()), List.of());
+      Assertions.assertNotNull(commits);
+      List<String> walked = new ArrayList<>();
+      commits.forEachRemaining(pCommit -> walked.add(pCommit.getMessage() + " " + pCommit.getParents().stream().map(ICommit::getId)
+          .collect(Collectors.toList())));
+      List<String> logged = new ArrayList<>();
+      git.log().all().call().forEach(pCommit -> logged.add(pCommit.getFullMessage() + " " + Arrays.stream(pCommit.getParents()).map(RevCommit::getName)
+          .collect(Collectors.toList())));
+      Assertions.assertEquals(logged, walked);
+    }
+  }
+
+  /**
+   * Tests that an appended commit whose record was only written partly is ignored when reading the file, and that the next update writes it again
+   */
+  @Test
+  void testPartlyWrittenAppendedCommit() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      _commit(repository, "a.txt", 1000);
+      File gitDir = git.getRepository().getDirectory();
+      new CommitGraphCache(gitDir).update(git.getRepository());
+      File file = new File(gitDir, CommitGraphCache.FILE_NAME);
+      long baseLength = file.length();
+      _commit(repository, "b.txt", 2000);
+      new CommitGraphCache(gitDir).update(git.getRepository());
+      try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw"))
+      {
+        randomAccessFile.setLength(file.length() - 2);
+      }
+
+      CommitGraphCache cache = new CommitGraphCache(gitDir);
+      Assertions.assertEquals(0, cache.getGraph().getAppendedSize());
+      Assertions.assertNull(cache.walk(git.getRepository(), CommitGraphCache.getRefTips(git.getRepository()), List.of()));
+      cache.update(git.getRepository());
+      Assertions.assertEquals(_log(git), _walk(new CommitGraphCache(gitDir), git));
+      Assertions.assertTrue(file.length() > baseLength);
+    }
+  }
+
+  /**
+   * Tests that shallow clones are not cached, since the parents of their oldest commits are missing
+   */
+  @Test
+  void testShallowClone() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      RevCommit commit = repository.commit("a.txt");
+      File gitDir = git.getRepository().getDirectory();
+      Files.write(new File(gitDir, Constants.SHALLOW).toPath(), (commit.getName() + "\n").getBytes(StandardCharsets.UTF_8));
+      CommitGraphCache cache = new CommitGraphCache(gitDir);
+      cache.update(git.getRepository());
+      Assertions.assertFalse(new File(gitDir, CommitGraphCache.FILE_NAME).exists());
+      Assertions.assertNull(cache.walk(git.getRepository(), CommitGraphCache.getRefTips(git.getRepository()), List.of()));
+    }
+  }
+
+  /**
+   * Tests that a graph with octopus merges keeps the parents in order after being written and read again
+   */
+  @Test
+  void testWriteAndReadOctopus() throws Exception
+  {
+    ObjectId[] ids = new ObjectId[5];
+    for (int index = 0; index < ids.length; index++)
+    {
+      byte[] rawId = new byte[20];
+      Arrays.fill(rawId, (byte) ((index + 1) * 0x11));
+      ids[index] = ObjectId.fromRaw(rawId);
+    }
+    int[][] parents = {{}, {0}, {0}, {1}, {1, 3, 2}};
+    CommitGraphFile graph = CommitGraphFile.create(ids, parents, new int[]{1, 2, 3, 4, 5}, new int[]{1, 2, 2, 3, 4});
+    File file = new File(repoDir, CommitGraphCache.FILE_NAME);
+    graph.write(file);
+    CommitGraphFile readGraph = CommitGraphFile.read(file);
+    Assertions.assertEquals(5, readGraph.size());
+    for (int index = 0; index < ids.length; index++)
+    {
+      Assertions.assertEquals(index, readGraph.find(ids[index]));
+      Assertions.assertEquals(ids[index], readGraph.getId(index));
+      Assertions.assertArrayEquals(parents[index], readGraph.getParents(index));
+      Assertions.assertEquals(index + 1, readGraph.getCommitTime(index));
+    }
+    Assertions.assertEquals(-1, readGraph.find(ObjectId.zeroId()));
+
+    // octopus merge among the appended commits, with a parent in the base section and one among the appended commits
+    ObjectId[] appendedIds = {ObjectId.fromString("0123456789012345678901234567890123456789"),
+                              ObjectId.fromString("fedcba9876543210fedcba9876543210fedcba98")};
+    int[][] appendedParents = {{4, 6, 0}, {2}};
+    CommitGraphFile appendedGraph = readGraph.append(appendedIds, appendedParents, new int[]{7, 6}, new int[]{5, 3});
+    appendedGraph.writeAppended(file, readGraph);
+    CommitGraphFile readAppendedGraph = CommitGraphFile.read(file);
+    Assertions.assertEquals(2, readAppendedGraph.getAppendedSize());
+    for (int index = 0; index < appendedIds.length; index++)
+    {
+      Assertions.assertEquals(5 + index, readAppendedGraph.find(appendedIds[index]));
+      Assertions.assertArrayEquals(appendedParents[index], readAppendedGraph.getParents(5 + index));
+    }
+    CommitGraphFile compacted = readAppendedGraph.compact();
+    Assertions.assertEquals(0, compacted.getAppendedSize());
+    int octopus = compacted.find(appendedIds[0]);
+    Assertions.assertArrayEquals(new int[]{compacted.find(ids[4]), compacted.find(appendedIds[1]), compacted.find(ids[0])}, compacted.getParents(octopus));
+    Assertions.assertEquals(7, compacted.getCommitTime(octopus));
+  }
+
+  private static List<ObjectId> _walk(CommitGraphCache pCache, Git pGit) throws Exception
+  {
+    List<ObjectId> ids = new ArrayList<>();
+    Iterator<ICommit> iterator = pCache.walk(pGit.getRepository(), CommitGraphCache.getRefTips(pGit.getRepository()), List.of());
+    Assertions.assertNotNull(iterator);
+    iterator.forEachRemaining(pCommit -> ids.add(ObjectId.fromString(pCommit.getId())));
+    return ids;
+  }
+
+  private static List<ObjectId> _log(Git pGit) throws Exception
+  {
+    List<ObjectId> ids = new ArrayList<>();
+    pGit.log().all().call().forEach(pCommit -> ids.add(pCommit.toObjectId()));
+    return ids;
+  }
+
+  private static void _commit(TestRepository pRepository, String pFileName, long pTime) throws Exception
+  {
+    pRepository.write(pFileName, pFileName);
+    pRepository.commit(pFileName, TestRepository.createIdent("test", pTime * 1000));
+  }
+}
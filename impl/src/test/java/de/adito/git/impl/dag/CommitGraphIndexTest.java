@@ -0,0 +1,73 @@
+package de.adito.git.impl.dag;
+
+import de.adito.git.impl.data.CommitImpl;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class CommitGraphIndexTest
+{
+
+  private static final String SIDE_ID = "2222222222222222222222222222222222222222";
+  private static final String MAIN_ID = "3333333333333333333333333333333333333333";
+
+  /**
+   * Tests that commits and their parents get stable indices and that the parents are stored in order
+   */
+  @Test
+  void testIndexAndParents() throws Exception
+  {
+    try (RevWalk revWalk = new RevWalk((ObjectReader) null))
+    {
+      CommitGraphIndex graphIndex = new CommitGraphIndex();
+      RevCommit merge = _parse(revWalk, MAIN_ID, SIDE_ID);
+      RevCommit main = revWalk.lookupCommit(ObjectId.fromString(MAIN_ID));
+      RevCommit side = revWalk.lookupCommit(ObjectId.fromString(SIDE_ID));
+      RevCommit root = _parse(revWalk);
+
+      int mergeIndex = graphIndex.add(new CommitImpl(merge));
+      Assertions.assertEquals(0, mergeIndex);
+      // parents are registered when the merge commit is added
+      Assertions.assertArrayEquals(new int[]{1, 2}, graphIndex.getParents(mergeIndex));
+      Assertions.assertEquals(3, graphIndex.size());
+
+      // parents that were not added themselves yet do not have parents in the index
+      Assertions.assertEquals(0, graphIndex.getParents(1).length);
+      Assertions.assertEquals(1, graphIndex.add(new CommitImpl(main)));
+      Assertions.assertEquals(2, graphIndex.add(new CommitImpl(side)));
+      Assertions.assertEquals(0, graphIndex.add(new CommitImpl(merge)));
+
+      int rootIndex = graphIndex.add(new CommitImpl(root));
+      Assertions.assertEquals(3, rootIndex);
+      Assertions.assertEquals(0, graphIndex.getParents(rootIndex).length);
+      Assertions.assertEquals(rootIndex, graphIndex.indexOf(root));
+      Assertions.assertEquals(-1, graphIndex.indexOf(ObjectId.zeroId()));
+    }
+  }
+
+  /**
+   * Creates a RevCommit by parsing a raw commit object
+   *
+   * @param pRevWalk   RevWalk that owns the commits
+   * @param pParentIds ids of the parents
+   * @return parsed RevCommit
+   */
+  private static RevCommit _parse(RevWalk pRevWalk, String... pParentIds) throws Exception
+  {
+    StringBuilder raw = new StringBuilder("tree 4b825dc642cb6eb9a060e54bf8d69288fbee4904\n");
+    for (String parentId : pParentIds)
+    {
+      raw.append("parent ").append(parentId).append("\n");
+    }
+    raw.append("author test <test@test.de> 0 +0000\ncommitter test <test@test.de> 0 +0000\n\nmessage");
+    return RevCommit.parse(pRevWalk, raw.toString().getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,289 @@
+package de.adito.git.impl.dag;
+
+import com.google.common.collect.Iterators;
+import de.adito.git.api.data.ICommit;
+import de.adito.git.api.data.ICommitFilter;
+import de.adito.git.impl.TestRepository;
+import de.adito.git.impl.data.CommitFilterImpl;
+import de.adito.git.impl.data.CommitImpl;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeResult;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class CommitSearchIndexTest
+{
+
+  @TempDir
+  File repoDir;
+  private int commitCount = 0;
+
+  /**
+   * Tests that filtering by files via the index simplifies the history like the log of git does: merges are only shown if they changed the files compared
+   * to all parents, otherwise the history is only followed to the parent the merge did not change the files compared to
+   */
+  @Test
+  void testFilterByFiles() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      _createHistory(repository);
+      CommitGraphCache graphCache = _createGraphCache(git);
+      CommitSearchIndex searchIndex = new CommitSearchIndex(git.getRepository().getDirectory());
+      searchIndex.update(git.getRepository(), graphCache);
+
+      Assertions.assertEquals(List.of("a.txt 11 [a.txt 4]", "a.txt 4 [a.txt 1]", "a.txt 1 []"),
+                              _toMessagesWithParents(git, _walk(git, graphCache, searchIndex, new CommitFilterImpl(), List.of("a.txt"))));
+      // merge 7 did not change the folder compared to the feature branch
+      Assertions.assertEquals(List.of("folder/b.txt 8 [folder/b.txt 5]", "folder/b.txt 5 [folder/b.txt 2]", "folder/b.txt 2 []"),
+                              _toMessagesWithParents(git, _walk(git, graphCache, searchIndex, new CommitFilterImpl(), List.of("folder"))));
+      // merge 7 changed folder/b.txt compared to master and c.txt compared to the feature branch
+      Assertions.assertEquals(List.of("folder/b.txt 8 [merge 7]", "merge 7 [c.txt 3, folder/b.txt 5]", "folder/b.txt 5 [folder/b.txt 2]",
+                                      "c.txt 3 [folder/b.txt 2]", "folder/b.txt 2 []"),
+                              _toMessagesWithParents(git, _walk(git, graphCache, searchIndex, new CommitFilterImpl(), List.of("folder/b.txt", "c.txt"))));
+      Assertions.assertFalse(_walk(git, graphCache, searchIndex, new CommitFilterImpl(), List.of("unknown.txt")).hasNext());
+    }
+  }
+
+  /**
+   * Tests that filtering by author and dates via the index returns the same commits with the same parents as filtering the whole history with the
+   * DAGFilterIterator
+   */
+  @Test
+  void testFilterByAuthorAndDateEqualsDAGFilter() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      _createHistory(repository);
+      CommitGraphCache graphCache = _createGraphCache(git);
+      CommitSearchIndex searchIndex = new CommitSearchIndex(git.getRepository().getDirectory());
+      searchIndex.update(git.getRepository(), graphCache);
+
+      List<ICommitFilter> filters = List.of(new CommitFilterImpl().setAuthor("alice"),
+                                            new CommitFilterImpl().setAuthor("bob"),
+                                            new CommitFilterImpl().setAuthor("nobody"),
+                                            new CommitFilterImpl().setStartDate(Instant.ofEpochSecond(3500)).setEndDate(Instant.ofEpochSecond(8500)),
+                                            new CommitFilterImpl().setAuthor("alice").setEndDate(Instant.ofEpochSecond(6500)));
+      for (ICommitFilter filter : filters)
+      {
+        Iterator<ICommit> allCommits = Iterators.transform(git.log().all().call().iterator(), CommitImpl::new);
+        Assertions.assertEquals(_toIdsWithParents(new DAGFilterIterator<>(allCommits, filter)),
+                                _toIdsWithParents(_walk(git, graphCache, searchIndex, filter, List.of())));
+      }
+      Assertions.assertFalse(_walk(git, graphCache, searchIndex, new CommitFilterImpl().setAuthor("nobody"), List.of()).hasNext());
+    }
+  }
+
+  /**
+   * Tests that the index is written to the adito-index folder, read again by a new index and that new commits are added incrementally
+   */
+  @Test
+  void testPersistAndIncrementalUpdate() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      _createHistory(repository);
+      CommitGraphCache graphCache = _createGraphCache(git);
+      File gitDir = git.getRepository().getDirectory();
+      new CommitSearchIndex(gitDir).update(git.getRepository(), graphCache);
+      File indexFile = new File(new File(gitDir, CommitSearchIndex.FOLDER_NAME), CommitSearchIndex.FILE_NAME);
+      Assertions.assertTrue(indexFile.exists());
+      byte[] contentBefore = Files.readAllBytes(indexFile.toPath());
+
+      _commit(repository, "a.txt", "carol");
+      graphCache.update(git.getRepository());
+      CommitSearchIndex readIndex = new CommitSearchIndex(gitDir);
+      readIndex.update(git.getRepository(), graphCache);
+      // the new commit and its new author are appended to the file
+      byte[] contentAfter = Files.readAllBytes(indexFile.toPath());
+      Assertions.assertTrue(contentAfter.length > contentBefore.length);
+      Assertions.assertArrayEquals(contentBefore, Arrays.copyOf(contentAfter, contentBefore.length));
+      Assertions.assertEquals(List.of("a.txt 12 [a.txt 11]", "a.txt 11 [a.txt 4]", "a.txt 4 [a.txt 1]", "a.txt 1 []"),
+                              _toMessagesWithParents(git, _walk(git, graphCache, readIndex, new CommitFilterImpl(), List.of("a.txt"))));
+      Assertions.assertEquals(1, _toIdsWithParents(_walk(git, graphCache, new CommitSearchIndex(gitDir), new CommitFilterImpl().setAuthor("carol"),
+                                                         List.of())).size());
+    }
+  }
+
+  /**
+   * Tests that a commit whose record was only written partly is ignored when reading the index, and that the next update appends it again
+   */
+  @Test
+  void testPartlyWrittenRecord() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      _createHistory(repository);
+      CommitGraphCache graphCache = _createGraphCache(git);
+      File gitDir = git.getRepository().getDirectory();
+      new CommitSearchIndex(gitDir).update(git.getRepository(), graphCache);
+      File indexFile = new File(new File(gitDir, CommitSearchIndex.FOLDER_NAME), CommitSearchIndex.FILE_NAME);
+      try (RandomAccessFile randomAccessFile = new RandomAccessFile(indexFile, "rw"))
+      {
+        randomAccessFile.setLength(indexFile.length() - 3);
+      }
+
+      CommitSearchIndex readIndex = new CommitSearchIndex(gitDir);
+      Assertions.assertEquals(List.of("a.txt 11 [a.txt 4]", "a.txt 4 [a.txt 1]", "a.txt 1 []"),
+                              _toMessagesWithParents(git, _walk(git, graphCache, readIndex, new CommitFilterImpl(), List.of("a.txt"))));
+      readIndex.update(git.getRepository(), graphCache);
+      CommitSearchIndex updatedIndex = new CommitSearchIndex(gitDir);
+      // nothing is missing anymore, so an update does not change the file
+      long length = indexFile.length();
+      updatedIndex.update(git.getRepository(), graphCache);
+      Assertions.assertEquals(length, indexFile.length());
+      Assertions.assertEquals(List.of("a.txt 11 [a.txt 4]", "a.txt 4 [a.txt 1]", "a.txt 1 []"),
+                              _toMessagesWithParents(git, _walk(git, graphCache, updatedIndex, new CommitFilterImpl(), List.of("a.txt"))));
+    }
+  }
+
+  /**
+   * Tests that walks are refused while too many commits of the commit graph cache are not indexed, so the history is read via the log instead
+   */
+  @Test
+  void testWalkRefusedUntilIndexed() throws Exception
+  {
+    try (TestRepository repository = new TestRepository(repoDir))
+    {
+      Git git = repository.getGit();
+      for (int index = 0; index <= CommitSearchIndex.MAX_NUM_UNINDEXED_COMMITS; index++)
+      {
+        commitCount++;
+        PersonIdent ident = _createIdent("alice");
+        git.commit().setMessage("empty " + commitCount).setAllowEmpty(true).setAuthor(ident).setCommitter(ident).call();
+      }
+      CommitGraphCache graphCache = _createGraphCache(git);
+      CommitSearchIndex searchIndex = new CommitSearchIndex(git.getRepository().getDirectory());
+      Assertions.assertNull(searchIndex.walk(new RevWalk(git.getRepository()), graphCache, CommitGraphCache.getRefTips(git.getRepository()), List.of(),
+                                             new CommitFilterImpl().setAuthor("alice"), List.of()));
+
+      searchIndex.update(git.getRepository(), graphCache);
+      Assertions.assertEquals(CommitSearchIndex.MAX_NUM_UNINDEXED_COMMITS + 1,
+                              _toIdsWithParents(_walk(git, graphCache, searchIndex, new CommitFilterImpl().setAuthor("alice"), List.of())).size());
+    }
+  }
+
+  /**
+   * Tests that the bloom filter reports all changed paths and the folders containing them
+   */
+  @Test
+  void testChangedPathFilter()
+  {
+    byte[] filter = ChangedPathFilter.create(List.of("folder", "folder/b.txt", "a.txt"));
+    Assertions.assertTrue(ChangedPathFilter.mightContain(filter, ChangedPathFilter.hash("folder")));
+    Assertions.assertTrue(ChangedPathFilter.mightContain(filter, ChangedPathFilter.hash("folder/b.txt")));
+    Assertions.assertTrue(ChangedPathFilter.mightContain(filter, ChangedPathFilter.hash("a.txt")));
+    Assertions.assertTrue(ChangedPathFilter.mightContain(null, ChangedPathFilter.hash("a.txt")));
+    Assertions.assertFalse(ChangedPathFilter.mightContain(ChangedPathFilter.create(List.of()), ChangedPathFilter.hash("a.txt")));
+  }
+
+  /**
+   * creates a history with two branches that change the same and different files, merged twice. The merges change some of the files only compared to
+   * one of their parents
+   */
+  private void _createHistory(TestRepository pRepository) throws Exception
+  {
+    Git git = pRepository.getGit();
+    _commit(pRepository, "a.txt", "alice");
+    _commit(pRepository, "folder/b.txt", "bob");
+    git.branchCreate().setName("feature").call();
+    _commit(pRepository, "c.txt", "alice");
+    _commit(pRepository, "a.txt", "bob");
+    git.checkout().setName("feature").call();
+    _commit(pRepository, "folder/b.txt", "alice");
+    _commit(pRepository, "d.txt", "bob");
+    git.checkout().setName("master").call();
+    _merge(git);
+    _commit(pRepository, "folder/b.txt", "bob");
+    git.checkout().setName("feature").call();
+    _commit(pRepository, "d.txt", "alice");
+    git.checkout().setName("master").call();
+    _merge(git);
+    _commit(pRepository, "a.txt", "alice");
+  }
+
+  private void _merge(Git pGit) throws Exception
+  {
+    commitCount++;
+    PersonIdent ident = _createIdent("alice");
+    MergeResult mergeResult = pGit.merge().include(pGit.getRepository().resolve("feature")).setCommit(false).call();
+    Assertions.assertTrue(mergeResult.getMergeStatus().isSuccessful());
+    pGit.commit().setMessage("merge " + commitCount).setAuthor(ident).setCommitter(ident).call();
+  }
+
+  private void _commit(TestRepository pRepository, String pFileName, String pAuthor) throws Exception
+  {
+    commitCount++;
+    pRepository.write(pFileName, "content " + commitCount);
+    pRepository.commit(pFileName + " " + commitCount, _createIdent(pAuthor));
+  }
+
+  /**
+   * each commit is one thousand seconds after the commit before, so the order of the commits in the log is defined
+   */
+  private PersonIdent _createIdent(String pAuthor)
+  {
+    return TestRepository.createIdent(pAuthor, commitCount * 1000_000L);
+  }
+
+  private static CommitGraphCache _createGraphCache(Git pGit) throws Exception
+  {
+    CommitGraphCache graphCache = new CommitGraphCache(pGit.getRepository().getDirectory());
+    graphCache.update(pGit.getRepository());
+    return graphCache;
+  }
+
+  private static Iterator<ICommit> _walk(Git pGit, CommitGraphCache pGraphCache, CommitSearchIndex pSearchIndex, ICommitFilter pFilter, List<String> pPaths)
+      throws Exception
+  {
+    Iterator<ICommit> commits = pSearchIndex.walk(new RevWalk(pGit.getRepository()), pGraphCache, CommitGraphCache.getRefTips(pGit.getRepository()), List.of(),
+                                                  pFilter, pPaths);
+    Assertions.assertNotNull(commits);
+    return commits;
+  }
+
+  /**
+   * @return message of each commit followed by the sorted messages of its parents
+   */
+  private static List<String> _toMessagesWithParents(Git pGit, Iterator<ICommit> pCommits) throws Exception
+  {
+    Map<String, String> messages = new HashMap<>();
+    pGit.log().all().call().forEach(pCommit -> messages.put(pCommit.getName(), pCommit.getShortMessage()));
+    List<String> messagesWithParents = new ArrayList<>();
+    pCommits.forEachRemaining(pCommit -> messagesWithParents.add(
+        messages.get(pCommit.getId()) + " " + pCommit.getParents().stream().map(pParent -> messages.get(pParent.getId())).sorted().collect(Collectors.toList())));
+    return messagesWithParents;
+  }
+
+  private static List<String> _toIdsWithParents(Iterator<ICommit> pCommits)
+  {
+    List<String> idsWithParents = new ArrayList<>();
+    pCommits.forEachRemaining(pCommit -> idsWithParents.add(_toIdWithParents(pCommit)));
+    return idsWithParents;
+  }
+
+  /**
+   * @return id of the commit followed by the sorted ids of its parents, since the order of the rewritten parents may differ
+   */
+  private static String _toIdWithParents(ICommit pCommit)
+  {
+    return pCommit.getId() + " " + pCommit.getParents().stream().map(ICommit::getId).sorted().collect(Collectors.toList());
+  }
+}
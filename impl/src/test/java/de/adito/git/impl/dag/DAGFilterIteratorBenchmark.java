@@ -0,0 +1,78 @@
+package de.adito.git.impl.dag;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Measures the DAGFilterIterator against the former implementation, which went through the whole queue for each element that did not pass the predicate.
+ * Not part of the unit tests, since the durations depend on the machine. Run the main method with the test classpath, the optional arguments are the
+ * numbers of elements of the random DAGs
+ *
+ * @author agent, 18.10.2026
+ */
+class DAGFilterIteratorBenchmark
+{
+
+  private static final int NUM_WARMUP_RUNS = 3;
+  private static final int NUM_MEASURED_RUNS = 5;
+  private static final Predicate<DAGFilterIteratorTest.DAGTestObj> PREDICATE = pDAGTestObj -> pDAGTestObj.getNum() % 10 == 0;
+
+  public static void main(String[] pArgs)
+  {
+    int[] numElements = pArgs.length == 0 ? new int[]{10000, 50000} : Arrays.stream(pArgs).mapToInt(Integer::parseInt).toArray();
+    for (int numElementsOfDAG : numElements)
+    {
+      long queueScanTime = _measure(numElementsOfDAG, DAGFilterIteratorBenchmark::_iterateWithQueueScan);
+      long bitmapTime = _measure(numElementsOfDAG, DAGFilterIteratorBenchmark::_iterate);
+      System.out.printf("%d elements: queue scan %d ms, DAGFilterIterator %d ms (median of %d runs)%n", numElementsOfDAG, queueScanTime / 1_000_000,
+                        bitmapTime / 1_000_000, NUM_MEASURED_RUNS);
+    }
+  }
+
+  /**
+   * @param pNumElements number of elements of the random DAG
+   * @param pIteration   iterates over the filtered DAG and returns the number of elements that passed the filter
+   * @return median duration of the iteration in nanoseconds, without the creation of the DAG
+   */
+  private static long _measure(int pNumElements, ToIntFunction<List<DAGFilterIteratorTest.DAGTestObj>> pIteration)
+  {
+    long[] durations = new long[NUM_MEASURED_RUNS];
+    for (int run = 0; run < NUM_WARMUP_RUNS + NUM_MEASURED_RUNS; run++)
+    {
+      // the iterators change the parents of the elements, so each run needs a new DAG
+      List<DAGFilterIteratorTest.DAGTestObj> dag = DAGFilterIteratorTest.createRandomDAG(new Random(42), pNumElements);
+      long start = System.nanoTime();
+      if (pIteration.applyAsInt(dag) < 0)
+        throw new IllegalStateException();
+      if (run >= NUM_WARMUP_RUNS)
+        durations[run - NUM_WARMUP_RUNS] = System.nanoTime() - start;
+    }
+    Arrays.sort(durations);
+    return durations[NUM_MEASURED_RUNS / 2];
+  }
+
+  private static int _iterateWithQueueScan(List<DAGFilterIteratorTest.DAGTestObj> pDAG)
+  {
+    DAGFilterIteratorTest.QueueScanDAGFilterIterator iterator = new DAGFilterIteratorTest.QueueScanDAGFilterIterator(pDAG.iterator(), PREDICATE);
+    int numElements = 0;
+    while (iterator.hasNext())
+    {
+      iterator.next();
+      numElements++;
+    }
+    return numElements;
+  }
+
+  private static int _iterate(List<DAGFilterIteratorTest.DAGTestObj> pDAG)
+  {
+    DAGFilterIterator<DAGFilterIteratorTest.DAGTestObj> iterator = new DAGFilterIterator<>(pDAG.iterator(), PREDICATE);
+    int numElements = 0;
+    while (iterator.hasNext())
+    {
+      iterator.next();
+      numElements++;
+    }
+    return numElements;
+  }
+}
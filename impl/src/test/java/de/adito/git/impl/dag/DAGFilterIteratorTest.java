@@ -13,12 +13,14 @@ import java.util.function.Predicate;
 class DAGFilterIteratorTest
 {
 
+  private static final int NUM_RANDOM_ELEMENTS = 5000;
+
   @Test
   void testDAGFilterIterator()
   {
     List<Integer> objectNums = List.of(22, 8, 9, 12, 3, 10, 3, 2, 5);
     List<List<Integer>> parentsList = List.of(List.of(1), List.of(2, 3), List.of(4), List.of(6), List.of(5), List.of(6), List.of(7), List.of());
-    Iterator<_DAGTestObj> iterator = _createDAG(objectNums, parentsList);
+    Iterator<DAGTestObj> iterator = _createDAG(objectNums, parentsList);
     _testFilter(iterator, pDAGTestObj -> pDAGTestObj.getNum() % 2 == 0);
   }
 
@@ -27,7 +29,7 @@ class DAGFilterIteratorTest
   {
     List<Integer> objectNums = List.of(22, 8, 9, 12, 7, 10, 3, 2, 5);
     List<List<Integer>> parentsList = List.of(List.of(1), List.of(2, 3), List.of(4), List.of(6), List.of(5), List.of(6), List.of(7), List.of());
-    Iterator<_DAGTestObj> iterator = _createDAG(objectNums, parentsList);
+    Iterator<DAGTestObj> iterator = _createDAG(objectNums, parentsList);
     _testFilter(iterator, pDAGTestObj -> pDAGTestObj.getNum() >= 10);
   }
 
@@ -36,30 +38,63 @@ class DAGFilterIteratorTest
   {
     List<Integer> objectNums = List.of(13, 8, 9, 12, 3, 10, 19, 20, 7);
     List<List<Integer>> parentsList = List.of(List.of(1), List.of(2, 3), List.of(4), List.of(4, 5), List.of(5, 6, 7), List.of(8), List.of(7), List.of(8), List.of());
-    Iterator<_DAGTestObj> iterator = _createDAG(objectNums, parentsList);
+    Iterator<DAGTestObj> iterator = _createDAG(objectNums, parentsList);
     _testFilter(iterator, pDAGTestObj -> pDAGTestObj.getNum() >= 10);
   }
 
+  /**
+   * Compares the iterator with the former implementation, which went through the whole queue for each element that did not pass the predicate, on a
+   * random DAG. Makes sure both return the same elements with the same parents
+   */
+  @Test
+  void testAgainstQueueScan()
+  {
+    Predicate<DAGTestObj> predicate = pDAGTestObj -> pDAGTestObj.getNum() % 10 == 0;
+
+    List<DAGTestObj> queueScanDAG = createRandomDAG(new Random(42), NUM_RANDOM_ELEMENTS);
+    List<DAGTestObj> queueScanResult = new ArrayList<>();
+    QueueScanDAGFilterIterator queueScanIterator = new QueueScanDAGFilterIterator(queueScanDAG.iterator(), predicate);
+    while (queueScanIterator.hasNext())
+    {
+      queueScanResult.add(queueScanIterator.next());
+    }
+
+    List<DAGTestObj> bitmapDAG = createRandomDAG(new Random(42), NUM_RANDOM_ELEMENTS);
+    List<DAGTestObj> bitmapResult = new ArrayList<>();
+    DAGFilterIterator<DAGTestObj> bitmapIterator = new DAGFilterIterator<>(bitmapDAG.iterator(), predicate);
+    while (bitmapIterator.hasNext())
+    {
+      bitmapResult.add(bitmapIterator.next());
+    }
+
+    Assertions.assertEquals(queueScanResult.size(), bitmapResult.size());
+    for (int index = 0; index < bitmapResult.size(); index++)
+    {
+      Assertions.assertEquals(queueScanDAG.indexOf(queueScanResult.get(index)), bitmapDAG.indexOf(bitmapResult.get(index)));
+      Assertions.assertEquals(_getIndices(queueScanDAG, queueScanResult.get(index).getParents()), _getIndices(bitmapDAG, bitmapResult.get(index).getParents()));
+    }
+  }
+
   /**
    * This method does the actual testing, the test methods here are only setup
    *
    * @param pIterator  Iterator to create the DAGFilterIterator from
    * @param pPredicate pPredicate used for the DAGFilterIterator and checking if the DAGFilterIterator works
    */
-  private void _testFilter(Iterator<_DAGTestObj> pIterator, Predicate<_DAGTestObj> pPredicate)
+  private void _testFilter(Iterator<DAGTestObj> pIterator, Predicate<DAGTestObj> pPredicate)
   {
-    DAGFilterIterator<_DAGTestObj> filteredIterator = new DAGFilterIterator<>(pIterator, pPredicate);
+    DAGFilterIterator<DAGTestObj> filteredIterator = new DAGFilterIterator<>(pIterator, pPredicate);
     Assertions.assertTrue(filteredIterator.hasNext());
     while (filteredIterator.hasNext())
     {
-      _DAGTestObj nextObj = filteredIterator.next();
+      DAGTestObj nextObj = filteredIterator.next();
       // all objects should pass the predicate test
       Assertions.assertTrue(pPredicate.test(nextObj));
       if (nextObj.getParents() != null)
       {
         // the same parent should not occur twice in the list of parents
         Assertions.assertEquals(new HashSet<>(nextObj.getParents()).size(), nextObj.getParents().size(), "duplicate parents in list");
-        for (_DAGTestObj parent : nextObj.getParents())
+        for (DAGTestObj parent : nextObj.getParents())
         {
           // parents should also pass the predicate test
           Assertions.assertTrue(pPredicate.test(parent));
@@ -76,11 +111,11 @@ class DAGFilterIteratorTest
   {
     List<Integer> objectNums = List.of(5, 2, 3, 10, 3, 12, 9, 8, 22);
     List<List<Integer>> parentsList = List.of(List.of(), List.of(0), List.of(1), List.of(2), List.of(3), List.of(2), List.of(4), List.of(5, 6), List.of(7));
-    Iterator<_DAGTestObj> iterator = _createDAG(objectNums, parentsList);
+    Iterator<DAGTestObj> iterator = _createDAG(objectNums, parentsList);
     int index = 0;
     while (iterator.hasNext())
     {
-      _DAGTestObj nextObj = iterator.next();
+      DAGTestObj nextObj = iterator.next();
       Assertions.assertEquals((int) objectNums.get(index), nextObj.getNum());
       if (nextObj.getParents() != null)
       {
@@ -95,22 +130,22 @@ class DAGFilterIteratorTest
 
   /**
    * Method that allows creation of a simple DAG without having to write code over and over again in each test setup
-   * Which _DAGTestObj will get which number and which parent is determined via the passed lists and their indizes
+   * Which DAGTestObj will get which number and which parent is determined via the passed lists and their indizes
    *
-   * @param pTestObjNumbers Numbers each of the _DAGTestObj will have
-   * @param pTestObjParents determine which _DAGTestObj will have which parent.
+   * @param pTestObjNumbers Numbers each of the DAGTestObj will have
+   * @param pTestObjParents determine which DAGTestObj will have which parent.
    * @return Iterator over the created DAG
    */
-  private Iterator<_DAGTestObj> _createDAG(List<Integer> pTestObjNumbers, List<List<Integer>> pTestObjParents)
+  private Iterator<DAGTestObj> _createDAG(List<Integer> pTestObjNumbers, List<List<Integer>> pTestObjParents)
   {
-    List<_DAGTestObj> testObjList = new ArrayList<>();
+    List<DAGTestObj> testObjList = new ArrayList<>();
     for (Integer testNum : pTestObjNumbers)
     {
-      testObjList.add(new _DAGTestObj(testNum, List.of()));
+      testObjList.add(new DAGTestObj(testNum, List.of()));
     }
     for (int index = 0; index < pTestObjParents.size(); index++)
     {
-      List<_DAGTestObj> parents = new ArrayList<>();
+      List<DAGTestObj> parents = new ArrayList<>();
       for (Integer parentIndex : pTestObjParents.get(index))
       {
         parents.add(testObjList.get(parentIndex));
@@ -120,29 +155,142 @@ class DAGFilterIteratorTest
     return testObjList.iterator();
   }
 
+  /**
+   * Creates a DAG whose elements are in topological order, with mostly one parent close to the element and some merges with a parent further away
+   *
+   * @param pRandom      Random used to determine the numbers and parents of the elements
+   * @param pNumElements number of elements of the DAG
+   * @return elements of the DAG, children before their parents
+   */
+  static List<DAGTestObj> createRandomDAG(Random pRandom, int pNumElements)
+  {
+    List<DAGTestObj> testObjList = new ArrayList<>();
+    for (int index = 0; index < pNumElements; index++)
+    {
+      testObjList.add(new DAGTestObj(pRandom.nextInt(100), List.of()));
+    }
+    for (int index = 0; index < pNumElements; index++)
+    {
+      List<DAGTestObj> parents = new ArrayList<>();
+      int firstParent = index + 1 + pRandom.nextInt(8);
+      if (firstParent < pNumElements)
+        parents.add(testObjList.get(firstParent));
+      int secondParent = index + 1 + pRandom.nextInt(2000);
+      if (pRandom.nextInt(10) == 0 && secondParent < pNumElements && secondParent != firstParent)
+        parents.add(testObjList.get(secondParent));
+      testObjList.get(index).setParents(parents);
+    }
+    return testObjList;
+  }
+
+  /**
+   * @return the set of indices of the elements in the DAG, so the parents of elements from different DAGs can be compared regardless of their order
+   */
+  private Set<Integer> _getIndices(List<DAGTestObj> pDAG, List<DAGTestObj> pElements)
+  {
+    Set<Integer> indices = new HashSet<>();
+    for (DAGTestObj element : pElements)
+    {
+      indices.add(pDAG.indexOf(element));
+    }
+    return indices;
+  }
+
+  /**
+   * The former implementation of the DAGFilterIterator, that goes through the whole queue for each element that does not pass the predicate
+   */
+  static class QueueScanDAGFilterIterator
+  {
+    private final LinkedList<DAGTestObj> elementQueue = new LinkedList<>();
+    private final Iterator<DAGTestObj> iterator;
+    private final Predicate<DAGTestObj> filterPredicate;
+
+    QueueScanDAGFilterIterator(Iterator<DAGTestObj> pIterator, Predicate<DAGTestObj> pFilterPredicate)
+    {
+      iterator = pIterator;
+      filterPredicate = pFilterPredicate;
+    }
+
+    boolean hasNext()
+    {
+      while (iterator.hasNext() && elementQueue.isEmpty())
+      {
+        _acceptNext(iterator.next());
+      }
+      return !elementQueue.isEmpty();
+    }
+
+    DAGTestObj next()
+    {
+      if (!elementQueue.isEmpty() && _isParentsMatch(elementQueue.peekFirst()))
+        return elementQueue.poll();
+      while (iterator.hasNext() && !_isParentsMatch(elementQueue.peekFirst()))
+      {
+        _acceptNext(iterator.next());
+      }
+      return elementQueue.poll();
+    }
+
+    private void _acceptNext(DAGTestObj pElement)
+    {
+      if (filterPredicate.test(pElement))
+        elementQueue.add(pElement);
+      else
+      {
+        for (DAGTestObj queueElement : elementQueue)
+        {
+          if (queueElement.getParents().contains(pElement))
+          {
+            Set<DAGTestObj> newParents = new HashSet<>();
+            for (DAGTestObj originalParent : queueElement.getParents())
+            {
+              if (!originalParent.equals(pElement))
+                newParents.add(originalParent);
+              else
+                newParents.addAll(pElement.getParents());
+            }
+            queueElement.setParents(new ArrayList<>(newParents));
+          }
+        }
+      }
+    }
+
+    private boolean _isParentsMatch(DAGTestObj pElement)
+    {
+      if (pElement == null)
+        return false;
+      for (DAGTestObj parent : pElement.getParents())
+      {
+        if (!filterPredicate.test(parent))
+          return false;
+      }
+      return true;
+    }
+  }
+
   /**
    * Simple test object that forms a basic IDAGObject that can easily be filtered
    */
-  private static class _DAGTestObj implements IDAGObject<_DAGTestObj>
+  static class DAGTestObj implements IDAGObject<DAGTestObj>
   {
 
     private final int num;
-    private List<_DAGTestObj> parents;
+    private List<DAGTestObj> parents;
 
-    _DAGTestObj(int pNum, List<_DAGTestObj> pParents)
+    DAGTestObj(int pNum, List<DAGTestObj> pParents)
     {
       num = pNum;
       parents = pParents;
     }
 
     @Override
-    public List<_DAGTestObj> getParents()
+    public List<DAGTestObj> getParents()
     {
       return parents;
     }
 
     @Override
-    public void setParents(List<_DAGTestObj> pParents)
+    public void setParents(List<DAGTestObj> pParents)
     {
       parents = pParents;
     }
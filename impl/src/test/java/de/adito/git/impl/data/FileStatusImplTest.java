@@ -0,0 +1,50 @@
+package de.adito.git.impl.data;
+
+import org.eclipse.jgit.api.Status;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class FileStatusImplTest
+{
+
+  /**
+   * Tests that the entries equal to or below the changed paths are taken from the status of the paths, while entries that only share a prefix with a path
+   * are kept. Entries of folder based sets are also replaced if they are a parent folder of a changed path
+   */
+  @Test
+  void testMerge()
+  {
+    File gitDirectory = new File("repo", ".git");
+    FileStatusImpl current = new FileStatusImpl(_createStatus(Set.of("a/b.txt", "a/bc.txt", "c.txt", "a/b/d.txt"), Set.of("a", "a/b", "x")), gitDirectory);
+    FileStatusImpl pathStatus = new FileStatusImpl(_createStatus(Set.of("a/b/e.txt"), Set.of()), gitDirectory);
+
+    FileStatusImpl merged = current.merge(pathStatus, Set.of("a/b", "y/z.txt"));
+
+    Assertions.assertEquals(Set.of("a/b.txt", "a/bc.txt", "c.txt", "a/b/e.txt"), merged.getModified());
+    Assertions.assertEquals(Set.of("x"), merged.getUntrackedFolders());
+  }
+
+  private static Status _createStatus(Set<String> pModified, Set<String> pUntrackedFolders)
+  {
+    Status status = Mockito.mock(Status.class);
+    Mockito.when(status.getAdded()).thenReturn(Set.of());
+    Mockito.when(status.getChanged()).thenReturn(Set.of());
+    Mockito.when(status.getRemoved()).thenReturn(Set.of());
+    Mockito.when(status.getMissing()).thenReturn(Set.of());
+    Mockito.when(status.getModified()).thenReturn(pModified);
+    Mockito.when(status.getUntracked()).thenReturn(Set.of());
+    Mockito.when(status.getUntrackedFolders()).thenReturn(pUntrackedFolders);
+    Mockito.when(status.getConflicting()).thenReturn(Set.of());
+    Mockito.when(status.getConflictingStageState()).thenReturn(Map.of());
+    Mockito.when(status.getIgnoredNotInIndex()).thenReturn(Set.of());
+    return status;
+  }
+}
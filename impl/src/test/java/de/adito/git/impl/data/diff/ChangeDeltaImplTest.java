@@ -150,26 +150,6 @@ public class ChangeDeltaImplTest
     assertEquals(EConflictType.SAME, fileDiff1.getChangeDeltas().get(1).isConflictingWith(fileDiff2.getChangeDeltas().get(1), EConflictSide.THEIRS));
   }
 
-  /**
-   * Tests if the _validateLines method correctly changes the editList such that the false editList given is corrected
-   */
-  @Test
-  void testFixEditList()
-  {
-    EditList editList = new EditList();
-    editList.add(new Edit(0, 1, 0, 1));
-    editList.add(new Edit(2, 3, 2, 2));
-    editList.add(new Edit(8, 9, 7, 10));
-    editList.add(new Edit(10, 11, 11, 13));
-    String oldVersion = "v1FFSk+ \n-rRG IaSE8m7' S(pm@jk_ (nAg\" \n>U._me3 $*>Ruo \nJ\\>yHK3x*2 \n";
-    String newVersion = "-rRp[Sm$GFtDT4Z  IaSE8m7' S(pm@jk_ (nAg\" \n>U._me3 $*>Dv0--g-{ s5zWs o \nJ\\>i|dw2dk9aQrs6> 2 \n";
-    EditList edits = ChangeDeltaImpl._validateLines(editList, oldVersion, newVersion, oldVersion.replace(" ", "\n"), newVersion.replace(" ", "\n"));
-    assertEquals(3, edits.size());
-    assertEquals(new Edit(0, 3, 0, 2), edits.get(0));
-    assertEquals(editList.get(3), edits.get(1));
-    assertEquals(editList.get(4), edits.get(2));
-  }
-
   /**
    * Tests if the _getUnmodifiedLines method finds the correct unmodified lines
    */
@@ -0,0 +1,39 @@
+package de.adito.git.impl.data.diff;
+
+import de.adito.git.api.data.diff.ELineEnding;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class FileContentInfoImplTest
+{
+
+  /**
+   * Tests that the bytes are only loaded once the content is needed, and that encoding, line ending and content are all determined from a single load
+   */
+  @Test
+  void testBytesLoadedLazily()
+  {
+    AtomicInteger numLoads = new AtomicInteger();
+    AtomicInteger numDetections = new AtomicInteger();
+    FileContentInfoImpl contentInfo = new FileContentInfoImpl(() -> {
+      numLoads.incrementAndGet();
+      return "first line\r\nsecond line\r\n".getBytes(StandardCharsets.UTF_8);
+    }, pBytes -> {
+      numDetections.incrementAndGet();
+      return StandardCharsets.UTF_8;
+    });
+    Assertions.assertEquals(0, numLoads.get());
+
+    Assertions.assertEquals(StandardCharsets.UTF_8, contentInfo.getEncoding().get());
+    Assertions.assertEquals(ELineEnding.WINDOWS, contentInfo.getLineEnding().get());
+    Assertions.assertEquals("first line\nsecond line\n", contentInfo.getFileContent().get());
+    Assertions.assertEquals(1, numLoads.get());
+    Assertions.assertEquals(1, numDetections.get());
+  }
+}
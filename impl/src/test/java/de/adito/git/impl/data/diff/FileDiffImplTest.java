@@ -418,6 +418,34 @@ public class FileDiffImplTest
     assertEquals(oldVersion, fileDiff.getText(EChangeSide.NEW));
   }
 
+  /**
+   * Tests if reverting all changes of a large text with several thousand changed lines results in the original text
+   */
+  @Test
+  void testRevertDeltasLargeFile()
+  {
+    StringBuilder oldVersion = new StringBuilder();
+    StringBuilder newVersion = new StringBuilder();
+    EditList editList = new EditList();
+    for (int lineIndex = 0; lineIndex < 20000; lineIndex++)
+    {
+      oldVersion.append("line ").append(lineIndex).append("\n");
+      if (lineIndex % 2 == 0)
+      {
+        newVersion.append("changed line ").append(lineIndex).append("\nadditional line\n");
+        editList.add(new Edit(lineIndex, lineIndex + 1, lineIndex + lineIndex / 2, lineIndex + lineIndex / 2 + 2));
+      }
+      else
+        newVersion.append("line ").append(lineIndex).append("\n");
+    }
+    IFileDiff fileDiff = _createFileDiff(editList, oldVersion.toString(), newVersion.toString());
+    for (int deltaIndex = 0; deltaIndex < editList.size(); deltaIndex++)
+    {
+      fileDiff.revertDelta(fileDiff.getChangeDeltas().get(deltaIndex), false);
+    }
+    assertEquals(oldVersion.toString(), fileDiff.getText(EChangeSide.NEW));
+  }
+
   /*
    *************************************  TESTS THAT CHECK THE CHANGEEVENT MECHANISM  *************************************
    * These tests use the same data and cases as the acceptDelta tests, however they only check if the DeltaChangeEvents applied to a string and document
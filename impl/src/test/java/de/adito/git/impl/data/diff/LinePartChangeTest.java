@@ -8,10 +8,12 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.eclipse.jgit.diff.RawTextComparator;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.List;
 
 import static de.adito.git.impl.data.diff.TestUtil._createFileDiff;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 /**
  * @author m.kaspera, 27.02.2020
@@ -118,6 +120,81 @@ public class LinePartChangeTest
     _testResult(List.of(new MutablePair<>("This is ", "T'is "), new MutablePair<>("longer ", "")), fileDiff, 0);
   }
 
+  /**
+   * Tests that a word followed by a space in one version and by a newline in the other version counts as changed
+   */
+  @Test
+  void testWordMovedToNextLine()
+  {
+    String originalLines = "Hello there\nThis is some text\nfor testing\n";
+    String changedLines = "Hello there\nThis is some\ntext for testing\n";
+    IFileDiff fileDiff = _createFileDiff(LineIndexDiffUtil.getChangedLines(originalLines, changedLines, RawTextComparator.DEFAULT), originalLines, changedLines);
+    _testResult(List.of(new MutablePair<>("some text\n", "some\ntext ")), fileDiff, 0);
+  }
+
+  /**
+   * Tests that the changed words are also found in a delta that spans a lot of lines
+   */
+  @Test
+  void testSingleWordsInLargeChange()
+  {
+    StringBuilder originalLines = new StringBuilder("Hello there\n");
+    StringBuilder changedLines = new StringBuilder("Hello there\n");
+    for (int index = 0; index < 100; index++)
+    {
+      originalLines.append("This is line ").append(index).append(" of the text\n");
+      changedLines.append("This is line ").append(index).append(" of the changed texts\n");
+    }
+    IFileDiff fileDiff = _createFileDiff(LineIndexDiffUtil.getChangedLines(originalLines.toString(), changedLines.toString(), RawTextComparator.DEFAULT),
+                                         originalLines.toString(), changedLines.toString());
+    assertEquals(1, fileDiff.getChangeDeltas().size());
+    assertEquals(100, fileDiff.getChangeDeltas().get(0).getLinePartChanges().size());
+    _testResult(List.of(new MutablePair<>("text\n", "changed texts\n"), new MutablePair<>("text\n", "changed texts\n")), fileDiff, 0);
+  }
+
+  /**
+   * Tests that a large rewritten change whose tokens are too common for the histogram diff is marked as one changed region, instead of being diffed with
+   * the quadratic fallback algorithm
+   */
+  @Test
+  void testLargeRewrittenChange()
+  {
+    // the indentation of the first line is the same in both versions and not part of the region
+    _testRewrittenChange(2000, "Hello there\n    ");
+  }
+
+  /**
+   * Tests that a change with more than MAX_NUM_TOKENS tokens is marked as one changed region without being diffed
+   */
+  @Test
+  void testChangeAboveTokenLimit()
+  {
+    _testRewrittenChange(WordDiff.MAX_NUM_TOKENS, "Hello there\n");
+  }
+
+  /**
+   * rewrites the given number of code-like lines and checks that the whole change is one region
+   *
+   * @param pNumLines       number of rewritten lines
+   * @param pUnchangedStart start of both versions that is not part of the changed region
+   */
+  private void _testRewrittenChange(int pNumLines, String pUnchangedStart)
+  {
+    StringBuilder originalLines = new StringBuilder("Hello there\n");
+    StringBuilder changedLines = new StringBuilder("Hello there\n");
+    for (int index = 0; index < pNumLines; index++)
+    {
+      originalLines.append("    int value").append(index).append(" = compute(").append(index % 100).append(", x);\n");
+      changedLines.append("    long result").append(index).append(" = calculate(").append(index % 97).append(", y);\n");
+    }
+    IFileDiff fileDiff = _createFileDiff(LineIndexDiffUtil.getChangedLines(originalLines.toString(), changedLines.toString(), RawTextComparator.DEFAULT),
+                                         originalLines.toString(), changedLines.toString());
+    assertEquals(1, fileDiff.getChangeDeltas().size());
+    List<ILinePartChangeDelta> linePartChanges = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> fileDiff.getChangeDeltas().get(0).getLinePartChanges());
+    assertEquals(1, linePartChanges.size());
+    _testResult(List.of(new MutablePair<>(originalLines.substring(pUnchangedStart.length()), changedLines.substring(pUnchangedStart.length()))), fileDiff, 0);
+  }
+
   /**
    * tests if the linePartChanges Index is moved accordingly if a delta that adds stuff earlier in the text is accepted
    */
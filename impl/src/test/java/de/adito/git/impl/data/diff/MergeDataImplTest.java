@@ -9,6 +9,9 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -409,6 +412,50 @@ public class MergeDataImplTest
     return new MergeDataImpl(yourFileDiff, theirDiff);
   }
 
+  /**
+   * Tests that marking the conflicts of a large file finds the same conflicting deltas as comparing each delta with all deltas of the other side
+   */
+  @Test
+  void testMarkConflictingLargeFile()
+  {
+    StringBuilder originalVersion = new StringBuilder();
+    StringBuilder yourVersion = new StringBuilder();
+    StringBuilder theirVersion = new StringBuilder();
+    for (int index = 0; index < 20000; index++)
+    {
+      String line = "line number " + index + " of the generated file\n";
+      originalVersion.append(line);
+      yourVersion.append(index % 3 == 0 ? "your " + line : line);
+      if (index % 7 == 0)
+        theirVersion.append(index % 3 == 0 ? "your " + line : "their " + line);
+      else if (index % 11 != 0)
+        theirVersion.append(line);
+    }
+    EditList yoursChangedLines = LineIndexDiffUtil.getChangedLines(originalVersion.toString(), yourVersion.toString(), RawTextComparator.DEFAULT);
+    EditList theirsChangedLines = LineIndexDiffUtil.getChangedLines(originalVersion.toString(), theirVersion.toString(), RawTextComparator.DEFAULT);
+    IFileDiff yourFileDiff = TestUtil._createFileDiff(yoursChangedLines, originalVersion.toString(), yourVersion.toString());
+    IFileDiff theirFileDiff = TestUtil._createFileDiff(theirsChangedLines, originalVersion.toString(), theirVersion.toString());
+    List<String> expectedPairs = new ArrayList<>();
+    for (int index = 0; index < yourFileDiff.getChangeDeltas().size(); index++)
+    {
+      for (int otherIndex = 0; otherIndex < theirFileDiff.getChangeDeltas().size(); otherIndex++)
+      {
+        IChangeDelta otherChangeDelta = theirFileDiff.getChangeDeltas().get(otherIndex);
+        EConflictType conflictType = otherChangeDelta.isConflictingWith(yourFileDiff.getChangeDeltas().get(index), EConflictSide.THEIRS);
+        if (conflictType != EConflictType.NONE)
+        {
+          expectedPairs.add(index + " " + otherIndex + " " + conflictType);
+          break;
+        }
+      }
+    }
+    List<String> conflictPairs = yourFileDiff.markConflicting(theirFileDiff, EConflictSide.THEIRS).stream()
+        .map(pPair -> pPair.getIndexOfSide(EConflictSide.YOURS) + " " + pPair.getIndexOfSide(EConflictSide.THEIRS) + " " + pPair.getType())
+        .collect(Collectors.toList());
+    assertFalse(expectedPairs.isEmpty());
+    assertEquals(expectedPairs, conflictPairs);
+  }
+
   /**
    * Simple test with some text to check if adjustEditListsForMerge works as expected
    */
@@ -0,0 +1,49 @@
+package de.adito.git.impl.data.diff;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class TextRopeTest
+{
+
+  /**
+   * Applies random replacements to a TextRope and a StringBuilder and checks that both always contain the same text
+   */
+  @Test
+  void testRandomReplacements()
+  {
+    Random random = new Random(42);
+    StringBuilder expected = new StringBuilder();
+    for (int index = 0; index < 5000; index++)
+    {
+      expected.append((char) ('a' + random.nextInt(26)));
+    }
+    TextRope textRope = new TextRope(expected.toString());
+    for (int index = 0; index < 2000; index++)
+    {
+      int start = random.nextInt(expected.length() + 1);
+      int end = start + random.nextInt(Math.min(50, expected.length() - start) + 1);
+      String replacement = random.nextBoolean() ? "" : "x\ny".substring(0, random.nextInt(4));
+      expected.replace(start, end, replacement);
+      textRope.replace(start, end, replacement);
+      assertEquals(expected.length(), textRope.length());
+      if (expected.length() > 0)
+      {
+        int charIndex = random.nextInt(expected.length());
+        assertEquals(expected.charAt(charIndex), textRope.charAt(charIndex));
+        int substringStart = random.nextInt(expected.length());
+        int substringEnd = substringStart + random.nextInt(expected.length() - substringStart + 1);
+        assertEquals(expected.substring(substringStart, substringEnd), textRope.substring(substringStart, substringEnd));
+      }
+      if (index % 100 == 0)
+        assertEquals(expected.toString(), textRope.toString());
+    }
+    assertEquals(expected.toString(), textRope.toString());
+  }
+}
@@ -0,0 +1,81 @@
+package de.adito.git.impl.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class EncodingDetectorTest
+{
+
+  private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+  /**
+   * Tests that a byte order mark determines the encoding
+   */
+  @Test
+  void testByteOrderMark()
+  {
+    Assertions.assertEquals(StandardCharsets.UTF_8, _detect(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'a'}, WINDOWS_1252));
+    Assertions.assertEquals(StandardCharsets.UTF_16BE, _detect(new byte[]{(byte) 0xFE, (byte) 0xFF, 0, 'a'}, WINDOWS_1252));
+    Assertions.assertEquals(StandardCharsets.UTF_16LE, _detect(new byte[]{(byte) 0xFF, (byte) 0xFE, 'a', 0}, WINDOWS_1252));
+  }
+
+  /**
+   * Tests that the encoding in the xml declaration is used
+   */
+  @Test
+  void testXmlDeclaration()
+  {
+    byte[] content = "<?xml version=\"1.0\" encoding=\"ISO-8859-15\"?>\n<root>ä</root>".getBytes(StandardCharsets.UTF_8);
+    Assertions.assertEquals(Charset.forName("ISO-8859-15"), _detect(content, StandardCharsets.UTF_8));
+    byte[] unknownEncoding = "<?xml version=\"1.0\" encoding=\"no-such-encoding\"?>\n<root>ä</root>".getBytes(StandardCharsets.UTF_8);
+    Assertions.assertEquals(StandardCharsets.UTF_8, _detect(unknownEncoding, WINDOWS_1252));
+  }
+
+  /**
+   * Tests the detection of ASCII, valid UTF-8 and invalid UTF-8 content
+   */
+  @Test
+  void testUtf8Validity()
+  {
+    Assertions.assertEquals(WINDOWS_1252, _detect("plain ascii".getBytes(StandardCharsets.US_ASCII), WINDOWS_1252));
+    Assertions.assertEquals(StandardCharsets.UTF_8, _detect("Grüße € 😀".getBytes(StandardCharsets.UTF_8), WINDOWS_1252));
+    byte[] latin1 = "Grüße".getBytes(StandardCharsets.ISO_8859_1);
+    Assertions.assertEquals(WINDOWS_1252, _detect(latin1, WINDOWS_1252));
+    Assertions.assertEquals(StandardCharsets.ISO_8859_1, _detect(latin1, StandardCharsets.UTF_8));
+    // overlong encoding of '/' and encoded surrogate are not valid UTF-8
+    Assertions.assertEquals(WINDOWS_1252, _detect(new byte[]{(byte) 0xC0, (byte) 0xAF}, WINDOWS_1252));
+    Assertions.assertEquals(WINDOWS_1252, _detect(new byte[]{(byte) 0xED, (byte) 0xA0, (byte) 0x80}, WINDOWS_1252));
+    // truncated character at the end of the content
+    Assertions.assertEquals(WINDOWS_1252, _detect(new byte[]{'a', (byte) 0xE2, (byte) 0x82}, WINDOWS_1252));
+  }
+
+  /**
+   * Tests that only the prefix of the content is examined, a character cut off at the end of the prefix does not count as invalid
+   */
+  @Test
+  void testOnlyPrefixIsExamined()
+  {
+    byte[] content = new byte[EncodingDetector.MAX_PREFIX_LENGTH + 10];
+    Arrays.fill(content, (byte) 'a');
+    // euro sign starting one byte before the end of the prefix
+    content[EncodingDetector.MAX_PREFIX_LENGTH - 1] = (byte) 0xE2;
+    content[EncodingDetector.MAX_PREFIX_LENGTH] = (byte) 0x82;
+    content[EncodingDetector.MAX_PREFIX_LENGTH + 1] = (byte) 0xAC;
+    Assertions.assertEquals(StandardCharsets.UTF_8, _detect(content, WINDOWS_1252));
+    // invalid bytes after the prefix are not examined
+    content[EncodingDetector.MAX_PREFIX_LENGTH + 5] = (byte) 0xFF;
+    Assertions.assertEquals(StandardCharsets.UTF_8, _detect(content, WINDOWS_1252));
+  }
+
+  private static Charset _detect(byte[] pContent, Charset pDefaultEncoding)
+  {
+    return EncodingDetector.detectEncoding(pContent, pDefaultEncoding);
+  }
+}
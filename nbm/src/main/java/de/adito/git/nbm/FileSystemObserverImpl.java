@@ -5,11 +5,12 @@ import com.google.inject.assistedinject.Assisted;
 import de.adito.git.api.IFileSystemChangeListener;
 import de.adito.git.api.IFileSystemObserver;
 import de.adito.git.api.data.IRepositoryDescription;
+import org.jetbrains.annotations.Nullable;
 import org.openide.filesystems.*;
 import org.openide.util.NbBundle;
 
 import java.io.File;
-import java.util.ArrayList;
+import java.util.*;
 
 /**
  * An observer class for the files in the version control version
@@ -56,10 +57,13 @@ public class FileSystemObserverImpl implements IFileSystemObserver
   @Override
   public void fireChange()
   {
-    _notifyListeners();
+    _notifyListeners(null);
   }
 
-  private void _notifyListeners()
+  /**
+   * @param pChangedFiles files that changed, null if the changed files are not known
+   */
+  private void _notifyListeners(@Nullable Collection<File> pChangedFiles)
   {
     ArrayList<IFileSystemChangeListener> copy;
 
@@ -70,7 +74,7 @@ public class FileSystemObserverImpl implements IFileSystemObserver
 
     for (IFileSystemChangeListener fileSystemChangeListener : copy)
     {
-      fileSystemChangeListener.fileSystemChange();
+      fileSystemChangeListener.fileSystemChange(pChangedFiles);
     }
   }
 
@@ -79,37 +83,55 @@ public class FileSystemObserverImpl implements IFileSystemObserver
     @Override
     public void fileFolderCreated(FileEvent pEvent)
     {
-      _notifyListeners();
+      _notifyListeners(_getChangedFiles(pEvent));
     }
 
     @Override
     public void fileDataCreated(FileEvent pEvent)
     {
-      _notifyListeners();
+      _notifyListeners(_getChangedFiles(pEvent));
     }
 
     @Override
     public void fileChanged(FileEvent pEvent)
     {
-      _notifyListeners();
+      _notifyListeners(_getChangedFiles(pEvent));
     }
 
     @Override
     public void fileDeleted(FileEvent pEvent)
     {
-      _notifyListeners();
+      _notifyListeners(_getChangedFiles(pEvent));
     }
 
     @Override
     public void fileRenamed(FileRenameEvent pEvent)
     {
-      _notifyListeners();
+      List<File> changedFiles = _getChangedFiles(pEvent);
+      if (changedFiles != null)
+      {
+        File newFile = changedFiles.get(0);
+        String oldName = pEvent.getExt().isEmpty() ? pEvent.getName() : pEvent.getName() + "." + pEvent.getExt();
+        changedFiles = List.of(newFile, new File(newFile.getParentFile(), oldName));
+      }
+      _notifyListeners(changedFiles);
     }
 
     @Override
     public void fileAttributeChanged(FileAttributeEvent pEvent)
     {
-      _notifyListeners();
+      _notifyListeners(_getChangedFiles(pEvent));
+    }
+
+    /**
+     * @param pEvent FileEvent that was fired
+     * @return List with the file of the event, or null if the event does not belong to a file on disk
+     */
+    @Nullable
+    private List<File> _getChangedFiles(FileEvent pEvent)
+    {
+      File file = FileUtil.toFile(pEvent.getFile());
+      return file == null ? null : List.of(file);
     }
   }
 }
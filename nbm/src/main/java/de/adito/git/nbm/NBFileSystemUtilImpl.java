@@ -7,8 +7,8 @@ import de.adito.git.api.IFileSystemUtil;
 import de.adito.git.api.data.diff.IFileChangeType;
 import de.adito.git.api.exception.AditoGitException;
 import de.adito.git.gui.icon.MissingIcon;
+import de.adito.git.impl.util.EncodingDetector;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.jetbrains.annotations.NotNull;
 import org.netbeans.api.actions.Openable;
 import org.netbeans.api.queries.FileEncodingQuery;
@@ -26,9 +26,7 @@ import java.awt.Image;
 import java.beans.BeanInfo;
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
 import java.util.concurrent.*;
@@ -135,34 +133,8 @@ public class NBFileSystemUtilImpl implements IFileSystemUtil
   @Override
   public Charset getEncoding(@NotNull byte[] pContent)
   {
-    FileObject tempFo = null;
-
-    try
-    {
-      tempFo = memoryFS.getRoot().createData(UUID.randomUUID().toString());
-      try (OutputStream out = tempFo.getOutputStream())
-      {
-        IOUtils.write(pContent, out);
-      }
-      return FileEncodingQuery.getEncoding(tempFo);
-    }
-    catch (Exception e)
-    {
-      logger.log(Level.SEVERE, e, () -> "Git: Error while determining encoding for byte array");
-      return StandardCharsets.UTF_8;
-    }
-    finally
-    {
-      try
-      {
-        if (tempFo != null)
-          tempFo.delete();
-      }
-      catch (Exception e)
-      {
-        //nothing
-      }
-    }
+    // detect the encoding from the bytes themselves, instead of writing them to a file on the memory filesystem for the FileEncodingQuery
+    return EncodingDetector.detectEncoding(pContent, FileEncodingQuery.getDefaultEncoding());
   }
 
   /**
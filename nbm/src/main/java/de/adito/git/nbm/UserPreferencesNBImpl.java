@@ -18,4 +18,13 @@ public class UserPreferencesNBImpl implements IUserPreferences
   {
     return 1000;
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getNumPrefetchedCHPages()
+  {
+    return 2;
+  }
 }
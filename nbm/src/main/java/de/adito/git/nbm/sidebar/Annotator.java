@@ -10,6 +10,7 @@ import de.adito.git.gui.PopupMouseListener;
 import de.adito.git.gui.rxjava.ScrollBarExtentObservable;
 import de.adito.git.gui.swing.LineNumber;
 import de.adito.git.gui.swing.TextPaneUtil;
+import de.adito.git.gui.swing.TiledGutterRenderer;
 import de.adito.git.impl.observables.PropertyChangeObservable;
 import de.adito.git.nbm.IGitConstants;
 import de.adito.git.nbm.actions.ShowAnnotationNBAction;
@@ -30,7 +31,6 @@ import javax.swing.text.JTextComponent;
 import javax.swing.text.View;
 import java.awt.*;
 import java.awt.event.MouseListener;
-import java.awt.image.BufferedImage;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.File;
@@ -38,6 +38,7 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -59,13 +60,14 @@ public class Annotator extends JPanel implements IDiscardable
   private final DateFormat dateFormat = new SimpleDateFormat("dd.MM.yyyy");
   private final JTextComponent target;
   private final CompositeDisposable disposables = new CompositeDisposable();
-  private BufferedImage blameImage;
+  private final TiledGutterRenderer gutterRenderer = new TiledGutterRenderer(this::_paintArea);
+  @Nullable
+  private _Annotations annotations;
   private Color foregroundColor;
   private Color backgroundColor;
   private Font nbFont;
   private boolean isActiveFlag = false;
   private MouseListener popupMouseListener;
-  private IBlame blame = null;
 
   /**
    * @param pRepository Observable of the current Repository that also contains the File currently open in the editor
@@ -134,7 +136,9 @@ public class Annotator extends JPanel implements IDiscardable
   protected void paintComponent(Graphics pG)
   {
     super.paintComponent(pG);
-    pG.drawImage(blameImage, 0, 0, null);
+    // the annotator is as high as the editor, only paint the part that is currently shown
+    Rectangle paintedArea = pG.getClipBounds() == null ? target.getVisibleRect() : pG.getClipBounds();
+    gutterRenderer.paint(pG, getPreferredSize().width, paintedArea.y, paintedArea.height, 0, paintedArea.y);
   }
 
 
@@ -155,7 +159,8 @@ public class Annotator extends JPanel implements IDiscardable
     Observable<Optional<Boolean>> isActive = BehaviorSubject.create(new PropertyChangeObservable<Boolean>(pTarget, IGitConstants.ANNOTATOR_ACTIVF_FLAG))
         .startWithItem(Optional.of(Boolean.FALSE));
 
-    // Observable to check the File changes between the latest version of the file on disk and the actual content of the file
+    // Observable to check the File changes between the version of the file in HEAD and the actual content of the file. The blame annotates the lines of
+    // the version in HEAD, the HEAD content is cached by the repository so only the text of the editor has to be diffed
     Observable<List<IChangeDelta>> deltaObservable = Observable
         .combineLatest(pRepository, textObservable, isActive, (pRepoOpt, pText, pIsActive) -> {
           // only run the diff if the repo is present and the active flag is given
@@ -165,7 +170,7 @@ public class Annotator extends JPanel implements IDiscardable
             // No check for new or deleted file (not in index in that case) since we just catch all Exceptions and if anything doesnt work we just do not show anything
             try
             {
-              return repo.diffOffline(pText, pFile).getChangeDeltas();
+              return repo.diff(pText, pFile);
             }
             catch (Exception pE)
             {
@@ -184,73 +189,76 @@ public class Annotator extends JPanel implements IDiscardable
         // no distinctUntilChanged here since we want the Observable to fire each time the scrollBar extent changes (provided isActive is true, hence the filter)
         .filter(pVal -> pVal);
 
-    // combine Observables to create an Observable of the BufferedImage, then subscribe and draw it each time it changes
-    disposables.add(Observable.combineLatest(pRepository, deltaObservable, isActive, triggerUpdate, (pRepoOpt, pDeltas, pIsActive, pTriggerUpdate)
-        -> pRepoOpt.flatMap(pRepo -> _getBlameImage(pFile, pRepo, pDeltas, pIsActive.orElse(false)))).doOnError(pThrowable -> _showImage(pTarget, null))
-                        .subscribe(pBufferedImageOpt -> _showImage(pTarget, pBufferedImageOpt.orElse(null))));
+    // Observable of the blame, only requested once the Annotator is active. The blame is computed in the background and shared by all editors of the
+    // file, each computed region of lines is shown as soon as it is available
+    Observable<Optional<IBlame>> blameObservable = isActive
+        .map(pIsActive -> pIsActive.orElse(false))
+        .distinctUntilChanged()
+        .switchMap(pIsActive -> pIsActive ? pRepository.switchMap(pRepoOpt -> pRepoOpt.map(pRepo -> pRepo.getBlameUpdates(pFile))
+            .orElseGet(() -> Observable.just(Optional.empty()))) : Observable.just(Optional.<IBlame>empty()))
+        .throttleLatest(DEBOUNCE_DURATION, TimeUnit.MILLISECONDS, true);
+
+    // combine Observables to create an Observable of the annotations, then subscribe and draw them each time they change
+    disposables.add(Observable.combineLatest(blameObservable, deltaObservable, isActive, triggerUpdate, (pBlameOpt, pDeltas, pIsActive, pTriggerUpdate)
+        -> pBlameOpt.flatMap(pBlame -> _getAnnotations(pBlame, pDeltas, pIsActive.orElse(false)))).doOnError(pThrowable -> _showAnnotations(pTarget, null))
+                        .subscribe(pAnnotationsOpt -> _showAnnotations(pTarget, pAnnotationsOpt.orElse(null))));
   }
 
   /**
-   * Draws the image if the image if not null
+   * Draws the annotations if they are not null. Only the parts of the annotator whose lines changed are drawn again
    *
-   * @param pTarget        textComponent for whose opened file the Annotator should do the git blame
-   * @param pBufferedImage bufferedImage with the git blame lines
+   * @param pTarget      textComponent for whose opened file the Annotator should do the git blame
+   * @param pAnnotations the git blame lines and their positions
    */
-  private void _showImage(JTextComponent pTarget, @Nullable BufferedImage pBufferedImage)
+  private void _showAnnotations(JTextComponent pTarget, @Nullable _Annotations pAnnotations)
   {
-    if (pBufferedImage != null)
+    if (pAnnotations != null)
     {
-      blameImage = pBufferedImage;
       setSize(new Dimension(100, 100));
     }
     else
     {
-      blameImage = null;
       setSize(new Dimension(0, 0));
       setPreferredSize(new Dimension(0, 0));
     }
     SwingUtilities.invokeLater(() -> {
+      _invalidateChangedLines(annotations, pAnnotations);
+      annotations = pAnnotations;
       pTarget.revalidate();
       repaint();
     });
   }
 
   /**
-   * @param pFile     file of the editor, get the git blame for this
-   * @param pRepo     repository used to retrieve the git blame
+   * @param pBlame    git blame of the file of the editor, lines that are not computed yet are left empty
    * @param pDeltas   List with changed and unchanged chunks of the contents of the file
    * @param pIsActive whether or not the Annotator is active
-   * @return Optional with a BufferedImage of the git blame, or an empty Optional if the target height is 0 or the Annotator is inactive
+   * @return Optional with the annotations of the git blame, or an empty Optional if the target height is 0 or the Annotator is inactive
    */
-  private Optional<BufferedImage> _getBlameImage(File pFile, IRepository pRepo, List<IChangeDelta> pDeltas, Boolean pIsActive)
+  private Optional<_Annotations> _getAnnotations(IBlame pBlame, List<IChangeDelta> pDeltas, Boolean pIsActive)
   {
-    // no need to calculate the Image if the Annotator is inactive or the height is 0 (aka Annotator is not shown)
+    // no need to calculate the annotations if the Annotator is inactive or the height is 0 (aka Annotator is not shown)
     if (target.getHeight() <= 0 || !pIsActive)
       return Optional.empty();
     else
-    {
-      if (blame == null)
-        pRepo.getBlame(pFile).ifPresent(pIBlame -> blame = pIBlame);
-      return blame == null ? Optional.empty() : Optional.of(_calculateImage(blame, pDeltas));
-    }
+      return Optional.of(_calculateAnnotations(pBlame, pDeltas));
   }
 
   /**
    * @param pBlame  IBlame object containing the information about the authors of lines
    * @param pDeltas List of IFileChangeChunks describing the changes of the last saved version of the file to the version in the editor
-   * @return Optional of a BufferedImage, empty if not active, BufferedImage with the names of the authors and commit dates otherwise
+   * @return the names of the authors and commit dates for each line, together with the positions of the lines
    */
-  private BufferedImage _calculateImage(IBlame pBlame, List<IChangeDelta> pDeltas)
+  private _Annotations _calculateAnnotations(IBlame pBlame, List<IChangeDelta> pDeltas)
   {
     List<String> annotatedLines = _calculateStringList(pBlame, pDeltas);
     View view = target.getUI().getRootView(target);
-    BufferedImage rawBlameImage = new BufferedImage(getPreferredSize().width, target.getHeight(), BufferedImage.TYPE_INT_ARGB);
     _updateColorsAndFont(target);
     setBackground(backgroundColor);
+    LineNumber[] lineNumberPositions = new LineNumber[0];
     try
     {
-      LineNumber[] lineNumberPositions = TextPaneUtil.calculateLineYPositions(target, view);
-      _drawImage(rawBlameImage.getGraphics(), annotatedLines, lineNumberPositions);
+      lineNumberPositions = TextPaneUtil.calculateLineYPositions(target, view);
     }
     catch (BadLocationException pE)
     {
@@ -262,40 +270,87 @@ public class Annotator extends JPanel implements IDiscardable
         logger.log(Level.WARNING, pE, () -> "Git: error while trying to access the document to determine the location of a line, skipping evaluation of that line");
       else throw new Error(pE);
     }
-    return rawBlameImage;
+    return new _Annotations(annotatedLines, lineNumberPositions, nbFont, foregroundColor);
   }
 
   /**
-   * @param pImageGraphics       Graphics object of i.e. a bufferedImage
-   * @param pLines               List of Strings with the information about what to write for each line. Sorted by order in which they appear
-   * @param pLineNumberPositions View of the JTextComponent, used to get the y Coordinates of the lines
+   * invalidates the areas of all lines whose annotation or position changed, everything if the font or color changed
+   *
+   * @param pOldAnnotations annotations that are currently shown
+   * @param pNewAnnotations annotations that will be shown
    */
-  private void _drawImage(Graphics pImageGraphics, List<String> pLines, LineNumber[] pLineNumberPositions)
+  private void _invalidateChangedLines(@Nullable _Annotations pOldAnnotations, @Nullable _Annotations pNewAnnotations)
   {
-    pImageGraphics.setFont(nbFont);
-    pImageGraphics.setColor(foregroundColor);
-    int fontHeight = pImageGraphics.getFontMetrics().getAscent();
-    ((Graphics2D) pImageGraphics).setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-    pImageGraphics.setColor(foregroundColor);
-    for (int lineIndex = 0; lineIndex < pLines.size(); lineIndex++)
+    if (pOldAnnotations == null || pNewAnnotations == null || !Objects.equals(pOldAnnotations.font, pNewAnnotations.font)
+        || !Objects.equals(pOldAnnotations.color, pNewAnnotations.color))
+    {
+      gutterRenderer.invalidateAll();
+      return;
+    }
+    int lineHeight = target.getFontMetrics(target.getFont()).getHeight();
+    // consecutive changed lines are invalidated as one area
+    int areaStart = 0;
+    int areaEnd = 0;
+    for (int lineIndex = 0; lineIndex < Math.max(pOldAnnotations.getLineCount(), pNewAnnotations.getLineCount()); lineIndex++)
     {
-      _drawString(pImageGraphics, pLines, pLineNumberPositions, fontHeight, lineIndex);
+      String oldLine = pOldAnnotations.getLine(lineIndex);
+      String newLine = pNewAnnotations.getLine(lineIndex);
+      if (Objects.equals(oldLine, newLine) && (oldLine == null || pOldAnnotations.getY(lineIndex) == pNewAnnotations.getY(lineIndex)))
+        continue;
+      for (_Annotations changedAnnotations : List.of(pOldAnnotations, pNewAnnotations))
+      {
+        if (changedAnnotations.getLine(lineIndex) != null)
+        {
+          int lineY = changedAnnotations.getY(lineIndex);
+          if (lineY <= areaEnd && lineY + lineHeight >= areaStart)
+          {
+            areaStart = Math.min(areaStart, lineY);
+            areaEnd = Math.max(areaEnd, lineY + lineHeight);
+          }
+          else
+          {
+            gutterRenderer.invalidate(areaStart, areaEnd);
+            areaStart = lineY;
+            areaEnd = lineY + lineHeight;
+          }
+        }
+      }
     }
+    gutterRenderer.invalidate(areaStart, areaEnd);
   }
 
-  private void _drawString(Graphics pImageGraphics, List<String> pLines, LineNumber[] pLineNumberPositions, int pFontHeight, int pFinalLineIndex)
+  /**
+   * draws the annotations of the lines that lie in the given area
+   *
+   * @param pGraphics Graphics to paint with, in the coordinates of the editor
+   * @param pStartY   top of the area
+   * @param pEndY     bottom of the area, exclusive
+   */
+  private void _paintArea(Graphics2D pGraphics, int pStartY, int pEndY)
   {
-    if (pFinalLineIndex < pLineNumberPositions.length)
+    _Annotations currentAnnotations = annotations;
+    if (currentAnnotations == null)
+      return;
+    pGraphics.setFont(currentAnnotations.font);
+    pGraphics.setColor(currentAnnotations.color);
+    int fontHeight = pGraphics.getFontMetrics().getAscent();
+    pGraphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    // the annotation of the line before the area may reach into the area
+    for (int lineIndex = Math.max(0, TextPaneUtil.getFirstLineIndex(currentAnnotations.lineNumberPositions, pStartY) - 1);
+         currentAnnotations.getLine(lineIndex) != null && currentAnnotations.getY(lineIndex) < pEndY; lineIndex++)
     {
-      Rectangle changeRectangle = new Rectangle();
-      changeRectangle.setSize(FREE_SPACE / 2, target.getFontMetrics(target.getFont()).getHeight());
-      int x = pLineNumberPositions[pFinalLineIndex].getXCoordinate();
-      int y = pLineNumberPositions[pFinalLineIndex].getYCoordinate() + pFontHeight +
-          Math.round((target.getFontMetrics(target.getFont()).getHeight() - getFontMetrics(nbFont).getHeight()) / 2f);
-      pImageGraphics.drawString(pLines.get(pFinalLineIndex), x, y);
+      _drawString(pGraphics, currentAnnotations, fontHeight, lineIndex);
     }
   }
 
+  private void _drawString(Graphics pGraphics, _Annotations pAnnotations, int pFontHeight, int pLineIndex)
+  {
+    int x = pAnnotations.lineNumberPositions[pLineIndex].getXCoordinate();
+    int y = pAnnotations.getY(pLineIndex) + pFontHeight +
+        Math.round((target.getFontMetrics(target.getFont()).getHeight() - getFontMetrics(pAnnotations.font).getHeight()) / 2f);
+    pGraphics.drawString(pAnnotations.getLine(pLineIndex), x, y);
+  }
+
   /**
    * Calculate the list of Strings to print in each line as annotations
    *
@@ -308,6 +363,12 @@ public class Annotator extends JPanel implements IDiscardable
     List<String> list = new ArrayList<>();
     for (int i = 0; i < pBlame.getLineCount(); i++)
     {
+      // the blame of this line is not computed yet
+      if (!pBlame.isComputed(i))
+      {
+        list.add("");
+        continue;
+      }
       String timeString = dateFormat.format(pBlame.getTimeStamp(i));
       String sourceAuthor = pBlame.getSourceAuthor(i);
       //if the pLine is not committed the author should be blank
@@ -448,4 +509,50 @@ public class Annotator extends JPanel implements IDiscardable
       nbFont = lineFont;
     }
   }
+
+  /**
+   * The annotation of each line together with the positions of the lines and the font and color used to draw them
+   */
+  private static class _Annotations
+  {
+    private final List<String> lines;
+    private final LineNumber[] lineNumberPositions;
+    private final Font font;
+    private final Color color;
+
+    _Annotations(List<String> pLines, LineNumber[] pLineNumberPositions, Font pFont, Color pColor)
+    {
+      lines = pLines;
+      lineNumberPositions = pLineNumberPositions;
+      font = pFont;
+      color = pColor;
+    }
+
+    /**
+     * @return number of lines that have an annotation and a position
+     */
+    int getLineCount()
+    {
+      return Math.min(lines.size(), lineNumberPositions.length);
+    }
+
+    /**
+     * @param pLineIndex index of the line
+     * @return annotation of the line, null if the line has no annotation or position
+     */
+    @Nullable
+    String getLine(int pLineIndex)
+    {
+      return pLineIndex < getLineCount() ? lines.get(pLineIndex) : null;
+    }
+
+    /**
+     * @param pLineIndex index of the line, has to be smaller than getLineCount
+     * @return y coordinate of the line
+     */
+    int getY(int pLineIndex)
+    {
+      return lineNumberPositions[pLineIndex].getYCoordinate();
+    }
+  }
 }
@@ -9,6 +9,7 @@ import de.adito.git.api.data.diff.IChangeDelta;
 import de.adito.git.gui.rxjava.ViewPortSizeObservable;
 import de.adito.git.gui.swing.LineNumber;
 import de.adito.git.gui.swing.TextPaneUtil;
+import de.adito.git.gui.swing.TiledGutterRenderer;
 import de.adito.git.impl.observables.DocumentChangeObservable;
 import de.adito.git.nbm.IGitConstants;
 import de.adito.git.nbm.actions.ShowAnnotationNBAction;
@@ -27,12 +28,10 @@ import javax.swing.text.JTextComponent;
 import javax.swing.text.Position;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.image.BufferedImage;
 import java.beans.PropertyChangeEvent;
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 import static de.adito.git.gui.Constants.ARROW_RIGHT;
@@ -53,7 +52,7 @@ class EditorColorizer extends JPanel implements IDiscardable
   private final ImageIcon rightArrow = new NBIconLoader().getIcon(ARROW_RIGHT);
   private List<_ChangeHolder> changeList = new ArrayList<>();
   private Observable<List<_ChangeHolder>> rectanglesObs;
-  private BufferedImage cachedImage;
+  private final TiledGutterRenderer gutterRenderer = new TiledGutterRenderer(this::_paintArea);
   private _ChunkPopupMouseListener chunkPopupMouseListener;
   private Observable<EChangeType> changeTypeObservable;
 
@@ -138,36 +137,77 @@ class EditorColorizer extends JPanel implements IDiscardable
         .map(chunkList -> _calculateRectangles(targetEditor, chunkList));
 
     disposable.add(rectanglesObs
-                       .subscribe(pChangeList -> {
+                       .subscribe(pChangeList -> SwingUtilities.invokeLater(() -> {
+                         _invalidateChangedAreas(changeList, pChangeList);
                          changeList = pChangeList;
-                         cachedImage = _createBufferedImage(changeList, targetEditor.getHeight());
                          repaint();
-                       }));
+                       })));
   }
 
   /**
-   * @param pChangeList List of _ChangeHolders that should be drawn in the bufferedImage
-   * @param pHeight     height of the targetPanel and thus the height of the bufferedImage
-   * @return BufferedImage containing all the _ChangeHolders, background trasnparent
+   * invalidates the areas of all changes that were removed, added or moved
+   *
+   * @param pOldChangeList _ChangeHolders that are currently shown
+   * @param pNewChangeList _ChangeHolders that will be shown
+   */
+  private void _invalidateChangedAreas(@NotNull List<_ChangeHolder> pOldChangeList, @NotNull List<_ChangeHolder> pNewChangeList)
+  {
+    Map<Rectangle, Color> oldAreas = new HashMap<>();
+    for (_ChangeHolder change : pOldChangeList)
+    {
+      oldAreas.put(_getPaintedArea(change), change.color);
+    }
+    for (_ChangeHolder change : pNewChangeList)
+    {
+      Rectangle paintedArea = _getPaintedArea(change);
+      if (!change.color.equals(oldAreas.remove(paintedArea)))
+        gutterRenderer.invalidate(paintedArea.y, paintedArea.y + paintedArea.height);
+    }
+    for (Rectangle removedArea : oldAreas.keySet())
+    {
+      gutterRenderer.invalidate(removedArea.y, removedArea.y + removedArea.height);
+    }
+  }
+
+  /**
+   * @param pChange _ChangeHolder to be drawn
+   * @return area that is painted for the change, deleted lines are marked by an arrow instead of the rectangle of the change
    */
   @NotNull
-  private BufferedImage _createBufferedImage(@NotNull List<_ChangeHolder> pChangeList, int pHeight)
+  private static Rectangle _getPaintedArea(@NotNull _ChangeHolder pChange)
   {
-    BufferedImage image = new BufferedImage(COLORIZER_WIDTH, Math.max(1, pHeight), BufferedImage.TYPE_INT_ARGB);
-    Graphics2D g = (Graphics2D) image.getGraphics();
-    pChangeList.forEach(change -> {
-      if (change.changeChunk.getChangeType() == EChangeType.DELETE)
-      {
-        int y = change.rectangle.y;
-        g.drawImage(rightArrow.getImage(), 0, y, COLORIZER_WIDTH, y + COLORIZER_WIDTH, 0, 0, rightArrow.getIconWidth(), rightArrow.getIconHeight(), null);
-      }
-      else
+    if (pChange.changeChunk.getChangeType() == EChangeType.DELETE)
+      return new Rectangle(0, pChange.rectangle.y, COLORIZER_WIDTH, COLORIZER_WIDTH);
+    return pChange.rectangle;
+  }
+
+  /**
+   * paints the changes that lie in the given area of the panel, background transparent
+   *
+   * @param pGraphics Graphics to paint with, in the coordinates of the editor
+   * @param pStartY   top of the area
+   * @param pEndY     bottom of the area, exclusive
+   */
+  private void _paintArea(@NotNull Graphics2D pGraphics, int pStartY, int pEndY)
+  {
+    for (_ChangeHolder change : changeList)
+    {
+      Rectangle paintedArea = _getPaintedArea(change);
+      if (paintedArea.y < pEndY && paintedArea.y + paintedArea.height > pStartY)
       {
-        g.setColor(change.color);
-        g.fill(change.rectangle);
+        if (change.changeChunk.getChangeType() == EChangeType.DELETE)
+        {
+          int y = change.rectangle.y;
+          pGraphics.drawImage(rightArrow.getImage(), 0, y, COLORIZER_WIDTH, y + COLORIZER_WIDTH, 0, 0, rightArrow.getIconWidth(), rightArrow.getIconHeight(),
+                              null);
+        }
+        else
+        {
+          pGraphics.setColor(change.color);
+          pGraphics.fill(change.rectangle);
+        }
       }
-    });
-    return image;
+    }
   }
 
   /**
@@ -276,20 +316,9 @@ class EditorColorizer extends JPanel implements IDiscardable
   protected void paintComponent(Graphics pG)
   {
     super.paintComponent(pG);
-    if (cachedImage != null)
-      _drawImage(pG, cachedImage);
-  }
-
-  /**
-   * @param pG             Graphics object used to draw the image
-   * @param pBufferedImage the bufferedImage to draw
-   */
-  private void _drawImage(Graphics pG, BufferedImage pBufferedImage)
-  {
-    int yCoordinate = editorViewPort.getViewRect().y;
-    int yCoordinate2 = yCoordinate + targetEditor.getHeight();
-    pG.drawImage(pBufferedImage, 0, yCoordinate, COLORIZER_WIDTH, yCoordinate2,
-                 0, yCoordinate, COLORIZER_WIDTH, yCoordinate2, null);
+    // the panel is as high as the editor, so only the part in the viewPort of the editor is painted
+    Rectangle viewRect = editorViewPort.getViewRect();
+    gutterRenderer.paint(pG, COLORIZER_WIDTH, viewRect.y, viewRect.height, 0, viewRect.y);
   }
 
   @Override
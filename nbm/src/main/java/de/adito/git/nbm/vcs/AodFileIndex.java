@@ -0,0 +1,198 @@
+package de.adito.git.nbm.vcs;
+
+import de.adito.git.api.IDiscardable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openide.filesystems.*;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Index that maps directories to the nearest aod file, which is the aod file in the directory itself or in its closest parent directory within the same
+ * root directory. Only directories inside the root directories of the open repositories are indexed. Each directory is only listed once, after that the
+ * index is kept up to date by the events of the filesystem, which only invalidate the entries at or below the affected directory
+ *
+ * @author agent, 18.10.2026
+ */
+class AodFileIndex implements IDiscardable
+{
+
+  private static final String AOD_EXTENSION = ".aod";
+  // aod file contained directly in the directory, empty if the directory contains no aod file
+  private final NavigableMap<File, Optional<File>> aodFileInDirectory = new TreeMap<>();
+  // aod file in the directory or its closest parent, empty if there is none
+  private final NavigableMap<File, Optional<File>> nearestAodFile = new TreeMap<>();
+  private final Set<File> roots = new HashSet<>();
+  private final FileChangeListener fileChangeListener = new _AodFileChangeListener();
+
+  AodFileIndex()
+  {
+    FileUtil.addFileChangeListener(fileChangeListener);
+  }
+
+  /**
+   * sets the directories that are indexed, the entries of all other directories are removed
+   *
+   * @param pRoots top level directories of the open repositories
+   */
+  synchronized void setRoots(@NotNull Collection<File> pRoots)
+  {
+    roots.clear();
+    roots.addAll(pRoots);
+    aodFileInDirectory.keySet().removeIf(pDirectory -> _getRoot(pDirectory) == null);
+    nearestAodFile.keySet().removeIf(pDirectory -> _getRoot(pDirectory) == null);
+  }
+
+  /**
+   * @param pFile file that is not an aod file
+   * @return the aod file that is contained in the closest possible parent folder of the file, or null if none can be found or the file is not inside
+   * one of the root directories
+   */
+  @Nullable
+  synchronized File getAodFile(@NotNull File pFile)
+  {
+    File directory = pFile.getParentFile();
+    File root = _getRoot(pFile);
+    if (directory == null || root == null || pFile.equals(root))
+      return null;
+    return _getNearestAodFile(directory, root).orElse(null);
+  }
+
+  @Override
+  public void discard()
+  {
+    FileUtil.removeFileChangeListener(fileChangeListener);
+  }
+
+  @NotNull
+  private Optional<File> _getNearestAodFile(@NotNull File pDirectory, @NotNull File pRoot)
+  {
+    Optional<File> nearest = nearestAodFile.get(pDirectory);
+    if (nearest == null)
+    {
+      nearest = _getAodFileInDirectory(pDirectory);
+      // directories that do not exist (anymore) end the search, same as the root directory
+      if (!nearest.isPresent() && !pDirectory.equals(pRoot) && pDirectory.isDirectory())
+        nearest = _getNearestAodFile(pDirectory.getParentFile(), pRoot);
+      nearestAodFile.put(pDirectory, nearest);
+    }
+    return nearest;
+  }
+
+  @NotNull
+  private Optional<File> _getAodFileInDirectory(@NotNull File pDirectory)
+  {
+    Optional<File> aodFile = aodFileInDirectory.get(pDirectory);
+    if (aodFile == null)
+    {
+      File[] filesInDir = pDirectory.listFiles();
+      // do not remember directories that do not exist, they may be created later on
+      if (filesInDir == null)
+        return Optional.empty();
+      aodFile = Arrays.stream(filesInDir)
+          .filter(pFile -> _isAodFile(pFile.getName()))
+          .findFirst();
+      aodFileInDirectory.put(pDirectory, aodFile);
+    }
+    return aodFile;
+  }
+
+  /**
+   * invalidates the entries affected by the creation or deletion of a file
+   *
+   * @param pFile     the file that was created or deleted
+   * @param pFileName name of the file, may differ from the name of pFile if the file was renamed
+   * @param pIsFolder true if the file is a folder
+   */
+  private synchronized void _fileChanged(@NotNull File pFile, @NotNull String pFileName, boolean pIsFolder)
+  {
+    if (_getRoot(pFile) == null)
+      return;
+    if (pIsFolder)
+    {
+      // the folder and its sub folders may have been removed or moved, so the aod files known for them are of no use anymore
+      _removeAtOrBelow(aodFileInDirectory, pFile);
+      _removeAtOrBelow(nearestAodFile, pFile);
+    }
+    else if (_isAodFile(pFileName))
+    {
+      aodFileInDirectory.remove(pFile.getParentFile());
+      // the aod file may be the nearest aod file for any of the sub folders of its folder
+      _removeAtOrBelow(nearestAodFile, pFile.getParentFile());
+    }
+  }
+
+  /**
+   * @param pFile file or directory
+   * @return the root directory that contains the file or is the file itself, null if the file is not inside any of the root directories
+   */
+  @Nullable
+  private File _getRoot(@NotNull File pFile)
+  {
+    for (File root : roots)
+    {
+      if (pFile.toPath().startsWith(root.toPath()))
+        return root;
+    }
+    return null;
+  }
+
+  /**
+   * removes the entries of the directory and all its sub directories from the map
+   *
+   * @param pMap       map whose keys are directories
+   * @param pDirectory directory whose entries should be removed
+   */
+  private static void _removeAtOrBelow(@NotNull NavigableMap<File, ?> pMap, @NotNull File pDirectory)
+  {
+    // all sub directories start with the path followed by the separator, so they are sorted between the directory and this key. Siblings whose name starts
+    // with the name of the directory followed by a character that is sorted before the separator are in the same range, so they are filtered out
+    File upperBound = new File(pDirectory.getPath() + (char) (File.separatorChar + 1));
+    pMap.subMap(pDirectory, true, upperBound, false).keySet().removeIf(pKey -> pKey.toPath().startsWith(pDirectory.toPath()));
+  }
+
+  private static boolean _isAodFile(@NotNull String pFileName)
+  {
+    return pFileName.endsWith(AOD_EXTENSION);
+  }
+
+  /**
+   * Listener that passes the creation, deletion and renaming of files to the index
+   */
+  private class _AodFileChangeListener extends FileChangeAdapter
+  {
+    @Override
+    public void fileFolderCreated(FileEvent pEvent)
+    {
+      _notifyIndex(pEvent, pEvent.getFile().getNameExt());
+    }
+
+    @Override
+    public void fileDataCreated(FileEvent pEvent)
+    {
+      _notifyIndex(pEvent, pEvent.getFile().getNameExt());
+    }
+
+    @Override
+    public void fileDeleted(FileEvent pEvent)
+    {
+      _notifyIndex(pEvent, pEvent.getFile().getNameExt());
+    }
+
+    @Override
+    public void fileRenamed(FileRenameEvent pEvent)
+    {
+      _notifyIndex(pEvent, pEvent.getFile().getNameExt());
+      String oldName = pEvent.getExt().isEmpty() ? pEvent.getName() : pEvent.getName() + "." + pEvent.getExt();
+      _notifyIndex(pEvent, oldName);
+    }
+
+    private void _notifyIndex(@NotNull FileEvent pEvent, @NotNull String pFileName)
+    {
+      File file = FileUtil.toFile(pEvent.getFile());
+      if (file != null)
+        _fileChanged(new File(file.getParentFile(), pFileName), pFileName, pEvent.getFile().isFolder());
+    }
+  }
+}
@@ -4,13 +4,14 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import de.adito.git.api.IDiscardable;
 import de.adito.git.api.IRepository;
-import de.adito.git.api.data.IFileStatus;
+import de.adito.git.api.data.StatusDelta;
 import de.adito.git.api.data.diff.EChangeType;
+import de.adito.git.api.data.diff.IFileChangeType;
 import de.adito.git.api.prefs.IPrefStore;
 import de.adito.git.gui.Constants;
 import de.adito.git.impl.util.GitRawTextComparator;
 import de.adito.git.nbm.repo.RepositoryCache;
-import de.adito.util.reactive.ObservableCollectors;
+import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.disposables.Disposable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -22,8 +23,10 @@ import org.openide.util.NbPreferences;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * @author a.arnold, 30.10.2018
@@ -34,7 +37,11 @@ public class GitVersioningSystemImpl extends VersioningSystem implements IDiscar
 {
 
   private final Map<File, EChangeType> changedFiles = new HashMap<>();
+  // files with uncommitted changes as reported by the repositories, changedFiles additionally contains the aod files of these files
+  private final Map<File, EChangeType> uncommittedFiles = new HashMap<>();
+  private final Map<IRepository, Set<File>> uncommittedFilesByRepository = new HashMap<>();
   private final Multimap<File, File> aodFileMappings = ArrayListMultimap.create();
+  private final AodFileIndex aodFileIndex = new AodFileIndex();
   private final Disposable annotationsDisposable;
   private VCSAnnotator annotator;
 
@@ -46,12 +53,14 @@ public class GitVersioningSystemImpl extends VersioningSystem implements IDiscar
 
     GitRawTextComparator.setCurrent(NbPreferences.forModule(IPrefStore.class).get(Constants.RAW_TEXT_COMPARATOR_SETTINGS_KEY, null));
 
+    // only the files whose status changed are passed on by the repositories, so the work done here does not depend on the number of uncommitted files
     annotationsDisposable = RepositoryCache.getInstance().repositories()
-        .switchMap(pRepoList -> pRepoList.stream()
-            .map(IRepository::getStatus)
-            .collect(ObservableCollectors.combineOptionalsToList()))
-        .subscribe(pFileStatusList -> {
-          Set<File> statusChanges = _diffWithCurrentStatus(pFileStatusList);
+        .doOnNext(this::_retainRepositories)
+        .switchMap(pRepoList -> Observable.merge(pRepoList.stream()
+                                                     .map(GitVersioningSystemImpl::_observeStatusDeltas)
+                                                     .collect(Collectors.toList())))
+        .subscribe(pRepositoryDelta -> {
+          Set<File> statusChanges = _applyStatusDelta(pRepositoryDelta);
 
           if (!statusChanges.isEmpty())
             fireAnnotationsChanged(statusChanges);
@@ -80,6 +89,7 @@ public class GitVersioningSystemImpl extends VersioningSystem implements IDiscar
   {
     if (!annotationsDisposable.isDisposed())
       annotationsDisposable.dispose();
+    aodFileIndex.discard();
   }
 
   /**
@@ -97,72 +107,135 @@ public class GitVersioningSystemImpl extends VersioningSystem implements IDiscar
     }
   }
 
-  private Set<File> _diffWithCurrentStatus(@NotNull List<IFileStatus> pFileStatusList)
+  /**
+   * @param pRepository repository whose status deltas should be observed
+   * @return Observable of the status deltas of the repository, marks the first delta of the subscription
+   */
+  @NotNull
+  private static Observable<_RepositoryStatusDelta> _observeStatusDeltas(@NotNull IRepository pRepository)
+  {
+    return Observable.defer(() -> {
+      AtomicBoolean isFirst = new AtomicBoolean(true);
+      return pRepository.getStatusDeltas().map(pDelta -> new _RepositoryStatusDelta(pRepository, pDelta, isFirst.getAndSet(false)));
+    });
+  }
+
+  /**
+   * removes the files of all repositories that are no longer open from the changed files, and starts tracking the files of newly opened repositories
+   *
+   * @param pRepositories List of the currently open repositories
+   */
+  private void _retainRepositories(@NotNull List<IRepository> pRepositories)
   {
     Set<File> statusChangedFiles = new HashSet<>();
-    // gather all currently changed files and their EChangeType
-    Map<File, EChangeType> currentChangedFiles = new HashMap<>();
-    for (IFileStatus fileStatus : pFileStatusList)
+    synchronized (changedFiles)
     {
-      fileStatus.getUncommitted().forEach(pFileChangeType -> currentChangedFiles.put(pFileChangeType.getFile(), pFileChangeType.getChangeType()));
+      Iterator<Map.Entry<IRepository, Set<File>>> iterator = uncommittedFilesByRepository.entrySet().iterator();
+      while (iterator.hasNext())
+      {
+        Map.Entry<IRepository, Set<File>> repositoryFiles = iterator.next();
+        if (!pRepositories.contains(repositoryFiles.getKey()))
+        {
+          for (File file : repositoryFiles.getValue())
+          {
+            uncommittedFiles.remove(file);
+            _removeChangedFile(statusChangedFiles, file);
+          }
+          iterator.remove();
+        }
+      }
+      pRepositories.forEach(pRepository -> uncommittedFilesByRepository.putIfAbsent(pRepository, new HashSet<>()));
+      // only after the files of the closed repositories were removed, since their aod files are looked up in the index
+      aodFileIndex.setRoots(pRepositories.stream()
+                                .map(IRepository::getTopLevelDirectory)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList()));
     }
+    if (!statusChangedFiles.isEmpty())
+      fireAnnotationsChanged(statusChangedFiles);
+  }
 
-    synchronized (this.changedFiles)
+  /**
+   * applies the delta of one repository to the changed files
+   *
+   * @param pRepositoryDelta delta of the status of a repository
+   * @return Set of files that did change their status
+   */
+  @NotNull
+  private Set<File> _applyStatusDelta(@NotNull _RepositoryStatusDelta pRepositoryDelta)
+  {
+    Set<File> statusChangedFiles = new HashSet<>();
+    StatusDelta delta = pRepositoryDelta.delta;
+    synchronized (changedFiles)
     {
-      // Remove old change-entries
-      _removeOldEntries(statusChangedFiles, currentChangedFiles);
-
-      // add new/changed entries
-      _addChangedFiles(statusChangedFiles, currentChangedFiles);
+      Set<File> repositoryFiles = uncommittedFilesByRepository.get(pRepositoryDelta.repository);
+      // repository was closed in the meantime
+      if (repositoryFiles == null)
+        return statusChangedFiles;
+      List<File> removedFiles = new ArrayList<>(delta.getRemoved());
+      if (pRepositoryDelta.isFirst)
+      {
+        // the first delta contains all uncommitted files of the repository as added files, any other known file of the repository is no longer changed
+        Set<File> currentFiles = delta.getAdded().stream().map(IFileChangeType::getFile).collect(Collectors.toSet());
+        repositoryFiles.stream()
+            .filter(pFile -> !currentFiles.contains(pFile))
+            .forEach(removedFiles::add);
+      }
+      for (File removedFile : removedFiles)
+      {
+        repositoryFiles.remove(removedFile);
+        uncommittedFiles.remove(removedFile);
+        _removeChangedFile(statusChangedFiles, removedFile);
+      }
+      for (List<IFileChangeType> changeTypes : List.of(delta.getAdded(), delta.getChanged()))
+      {
+        for (IFileChangeType changeType : changeTypes)
+        {
+          repositoryFiles.add(changeType.getFile());
+          uncommittedFiles.put(changeType.getFile(), changeType.getChangeType());
+          _addChangedFile(statusChangedFiles, changeType.getFile(), changeType.getChangeType());
+        }
+      }
     }
     return statusChangedFiles;
   }
 
   /**
-   * Removes all entries that no longer fit from the changedFiles map
+   * Removes a file that no longer has uncommitted changes from the changedFiles map
    *
    * @param pStatusChangedFiles Set of files that did change their status since the last call, will be filled by this method
-   * @param pChangedFiles       Map of Files and their ChangeType, this represents the status as it is now as reported by JGit
+   * @param pFile               file that no longer has uncommitted changes
    */
-  private void _removeOldEntries(Set<File> pStatusChangedFiles, Map<File, EChangeType> pChangedFiles)
+  private void _removeChangedFile(@NotNull Set<File> pStatusChangedFiles, @NotNull File pFile)
   {
-    List<File> filesToRemove = new ArrayList<>();
-    for (Map.Entry<File, EChangeType> changeTypeEntry : changedFiles.entrySet())
+    // if the file is a key of the aodFileMappings, it itself is not changed but another file that has the aod as reference is changed, so it has to stay
+    if (changedFiles.containsKey(pFile) && !aodFileMappings.containsKey(pFile))
     {
-      // if the file is not in the changed files AND is not a key of the aodFileMappings (that would means it itself is not changed, but another file that has
-      // the aod as reference is changed and that's why the file is in the changes files)
-      if (!pChangedFiles.containsKey(changeTypeEntry.getKey()) && !aodFileMappings.containsKey(changeTypeEntry.getKey()))
+      pStatusChangedFiles.add(pFile);
+      changedFiles.remove(pFile);
+      // if the file is not an aod file, find out its corresponding aod file
+      if (!pFile.getName().endsWith(".aod"))
       {
-        pStatusChangedFiles.add(changeTypeEntry.getKey());
-        filesToRemove.add(changeTypeEntry.getKey());
-        // if the file is not an aod file, find out its corresponding aod file
-        if (!changeTypeEntry.getKey().getName().endsWith(".aod"))
-        {
-          _removeCorrespondingAOD(pStatusChangedFiles, pChangedFiles, filesToRemove, changeTypeEntry);
-        }
+        _removeCorrespondingAOD(pStatusChangedFiles, pFile);
       }
     }
-    filesToRemove.forEach(changedFiles::remove);
   }
 
   /**
    * removes the correspoding aod file for a given file from the list of changed files (if the aod file itself is not changed, or is not still referenced by another file)
    *
    * @param pStatusChangedFiles Set of files that did change their status since the last call, will be filled by this method
-   * @param pChangedFiles       Map of Files and their ChangeType, this represents the status as it is now as reported by JGit
-   * @param pFilesToRemove      List of files that should be removed from the central list of changed files, an entry may be added by this method
-   * @param changeTypeEntry     Entry that was removed from the list of files that changed their status and for which the corresponding aod file should be found/removed
+   * @param pFile               File that was removed from the list of files that changed their status and for which the corresponding aod file should be found/removed
    */
-  private void _removeCorrespondingAOD(@NotNull Set<File> pStatusChangedFiles, @NotNull Map<File, EChangeType> pChangedFiles, @NotNull List<File> pFilesToRemove,
-                                       @NotNull Map.Entry<File, EChangeType> changeTypeEntry)
+  private void _removeCorrespondingAOD(@NotNull Set<File> pStatusChangedFiles, @NotNull File pFile)
   {
-    File aodFile = _getAODFile(changeTypeEntry.getKey(), null);
+    File aodFile = aodFileIndex.getAodFile(pFile);
     if (aodFile != null)
     {
       // if the aod file is not itself a changed file and no other file references the aod file, remove the aod file from the changed files
-      if (aodFileMappings.get(aodFile).size() == 1 && !pChangedFiles.containsKey(aodFile))
+      if (aodFileMappings.get(aodFile).size() == 1 && !uncommittedFiles.containsKey(aodFile))
       {
-        pFilesToRemove.add(aodFile);
+        changedFiles.remove(aodFile);
         // aod File removed from changed files -> it switched status
         pStatusChangedFiles.add(aodFile);
         // remove aodFile from the aodFileMappings
@@ -171,31 +244,29 @@ public class GitVersioningSystemImpl extends VersioningSystem implements IDiscar
       else
       {
         // remove reference from the one file to the aod file from the aodFileMappings
-        aodFileMappings.remove(aodFile, changeTypeEntry.getKey());
+        aodFileMappings.remove(aodFile, pFile);
       }
     }
   }
 
   /**
-   * adds all new or changed files to the changedFiles map
+   * adds a new or changed file to the changedFiles map
    *
    * @param pStatusChangedFiles Set of files that did change their status since the last call, will be filled by this method
-   * @param pChangedFiles       Map of Files and their ChangeType, this represents the status as it is now as reported by JGit
+   * @param pFile               file that has uncommitted changes
+   * @param pChangeType         type of the uncommitted changes of the file
    */
-  private void _addChangedFiles(Set<File> pStatusChangedFiles, Map<File, EChangeType> pChangedFiles)
+  private void _addChangedFile(@NotNull Set<File> pStatusChangedFiles, @NotNull File pFile, @NotNull EChangeType pChangeType)
   {
-    for (Map.Entry<File, EChangeType> changedFileEntry : pChangedFiles.entrySet())
+    // if the file is not yet in the changed files or the file is in the changed files with another changetype
+    if (changedFiles.get(pFile) != pChangeType)
     {
-      // if the file is not yet in the changed files or the file is in the changed files with another changetype
-      if (!changedFiles.containsKey(changedFileEntry.getKey()) || !changedFiles.get(changedFileEntry.getKey()).equals(changedFileEntry.getValue()))
+      pStatusChangedFiles.add(pFile);
+      changedFiles.put(pFile, pChangeType);
+      // if the changed file is not an aod file find the corresponding aod file
+      if (!pFile.getName().endsWith(".aod"))
       {
-        pStatusChangedFiles.add(changedFileEntry.getKey());
-        changedFiles.put(changedFileEntry.getKey(), changedFileEntry.getValue());
-        // if the changed file is not an aod file find the corresponding aod file
-        if (!changedFileEntry.getKey().getName().endsWith(".aod"))
-        {
-          _addCorrespondingAOD(pStatusChangedFiles, changedFileEntry);
-        }
+        _addCorrespondingAOD(pStatusChangedFiles, pFile, pChangeType);
       }
     }
   }
@@ -204,11 +275,12 @@ public class GitVersioningSystemImpl extends VersioningSystem implements IDiscar
    * Adds the corresponding aod file for the given file to the changed files
    *
    * @param pStatusChangedFiles Set of files that did change their status since the last call, will be filled by this method
-   * @param changedFileEntry    Entry that was added to the list of files that changed their status and for which the corresponding aod file should be found/added
+   * @param pFile               File that was added to the list of files that changed their status and for which the corresponding aod file should be found/added
+   * @param pChangeType         type of the uncommitted changes of the file
    */
-  private void _addCorrespondingAOD(@NotNull Set<File> pStatusChangedFiles, @NotNull Map.Entry<File, EChangeType> changedFileEntry)
+  private void _addCorrespondingAOD(@NotNull Set<File> pStatusChangedFiles, @NotNull File pFile, @NotNull EChangeType pChangeType)
   {
-    File aodFile = _getAODFile(changedFileEntry.getKey(), null);
+    File aodFile = aodFileIndex.getAodFile(pFile);
     // if the aodFileMappings does not yet know of that aod file, add it to the changed files and add a mapping from the changed file to the aod into the
     // aodMappingMap
     if (aodFile != null)
@@ -217,36 +289,28 @@ public class GitVersioningSystemImpl extends VersioningSystem implements IDiscar
       if (!aodFileMappings.containsKey(aodFile))
       {
         pStatusChangedFiles.add(aodFile);
-        changedFiles.put(aodFile, changedFileEntry.getValue());
+        changedFiles.put(aodFile, pChangeType);
       }
-      // save the reference of the changedFileEntry to the aodFile in the aodFileMappings (so the aod doesnt get removed prematurely)
-      aodFileMappings.put(aodFile, changedFileEntry.getKey());
+      // save the reference of the file to the aodFile in the aodFileMappings (so the aod doesnt get removed prematurely)
+      if (!aodFileMappings.containsEntry(aodFile, pFile))
+        aodFileMappings.put(aodFile, pFile);
     }
   }
 
   /**
-   * @param pChangedFile   file that changed and is not an aod file
-   * @param pProjectFolder top-level folder of the project that the git repository is for
-   * @return the aod file that is contained in the closest possible parent folder of the changed file, or null if none can be found
+   * Status delta of a repository, together with the information if it is the first delta since the subscription
    */
-  @Nullable
-  private File _getAODFile(@NotNull File pChangedFile, File pProjectFolder)
+  private static class _RepositoryStatusDelta
   {
-    if (pChangedFile.getParentFile() != null && !pChangedFile.getParentFile().equals(pProjectFolder))
+    private final IRepository repository;
+    private final StatusDelta delta;
+    private final boolean isFirst;
+
+    _RepositoryStatusDelta(@NotNull IRepository pRepository, @NotNull StatusDelta pDelta, boolean pIsFirst)
     {
-      File[] filesInDir = pChangedFile.getParentFile().listFiles();
-      if (filesInDir != null)
-      {
-        // check if any file in this folder is an aod file
-        for (File file : filesInDir)
-        {
-          if (file.getName().endsWith(".aod"))
-            return file;
-        }
-        // no aod file in this folder, go up one folder
-        return _getAODFile(pChangedFile.getParentFile(), pProjectFolder);
-      }
+      repository = pRepository;
+      delta = pDelta;
+      isFirst = pIsFirst;
     }
-    return null;
   }
 }